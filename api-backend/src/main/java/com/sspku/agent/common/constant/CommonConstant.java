@@ -29,6 +29,18 @@ public class CommonConstant {
     /** 聊天角色：AI助手 */
     public static final String CHAT_ROLE_ASSISTANT = "assistant";
     
+    /** 异步运行状态：排队中 */
+    public static final String RUN_STATUS_QUEUED = "queued";
+    
+    /** 异步运行状态：执行中 */
+    public static final String RUN_STATUS_RUNNING = "running";
+    
+    /** 异步运行状态：成功 */
+    public static final String RUN_STATUS_SUCCEEDED = "succeeded";
+    
+    /** 异步运行状态：失败 */
+    public static final String RUN_STATUS_FAILED = "failed";
+    
     /** 默认页码 */
     public static final int DEFAULT_PAGE_NUM = 1;
     
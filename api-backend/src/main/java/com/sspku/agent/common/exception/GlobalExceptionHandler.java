@@ -1,10 +1,14 @@
 package com.sspku.agent.common.exception;
 
 import com.sspku.agent.common.api.ApiResponse;
+import com.sspku.agent.module.plugin.exception.PluginUnavailableException;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.ibatis.exceptions.PersistenceException;
 import org.mybatis.spring.MyBatisSystemException;
 import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.jdbc.CannotGetJdbcConnectionException;
 import org.springframework.validation.BindException;
 import org.springframework.validation.FieldError;
@@ -21,6 +25,22 @@ import java.util.stream.Collectors;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ApiResponse<?>> handleTooManyRequestsException(TooManyRequestsException e) {
+        log.warn("请求过载: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(ApiResponse.fail(e.getCode(), e.getMessage()));
+    }
+
+    @ExceptionHandler(PluginUnavailableException.class)
+    public ResponseEntity<ApiResponse<?>> handlePluginUnavailableException(PluginUnavailableException e) {
+        log.warn("插件暂不可调用: {}", e.getMessage());
+        return ResponseEntity.status(e.getCode())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(ApiResponse.fail(e.getCode(), e.getMessage()));
+    }
+
     @ExceptionHandler(BusinessException.class)
     public ApiResponse<?> handleBusinessException(BusinessException e) {
         log.error("业务异常: {}", e.getMessage());
@@ -0,0 +1,21 @@
+package com.sspku.agent.common.exception;
+
+import com.sspku.agent.common.api.ResultCode;
+import lombok.Getter;
+
+/**
+ * 过载异常：队列已满或并发已达上限，响应 HTTP 429 并携带 Retry-After
+ */
+@Getter
+public class TooManyRequestsException extends BusinessException {
+
+    /**
+     * 建议客户端重试前等待的秒数
+     */
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(ResultCode.TOO_MANY_REQUESTS.getCode(), message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,26 @@
+package com.sspku.agent.common.util;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 线程工厂工具
+ * 按 spring.threads.virtual.enabled 在虚拟线程与平台线程之间切换，线程名统一带业务前缀。
+ */
+public final class ThreadFactories {
+
+    private ThreadFactories() {
+    }
+
+    /**
+     * @param prefix  线程名前缀，如 "agent-run-"
+     * @param virtual 是否创建虚拟线程
+     */
+    public static ThreadFactory named(String prefix, boolean virtual) {
+        if (virtual) {
+            return Thread.ofVirtual().name(prefix, 0).factory();
+        }
+        return new NamedThreadFactory(prefix, false);
+    }
+}
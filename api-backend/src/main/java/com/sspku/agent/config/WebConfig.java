@@ -1,5 +1,6 @@
 package com.sspku.agent.config;
 
+import com.sspku.agent.module.plugin.http.PluginHttpClientManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestTemplate;
@@ -12,9 +13,12 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    /**
+     * 基于连接池的默认 RestTemplate（keep-alive、超时与 gzip 见 agent.plugin-http.*）
+     */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(PluginHttpClientManager pluginHttpClientManager) {
+        return pluginHttpClientManager.getDefaultRestTemplate();
     }
 
     @Override
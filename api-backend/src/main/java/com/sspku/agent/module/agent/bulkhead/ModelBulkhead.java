@@ -0,0 +1,108 @@
+package com.sspku.agent.module.agent.bulkhead;
+
+import com.sspku.agent.module.agent.vo.ModelBulkheadStatsVO;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个模型的并发舱壁
+ * 最多 maxConcurrent 个调用同时进行，另有最多 maxWaiting 个调用排队等待 waitTimeoutMs，
+ * 超出部分立即失败，使慢模型只拖慢自己的智能体。
+ * 异步运行、会话摘要等后台调用通过 {@link #acquire(long)} 排队，不占用交互请求的等待名额。
+ */
+public class ModelBulkhead {
+
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxWaiting;
+    private final long waitTimeoutMs;
+
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicInteger backgroundWaiting = new AtomicInteger();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    public ModelBulkhead(String name, int maxConcurrent, int maxWaiting, long waitTimeoutMs) {
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaiting = maxWaiting;
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    /**
+     * 尝试获取调用许可，成功后必须调用 {@link #release()}
+     * @return 队列已满或等待超时时返回 false
+     */
+    public boolean tryAcquire() throws InterruptedException {
+        if (permits.tryAcquire()) {
+            accepted.increment();
+            return true;
+        }
+        if (waiting.incrementAndGet() > maxWaiting) {
+            waiting.decrementAndGet();
+            rejected.increment();
+            return false;
+        }
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } finally {
+            waiting.decrementAndGet();
+        }
+        if (acquired) {
+            accepted.increment();
+        } else {
+            timedOut.increment();
+        }
+        return acquired;
+    }
+
+    /**
+     * 后台调用获取许可：不受 maxWaiting 限制，最多等待 timeoutMs；
+     * 许可按公平顺序分配，后台调用不会插队到交互请求之前
+     * @return 等待超时返回 false
+     */
+    public boolean acquire(long timeoutMs) throws InterruptedException {
+        backgroundWaiting.incrementAndGet();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS);
+        } finally {
+            backgroundWaiting.decrementAndGet();
+        }
+        if (acquired) {
+            accepted.increment();
+        } else {
+            timedOut.increment();
+        }
+        return acquired;
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ModelBulkheadStatsVO stats() {
+        return ModelBulkheadStatsVO.builder()
+                .name(name)
+                .maxConcurrent(maxConcurrent)
+                .inFlight(maxConcurrent - permits.availablePermits())
+                .maxWaiting(maxWaiting)
+                .waiting(waiting.get())
+                .backgroundWaiting(backgroundWaiting.get())
+                .accepted(accepted.sum())
+                .rejected(rejected.sum())
+                .timedOut(timedOut.sum())
+                .build();
+    }
+}
@@ -0,0 +1,145 @@
+package com.sspku.agent.module.agent.bulkhead;
+
+import com.sspku.agent.common.exception.BusinessException;
+import com.sspku.agent.common.exception.TooManyRequestsException;
+import com.sspku.agent.module.agent.model.ModelConfig;
+import com.sspku.agent.module.agent.vo.ModelBulkheadStatsVO;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 模型舱壁注册表
+ * 按 provider:model 为每个模型维护独立的 {@link ModelBulkhead}，在 ChatModel 调用前获取许可。
+ */
+@Slf4j
+@Component
+public class ModelBulkheadRegistry {
+
+    private static final String DEFAULT_NAME = "default";
+
+    @Value("${agent.bulkhead.enabled:true}")
+    private boolean enabled;
+
+    @Value("${agent.bulkhead.max-concurrent:20}")
+    private int defaultMaxConcurrent;
+
+    /**
+     * 按模型名覆盖并发上限，格式：qwen-max=4,qwen-turbo=50
+     */
+    @Value("${agent.bulkhead.model-max-concurrent:}")
+    private String modelMaxConcurrent;
+
+    @Value("${agent.bulkhead.max-waiting:20}")
+    private int maxWaiting;
+
+    @Value("${agent.bulkhead.wait-timeout-ms:2000}")
+    private long waitTimeoutMs;
+
+    /**
+     * 后台调用（异步运行、会话摘要）排队等待许可的上限
+     */
+    @Value("${agent.bulkhead.background-wait-timeout-ms:600000}")
+    private long backgroundWaitTimeoutMs;
+
+    @Value("${agent.bulkhead.retry-after-seconds:2}")
+    private long retryAfterSeconds;
+
+    private final Map<String, ModelBulkhead> bulkheads = new ConcurrentHashMap<>();
+    private final Map<String, Integer> overrides = new HashMap<>();
+
+    @PostConstruct
+    public void init() {
+        if (!StringUtils.hasText(modelMaxConcurrent)) {
+            return;
+        }
+        for (String item : modelMaxConcurrent.split(",")) {
+            String[] pair = item.trim().split("=");
+            if (pair.length != 2) {
+                log.warn("忽略无效的舱壁配置: {}", item);
+                continue;
+            }
+            try {
+                overrides.put(pair[0].trim(), Integer.parseInt(pair[1].trim()));
+            } catch (NumberFormatException e) {
+                log.warn("忽略无效的舱壁配置: {}", item);
+            }
+        }
+    }
+
+    /**
+     * 获取模型调用许可，调用结束后必须执行返回值的 release()
+     * @return 未启用舱壁时返回 null
+     * @throws TooManyRequestsException 该模型已饱和
+     */
+    public ModelBulkhead acquire(ModelConfig modelConfig) {
+        if (!enabled) {
+            return null;
+        }
+        ModelBulkhead bulkhead = bulkheads.computeIfAbsent(nameOf(modelConfig), this::create);
+        boolean acquired;
+        try {
+            acquired = bulkhead.tryAcquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("模型调用被中断");
+        }
+        if (!acquired) {
+            throw new TooManyRequestsException("模型 " + bulkhead.getName() + " 繁忙，请稍后重试", retryAfterSeconds);
+        }
+        return bulkhead;
+    }
+
+    /**
+     * 后台调用获取模型调用许可：饱和时排队等待而不是立即失败，调用结束后必须执行返回值的 release()
+     * @return 未启用舱壁时返回 null
+     * @throws TooManyRequestsException 等待超过 background-wait-timeout-ms
+     */
+    public ModelBulkhead acquireWaiting(ModelConfig modelConfig) {
+        if (!enabled) {
+            return null;
+        }
+        ModelBulkhead bulkhead = bulkheads.computeIfAbsent(nameOf(modelConfig), this::create);
+        boolean acquired;
+        try {
+            acquired = bulkhead.acquire(backgroundWaitTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("模型调用被中断");
+        }
+        if (!acquired) {
+            throw new TooManyRequestsException("模型 " + bulkhead.getName() + " 繁忙，等待超时", retryAfterSeconds);
+        }
+        return bulkhead;
+    }
+
+    public List<ModelBulkheadStatsVO> stats() {
+        return bulkheads.values().stream()
+                .map(ModelBulkhead::stats)
+                .sorted(Comparator.comparing(ModelBulkheadStatsVO::getName))
+                .collect(Collectors.toList());
+    }
+
+    private ModelBulkhead create(String name) {
+        String model = name.substring(name.indexOf(':') + 1);
+        int maxConcurrent = overrides.getOrDefault(model, defaultMaxConcurrent);
+        return new ModelBulkhead(name, maxConcurrent, maxWaiting, waitTimeoutMs);
+    }
+
+    private String nameOf(ModelConfig modelConfig) {
+        if (modelConfig == null || !StringUtils.hasText(modelConfig.getModel())) {
+            return DEFAULT_NAME;
+        }
+        String provider = StringUtils.hasText(modelConfig.getProvider()) ? modelConfig.getProvider() : DEFAULT_NAME;
+        return provider + ":" + modelConfig.getModel();
+    }
+}
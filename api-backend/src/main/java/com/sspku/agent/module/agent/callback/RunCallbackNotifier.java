@@ -0,0 +1,161 @@
+package com.sspku.agent.module.agent.callback;
+
+import cn.hutool.crypto.digest.HMac;
+import cn.hutool.crypto.digest.HmacAlgorithm;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sspku.agent.common.api.ApiResponse;
+import com.sspku.agent.common.exception.BusinessException;
+import com.sspku.agent.module.agent.vo.AgentRunVO;
+import com.sspku.agent.module.plugin.http.PluginHttpClientManager;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 异步运行结果回调
+ * 回调地址由调用方提供，提交时与发送前都会校验：仅允许 http/https、域名在允许列表内、
+ * 解析结果不能是本机或内网地址；发送时不跟随重定向。
+ * 请求体以 HMAC-SHA256 签名，接收方按 X-Agent-Timestamp + "." + 请求体 重新计算后比对 X-Agent-Signature。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RunCallbackNotifier {
+
+    public static final String HEADER_TIMESTAMP = "X-Agent-Timestamp";
+    public static final String HEADER_SIGNATURE = "X-Agent-Signature";
+
+    private final PluginHttpClientManager pluginHttpClientManager;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 允许回调的域名，逗号分隔；以 "." 开头表示该域名的所有子域名。为空时不允许回调
+     */
+    @Value("${agent.run.callback-allowed-hosts:}")
+    private String allowedHosts;
+
+    @Value("${agent.run.callback-secret:}")
+    private String secret;
+
+    private Set<String> hosts;
+
+    @PostConstruct
+    public void init() {
+        hosts = StringUtils.commaDelimitedListToSet(allowedHosts).stream()
+                .map(host -> host.trim().toLowerCase(Locale.ROOT))
+                .filter(StringUtils::hasText)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * 校验回调地址，不合法时抛出 BusinessException
+     */
+    public void validate(String callbackUrl) {
+        if (!StringUtils.hasText(secret)) {
+            throw new BusinessException("未配置回调签名密钥，暂不支持回调");
+        }
+        URI uri;
+        try {
+            uri = new URI(callbackUrl);
+        } catch (URISyntaxException e) {
+            throw new BusinessException("回调地址格式错误");
+        }
+        String scheme = uri.getScheme();
+        if (!"http".equalsIgnoreCase(scheme) && !"https".equalsIgnoreCase(scheme)) {
+            throw new BusinessException("回调地址必须为 http/https URL");
+        }
+        if (uri.getUserInfo() != null) {
+            throw new BusinessException("回调地址不能包含用户信息");
+        }
+        String host = uri.getHost();
+        if (!StringUtils.hasText(host)) {
+            throw new BusinessException("回调地址缺少域名");
+        }
+        host = host.toLowerCase(Locale.ROOT);
+        if (host.startsWith("[") && host.endsWith("]")) {
+            host = host.substring(1, host.length() - 1);
+        }
+        if (!isAllowedHost(host)) {
+            throw new BusinessException("回调域名不在允许列表中: " + host);
+        }
+        InetAddress[] addresses;
+        try {
+            addresses = InetAddress.getAllByName(host);
+        } catch (UnknownHostException e) {
+            throw new BusinessException("回调域名无法解析: " + host);
+        }
+        for (InetAddress address : addresses) {
+            if (isInternal(address)) {
+                throw new BusinessException("回调地址不能指向本机或内网地址");
+            }
+        }
+    }
+
+    /**
+     * 发送签名后的运行结果；发送前重新校验地址，防止 DNS 解析结果在提交后被改为内网地址
+     */
+    public void notify(String callbackUrl, AgentRunVO snapshot) {
+        try {
+            validate(callbackUrl);
+            String body = objectMapper.writeValueAsString(ApiResponse.ok(snapshot));
+            String timestamp = String.valueOf(Instant.now().getEpochSecond());
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            headers.set(HEADER_TIMESTAMP, timestamp);
+            headers.set(HEADER_SIGNATURE, "sha256=" + sign(timestamp, body));
+            pluginHttpClientManager.getNoRedirectRestTemplate()
+                    .postForEntity(callbackUrl, new HttpEntity<>(body.getBytes(StandardCharsets.UTF_8), headers),
+                            Void.class);
+        } catch (Exception e) {
+            log.warn("异步运行回调失败: runId={}, url={}, error={}", snapshot.getRunId(), callbackUrl, e.getMessage());
+        }
+    }
+
+    String sign(String timestamp, String body) {
+        return new HMac(HmacAlgorithm.HmacSHA256, secret.getBytes(StandardCharsets.UTF_8))
+                .digestHex(timestamp + "." + body, StandardCharsets.UTF_8);
+    }
+
+    private boolean isAllowedHost(String host) {
+        for (String allowed : hosts) {
+            if (allowed.startsWith(".") ? host.endsWith(allowed) : host.equals(allowed)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 本机、内网、链路本地、组播与运营商级 NAT 地址
+     */
+    static boolean isInternal(InetAddress address) {
+        if (address.isAnyLocalAddress() || address.isLoopbackAddress() || address.isLinkLocalAddress()
+                || address.isSiteLocalAddress() || address.isMulticastAddress()) {
+            return true;
+        }
+        byte[] bytes = address.getAddress();
+        if (bytes.length == 4) {
+            // 0.0.0.0/8 与 100.64.0.0/10
+            return bytes[0] == 0 || (bytes[0] == 100 && (bytes[1] & 0xC0) == 64);
+        }
+        // IPv6 唯一本地地址 fc00::/7
+        return (bytes[0] & 0xFE) == 0xFC;
+    }
+}
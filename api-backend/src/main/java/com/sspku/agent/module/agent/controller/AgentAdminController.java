@@ -0,0 +1,50 @@
+package com.sspku.agent.module.agent.controller;
+
+import com.sspku.agent.common.api.ApiResponse;
+import com.sspku.agent.module.agent.bulkhead.ModelBulkheadRegistry;
+import com.sspku.agent.module.agent.runtime.AgentRuntimeCache;
+import com.sspku.agent.module.agent.vo.ModelBulkheadStatsVO;
+import com.sspku.agent.module.agent.vo.ToolTokenReportVO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * 智能体运行状态管理控制器
+ */
+@RestController
+@RequestMapping("/api/admin/agents")
+@RequiredArgsConstructor
+public class AgentAdminController {
+
+    private final ModelBulkheadRegistry modelBulkheadRegistry;
+    private final AgentRuntimeCache agentRuntimeCache;
+
+    /**
+     * 各模型舱壁的并发、排队与拒绝统计
+     */
+    @GetMapping("/bulkheads")
+    public ApiResponse<List<ModelBulkheadStatsVO>> bulkheads() {
+        return ApiResponse.ok(modelBulkheadRegistry.stats());
+    }
+
+    /**
+     * 最近编译的各智能体工具定义 token 占用（压缩前后）
+     */
+    @GetMapping("/tool-tokens")
+    public ApiResponse<List<ToolTokenReportVO>> toolTokens() {
+        return ApiResponse.ok(agentRuntimeCache.toolTokenReports());
+    }
+
+    /**
+     * 指定智能体的工具定义 token 占用，运行时未编译时先编译
+     */
+    @GetMapping("/{id}/tool-tokens")
+    public ApiResponse<ToolTokenReportVO> toolTokens(@PathVariable Long id) {
+        return ApiResponse.ok(agentRuntimeCache.get(id).getToolTokenReport());
+    }
+}
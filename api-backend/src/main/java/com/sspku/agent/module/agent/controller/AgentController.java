@@ -4,14 +4,32 @@ import com.sspku.agent.common.api.ApiResponse;
 import com.sspku.agent.common.api.PageResponse;
 import com.sspku.agent.module.agent.dto.AgentCreateRequest;
 import com.sspku.agent.module.agent.dto.AgentListQuery;
+import com.sspku.agent.module.agent.dto.AgentRunRequest;
 import com.sspku.agent.module.agent.dto.AgentTestRequest;
 import com.sspku.agent.module.agent.dto.AgentUpdateRequest;
+import com.sspku.agent.common.exception.BusinessException;
+import com.sspku.agent.module.agent.dto.AgentSessionCreateRequest;
+import com.sspku.agent.module.agent.service.AgentRunService;
 import com.sspku.agent.module.agent.service.AgentService;
+import com.sspku.agent.module.agent.service.AgentSessionService;
+import com.sspku.agent.module.agent.stream.AgentStreamListener;
+import com.sspku.agent.module.agent.stream.SseAgentStreamListener;
+import com.sspku.agent.module.agent.vo.AgentRunVO;
 import com.sspku.agent.module.agent.vo.AgentTestResponse;
+import com.sspku.agent.module.agent.vo.AgentSessionMessageVO;
+import com.sspku.agent.module.agent.vo.AgentSessionVO;
 import com.sspku.agent.module.agent.vo.AgentVO;
+import com.sspku.agent.module.user.entity.User;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.Disposable;
+
+import java.util.List;
 
 /**
  * 智能体控制器
@@ -22,6 +40,11 @@ import org.springframework.web.bind.annotation.*;
 public class AgentController {
 
     private final AgentService agentService;
+    private final AgentSessionService agentSessionService;
+    private final AgentRunService agentRunService;
+
+    @Value("${agent.stream.timeout-ms:300000}")
+    private long streamTimeoutMs;
 
     @PostMapping
     public ApiResponse<Long> createAgent(@Valid @RequestBody AgentCreateRequest request) {
@@ -64,7 +87,69 @@ public class AgentController {
     }
 
     @PostMapping("/{id}/test")
-    public ApiResponse<AgentTestResponse> test(@PathVariable Long id, @Valid @RequestBody AgentTestRequest request) {
-        return ApiResponse.ok(agentService.testAgent(id, request));
+    public ApiResponse<AgentTestResponse> test(@PathVariable Long id, @Valid @RequestBody AgentTestRequest request,
+                                               @AuthenticationPrincipal User user) {
+        return ApiResponse.ok(agentService.testAgent(id, request, userIdOf(user)));
+    }
+
+    /**
+     * 流式对话（SSE），事件依次为 token* -> done | error
+     */
+    @PostMapping(value = "/{id}/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter chatStream(@PathVariable Long id, @Valid @RequestBody AgentTestRequest request,
+                                 @AuthenticationPrincipal User user) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        AgentStreamListener listener = new SseAgentStreamListener(emitter);
+        try {
+            Disposable subscription = agentService.streamAgent(id, request, userIdOf(user), listener);
+            emitter.onTimeout(subscription::dispose);
+            emitter.onError(e -> subscription.dispose());
+            emitter.onCompletion(subscription::dispose);
+        } catch (BusinessException e) {
+            listener.onError(e);
+        }
+        return emitter;
+    }
+
+    /**
+     * 提交异步运行，立即返回运行ID；队列已满时返回 429 并携带 Retry-After
+     */
+    @PostMapping("/{id}/runs")
+    public ApiResponse<AgentRunVO> submitRun(@PathVariable Long id, @Valid @RequestBody AgentRunRequest request) {
+        return ApiResponse.ok("运行已提交", agentRunService.submit(id, request));
+    }
+
+    @GetMapping("/{id}/runs/{runId}")
+    public ApiResponse<AgentRunVO> getRun(@PathVariable Long id, @PathVariable String runId) {
+        return ApiResponse.ok(agentRunService.getRun(id, runId));
+    }
+
+    /**
+     * 创建多轮对话会话，之后在 test / chat/stream 请求中携带 sessionId 即可续聊
+     */
+    @PostMapping("/{id}/sessions")
+    public ApiResponse<AgentSessionVO> createSession(@PathVariable Long id,
+                                                     @Valid @RequestBody(required = false) AgentSessionCreateRequest request) {
+        return ApiResponse.ok("会话创建成功", agentSessionService.createSession(id, request));
+    }
+
+    @GetMapping("/{id}/sessions")
+    public ApiResponse<List<AgentSessionVO>> listSessions(@PathVariable Long id) {
+        return ApiResponse.ok(agentSessionService.listSessions(id));
+    }
+
+    @GetMapping("/{id}/sessions/{sessionId}/messages")
+    public ApiResponse<List<AgentSessionMessageVO>> listSessionMessages(@PathVariable Long id, @PathVariable Long sessionId) {
+        return ApiResponse.ok(agentSessionService.listMessages(id, sessionId));
+    }
+
+    @DeleteMapping("/{id}/sessions/{sessionId}")
+    public ApiResponse<Void> deleteSession(@PathVariable Long id, @PathVariable Long sessionId) {
+        agentSessionService.deleteSession(id, sessionId);
+        return ApiResponse.ok("会话删除成功", null);
+    }
+
+    private static Long userIdOf(User user) {
+        return user != null ? user.getId() : null;
     }
 }
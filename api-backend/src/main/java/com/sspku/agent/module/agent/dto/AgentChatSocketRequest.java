@@ -0,0 +1,27 @@
+package com.sspku.agent.module.agent.dto;
+
+import lombok.Data;
+
+/**
+ * WebSocket 对话上行帧
+ * type: chat（发起一轮对话）/ cancel（取消进行中的对话）/ ping
+ */
+@Data
+public class AgentChatSocketRequest {
+
+    private String type;
+
+    /**
+     * 客户端生成的对话标识，同一连接上可并发多个对话
+     */
+    private String conversationId;
+
+    private Long agentId;
+
+    private String question;
+
+    /**
+     * 可选：会话ID，传入时携带服务端保存的多轮历史
+     */
+    private Long sessionId;
+}
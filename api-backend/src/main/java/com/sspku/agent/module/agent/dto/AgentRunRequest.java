@@ -0,0 +1,27 @@
+package com.sspku.agent.module.agent.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import lombok.Data;
+
+/**
+ * 异步运行请求
+ */
+@Data
+public class AgentRunRequest {
+
+    @NotBlank(message = "问题不能为空")
+    private String question;
+
+    /**
+     * 可选：会话ID，传入时携带服务端保存的多轮历史
+     */
+    private Long sessionId;
+
+    /**
+     * 可选：运行结束后以 POST 方式回调的地址，请求体为运行结果；
+     * 域名须在 agent.run.callback-allowed-hosts 内，请求带 X-Agent-Signature 签名头
+     */
+    @Pattern(regexp = "^https?://.+", message = "回调地址必须为 http/https URL")
+    private String callbackUrl;
+}
@@ -0,0 +1,14 @@
+package com.sspku.agent.module.agent.dto;
+
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+/**
+ * 创建对话会话请求
+ */
+@Data
+public class AgentSessionCreateRequest {
+
+    @Size(max = 200, message = "标题长度不能超过200字符")
+    private String title;
+}
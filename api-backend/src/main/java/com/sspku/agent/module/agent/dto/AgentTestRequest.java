@@ -11,5 +11,10 @@ public class AgentTestRequest {
 
     @NotBlank(message = "测试问题不能为空")
     private String question;
+
+    /**
+     * 可选：会话ID，传入时携带服务端保存的多轮历史
+     */
+    private Long sessionId;
 }
 
@@ -30,4 +30,10 @@ public class ModelConfigRequest {
     @DecimalMin(value = "0.0", message = "topP不能小于0")
     @DecimalMax(value = "1.0", message = "topP不能大于1")
     private Double topP = 0.9;
+
+    /**
+     * 工具定义的 token 预算，为空或 0 时使用全局默认值
+     */
+    @Min(value = 0, message = "toolTokenBudget不能小于0")
+    private Integer toolTokenBudget;
 }
@@ -0,0 +1,26 @@
+package com.sspku.agent.module.agent.entity;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 智能体多轮对话会话
+ */
+@Data
+public class AgentSession {
+    private Long id;
+    private Long agentId;
+    private Long userId;
+    private String title;
+    /**
+     * 滚动摘要：被移出上下文窗口的早期对话压缩后的内容
+     */
+    private String summary;
+    /**
+     * 会话状态：1-进行中 0-已结束
+     */
+    private Integer status;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,20 @@
+package com.sspku.agent.module.agent.entity;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 会话消息
+ */
+@Data
+public class AgentSessionMessage {
+    private Long id;
+    private Long sessionId;
+    /**
+     * 角色：user / assistant
+     */
+    private String role;
+    private String content;
+    private LocalDateTime createdAt;
+}
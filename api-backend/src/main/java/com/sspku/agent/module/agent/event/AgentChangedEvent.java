@@ -0,0 +1,16 @@
+package com.sspku.agent.module.agent.event;
+
+import lombok.Getter;
+
+/**
+ * 智能体变更事件（更新、发布、取消发布、删除）
+ */
+@Getter
+public class AgentChangedEvent {
+
+    private final Long agentId;
+
+    public AgentChangedEvent(Long agentId) {
+        this.agentId = agentId;
+    }
+}
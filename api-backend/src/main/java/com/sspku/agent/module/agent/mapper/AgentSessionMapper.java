@@ -0,0 +1,32 @@
+package com.sspku.agent.module.agent.mapper;
+
+import com.sspku.agent.module.agent.entity.AgentSession;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 对话会话Mapper
+ */
+@Mapper
+public interface AgentSessionMapper {
+
+    int insert(AgentSession session);
+
+    AgentSession selectById(@Param("id") Long id);
+
+    /**
+     * 按智能体查询会话，userId 为空时不按用户过滤
+     */
+    List<AgentSession> selectByAgentId(@Param("agentId") Long agentId, @Param("userId") Long userId);
+
+    /**
+     * 刷新会话的最后活跃时间，会话列表按该时间排序
+     */
+    int touch(@Param("id") Long id);
+
+    int updateSummary(@Param("id") Long id, @Param("summary") String summary);
+
+    int deleteById(@Param("id") Long id);
+}
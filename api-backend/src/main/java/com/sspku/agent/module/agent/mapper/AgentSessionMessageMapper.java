@@ -0,0 +1,23 @@
+package com.sspku.agent.module.agent.mapper;
+
+import com.sspku.agent.module.agent.entity.AgentSessionMessage;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 会话消息Mapper
+ */
+@Mapper
+public interface AgentSessionMessageMapper {
+
+    int insertBatch(@Param("messages") List<AgentSessionMessage> messages);
+
+    /**
+     * 查询会话最近的 limit 条消息（按时间正序返回）
+     */
+    List<AgentSessionMessage> selectRecentBySessionId(@Param("sessionId") Long sessionId, @Param("limit") int limit);
+
+    List<AgentSessionMessage> selectBySessionId(@Param("sessionId") Long sessionId);
+}
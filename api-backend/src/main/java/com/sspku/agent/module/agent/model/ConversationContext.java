@@ -0,0 +1,18 @@
+package com.sspku.agent.module.agent.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.ai.chat.messages.Message;
+
+import java.util.List;
+
+/**
+ * 一轮对话可用的会话上下文：滚动摘要 + 预算内的近期消息
+ */
+@Getter
+@AllArgsConstructor
+public class ConversationContext {
+    private final Long sessionId;
+    private final String summary;
+    private final List<Message> messages;
+}
@@ -0,0 +1,150 @@
+package com.sspku.agent.module.agent.model;
+
+import com.sspku.agent.common.constant.CommonConstant;
+import com.sspku.agent.common.util.TokenEstimator;
+import lombok.Getter;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 单个会话在内存中的有界历史窗口
+ * 消息数超过 maxMessages 或估算 token 超过 tokenBudget 时从队头淘汰，
+ * 淘汰的消息暂存于 pending，等待合并进滚动摘要。
+ * 使用 ReentrantLock 而非 synchronized，避免在虚拟线程模式下钉住载体线程。
+ */
+public class ConversationHistory {
+
+    @Getter
+    private final Long sessionId;
+    @Getter
+    private final Long agentId;
+    /**
+     * 会话所属用户，命中缓存时据此校验归属
+     */
+    @Getter
+    private final Long userId;
+    private final int maxMessages;
+    private final int tokenBudget;
+
+    private final Deque<Entry> window = new ArrayDeque<>();
+    private final List<Entry> pending = new ArrayList<>();
+    private final AtomicBoolean summarizing = new AtomicBoolean(false);
+    private final ReentrantLock lock = new ReentrantLock();
+    private int windowTokens;
+    private String summary;
+
+    public ConversationHistory(Long sessionId, Long agentId, Long userId, String summary, int maxMessages,
+                               int tokenBudget) {
+        this.sessionId = sessionId;
+        this.agentId = agentId;
+        this.userId = userId;
+        this.summary = summary;
+        this.maxMessages = maxMessages;
+        this.tokenBudget = tokenBudget;
+    }
+
+    /**
+     * 追加一条消息并按消息数与 token 预算淘汰最早的消息
+     * @param keepEvicted 是否保留被淘汰的消息用于生成摘要
+     */
+    public void append(String role, String content, boolean keepEvicted) {
+        lock.lock();
+        try {
+            Entry entry = new Entry(role, content, TokenEstimator.estimate(content));
+            window.addLast(entry);
+            windowTokens += entry.tokens;
+            // 至少保留最新一条，避免单条超长消息把窗口清空
+            while (window.size() > 1 && (window.size() > maxMessages || windowTokens > tokenBudget)) {
+                Entry evicted = window.removeFirst();
+                windowTokens -= evicted.tokens;
+                if (keepEvicted) {
+                    pending.add(evicted);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public ConversationContext snapshot() {
+        lock.lock();
+        try {
+            List<Message> messages = new ArrayList<>(window.size());
+            for (Entry entry : window) {
+                messages.add(CommonConstant.CHAT_ROLE_ASSISTANT.equals(entry.role)
+                        ? new AssistantMessage(entry.content)
+                        : new UserMessage(entry.content));
+            }
+            return new ConversationContext(sessionId, summary, messages);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public String getSummary() {
+        lock.lock();
+        try {
+            return summary;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void setSummary(String summary) {
+        lock.lock();
+        try {
+            this.summary = summary;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean hasPending() {
+        lock.lock();
+        try {
+            return !pending.isEmpty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 取出待摘要的消息，格式化为 "角色: 内容" 文本
+     */
+    public String drainPending() {
+        lock.lock();
+        try {
+            StringBuilder sb = new StringBuilder();
+            for (Entry entry : pending) {
+                sb.append(CommonConstant.CHAT_ROLE_ASSISTANT.equals(entry.role) ? "助手" : "用户")
+                        .append(": ").append(entry.content).append('\n');
+            }
+            pending.clear();
+            return sb.toString();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 抢占摘要任务，保证同一会话同一时刻只有一个摘要任务
+     */
+    public boolean tryStartSummary() {
+        return summarizing.compareAndSet(false, true);
+    }
+
+    public void finishSummary() {
+        summarizing.set(false);
+    }
+
+    private record Entry(String role, String content, int tokens) {
+    }
+}
@@ -12,4 +12,8 @@ public class ModelConfig {
     private Double temperature;
     private Integer maxTokens;
     private Double topP;
+    /**
+     * 工具定义（描述与参数 Schema）的 token 预算，为空时使用全局默认值
+     */
+    private Integer toolTokenBudget;
 }
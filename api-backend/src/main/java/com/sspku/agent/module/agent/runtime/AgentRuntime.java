@@ -0,0 +1,29 @@
+package com.sspku.agent.module.agent.runtime;
+
+import com.sspku.agent.module.agent.model.ModelConfig;
+import com.sspku.agent.module.agent.vo.ToolTokenReportVO;
+import lombok.Builder;
+import lombok.Getter;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import org.springframework.ai.tool.ToolCallback;
+
+import java.util.List;
+
+/**
+ * 智能体编译后的运行时快照
+ * 持有解析好的模型配置、预构建的 ChatOptions、系统消息与工具回调，
+ * 运行期只读；chatOptions 为共享模板，使用方需 copy() 后再修改。
+ */
+@Getter
+@Builder
+public class AgentRuntime {
+    private final Long agentId;
+    private final String status;
+    private final ModelConfig modelConfig;
+    private final SystemMessage systemMessage;
+    private final List<Long> pluginIds;
+    private final List<ToolCallback> toolCallbacks;
+    private final ToolCallingChatOptions chatOptions;
+    private final ToolTokenReportVO toolTokenReport;
+}
@@ -0,0 +1,169 @@
+package com.sspku.agent.module.agent.runtime;
+
+import cn.hutool.cache.Cache;
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.CacheObj;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sspku.agent.common.exception.BusinessException;
+import com.sspku.agent.module.agent.entity.Agent;
+import com.sspku.agent.module.agent.event.AgentChangedEvent;
+import com.sspku.agent.module.agent.mapper.AgentMapper;
+import com.sspku.agent.module.agent.mapper.AgentPluginRelationMapper;
+import com.sspku.agent.module.agent.model.ModelConfig;
+import com.sspku.agent.module.agent.tool.PluginToolFactory;
+import com.sspku.agent.module.agent.vo.ToolTokenReportVO;
+import com.sspku.agent.module.plugin.event.PluginChangedEvent;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 智能体运行时缓存
+ * 已发布智能体编译一次后常驻内存（LRU 有界），热路径无数据库访问与 JSON 解析；
+ * 草稿智能体每次现编译，保证调试时立即看到修改。
+ * 智能体或其绑定插件变更后（事务提交后）失效对应条目。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AgentRuntimeCache {
+
+    private final AgentMapper agentMapper;
+    private final AgentPluginRelationMapper agentPluginRelationMapper;
+    private final PluginToolFactory pluginToolFactory;
+    private final ObjectMapper objectMapper;
+
+    @Value("${agent.runtime.cache-size:500}")
+    private int cacheSize;
+
+    private Cache<Long, AgentRuntime> runtimes;
+
+    /**
+     * 最近编译的智能体工具 token 占用，草稿智能体不进运行时缓存，单独保留报告
+     */
+    private Cache<Long, ToolTokenReportVO> toolTokenReports;
+
+    /**
+     * 失效代数：编译期间若发生失效，则丢弃本次编译结果，避免旧快照回填缓存
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        runtimes = CacheUtil.newLRUCache(cacheSize);
+        toolTokenReports = CacheUtil.newLRUCache(cacheSize);
+    }
+
+    /**
+     * 获取智能体运行时
+     */
+    public AgentRuntime get(Long agentId) {
+        AgentRuntime cached = runtimes.get(agentId);
+        if (cached != null) {
+            return cached;
+        }
+        long compileGeneration = generation.get();
+        AgentRuntime runtime = compile(agentId);
+        if ("published".equals(runtime.getStatus()) && compileGeneration == generation.get()) {
+            runtimes.put(agentId, runtime);
+        }
+        return runtime;
+    }
+
+    /**
+     * 最近编译的各智能体工具 token 占用（压缩前后）
+     */
+    public List<ToolTokenReportVO> toolTokenReports() {
+        List<ToolTokenReportVO> reports = new ArrayList<>();
+        toolTokenReports.forEach(reports::add);
+        return reports;
+    }
+
+    public void evict(Long agentId) {
+        generation.incrementAndGet();
+        runtimes.remove(agentId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAgentChanged(AgentChangedEvent event) {
+        evict(event.getAgentId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPluginChanged(PluginChangedEvent event) {
+        generation.incrementAndGet();
+        Iterator<CacheObj<Long, AgentRuntime>> iterator = runtimes.cacheObjIterator();
+        while (iterator.hasNext()) {
+            CacheObj<Long, AgentRuntime> cacheObj = iterator.next();
+            if (cacheObj.getValue().getPluginIds().contains(event.getPluginId())) {
+                runtimes.remove(cacheObj.getKey());
+            }
+        }
+    }
+
+    private AgentRuntime compile(Long agentId) {
+        Agent agent = agentMapper.selectById(agentId);
+        if (agent == null) {
+            throw new BusinessException("智能体不存在");
+        }
+
+        // 解析模型配置
+        ModelConfig modelConfig = readModelConfig(agent.getModelConfig());
+        if (modelConfig == null || !StringUtils.hasText(modelConfig.getModel())) {
+            throw new BusinessException("智能体模型配置不完整");
+        }
+
+        // 获取绑定的插件并转换为 ToolCallback，按智能体的工具 token 预算压缩
+        List<Long> pluginIds = agentPluginRelationMapper.selectPluginIdsByAgentId(agentId);
+        PluginToolFactory.ToolSet toolSet = pluginToolFactory.createToolSet(pluginIds, modelConfig.getToolTokenBudget());
+        List<ToolCallback> toolCallbacks = toolSet.callbacks();
+        ToolTokenReportVO toolTokenReport = toolSet.report();
+        toolTokenReport.setAgentId(agentId);
+        toolTokenReports.put(agentId, toolTokenReport);
+
+        // 使用智能体配置的参数创建运行时 ChatOptions
+        var optionsBuilder = ToolCallingChatOptions.builder()
+                .model(modelConfig.getModel())
+                .temperature(modelConfig.getTemperature() != null ? modelConfig.getTemperature() : 0.7)
+                .topP(modelConfig.getTopP() != null ? modelConfig.getTopP() : 0.9);
+        if (!CollectionUtils.isEmpty(toolCallbacks)) {
+            optionsBuilder.toolCallbacks(toolCallbacks);
+        }
+
+        return AgentRuntime.builder()
+                .agentId(agentId)
+                .status(agent.getStatus())
+                .modelConfig(modelConfig)
+                .systemMessage(StringUtils.hasText(agent.getSystemPrompt()) ? new SystemMessage(agent.getSystemPrompt()) : null)
+                .pluginIds(List.copyOf(pluginIds))
+                .toolCallbacks(List.copyOf(toolCallbacks))
+                .chatOptions(optionsBuilder.build())
+                .toolTokenReport(toolTokenReport)
+                .build();
+    }
+
+    private ModelConfig readModelConfig(String json) {
+        if (!StringUtils.hasText(json)) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, ModelConfig.class);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+}
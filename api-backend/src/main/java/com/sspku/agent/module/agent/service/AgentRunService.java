@@ -0,0 +1,20 @@
+package com.sspku.agent.module.agent.service;
+
+import com.sspku.agent.module.agent.dto.AgentRunRequest;
+import com.sspku.agent.module.agent.vo.AgentRunVO;
+
+/**
+ * 智能体异步运行服务
+ */
+public interface AgentRunService {
+
+    /**
+     * 提交异步运行，立即返回运行ID；队列已满时抛出 TooManyRequestsException
+     */
+    AgentRunVO submit(Long agentId, AgentRunRequest request);
+
+    /**
+     * 查询运行状态与结果，结果在运行结束后保留一段时间（TTL）
+     */
+    AgentRunVO getRun(Long agentId, String runId);
+}
@@ -5,8 +5,10 @@ import com.sspku.agent.module.agent.dto.AgentCreateRequest;
 import com.sspku.agent.module.agent.dto.AgentListQuery;
 import com.sspku.agent.module.agent.dto.AgentTestRequest;
 import com.sspku.agent.module.agent.dto.AgentUpdateRequest;
+import com.sspku.agent.module.agent.stream.AgentStreamListener;
 import com.sspku.agent.module.agent.vo.AgentTestResponse;
 import com.sspku.agent.module.agent.vo.AgentVO;
+import reactor.core.Disposable;
 
 /**
  * 智能体服务
@@ -27,5 +29,22 @@ public interface AgentService {
 
     void deleteAgent(Long id);
 
-    AgentTestResponse testAgent(Long id, AgentTestRequest request);
+    /**
+     * @param userId 调用方用户ID，携带 sessionId 时用于校验会话归属；
+     *               WebSocket 与异步运行线程没有 SecurityContext，因此由调用方显式传入
+     */
+    AgentTestResponse testAgent(Long id, AgentTestRequest request, Long userId);
+
+    /**
+     * 后台调用智能体（异步运行）：模型饱和时在舱壁上排队等待，而不是像交互请求一样快速返回 429
+     * @param userId 调用方用户ID，同 {@link #testAgent}
+     */
+    AgentTestResponse runAgent(Long id, AgentTestRequest request, Long userId);
+
+    /**
+     * 流式调用智能体，增量内容通过 listener 推送
+     * @param userId 调用方用户ID，同 {@link #testAgent}
+     * @return 上游订阅句柄，客户端断开时用于取消
+     */
+    Disposable streamAgent(Long id, AgentTestRequest request, Long userId, AgentStreamListener listener);
 }
@@ -0,0 +1,38 @@
+package com.sspku.agent.module.agent.service;
+
+import com.sspku.agent.module.agent.dto.AgentSessionCreateRequest;
+import com.sspku.agent.module.agent.model.ConversationContext;
+import com.sspku.agent.module.agent.vo.AgentSessionMessageVO;
+import com.sspku.agent.module.agent.vo.AgentSessionVO;
+
+import java.util.List;
+
+/**
+ * 多轮对话会话服务
+ */
+public interface AgentSessionService {
+
+    AgentSessionVO createSession(Long agentId, AgentSessionCreateRequest request);
+
+    List<AgentSessionVO> listSessions(Long agentId);
+
+    List<AgentSessionMessageVO> listMessages(Long agentId, Long sessionId);
+
+    void deleteSession(Long agentId, Long sessionId);
+
+    /**
+     * 获取本轮对话的上下文（滚动摘要 + 预算内的近期消息），会话必须属于 userId
+     * @param userId 调用方用户ID；WebSocket 与异步运行线程没有 SecurityContext，由调用方显式传入
+     */
+    ConversationContext loadContext(Long agentId, Long sessionId, Long userId);
+
+    /**
+     * 记录一轮问答，并在需要时异步合并滚动摘要
+     */
+    void appendTurn(Long sessionId, String question, String reply);
+
+    /**
+     * 清理某个智能体下所有会话的内存历史
+     */
+    void evictAgent(Long agentId);
+}
@@ -0,0 +1,177 @@
+package com.sspku.agent.module.agent.service.impl;
+
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.TimedCache;
+import cn.hutool.core.util.IdUtil;
+import com.sspku.agent.common.constant.CommonConstant;
+import com.sspku.agent.common.exception.BusinessException;
+import com.sspku.agent.common.exception.TooManyRequestsException;
+import com.sspku.agent.common.util.ThreadFactories;
+import com.sspku.agent.module.agent.callback.RunCallbackNotifier;
+import com.sspku.agent.module.agent.dto.AgentRunRequest;
+import com.sspku.agent.module.agent.dto.AgentTestRequest;
+import com.sspku.agent.module.agent.service.AgentRunService;
+import com.sspku.agent.module.agent.service.AgentService;
+import com.sspku.agent.module.agent.vo.AgentRunVO;
+import com.sspku.agent.module.agent.vo.AgentTestResponse;
+import com.sspku.agent.module.user.entity.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 智能体异步运行服务实现
+ * 运行在有界线程池中执行（固定并发 + 显式队列容量），队列满时拒绝并提示客户端稍后重试；
+ * 运行状态与结果保存在带 TTL 的内存缓存中，供轮询或回调使用。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AgentRunServiceImpl implements AgentRunService {
+
+    private final AgentService agentService;
+    private final RunCallbackNotifier runCallbackNotifier;
+
+    @Value("${agent.run.pool-size:4}")
+    private int poolSize;
+
+    @Value("${agent.run.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${agent.run.result-ttl-ms:1800000}")
+    private long resultTtlMs;
+
+    @Value("${agent.run.retry-after-seconds:5}")
+    private long retryAfterSeconds;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private ThreadPoolExecutor runExecutor;
+    private TimedCache<String, RunEntry> runs;
+
+    @PostConstruct
+    public void init() {
+        // 虚拟线程模式下 pool-size 只表示并发上限，可放大到数千而不增加平台线程
+        runExecutor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                ThreadFactories.named("agent-run-", virtualThreads),
+                new ThreadPoolExecutor.AbortPolicy());
+        runs = CacheUtil.newTimedCache(resultTtlMs);
+        runs.schedulePrune(Math.max(resultTtlMs / 2, 1000L));
+    }
+
+    @PreDestroy
+    public void destroy() {
+        runExecutor.shutdown();
+        runs.cancelPruneSchedule();
+    }
+
+    @Override
+    public AgentRunVO submit(Long agentId, AgentRunRequest request) {
+        if (StringUtils.hasText(request.getCallbackUrl())) {
+            runCallbackNotifier.validate(request.getCallbackUrl());
+        }
+        String runId = IdUtil.fastSimpleUUID();
+        RunEntry entry = new RunEntry(currentUserId(), AgentRunVO.builder()
+                .runId(runId)
+                .agentId(agentId)
+                .status(CommonConstant.RUN_STATUS_QUEUED)
+                .createdAt(LocalDateTime.now())
+                .build());
+        runs.put(runId, entry);
+
+        try {
+            runExecutor.execute(() -> execute(entry, request));
+        } catch (RejectedExecutionException e) {
+            runs.remove(runId);
+            throw new TooManyRequestsException("运行队列已满，请稍后重试", retryAfterSeconds);
+        }
+        return entry.snapshot;
+    }
+
+    @Override
+    public AgentRunVO getRun(Long agentId, String runId) {
+        // 轮询不刷新过期时间，结果自运行结束起最多保留一个 TTL
+        // 仅提交者本人可查询，匿名提交的运行不对登录用户开放
+        RunEntry entry = runs.get(runId, false);
+        if (entry == null || !entry.snapshot.getAgentId().equals(agentId)
+                || !Objects.equals(entry.userId, currentUserId())) {
+            throw new BusinessException("运行不存在或已过期");
+        }
+        return entry.snapshot;
+    }
+
+    private void execute(RunEntry entry, AgentRunRequest request) {
+        String runId = entry.snapshot.getRunId();
+        update(entry, entry.snapshot.toBuilder()
+                .status(CommonConstant.RUN_STATUS_RUNNING)
+                .startedAt(LocalDateTime.now())
+                .build());
+
+        AgentTestRequest testRequest = new AgentTestRequest();
+        testRequest.setQuestion(request.getQuestion());
+        testRequest.setSessionId(request.getSessionId());
+
+        try {
+            AgentTestResponse result = agentService.runAgent(entry.snapshot.getAgentId(), testRequest,
+                    entry.userId);
+            update(entry, entry.snapshot.toBuilder()
+                    .status(CommonConstant.RUN_STATUS_SUCCEEDED)
+                    .result(result)
+                    .finishedAt(LocalDateTime.now())
+                    .build());
+        } catch (Exception e) {
+            log.warn("异步运行失败: runId={}, agentId={}, error={}", runId, entry.snapshot.getAgentId(), e.getMessage());
+            update(entry, entry.snapshot.toBuilder()
+                    .status(CommonConstant.RUN_STATUS_FAILED)
+                    .error(e.getMessage())
+                    .finishedAt(LocalDateTime.now())
+                    .build());
+        }
+
+        if (StringUtils.hasText(request.getCallbackUrl())) {
+            runCallbackNotifier.notify(request.getCallbackUrl(), entry.snapshot);
+        }
+    }
+
+    private void update(RunEntry entry, AgentRunVO snapshot) {
+        entry.snapshot = snapshot;
+        // 重新放入以刷新 TTL，使结果自状态变更起保留
+        runs.put(snapshot.getRunId(), entry);
+    }
+
+    private Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof User user) {
+            return user.getId();
+        }
+        return null;
+    }
+
+    /**
+     * 运行记录：提交者与最新状态快照（快照整体替换，读方无需加锁）
+     */
+    private static class RunEntry {
+        private final Long userId;
+        private volatile AgentRunVO snapshot;
+
+        private RunEntry(Long userId, AgentRunVO snapshot) {
+            this.userId = userId;
+            this.snapshot = snapshot;
+        }
+    }
+}
@@ -4,6 +4,8 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sspku.agent.common.api.PageResponse;
 import com.sspku.agent.common.exception.BusinessException;
+import com.sspku.agent.module.agent.bulkhead.ModelBulkhead;
+import com.sspku.agent.module.agent.bulkhead.ModelBulkheadRegistry;
 import com.sspku.agent.module.agent.dto.AgentCreateRequest;
 import com.sspku.agent.module.agent.dto.AgentListQuery;
 import com.sspku.agent.module.agent.dto.AgentTestRequest;
@@ -16,12 +18,18 @@ import com.sspku.agent.module.agent.mapper.UserAgentRelationMapper;
 import com.sspku.agent.module.agent.mapper.UserPluginRelationMapper;
 import com.sspku.agent.module.agent.entity.AgentPluginRelation;
 import com.sspku.agent.module.agent.entity.UserAgentRelation;
+import com.sspku.agent.module.agent.event.AgentChangedEvent;
+import com.sspku.agent.module.agent.model.ConversationContext;
 import com.sspku.agent.module.agent.model.ModelConfig;
+import com.sspku.agent.module.agent.runtime.AgentRuntime;
+import com.sspku.agent.module.agent.runtime.AgentRuntimeCache;
 import com.sspku.agent.module.agent.service.AgentService;
+import com.sspku.agent.module.agent.service.AgentSessionService;
+import com.sspku.agent.module.agent.stream.AgentStreamListener;
 import com.sspku.agent.module.agent.vo.AgentTestResponse;
 import com.sspku.agent.module.agent.vo.AgentVO;
 import com.sspku.agent.module.user.entity.User;
-import com.sspku.agent.module.agent.tool.PluginToolFactory;
+import com.sspku.agent.module.agent.tool.ObservedToolCallback;
 import lombok.RequiredArgsConstructor;
 import org.springframework.ai.chat.messages.SystemMessage;
 import org.springframework.ai.chat.messages.UserMessage;
@@ -29,13 +37,17 @@ import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.chat.messages.Message;
-import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
 
 import java.time.Instant;
 import java.util.*;
@@ -53,7 +65,10 @@ public class AgentServiceImpl implements AgentService {
     private final UserAgentRelationMapper userAgentRelationMapper;
     private final UserPluginRelationMapper userPluginRelationMapper;
     private final ObjectMapper objectMapper;
-    private final PluginToolFactory pluginToolFactory;
+    private final AgentSessionService agentSessionService;
+    private final AgentRuntimeCache agentRuntimeCache;
+    private final ModelBulkheadRegistry modelBulkheadRegistry;
+    private final ApplicationEventPublisher eventPublisher;
 
     // Spring AI 聊天模型（使用自动配置的默认模型）
     private final ChatModel chatModel;
@@ -110,6 +125,7 @@ public class AgentServiceImpl implements AgentService {
             Long ownerUserId = userAgentRelationMapper.selectOwnerId(id);
             syncUserPlugins(ownerUserId, request.getPluginIds());
         }
+        eventPublisher.publishEvent(new AgentChangedEvent(id));
     }
 
     @Override
@@ -184,6 +200,7 @@ public class AgentServiceImpl implements AgentService {
 
         agent.setStatus("published");
         agentMapper.updateStatus(agent);
+        eventPublisher.publishEvent(new AgentChangedEvent(id));
     }
 
     @Override
@@ -196,6 +213,7 @@ public class AgentServiceImpl implements AgentService {
 
         agent.setStatus("draft");
         agentMapper.updateStatus(agent);
+        eventPublisher.publishEvent(new AgentChangedEvent(id));
     }
 
     @Override
@@ -210,83 +228,178 @@ public class AgentServiceImpl implements AgentService {
         agentPluginRelationMapper.deleteByAgentId(id);
         // 删除用户关联关系
         userAgentRelationMapper.deleteByAgentId(id);
-        // 删除智能体
+        // 删除智能体（会话与消息由外键级联删除）
         agentMapper.deleteById(id);
+        agentSessionService.evictAgent(id);
+        eventPublisher.publishEvent(new AgentChangedEvent(id));
     }
 
     @Override
-    public AgentTestResponse testAgent(Long id, AgentTestRequest request) {
-        Agent agent = agentMapper.selectById(id);
-        if (agent == null) {
-            throw new BusinessException("智能体不存在");
-        }
+    public AgentTestResponse testAgent(Long id, AgentTestRequest request, Long userId) {
+        return callAgent(id, request, userId, false);
+    }
 
-        // 解析模型配置
-        ModelConfig modelConfig = readModelConfig(agent.getModelConfig());
-        if (modelConfig == null || !StringUtils.hasText(modelConfig.getModel())) {
-            throw new BusinessException("智能体模型配置不完整");
-        }
+    @Override
+    public AgentTestResponse runAgent(Long id, AgentTestRequest request, Long userId) {
+        return callAgent(id, request, userId, true);
+    }
+
+    private AgentTestResponse callAgent(Long id, AgentTestRequest request, Long userId, boolean background) {
+        AgentRuntime runtime = agentRuntimeCache.get(id);
+        ConversationContext context = loadConversation(id, request, userId);
 
+        // 按模型隔离并发：交互请求饱和时快速失败（429），不占用其他模型的线程；
+        // 后台运行已被接受排队，饱和时等待许可
+        ModelBulkhead bulkhead = background
+                ? modelBulkheadRegistry.acquireWaiting(runtime.getModelConfig())
+                : modelBulkheadRegistry.acquire(runtime.getModelConfig());
         long start = Instant.now().toEpochMilli();
 
         try {
-            // 构建对话消息
-            List<Message> messages = new ArrayList<>();
+            Prompt prompt = buildPrompt(runtime, context, request.getQuestion(), null);
 
-            // 添加系统提示词
-            if (StringUtils.hasText(agent.getSystemPrompt())) {
-                messages.add(new SystemMessage(agent.getSystemPrompt()));
-            }
+            // 调用模型
+            ChatResponse response = chatModel.call(prompt);
 
-            // 添加用户问题
-            messages.add(new UserMessage(request.getQuestion()));
+            // 提取回复内容
+            String reply = response.getResult().getOutput().getText();
 
-            // 获取绑定的插件并转换为 ToolCallback
-            List<Long> pluginIds = agentPluginRelationMapper.selectPluginIdsByAgentId(id);
-            List<ToolCallback> toolCallbacks = pluginToolFactory.createToolCallbacks(pluginIds);
+            if (context != null) {
+                agentSessionService.appendTurn(context.getSessionId(), request.getQuestion(), reply);
+            }
 
-            // 使用智能体配置的参数创建运行时 ChatOptions
-            var optionsBuilder = org.springframework.ai.model.tool.ToolCallingChatOptions
-                    .builder()
-                    .model(modelConfig.getModel())
-                    .temperature(modelConfig.getTemperature() != null ? modelConfig.getTemperature() : 0.7)
-                    .topP(modelConfig.getTopP() != null ? modelConfig.getTopP() : 0.9);
+            return buildTestResponse(request.getQuestion(), reply, start, null, response.getMetadata().getUsage());
 
-            if (!CollectionUtils.isEmpty(toolCallbacks)) {
-                optionsBuilder.toolCallbacks(toolCallbacks);
+        } catch (Exception e) {
+            throw new BusinessException("AI 模型调用失败: " + e.getMessage());
+        } finally {
+            if (bulkhead != null) {
+                bulkhead.release();
             }
+        }
+    }
 
-            var options = optionsBuilder.build();
+    @Override
+    public Disposable streamAgent(Long id, AgentTestRequest request, Long userId, AgentStreamListener listener) {
+        AgentRuntime runtime = agentRuntimeCache.get(id);
+        ConversationContext context = loadConversation(id, request, userId);
 
-            // 创建带有选项的 Prompt
-            Prompt prompt = new Prompt(messages, options);
+        Prompt prompt = buildPrompt(runtime, context, request.getQuestion(), listener);
+        // 许可一直持有到流结束（完成、出错或被取消）
+        ModelBulkhead bulkhead = modelBulkheadRegistry.acquire(runtime.getModelConfig());
+        long start = Instant.now().toEpochMilli();
 
-            // 调用模型
-            ChatResponse response = chatModel.call(prompt);
+        // Flux 信号串行到达，以下状态无需额外同步
+        StringBuilder reply = new StringBuilder();
+        Long[] firstTokenAt = new Long[1];
+        Usage[] usage = new Usage[1];
 
-            // 提取回复内容
-            String reply = response.getResult().getOutput().getText();
+        Flux<ChatResponse> flux;
+        try {
+            flux = chatModel.stream(prompt);
+        } catch (RuntimeException e) {
+            if (bulkhead != null) {
+                bulkhead.release();
+            }
+            throw e;
+        }
+
+        return flux
+                .doFinally(signal -> {
+                    if (bulkhead != null) {
+                        bulkhead.release();
+                    }
+                })
+                .subscribe(
+                        response -> {
+                            if (response.getMetadata() != null && response.getMetadata().getUsage() != null
+                                    && response.getMetadata().getUsage().getPromptTokens() != null) {
+                                usage[0] = response.getMetadata().getUsage();
+                            }
+                            String text = response.getResult() != null && response.getResult().getOutput() != null
+                                    ? response.getResult().getOutput().getText() : null;
+                            if (!StringUtils.hasLength(text)) {
+                                return;
+                            }
+                            if (firstTokenAt[0] == null) {
+                                firstTokenAt[0] = Instant.now().toEpochMilli() - start;
+                            }
+                            reply.append(text);
+                            listener.onToken(text);
+                        },
+                        error -> listener.onError(new BusinessException("AI 模型调用失败: " + error.getMessage())),
+                        () -> {
+                            if (context != null) {
+                                agentSessionService.appendTurn(context.getSessionId(), request.getQuestion(), reply.toString());
+                            }
+                            listener.onComplete(buildTestResponse(request.getQuestion(), reply.toString(), start,
+                                    firstTokenAt[0], usage[0]));
+                        });
+    }
+
+    private ConversationContext loadConversation(Long agentId, AgentTestRequest request, Long userId) {
+        if (request.getSessionId() == null) {
+            return null;
+        }
+        return agentSessionService.loadContext(agentId, request.getSessionId(), userId);
+    }
 
-            long elapsed = Instant.now().toEpochMilli() - start;
+    /**
+     * 基于运行时快照构建带系统提示词、会话历史、插件工具与模型参数的 Prompt
+     * @param context 会话上下文，无会话时为 null
+     * @param listener 非空时包装工具回调，向监听器推送工具调用事件
+     */
+    private Prompt buildPrompt(AgentRuntime runtime, ConversationContext context, String question,
+                               AgentStreamListener listener) {
+        // 构建对话消息
+        List<Message> messages = new ArrayList<>();
+
+        // 添加系统提示词
+        if (runtime.getSystemMessage() != null) {
+            messages.add(runtime.getSystemMessage());
+        }
 
-            // 提取 token 使用情况
-            Integer promptTokens = null;
-            Integer completionTokens = null;
-            if (response.getMetadata().getUsage() != null) {
-                promptTokens = response.getMetadata().getUsage().getPromptTokens();
-                completionTokens = response.getMetadata().getUsage().getCompletionTokens();
+        // 添加会话摘要与近期历史
+        if (context != null) {
+            if (StringUtils.hasText(context.getSummary())) {
+                messages.add(new SystemMessage("以下是此前对话的摘要：\n" + context.getSummary()));
             }
+            messages.addAll(context.getMessages());
+        }
 
-            return AgentTestResponse.builder()
-                    .reply(reply)
-                    .elapsedMs(elapsed)
-                    .promptTokens(promptTokens != null ? promptTokens : request.getQuestion().length() / 4 + 1)
-                    .completionTokens(completionTokens != null ? completionTokens : reply.length() / 4 + 1)
-                    .build();
+        // 添加用户问题
+        messages.add(new UserMessage(question));
 
-        } catch (Exception e) {
-            throw new BusinessException("AI 模型调用失败: " + e.getMessage());
+        // 运行时中的 ChatOptions 为共享模板，每次调用使用副本
+        ToolCallingChatOptions options = runtime.getChatOptions().copy();
+        if (listener != null && !CollectionUtils.isEmpty(runtime.getToolCallbacks())) {
+            options.setToolCallbacks(runtime.getToolCallbacks().stream()
+                    .map(callback -> ObservedToolCallback.of(callback, listener))
+                    .collect(Collectors.toList()));
         }
+
+        // 创建带有选项的 Prompt
+        return new Prompt(messages, options);
+    }
+
+    private AgentTestResponse buildTestResponse(String question, String reply, long start, Long firstTokenMs, Usage usage) {
+        long elapsed = Instant.now().toEpochMilli() - start;
+
+        // 提取 token 使用情况
+        Integer promptTokens = null;
+        Integer completionTokens = null;
+        if (usage != null) {
+            promptTokens = usage.getPromptTokens();
+            completionTokens = usage.getCompletionTokens();
+        }
+
+        return AgentTestResponse.builder()
+                .reply(reply)
+                .elapsedMs(elapsed)
+                .firstTokenMs(firstTokenMs)
+                .promptTokens(promptTokens != null ? promptTokens : question.length() / 4 + 1)
+                .completionTokens(completionTokens != null ? completionTokens : reply.length() / 4 + 1)
+                .build();
     }
 
     private void validateModelConfig(ModelConfigRequest modelConfig) {
@@ -308,6 +421,7 @@ public class AgentServiceImpl implements AgentService {
         config.setTemperature(modelConfigRequest.getTemperature());
         config.setMaxTokens(modelConfigRequest.getMaxTokens());
         config.setTopP(modelConfigRequest.getTopP());
+        config.setToolTokenBudget(modelConfigRequest.getToolTokenBudget());
         try {
             return objectMapper.writeValueAsString(config);
         } catch (JsonProcessingException e) {
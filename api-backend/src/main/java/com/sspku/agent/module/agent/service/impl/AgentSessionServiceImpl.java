@@ -0,0 +1,290 @@
+package com.sspku.agent.module.agent.service.impl;
+
+import cn.hutool.cache.Cache;
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.CacheObj;
+import com.sspku.agent.common.constant.CommonConstant;
+import com.sspku.agent.common.exception.BusinessException;
+import com.sspku.agent.common.util.ThreadFactories;
+import com.sspku.agent.module.agent.bulkhead.ModelBulkhead;
+import com.sspku.agent.module.agent.bulkhead.ModelBulkheadRegistry;
+import com.sspku.agent.module.agent.dto.AgentSessionCreateRequest;
+import com.sspku.agent.module.agent.entity.Agent;
+import com.sspku.agent.module.agent.entity.AgentSession;
+import com.sspku.agent.module.agent.entity.AgentSessionMessage;
+import com.sspku.agent.module.agent.mapper.AgentMapper;
+import com.sspku.agent.module.agent.mapper.AgentSessionMapper;
+import com.sspku.agent.module.agent.mapper.AgentSessionMessageMapper;
+import com.sspku.agent.module.agent.model.ConversationContext;
+import com.sspku.agent.module.agent.model.ConversationHistory;
+import com.sspku.agent.module.agent.model.ModelConfig;
+import com.sspku.agent.module.agent.runtime.AgentRuntimeCache;
+import com.sspku.agent.module.agent.service.AgentSessionService;
+import com.sspku.agent.module.agent.vo.AgentSessionMessageVO;
+import com.sspku.agent.module.agent.vo.AgentSessionVO;
+import com.sspku.agent.module.user.entity.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * 多轮对话会话服务实现
+ * 每个会话在内存中维护有界的历史窗口（LRU 淘汰），消息落库保证可追溯；
+ * 窗口外的早期对话可选地由模型合并为滚动摘要，使 Prompt 体积不随对话轮数增长。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AgentSessionServiceImpl implements AgentSessionService {
+
+    private static final String SUMMARY_INSTRUCTION =
+            "请将【已有摘要】与【新增对话】合并为一段简洁的对话摘要，保留用户的关键信息、偏好与未解决的问题，"
+                    + "不超过 %d 字，直接输出摘要内容。";
+
+    private final AgentMapper agentMapper;
+    private final AgentSessionMapper agentSessionMapper;
+    private final AgentSessionMessageMapper agentSessionMessageMapper;
+    private final ChatModel chatModel;
+    private final ModelBulkheadRegistry modelBulkheadRegistry;
+    private final AgentRuntimeCache agentRuntimeCache;
+
+    @Value("${agent.conversation.max-messages:20}")
+    private int maxMessages;
+
+    @Value("${agent.conversation.token-budget:2000}")
+    private int tokenBudget;
+
+    @Value("${agent.conversation.cache-size:1000}")
+    private int cacheSize;
+
+    @Value("${agent.conversation.summary-enabled:false}")
+    private boolean summaryEnabled;
+
+    @Value("${agent.conversation.summary-max-chars:300}")
+    private int summaryMaxChars;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private Cache<Long, ConversationHistory> histories;
+    private ExecutorService summaryExecutor;
+
+    @PostConstruct
+    public void init() {
+        histories = CacheUtil.newLRUCache(cacheSize);
+        summaryExecutor = Executors.newFixedThreadPool(2, ThreadFactories.named("agent-summary-", virtualThreads));
+    }
+
+    @PreDestroy
+    public void destroy() {
+        summaryExecutor.shutdown();
+    }
+
+    @Override
+    public AgentSessionVO createSession(Long agentId, AgentSessionCreateRequest request) {
+        Agent agent = agentMapper.selectById(agentId);
+        if (agent == null) {
+            throw new BusinessException("智能体不存在");
+        }
+        AgentSession session = new AgentSession();
+        session.setAgentId(agentId);
+        session.setUserId(requireUserId(currentUserId()));
+        session.setTitle(request != null ? request.getTitle() : null);
+        session.setStatus(CommonConstant.CHAT_SESSION_ACTIVE);
+        agentSessionMapper.insert(session);
+        return convertToVO(agentSessionMapper.selectById(session.getId()));
+    }
+
+    @Override
+    public List<AgentSessionVO> listSessions(Long agentId) {
+        return agentSessionMapper.selectByAgentId(agentId, requireUserId(currentUserId())).stream()
+                .map(this::convertToVO)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<AgentSessionMessageVO> listMessages(Long agentId, Long sessionId) {
+        requireSession(agentId, sessionId, currentUserId());
+        return agentSessionMessageMapper.selectBySessionId(sessionId).stream()
+                .map(message -> AgentSessionMessageVO.builder()
+                        .id(message.getId())
+                        .role(message.getRole())
+                        .content(message.getContent())
+                        .createdAt(message.getCreatedAt())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void deleteSession(Long agentId, Long sessionId) {
+        requireSession(agentId, sessionId, currentUserId());
+        agentSessionMapper.deleteById(sessionId);
+        histories.remove(sessionId);
+    }
+
+    @Override
+    public ConversationContext loadContext(Long agentId, Long sessionId, Long userId) {
+        ConversationHistory history = histories.get(sessionId, () -> loadHistory(agentId, sessionId, userId));
+        // 命中缓存时同样校验归属，缓存可能由其他用户的请求加载
+        checkOwner(history.getAgentId(), history.getUserId(), agentId, userId);
+        return history.snapshot();
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void appendTurn(Long sessionId, String question, String reply) {
+        AgentSessionMessage userMessage = new AgentSessionMessage();
+        userMessage.setSessionId(sessionId);
+        userMessage.setRole(CommonConstant.CHAT_ROLE_USER);
+        userMessage.setContent(question);
+        AgentSessionMessage assistantMessage = new AgentSessionMessage();
+        assistantMessage.setSessionId(sessionId);
+        assistantMessage.setRole(CommonConstant.CHAT_ROLE_ASSISTANT);
+        assistantMessage.setContent(reply != null ? reply : "");
+        agentSessionMessageMapper.insertBatch(List.of(userMessage, assistantMessage));
+        agentSessionMapper.touch(sessionId);
+
+        ConversationHistory history = histories.get(sessionId);
+        if (history == null) {
+            // 已被 LRU 淘汰，下次使用时从数据库重新加载
+            return;
+        }
+        history.append(userMessage.getRole(), userMessage.getContent(), summaryEnabled);
+        history.append(assistantMessage.getRole(), assistantMessage.getContent(), summaryEnabled);
+
+        if (summaryEnabled && history.hasPending() && history.tryStartSummary()) {
+            summaryExecutor.execute(() -> foldSummary(history));
+        }
+    }
+
+    @Override
+    public void evictAgent(Long agentId) {
+        Iterator<CacheObj<Long, ConversationHistory>> iterator = histories.cacheObjIterator();
+        while (iterator.hasNext()) {
+            CacheObj<Long, ConversationHistory> cacheObj = iterator.next();
+            if (agentId.equals(cacheObj.getValue().getAgentId())) {
+                histories.remove(cacheObj.getKey());
+            }
+        }
+    }
+
+    private ConversationHistory loadHistory(Long agentId, Long sessionId, Long userId) {
+        AgentSession session = requireSession(agentId, sessionId, userId);
+        ConversationHistory history = new ConversationHistory(sessionId, session.getAgentId(), session.getUserId(),
+                session.getSummary(), maxMessages, tokenBudget);
+        for (AgentSessionMessage message : agentSessionMessageMapper.selectRecentBySessionId(sessionId, maxMessages)) {
+            // 历史消息只用于恢复窗口，窗口外的部分不再重复摘要
+            history.append(message.getRole(), message.getContent(), false);
+        }
+        return history;
+    }
+
+    /**
+     * 将淘汰出窗口的消息与已有摘要合并为新的滚动摘要
+     */
+    private void foldSummary(ConversationHistory history) {
+        try {
+            ModelConfig modelConfig = agentRuntimeCache.get(history.getAgentId()).getModelConfig();
+            while (history.hasPending()) {
+                String evicted = history.drainPending();
+                String previous = history.getSummary();
+                Prompt prompt = new Prompt(List.of(
+                        new SystemMessage(String.format(SUMMARY_INSTRUCTION, summaryMaxChars)),
+                        new UserMessage("【已有摘要】\n" + (StringUtils.hasText(previous) ? previous : "无")
+                                + "\n【新增对话】\n" + evicted)),
+                        ChatOptions.builder().model(modelConfig.getModel()).build());
+                String summary = callSummaryModel(modelConfig, prompt);
+                if (StringUtils.hasText(summary)) {
+                    history.setSummary(summary);
+                    agentSessionMapper.updateSummary(history.getSessionId(), summary);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("会话摘要生成失败: sessionId={}, {}", history.getSessionId(), e.getMessage());
+        } finally {
+            history.finishSummary();
+        }
+    }
+
+    /**
+     * 摘要使用会话所属智能体的模型，与该智能体的调用共享同一模型舱壁；后台任务饱和时排队等待
+     */
+    private String callSummaryModel(ModelConfig modelConfig, Prompt prompt) {
+        ModelBulkhead bulkhead = modelBulkheadRegistry.acquireWaiting(modelConfig);
+        try {
+            return chatModel.call(prompt).getResult().getOutput().getText();
+        } finally {
+            if (bulkhead != null) {
+                bulkhead.release();
+            }
+        }
+    }
+
+    private AgentSession requireSession(Long agentId, Long sessionId, Long userId) {
+        AgentSession session = agentSessionMapper.selectById(sessionId);
+        if (session == null) {
+            throw new BusinessException("会话不存在");
+        }
+        checkOwner(session.getAgentId(), session.getUserId(), agentId, userId);
+        return session;
+    }
+
+    /**
+     * 会话必须属于该智能体且属于调用方；未登录的调用方不能访问任何会话
+     */
+    private void checkOwner(Long sessionAgentId, Long sessionUserId, Long agentId, Long userId) {
+        if (!sessionAgentId.equals(agentId)) {
+            throw new BusinessException("会话不属于该智能体");
+        }
+        if (userId == null || !userId.equals(sessionUserId)) {
+            // 不区分"不存在"与"无权访问"，避免泄露他人的会话ID
+            throw new BusinessException("会话不存在");
+        }
+    }
+
+    private Long requireUserId(Long userId) {
+        if (userId == null) {
+            throw new BusinessException("未登录");
+        }
+        return userId;
+    }
+
+    private Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof User user) {
+            return user.getId();
+        }
+        return null;
+    }
+
+    private AgentSessionVO convertToVO(AgentSession session) {
+        return AgentSessionVO.builder()
+                .id(session.getId())
+                .agentId(session.getAgentId())
+                .userId(session.getUserId())
+                .title(session.getTitle())
+                .summary(session.getSummary())
+                .status(session.getStatus())
+                .createdAt(session.getCreatedAt())
+                .updatedAt(session.getUpdatedAt())
+                .build();
+    }
+}
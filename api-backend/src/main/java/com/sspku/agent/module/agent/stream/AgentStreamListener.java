@@ -0,0 +1,37 @@
+package com.sspku.agent.module.agent.stream;
+
+import com.sspku.agent.module.agent.vo.AgentTestResponse;
+
+/**
+ * 智能体流式输出监听器
+ * 由具体的传输通道（SSE、WebSocket）实现，接收模型逐段生成的内容
+ */
+public interface AgentStreamListener {
+
+    /**
+     * 收到一段增量文本
+     */
+    void onToken(String content);
+
+    /**
+     * 模型发起工具调用
+     */
+    default void onToolStart(String toolName, String arguments) {
+    }
+
+    /**
+     * 工具调用结束
+     */
+    default void onToolEnd(String toolName, long elapsedMs, boolean success) {
+    }
+
+    /**
+     * 生成结束，携带完整回复、耗时与 token 用量
+     */
+    void onComplete(AgentTestResponse response);
+
+    /**
+     * 生成失败
+     */
+    void onError(Throwable error);
+}
@@ -0,0 +1,70 @@
+package com.sspku.agent.module.agent.stream;
+
+import com.sspku.agent.module.agent.vo.AgentTestResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * 基于 SseEmitter 的流式监听器
+ * 事件类型：token（增量文本）、tool_start / tool_end（工具调用）、done（用量与耗时）、error（错误信息）
+ */
+@Slf4j
+public class SseAgentStreamListener implements AgentStreamListener {
+
+    public static final String EVENT_TOKEN = "token";
+    public static final String EVENT_TOOL_START = "tool_start";
+    public static final String EVENT_TOOL_END = "tool_end";
+    public static final String EVENT_DONE = "done";
+    public static final String EVENT_ERROR = "error";
+
+    private final SseEmitter emitter;
+
+    public SseAgentStreamListener(SseEmitter emitter) {
+        this.emitter = emitter;
+    }
+
+    @Override
+    public void onToken(String content) {
+        send(EVENT_TOKEN, Map.of("content", content));
+    }
+
+    @Override
+    public void onToolStart(String toolName, String arguments) {
+        send(EVENT_TOOL_START, Map.of("tool", toolName, "arguments", arguments != null ? arguments : ""));
+    }
+
+    @Override
+    public void onToolEnd(String toolName, long elapsedMs, boolean success) {
+        send(EVENT_TOOL_END, Map.of("tool", toolName, "elapsedMs", elapsedMs, "success", success));
+    }
+
+    @Override
+    public void onComplete(AgentTestResponse response) {
+        if (send(EVENT_DONE, response)) {
+            emitter.complete();
+        }
+    }
+
+    @Override
+    public void onError(Throwable error) {
+        String message = error.getMessage() != null ? error.getMessage() : "未知错误";
+        if (send(EVENT_ERROR, Map.of("message", message))) {
+            emitter.complete();
+        }
+    }
+
+    private boolean send(String event, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(data));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // 客户端已断开，交由 SseEmitter 回调取消上游订阅
+            log.debug("SSE 推送失败: event={}, {}", event, e.getMessage());
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+}
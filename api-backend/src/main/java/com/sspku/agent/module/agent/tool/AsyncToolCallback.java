@@ -0,0 +1,18 @@
+package com.sspku.agent.module.agent.tool;
+
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 支持非阻塞执行的 ToolCallback
+ * {@link ParallelToolCallingManager} 对此类工具直接等待 Future，不再占用工具线程池中的线程。
+ */
+public interface AsyncToolCallback extends ToolCallback {
+
+    /**
+     * 异步执行工具，结果格式与 {@link #call(String, ToolContext)} 一致
+     */
+    CompletableFuture<String> callAsync(String toolInput, ToolContext toolContext);
+}
@@ -0,0 +1,90 @@
+package com.sspku.agent.module.agent.tool;
+
+import com.sspku.agent.module.agent.stream.AgentStreamListener;
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.metadata.ToolMetadata;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 带观测的 ToolCallback 包装
+ * 在工具调用前后通知流式监听器，用于向客户端推送工具调用开始/结束事件
+ */
+public class ObservedToolCallback implements ToolCallback {
+
+    private final ToolCallback delegate;
+    @Getter(AccessLevel.PROTECTED)
+    private final AgentStreamListener listener;
+
+    public ObservedToolCallback(ToolCallback delegate, AgentStreamListener listener) {
+        this.delegate = delegate;
+        this.listener = listener;
+    }
+
+    /**
+     * 包装工具回调；被包装者支持异步执行时保留异步能力
+     */
+    public static ToolCallback of(ToolCallback delegate, AgentStreamListener listener) {
+        if (delegate instanceof AsyncToolCallback asyncDelegate) {
+            return new Async(asyncDelegate, listener);
+        }
+        return new ObservedToolCallback(delegate, listener);
+    }
+
+    @Override
+    public ToolDefinition getToolDefinition() {
+        return delegate.getToolDefinition();
+    }
+
+    @Override
+    public ToolMetadata getToolMetadata() {
+        return delegate.getToolMetadata();
+    }
+
+    @Override
+    public String call(String toolInput) {
+        return call(toolInput, null);
+    }
+
+    @Override
+    public String call(String toolInput, ToolContext toolContext) {
+        String toolName = delegate.getToolDefinition().name();
+        listener.onToolStart(toolName, toolInput);
+        long start = System.currentTimeMillis();
+        boolean success = false;
+        try {
+            String result = toolContext != null ? delegate.call(toolInput, toolContext) : delegate.call(toolInput);
+            success = true;
+            return result;
+        } finally {
+            listener.onToolEnd(toolName, System.currentTimeMillis() - start, success);
+        }
+    }
+
+    /**
+     * 异步工具的观测包装，工具结束事件在 Future 完成时发出
+     */
+    private static class Async extends ObservedToolCallback implements AsyncToolCallback {
+
+        private final AsyncToolCallback asyncDelegate;
+
+        private Async(AsyncToolCallback delegate, AgentStreamListener listener) {
+            super(delegate, listener);
+            this.asyncDelegate = delegate;
+        }
+
+        @Override
+        public CompletableFuture<String> callAsync(String toolInput, ToolContext toolContext) {
+            String toolName = asyncDelegate.getToolDefinition().name();
+            getListener().onToolStart(toolName, toolInput);
+            long start = System.currentTimeMillis();
+            return asyncDelegate.callAsync(toolInput, toolContext)
+                    .whenComplete((result, error) ->
+                            getListener().onToolEnd(toolName, System.currentTimeMillis() - start, error == null));
+        }
+    }
+}
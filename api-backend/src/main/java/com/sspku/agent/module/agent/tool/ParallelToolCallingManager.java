@@ -0,0 +1,219 @@
+package com.sspku.agent.module.agent.tool;
+
+import com.sspku.agent.common.util.ThreadFactories;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.tool.DefaultToolCallingManager;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import org.springframework.ai.model.tool.ToolCallingManager;
+import org.springframework.ai.model.tool.ToolExecutionResult;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.execution.ToolExecutionException;
+import org.springframework.ai.tool.execution.ToolExecutionExceptionProcessor;
+import org.springframework.ai.tool.resolution.ToolCallbackResolver;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 并行工具调用管理器
+ * 替换 Spring AI 默认的 ToolCallingManager：模型在同一轮返回多个工具调用时，
+ * 在有界线程池上并行执行，整轮受统一截止时间约束，结果按请求顺序一次性回填给模型。
+ * 单个工具调用同样走这条路径，否则最常见的单工具轮次既不受截止时间约束，也无法走异步工具的非阻塞调用；
+ * 代价是不再产生默认实现的工具调用观测（Observation），默认实现仅用于解析工具定义。
+ * 实现了 {@link AsyncToolCallback} 的工具以非阻塞方式执行，等待期间不占用工具线程。
+ */
+@Slf4j
+@Component
+public class ParallelToolCallingManager implements ToolCallingManager {
+
+    private final ToolCallbackResolver toolCallbackResolver;
+    private final ToolExecutionExceptionProcessor toolExecutionExceptionProcessor;
+    private final DefaultToolCallingManager delegate;
+
+    @Value("${agent.tool.parallelism:8}")
+    private int parallelism;
+
+    @Value("${agent.tool.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${agent.tool.turn-timeout-ms:30000}")
+    private long turnTimeoutMs;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private ThreadPoolExecutor toolExecutor;
+
+    public ParallelToolCallingManager(ToolCallbackResolver toolCallbackResolver,
+                                      ToolExecutionExceptionProcessor toolExecutionExceptionProcessor,
+                                      ObjectProvider<ObservationRegistry> observationRegistry) {
+        this.toolCallbackResolver = toolCallbackResolver;
+        this.toolExecutionExceptionProcessor = toolExecutionExceptionProcessor;
+        this.delegate = new DefaultToolCallingManager(observationRegistry.getIfUnique(() -> ObservationRegistry.NOOP),
+                toolCallbackResolver, toolExecutionExceptionProcessor);
+    }
+
+    @PostConstruct
+    public void init() {
+        // 线程池与队列都满时由调用线程直接执行，退化为串行而不是失败
+        toolExecutor = new ThreadPoolExecutor(parallelism, parallelism, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                ThreadFactories.named("agent-tool-", virtualThreads),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        toolExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        toolExecutor.shutdownNow();
+    }
+
+    @Override
+    public List<ToolDefinition> resolveToolDefinitions(ToolCallingChatOptions chatOptions) {
+        return delegate.resolveToolDefinitions(chatOptions);
+    }
+
+    @Override
+    public ToolExecutionResult executeToolCalls(Prompt prompt, ChatResponse chatResponse) {
+        AssistantMessage assistantMessage = chatResponse.getResults().stream()
+                .map(Generation::getOutput)
+                .filter(output -> !CollectionUtils.isEmpty(output.getToolCalls()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No tool call requested by the chat model"));
+
+        List<AssistantMessage.ToolCall> toolCalls = assistantMessage.getToolCalls();
+        List<ToolCallback> callbacks = prompt.getOptions() instanceof ToolCallingChatOptions options
+                ? options.getToolCallbacks() : List.of();
+        ToolContext toolContext = buildToolContext(prompt, assistantMessage);
+
+        // 1. 先解析全部工具，任一不存在则整轮失败，与默认实现一致
+        List<ToolCallback> resolved = new ArrayList<>(toolCalls.size());
+        boolean returnDirect = true;
+        for (AssistantMessage.ToolCall toolCall : toolCalls) {
+            ToolCallback callback = resolve(callbacks, toolCall.name());
+            resolved.add(callback);
+            returnDirect = returnDirect && callback.getToolMetadata().returnDirect();
+        }
+
+        // 2. 并行提交：异步工具直接发起非阻塞调用，其余工具提交到线程池
+        List<Future<String>> futures = new ArrayList<>(toolCalls.size());
+        for (int i = 0; i < toolCalls.size(); i++) {
+            ToolCallback callback = resolved.get(i);
+            String arguments = StringUtils.hasText(toolCalls.get(i).arguments()) ? toolCalls.get(i).arguments() : "{}";
+            if (callback instanceof AsyncToolCallback asyncCallback) {
+                futures.add(callAsync(asyncCallback, arguments, toolContext));
+            } else {
+                futures.add(toolExecutor.submit(() -> call(callback, arguments, toolContext)));
+            }
+        }
+
+        // 3. 在整轮截止时间内按请求顺序收集结果
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(turnTimeoutMs);
+        List<ToolResponseMessage.ToolResponse> responses = new ArrayList<>(toolCalls.size());
+        try {
+            for (int i = 0; i < toolCalls.size(); i++) {
+                AssistantMessage.ToolCall toolCall = toolCalls.get(i);
+                responses.add(new ToolResponseMessage.ToolResponse(toolCall.id(), toolCall.name(),
+                        await(futures.get(i), toolCall.name(), deadline)));
+            }
+        } catch (RuntimeException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e;
+        }
+        log.debug("工具调用完成: count={}", toolCalls.size());
+
+        List<Message> conversationHistory = new ArrayList<>(prompt.copy().getInstructions());
+        conversationHistory.add(assistantMessage);
+        conversationHistory.add(ToolResponseMessage.builder().responses(responses).build());
+        return ToolExecutionResult.builder()
+                .conversationHistory(conversationHistory)
+                .returnDirect(returnDirect)
+                .build();
+    }
+
+    private ToolCallback resolve(List<ToolCallback> callbacks, String toolName) {
+        ToolCallback callback = callbacks.stream()
+                .filter(candidate -> toolName.equals(candidate.getToolDefinition().name()))
+                .findFirst()
+                .orElseGet(() -> toolCallbackResolver.resolve(toolName));
+        if (callback == null) {
+            throw new IllegalStateException("No ToolCallback found for tool name: " + toolName);
+        }
+        return callback;
+    }
+
+    private String call(ToolCallback callback, String arguments, ToolContext toolContext) {
+        try {
+            return callback.call(arguments, toolContext);
+        } catch (ToolExecutionException e) {
+            return toolExecutionExceptionProcessor.process(e);
+        }
+    }
+
+    private CompletableFuture<String> callAsync(AsyncToolCallback callback, String arguments, ToolContext toolContext) {
+        try {
+            return callback.callAsync(arguments, toolContext);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private String await(Future<String> future, String toolName, long deadline) {
+        try {
+            return future.get(Math.max(deadline - System.nanoTime(), 0L), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // 超时的工具以错误结果回填，其余工具的结果照常交给模型
+            future.cancel(true);
+            log.warn("工具调用超时: tool={}, turnTimeoutMs={}", toolName, turnTimeoutMs);
+            return "工具调用超时（超过 " + turnTimeoutMs + "ms）";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("工具调用被中断: " + toolName, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ToolExecutionException toolExecutionException) {
+                return toolExecutionExceptionProcessor.process(toolExecutionException);
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("工具调用失败: " + toolName, e.getCause());
+        }
+    }
+
+    private static ToolContext buildToolContext(Prompt prompt, AssistantMessage assistantMessage) {
+        Map<String, Object> context = Map.of();
+        if (prompt.getOptions() instanceof ToolCallingChatOptions options
+                && !CollectionUtils.isEmpty(options.getToolContext())) {
+            context = new HashMap<>(options.getToolContext());
+            List<Message> history = new ArrayList<>(prompt.copy().getInstructions());
+            history.add(assistantMessage);
+            context.put(ToolContext.TOOL_CALL_HISTORY, history);
+        }
+        return new ToolContext(context);
+    }
+}
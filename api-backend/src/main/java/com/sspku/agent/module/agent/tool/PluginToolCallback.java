@@ -0,0 +1,92 @@
+package com.sspku.agent.module.agent.tool;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sspku.agent.module.plugin.core.PluginExecutor;
+import com.sspku.agent.module.plugin.exception.PluginArgumentException;
+import com.sspku.agent.module.plugin.exception.PluginUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.execution.DefaultToolCallResultConverter;
+import org.springframework.ai.tool.execution.ToolCallResultConverter;
+import org.springframework.ai.tool.execution.ToolExecutionException;
+import org.springframework.ai.tool.metadata.ToolMetadata;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * 插件函数工具
+ * 同步调用委托给 FunctionToolCallback，异步调用走 {@link PluginExecutor#executeAsync}。
+ */
+@Slf4j
+public class PluginToolCallback implements AsyncToolCallback {
+
+    private static final TypeReference<Map<String, Object>> ARGS_TYPE = new TypeReference<>() {
+    };
+
+    private static final ToolCallResultConverter RESULT_CONVERTER = new DefaultToolCallResultConverter();
+
+    private final ToolCallback delegate;
+    private final Long pluginId;
+    private final PluginExecutor pluginExecutor;
+    private final ObjectMapper objectMapper;
+
+    public PluginToolCallback(ToolCallback delegate, Long pluginId, PluginExecutor pluginExecutor,
+                              ObjectMapper objectMapper) {
+        this.delegate = delegate;
+        this.pluginId = pluginId;
+        this.pluginExecutor = pluginExecutor;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public ToolDefinition getToolDefinition() {
+        return delegate.getToolDefinition();
+    }
+
+    @Override
+    public ToolMetadata getToolMetadata() {
+        return delegate.getToolMetadata();
+    }
+
+    @Override
+    public String call(String toolInput) {
+        return delegate.call(toolInput);
+    }
+
+    @Override
+    public String call(String toolInput, ToolContext toolContext) {
+        return delegate.call(toolInput, toolContext);
+    }
+
+    @Override
+    public CompletableFuture<String> callAsync(String toolInput, ToolContext toolContext) {
+        String functionName = delegate.getToolDefinition().name();
+        Map<String, Object> args;
+        try {
+            args = objectMapper.readValue(toolInput, ARGS_TYPE);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("工具参数不是合法的 JSON: " + functionName, e));
+        }
+        log.info("异步调用插件工具: pluginId={}, function={}, args={}", pluginId, functionName, args);
+        return pluginExecutor.executeAsync(pluginId, functionName, args)
+                .thenApply(result -> RESULT_CONVERTER.convert(result, String.class))
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof PluginUnavailableException unavailable) {
+                        // 熔断或限流时返回结构化结果，让模型停止重试该工具
+                        return unavailable.toToolResult();
+                    }
+                    if (cause instanceof PluginArgumentException invalid) {
+                        // 参数不合法时列出错误，让模型修正参数后重试
+                        return invalid.toToolResult();
+                    }
+                    // 与同步路径一致：由 ToolExecutionExceptionProcessor 转换为模型可见的错误信息
+                    throw new ToolExecutionException(getToolDefinition(), cause);
+                });
+    }
+}
@@ -1,27 +1,43 @@
 package com.sspku.agent.module.agent.tool;
 
+import cn.hutool.cache.Cache;
+import cn.hutool.cache.CacheUtil;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.sspku.agent.module.plugin.core.OpenAPIParser;
+import com.sspku.agent.module.agent.vo.ToolTokenReportVO;
+import com.sspku.agent.module.plugin.core.FunctionIndex;
 import com.sspku.agent.module.plugin.core.PluginExecutor;
 import com.sspku.agent.module.plugin.dto.FunctionDefinition;
-import com.sspku.agent.module.plugin.entity.Plugin;
+import com.sspku.agent.module.plugin.event.PluginChangedEvent;
+import com.sspku.agent.module.plugin.exception.PluginArgumentException;
+import com.sspku.agent.module.plugin.exception.PluginUnavailableException;
 import com.sspku.agent.module.plugin.service.IPluginService;
 import com.sspku.agent.module.plugin.vo.PluginVO;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.tool.ToolCallback;
 import org.springframework.ai.tool.function.FunctionToolCallback;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.function.Function;
 
 /**
  * 插件工具工厂
  * 将 OpenAPI 插件转换为 Spring AI ToolCallback
+ * 内置按 (pluginId, updatedAt) 版本化的工具注册表：同一插件版本只解析一次 OpenAPI、
+ * 只序列化一次参数 Schema，之后直接复用已构建的 ToolCallback。
+ * 工具定义随每次模型调用发送，超出智能体的工具 token 预算时由 {@link ToolSchemaCompactor} 逐级压缩。
  */
 @Component
 @RequiredArgsConstructor
@@ -29,68 +45,202 @@ import java.util.function.Function;
 public class PluginToolFactory {
 
     private final IPluginService pluginService;
-    private final OpenAPIParser openAPIParser;
+    private final FunctionIndex functionIndex;
     private final PluginExecutor pluginExecutor;
     private final ObjectMapper objectMapper;
 
+    @Value("${agent.tool-registry.cache-size:1000}")
+    private int registrySize;
+
+    @Value("${agent.tool-compaction.enabled:true}")
+    private boolean compactionEnabled;
+
+    @Value("${agent.tool-compaction.default-budget:0}")
+    private int defaultBudget;
+
+    private ToolSchemaCompactor compactor;
+
+    /**
+     * pluginId -> 该插件某一版本的工具集合
+     */
+    private Cache<Long, PluginTools> registry;
+
+    @PostConstruct
+    public void init() {
+        registry = CacheUtil.newLRUCache(registrySize);
+        compactor = new ToolSchemaCompactor(objectMapper);
+    }
+
     /**
      * 根据插件ID列表创建 ToolCallback 列表
      */
     public List<ToolCallback> createToolCallbacks(List<Long> pluginIds) {
-        List<ToolCallback> toolCallbacks = new ArrayList<>();
-        if (pluginIds == null || pluginIds.isEmpty()) {
-            return toolCallbacks;
-        }
+        return createToolSet(pluginIds, null).callbacks();
+    }
 
-        for (Long pluginId : pluginIds) {
-            try {
-                // 1. 获取插件信息
-                PluginVO pluginVO = pluginService.getPluginById(pluginId);
+    /**
+     * 创建工具集合并压缩到 token 预算以内
+     * @param tokenBudget 智能体配置的工具 token 预算，为空或不大于 0 时使用全局默认值
+     */
+    public ToolSet createToolSet(List<Long> pluginIds, Integer tokenBudget) {
+        int budget = compactionEnabled ? (tokenBudget != null && tokenBudget > 0 ? tokenBudget : defaultBudget) : 0;
+        List<ToolEntry> entries = new ArrayList<>();
+        if (pluginIds != null && !pluginIds.isEmpty()) {
+            // 1. 批量获取插件信息（单次查询）
+            List<PluginVO> plugins = pluginService.getPluginsByIds(pluginIds);
+
+            for (PluginVO pluginVO : plugins) {
                 if (!"enabled".equals(pluginVO.getStatus())) {
                     continue;
                 }
+                try {
+                    // 2. 命中同版本注册项则直接复用
+                    entries.addAll(resolve(pluginVO).getEntries());
+                } catch (Exception e) {
+                    log.error("创建插件工具失败: pluginId={}", pluginVO.getId(), e);
+                }
+            }
+        }
 
-                // 2. 解析函数定义
-                Plugin plugin = new Plugin();
-                plugin.setId(pluginVO.getId());
-                plugin.setName(pluginVO.getName());
-                plugin.setOpenapiSpec(pluginVO.getOpenapiSpec());
+        // 3. 超出预算时压缩，未改动的工具仍复用已构建的 ToolCallback
+        List<ToolSchemaCompactor.Tool> tools = new ArrayList<>(entries.size());
+        for (ToolEntry entry : entries) {
+            tools.add(new ToolSchemaCompactor.Tool(entry.getFunction().getName(), entry.getFunction().getDescription(),
+                    entry.getSchema(), entry.getInputSchema()));
+        }
+        ToolSchemaCompactor.Result result = compactor.compact(tools, budget);
 
-                List<FunctionDefinition> functions = openAPIParser.parse(plugin);
+        List<ToolCallback> callbacks = new ArrayList<>(entries.size());
+        List<ToolTokenReportVO.ToolTokens> usages = new ArrayList<>(entries.size());
+        int originalTokens = 0;
+        for (int i = 0; i < entries.size(); i++) {
+            ToolEntry entry = entries.get(i);
+            ToolSchemaCompactor.CompactedTool compacted = result.tools().get(i);
+            callbacks.add(compacted.changed()
+                    ? createToolCallback(entry.getPluginId(), entry.getFunction(), compacted.description(),
+                    compacted.inputSchema())
+                    : entry.getCallback());
+            originalTokens += entry.getOriginalTokens();
+            usages.add(ToolTokenReportVO.ToolTokens.builder()
+                    .pluginId(entry.getPluginId())
+                    .name(entry.getFunction().getName())
+                    .originalTokens(entry.getOriginalTokens())
+                    .compactedTokens(compacted.tokens())
+                    .build());
+        }
+        if (!result.withinBudget()) {
+            log.warn("工具定义压缩后仍超出预算: budget={}, tokens={}", budget, result.tokens());
+        }
+        ToolTokenReportVO report = ToolTokenReportVO.builder()
+                .budget(budget)
+                .toolCount(entries.size())
+                .originalTokens(originalTokens)
+                .compactedTokens(result.tokens())
+                .withinBudget(result.withinBudget())
+                .steps(result.steps())
+                .tools(usages)
+                .compiledAt(LocalDateTime.now())
+                .build();
+        return new ToolSet(callbacks, report);
+    }
 
-                // 3. 为每个函数创建 ToolCallback
-                for (FunctionDefinition funcDef : functions) {
-                    toolCallbacks.add(createToolCallback(pluginId, funcDef));
-                }
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPluginChanged(PluginChangedEvent event) {
+        // updatedAt 精度为秒，同一秒内的多次修改依赖事件显式失效
+        registry.remove(event.getPluginId());
+    }
 
-            } catch (Exception e) {
-                log.error("创建插件工具失败: pluginId={}", pluginId, e);
-            }
+    private PluginTools resolve(PluginVO pluginVO) {
+        PluginTools cached = registry.get(pluginVO.getId());
+        if (cached != null && Objects.equals(cached.getVersion(), pluginVO.getUpdatedAt())) {
+            return cached;
         }
-        return toolCallbacks;
+        PluginTools tools = build(pluginVO);
+        registry.put(pluginVO.getId(), tools);
+        return tools;
     }
 
-    private ToolCallback createToolCallback(Long pluginId, FunctionDefinition funcDef) {
+    private PluginTools build(PluginVO pluginVO) {
+        // 函数定义取自共享的函数索引，与执行器共用同一次 OpenAPI 解析
+        Collection<FunctionDefinition> functions = functionIndex.get(pluginVO).values();
+
+        // 为每个函数创建 ToolCallback
+        List<ToolEntry> entries = new ArrayList<>(functions.size());
+        for (FunctionDefinition funcDef : functions) {
+            String originalSchema = serializeSchema(funcDef.getParameters());
+            Map<String, Object> schema = compactor.strip(funcDef.getParameters());
+            String inputSchema = compactionEnabled ? compactor.serialize(schema) : originalSchema;
+            entries.add(new ToolEntry(pluginVO.getId(), funcDef, schema, inputSchema,
+                    ToolSchemaCompactor.tokens(funcDef.getName(), funcDef.getDescription(), originalSchema),
+                    createToolCallback(pluginVO.getId(), funcDef, funcDef.getDescription(), inputSchema)));
+        }
+        return new PluginTools(pluginVO.getUpdatedAt(), Collections.unmodifiableList(entries));
+    }
+
+    private String serializeSchema(FunctionDefinition.Parameters parameters) {
         // 构造 JSON Schema
-        String inputSchema = "{}";
         try {
-            inputSchema = objectMapper.writeValueAsString(funcDef.getParameters());
+            return objectMapper.writeValueAsString(parameters);
         } catch (JsonProcessingException e) {
             log.error("序列化参数Schema失败", e);
+            return "{}";
         }
+    }
 
+    private ToolCallback createToolCallback(Long pluginId, FunctionDefinition funcDef, String description,
+                                            String inputSchema) {
         // 创建执行函数
         // Spring AI 会将 LLM 的 JSON 参数反序列化为 Map
         Function<Map<String, Object>, String> toolFunction = args -> {
             log.info("调用插件工具: pluginId={}, function={}, args={}", pluginId, funcDef.getName(), args);
-            return pluginExecutor.execute(pluginId, funcDef.getName(), args);
+            try {
+                return pluginExecutor.execute(pluginId, funcDef.getName(), args);
+            } catch (PluginUnavailableException e) {
+                // 熔断或限流时返回结构化结果，让模型停止重试该工具
+                return e.toToolResult();
+            } catch (PluginArgumentException e) {
+                // 参数不合法时列出错误，让模型修正参数后重试
+                return e.toToolResult();
+            }
         };
 
-        return FunctionToolCallback
+        ToolCallback functionCallback = FunctionToolCallback
                 .builder(funcDef.getName(), toolFunction)
-                .description(funcDef.getDescription())
+                .description(description)
                 .inputType(Map.class) // 使用 Map 接收参数
                 .inputSchema(inputSchema) // 显式提供 Schema
                 .build();
+        // 包装为支持异步执行的工具，并行工具调用时不占用等待线程
+        return new PluginToolCallback(functionCallback, pluginId, pluginExecutor, objectMapper);
+    }
+
+    /**
+     * 工具回调及其 token 占用报告
+     */
+    public record ToolSet(List<ToolCallback> callbacks, ToolTokenReportVO report) {
+    }
+
+    /**
+     * 某一插件版本的已构建工具
+     */
+    @Getter
+    @RequiredArgsConstructor
+    private static class PluginTools {
+        private final LocalDateTime version;
+        private final List<ToolEntry> entries;
+    }
+
+    /**
+     * 单个函数的工具：去除非必要关键字后的参数 Schema、原始 token 数与按原始描述构建的 ToolCallback
+     */
+    @Getter
+    @RequiredArgsConstructor
+    private static class ToolEntry {
+        private final Long pluginId;
+        private final FunctionDefinition function;
+        private final Map<String, Object> schema;
+        private final String inputSchema;
+        private final int originalTokens;
+        private final ToolCallback callback;
     }
 }
@@ -0,0 +1,436 @@
+package com.sspku.agent.module.agent.tool;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sspku.agent.common.util.TokenEstimator;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * 工具 Schema 压缩器
+ * 按信息损失从小到大逐级压缩工具描述与参数 Schema，直到全部工具的 token 估算值落入预算：
+ * 1. 去除对调用无帮助的关键字（title、example、x-* 扩展等），紧凑序列化，构建工具时即完成；
+ * 2. 同一 Schema 内重复出现的子 Schema 提取到 $defs，原位置改为 $ref；
+ * 3. 参数描述截断为首句，再逐级缩短直至移除；
+ * 4. 工具描述截断为首句，再逐级缩短。
+ * 每一级都从 token 最多的工具开始处理，满足预算即停止，较小的工具尽量保持原样。
+ * 不删除工具与参数：预算过小时返回压缩程度最高的结果并标记超出预算。
+ */
+public class ToolSchemaCompactor {
+
+    /**
+     * 去除的非必要关键字，另外所有 x- 开头的扩展字段也会去除
+     */
+    private static final Set<String> NON_ESSENTIAL_KEYWORDS = Set.of("title", "example", "examples",
+            "externalDocs", "xml", "deprecated", "readOnly", "writeOnly", "$schema", "$comment");
+
+    /**
+     * 值为 名称 -> 子 Schema 的关键字
+     */
+    private static final Set<String> SCHEMA_MAP_KEYWORDS = Set.of("properties", "patternProperties",
+            "$defs", "definitions", "dependentSchemas");
+
+    /**
+     * 值为子 Schema 或子 Schema 数组的关键字
+     */
+    private static final Set<String> SCHEMA_KEYWORDS = Set.of("items", "additionalItems", "prefixItems",
+            "additionalProperties", "unevaluatedProperties", "unevaluatedItems", "propertyNames", "contains",
+            "not", "allOf", "anyOf", "oneOf", "if", "then", "else");
+
+    /**
+     * 参数描述的逐级上限（token），-1 表示截断为首句，0 表示移除
+     */
+    private static final int[] PARAM_DESCRIPTION_LIMITS = {-1, 24, 8, 0};
+
+    /**
+     * 工具描述的逐级上限（token），保留最短的一段以便模型区分工具
+     */
+    private static final int[] TOOL_DESCRIPTION_LIMITS = {-1, 48, 24};
+
+    /**
+     * 单个 Schema 最多提取的共享子 Schema 数
+     */
+    private static final int MAX_SHARED_DEFS = 32;
+
+    private static final String DEFS_PREFIX = "#/$defs/";
+
+    private final ObjectMapper objectMapper;
+
+    public ToolSchemaCompactor(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 待压缩的工具
+     * @param schema      参数 Schema，压缩时不会修改
+     * @param inputSchema schema 的序列化结果
+     */
+    public record Tool(String name, String description, Map<String, Object> schema, String inputSchema) {
+    }
+
+    /**
+     * 压缩后的工具
+     * @param changed 是否与输入不同，未变化的工具可复用已构建的 ToolCallback
+     */
+    public record CompactedTool(String description, String inputSchema, int tokens, boolean changed) {
+    }
+
+    /**
+     * @param steps 实际生效的压缩步骤
+     */
+    public record Result(List<CompactedTool> tools, int tokens, boolean withinBudget, List<String> steps) {
+    }
+
+    /**
+     * 估算一个工具定义占用的 token 数
+     */
+    public static int tokens(String name, String description, String inputSchema) {
+        return TokenEstimator.estimate(name) + TokenEstimator.estimate(description)
+                + TokenEstimator.estimate(inputSchema);
+    }
+
+    /**
+     * 转换为 Map 形式的 Schema 并去除非必要关键字与空值，返回新的 Map
+     */
+    public Map<String, Object> strip(Object schema) {
+        Map<String, Object> copy = copy(objectMapper.convertValue(schema, Map.class));
+        walk(copy, node -> node.entrySet().removeIf(entry -> entry.getValue() == null
+                || NON_ESSENTIAL_KEYWORDS.contains(entry.getKey()) || entry.getKey().startsWith("x-")));
+        return copy;
+    }
+
+    public String serialize(Map<String, Object> schema) {
+        try {
+            return objectMapper.writeValueAsString(schema);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("序列化参数Schema失败", e);
+        }
+    }
+
+    /**
+     * 将工具压缩到预算以内
+     * @param budget token 预算，不大于 0 表示不限制
+     */
+    public Result compact(List<Tool> tools, int budget) {
+        List<Working> working = new ArrayList<>(tools.size());
+        int total = 0;
+        for (Tool tool : tools) {
+            Working item = new Working(tool);
+            working.add(item);
+            total += item.tokens;
+        }
+        List<String> steps = new ArrayList<>();
+        if (budget > 0 && total > budget) {
+            total = apply(working, total, budget, "DEDUPE", steps, item -> dedupe(item.schema()));
+            for (int limit : PARAM_DESCRIPTION_LIMITS) {
+                if (total <= budget) {
+                    break;
+                }
+                total = apply(working, total, budget, "PARAM_DESCRIPTION:" + label(limit), steps,
+                        item -> walk(item.schema(), node -> limitDescription(node, limit)));
+            }
+            for (int limit : TOOL_DESCRIPTION_LIMITS) {
+                if (total <= budget) {
+                    break;
+                }
+                total = apply(working, total, budget, "TOOL_DESCRIPTION:" + label(limit), steps,
+                        item -> item.description = limit(item.description, limit));
+            }
+        }
+        List<CompactedTool> compacted = new ArrayList<>(working.size());
+        for (Working item : working) {
+            compacted.add(new CompactedTool(item.description, item.inputSchema, item.tokens, item.changed));
+        }
+        return new Result(compacted, total, budget <= 0 || total <= budget, steps);
+    }
+
+    /**
+     * 按 token 数从多到少对工具执行一个压缩步骤，满足预算即停止
+     * @return 执行后的总 token 数
+     */
+    private int apply(List<Working> working, int total, int budget, String step, List<String> steps,
+                      Consumer<Working> action) {
+        List<Working> ordered = new ArrayList<>(working);
+        ordered.sort(Comparator.comparingInt((Working item) -> item.tokens).reversed());
+        boolean effective = false;
+        for (Working item : ordered) {
+            if (total <= budget) {
+                break;
+            }
+            int before = item.tokens;
+            action.accept(item);
+            item.refresh();
+            if (item.tokens < before) {
+                total -= before - item.tokens;
+                effective = true;
+            }
+        }
+        if (effective) {
+            steps.add(step);
+        }
+        return total;
+    }
+
+    /**
+     * 将出现多次的子 Schema 提取到 $defs：每轮选节省最多的一个，直到没有可节省的重复项
+     */
+    private void dedupe(Map<String, Object> root) {
+        Map<String, Object> defs = root.get("$defs") instanceof Map<?, ?> existing
+                ? cast(existing) : new LinkedHashMap<>();
+        int refTokens = TokenEstimator.estimate(serialize(Map.of("$ref", DEFS_PREFIX + "S" + MAX_SHARED_DEFS)));
+        for (int i = 1; i <= MAX_SHARED_DEFS; i++) {
+            Map<String, Integer> counts = new HashMap<>();
+            Map<String, Map<String, Object>> samples = new HashMap<>();
+            collect(root, counts, samples);
+            String best = null;
+            int bestSaving = 0;
+            for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+                int count = entry.getValue();
+                if (count < 2) {
+                    continue;
+                }
+                int size = TokenEstimator.estimate(entry.getKey());
+                // 原本 count 份，提取后为 1 份定义加 count 个引用
+                int saving = (count - 1) * size - count * refTokens - 2;
+                if (saving > bestSaving) {
+                    best = entry.getKey();
+                    bestSaving = saving;
+                }
+            }
+            if (best == null) {
+                break;
+            }
+            String name = "S" + i;
+            while (defs.containsKey(name)) {
+                name = name + "_";
+            }
+            Map<String, Object> definition = samples.get(best);
+            replace(root, best, DEFS_PREFIX + name);
+            defs.put(name, definition);
+            root.put("$defs", defs);
+        }
+    }
+
+    /**
+     * 统计各子 Schema（不含 $defs 中的定义本身）的出现次数
+     */
+    private void collect(Map<String, Object> schema, Map<String, Integer> counts,
+                         Map<String, Map<String, Object>> samples) {
+        visitChildren(schema, (child, definition) -> {
+            if (child instanceof Map<?, ?> map) {
+                Map<String, Object> node = cast(map);
+                if (!definition) {
+                    String json = serialize(node);
+                    counts.merge(json, 1, Integer::sum);
+                    samples.putIfAbsent(json, node);
+                }
+                collect(node, counts, samples);
+            }
+            return child;
+        });
+    }
+
+    private void replace(Map<String, Object> schema, String json, String ref) {
+        visitChildren(schema, (child, definition) -> {
+            if (child instanceof Map<?, ?> map) {
+                Map<String, Object> node = cast(map);
+                if (!definition && json.equals(serialize(node))) {
+                    Map<String, Object> reference = new LinkedHashMap<>();
+                    reference.put("$ref", ref);
+                    return reference;
+                }
+                replace(node, json, ref);
+            }
+            return child;
+        });
+    }
+
+    private static void limitDescription(Map<String, Object> node, int limit) {
+        if (node.get("description") instanceof String description) {
+            String shortened = limit(description, limit);
+            if (shortened == null) {
+                node.remove("description");
+            } else {
+                node.put("description", shortened);
+            }
+        }
+    }
+
+    /**
+     * @param limit -1 表示截断为首句，0 表示移除，其余为 token 上限
+     */
+    static String limit(String text, int limit) {
+        if (text == null) {
+            return null;
+        }
+        if (limit < 0) {
+            return firstSentence(text);
+        }
+        if (limit == 0) {
+            return null;
+        }
+        if (TokenEstimator.estimate(text) <= limit) {
+            return text;
+        }
+        // 预留 1 个 token 给省略号
+        int cjk = 0;
+        int other = 0;
+        int end = 0;
+        for (; end < text.length(); end++) {
+            if (TokenEstimator.isCjk(text.charAt(end))) {
+                cjk++;
+            } else {
+                other++;
+            }
+            if (cjk + (other + 3) / 4 > limit - 1) {
+                break;
+            }
+        }
+        if (end > 0 && Character.isHighSurrogate(text.charAt(end - 1))) {
+            end--;
+        }
+        return text.substring(0, end).stripTrailing() + "…";
+    }
+
+    static String firstSentence(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                return i > 0 ? text.substring(0, i).stripTrailing() : text.strip();
+            }
+            if (c == '。' || c == '！' || c == '？' || c == '；') {
+                return text.substring(0, i + 1);
+            }
+            if ((c == '.' || c == '!' || c == '?') && (i + 1 == text.length()
+                    || Character.isWhitespace(text.charAt(i + 1)))) {
+                return text.substring(0, i + 1);
+            }
+        }
+        return text;
+    }
+
+    private static String label(int limit) {
+        return limit < 0 ? "FIRST_SENTENCE" : String.valueOf(limit);
+    }
+
+    /**
+     * 深度优先访问每个 Schema 节点（含根节点），visitor 可修改当前节点的关键字
+     */
+    private static void walk(Map<String, Object> schema, Consumer<Map<String, Object>> visitor) {
+        visitor.accept(schema);
+        visitChildren(schema, (child, definition) -> {
+            if (child instanceof Map<?, ?> map) {
+                walk(cast(map), visitor);
+            }
+            return child;
+        });
+    }
+
+    /**
+     * 访问直接子 Schema，以返回值替换原位置；properties 等容器中的键是参数名而非关键字，不做处理
+     */
+    private static void visitChildren(Map<String, Object> schema, ChildVisitor visitor) {
+        for (Map.Entry<String, Object> entry : schema.entrySet()) {
+            String key = entry.getKey();
+            Object value = entry.getValue();
+            if (SCHEMA_MAP_KEYWORDS.contains(key) && value instanceof Map<?, ?> children) {
+                boolean definition = "$defs".equals(key) || "definitions".equals(key);
+                for (Map.Entry<String, Object> child : cast(children).entrySet()) {
+                    child.setValue(visitor.visit(child.getValue(), definition));
+                }
+            } else if (SCHEMA_KEYWORDS.contains(key)) {
+                if (value instanceof List<?> list) {
+                    List<Object> items = castList(list);
+                    items.replaceAll(item -> visitor.visit(item, false));
+                } else {
+                    entry.setValue(visitor.visit(value, false));
+                }
+            }
+        }
+    }
+
+    /**
+     * 深拷贝 Schema，输入可能是多个函数共享的只读 Map
+     */
+    private static Map<String, Object> copy(Map<?, ?> schema) {
+        Map<String, Object> copy = new LinkedHashMap<>();
+        if (schema != null) {
+            schema.forEach((key, value) -> copy.put(String.valueOf(key), copyValue(value)));
+        }
+        return copy;
+    }
+
+    private static Object copyValue(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            return copy(map);
+        }
+        if (value instanceof List<?> list) {
+            List<Object> copy = new ArrayList<>(list.size());
+            list.forEach(item -> copy.add(copyValue(item)));
+            return copy;
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> cast(Map<?, ?> map) {
+        return (Map<String, Object>) map;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> castList(List<?> list) {
+        return (List<Object>) list;
+    }
+
+    @FunctionalInterface
+    private interface ChildVisitor {
+        /**
+         * @param definition 是否为 $defs 中的定义
+         * @return 替换后的子 Schema
+         */
+        Object visit(Object child, boolean definition);
+    }
+
+    /**
+     * 压缩过程中的工具，首次修改 Schema 时才复制
+     */
+    private final class Working {
+        private final Tool source;
+        private String description;
+        private Map<String, Object> schema;
+        private String inputSchema;
+        private int tokens;
+        private boolean changed;
+
+        private Working(Tool source) {
+            this.source = source;
+            this.description = source.description();
+            this.inputSchema = source.inputSchema();
+            this.tokens = tokens(source.name(), description, inputSchema);
+        }
+
+        private Map<String, Object> schema() {
+            if (schema == null) {
+                schema = copy(source.schema());
+            }
+            return schema;
+        }
+
+        private void refresh() {
+            if (schema != null) {
+                inputSchema = serialize(schema);
+            }
+            tokens = tokens(source.name(), description, inputSchema);
+            changed = !inputSchema.equals(source.inputSchema())
+                    || !Objects.equals(description, source.description());
+        }
+    }
+}
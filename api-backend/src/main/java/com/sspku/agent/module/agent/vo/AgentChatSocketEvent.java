@@ -0,0 +1,22 @@
+package com.sspku.agent.module.agent.vo;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * WebSocket 对话下行帧
+ * type: token / tool_start / tool_end / done / error / cancelled / pong
+ */
+@Data
+@Builder
+public class AgentChatSocketEvent {
+    private String type;
+    private String conversationId;
+    private String content;
+    private String tool;
+    private String arguments;
+    private Long elapsedMs;
+    private Boolean success;
+    private AgentTestResponse usage;
+    private String message;
+}
@@ -0,0 +1,25 @@
+package com.sspku.agent.module.agent.vo;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 异步运行视图对象
+ */
+@Data
+@Builder(toBuilder = true)
+public class AgentRunVO {
+    private String runId;
+    private Long agentId;
+    /**
+     * queued / running / succeeded / failed
+     */
+    private String status;
+    private AgentTestResponse result;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
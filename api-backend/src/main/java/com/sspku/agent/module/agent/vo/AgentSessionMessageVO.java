@@ -0,0 +1,18 @@
+package com.sspku.agent.module.agent.vo;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 会话消息视图对象
+ */
+@Data
+@Builder
+public class AgentSessionMessageVO {
+    private Long id;
+    private String role;
+    private String content;
+    private LocalDateTime createdAt;
+}
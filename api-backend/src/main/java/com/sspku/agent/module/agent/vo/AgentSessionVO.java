@@ -0,0 +1,22 @@
+package com.sspku.agent.module.agent.vo;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 对话会话视图对象
+ */
+@Data
+@Builder
+public class AgentSessionVO {
+    private Long id;
+    private Long agentId;
+    private Long userId;
+    private String title;
+    private String summary;
+    private Integer status;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
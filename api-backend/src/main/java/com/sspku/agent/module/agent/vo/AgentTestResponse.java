@@ -11,6 +11,10 @@ import lombok.Data;
 public class AgentTestResponse {
     private String reply;
     private long elapsedMs;
+    /**
+     * 首个 token 到达耗时（仅流式输出返回）
+     */
+    private Long firstTokenMs;
     private int promptTokens;
     private int completionTokens;
 }
@@ -0,0 +1,33 @@
+package com.sspku.agent.module.agent.vo;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * 模型舱壁饱和度统计
+ */
+@Data
+@Builder
+public class ModelBulkheadStatsVO {
+    /**
+     * provider:model
+     */
+    private String name;
+    private int maxConcurrent;
+    private int inFlight;
+    private int maxWaiting;
+    private int waiting;
+    /**
+     * 排队中的后台调用（异步运行、会话摘要），不计入 maxWaiting
+     */
+    private int backgroundWaiting;
+    private long accepted;
+    /**
+     * 等待队列已满被立即拒绝的次数
+     */
+    private long rejected;
+    /**
+     * 排队等待超时的次数
+     */
+    private long timedOut;
+}
@@ -0,0 +1,45 @@
+package com.sspku.agent.module.agent.vo;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 智能体工具定义的 token 占用（压缩前后）
+ */
+@Data
+@Builder
+public class ToolTokenReportVO {
+    private Long agentId;
+    /**
+     * 生效的工具 token 预算，0 表示不限制
+     */
+    private int budget;
+    private int toolCount;
+    /**
+     * 原始描述与参数 Schema 的 token 估算值
+     */
+    private int originalTokens;
+    /**
+     * 压缩后实际随每次模型调用发送的 token 估算值
+     */
+    private int compactedTokens;
+    private boolean withinBudget;
+    /**
+     * 实际生效的压缩步骤
+     */
+    private List<String> steps;
+    private List<ToolTokens> tools;
+    private LocalDateTime compiledAt;
+
+    @Data
+    @Builder
+    public static class ToolTokens {
+        private Long pluginId;
+        private String name;
+        private int originalTokens;
+        private int compactedTokens;
+    }
+}
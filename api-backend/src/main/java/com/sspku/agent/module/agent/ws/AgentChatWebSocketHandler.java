@@ -0,0 +1,230 @@
+package com.sspku.agent.module.agent.ws;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sspku.agent.common.exception.BusinessException;
+import com.sspku.agent.config.JwtHandshakeInterceptor;
+import com.sspku.agent.module.agent.dto.AgentChatSocketRequest;
+import com.sspku.agent.module.agent.dto.AgentTestRequest;
+import com.sspku.agent.module.agent.service.AgentService;
+import com.sspku.agent.module.agent.stream.AgentStreamListener;
+import com.sspku.agent.module.agent.vo.AgentChatSocketEvent;
+import com.sspku.agent.module.agent.vo.AgentTestResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import reactor.core.Disposable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 智能体对话 WebSocket 网关
+ * 一条连接（握手时鉴权一次）上按 conversationId 复用多个并发对话，
+ * 下行推送 token、工具调用开始/结束、用量与错误事件。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AgentChatWebSocketHandler extends TextWebSocketHandler {
+
+    private final AgentService agentService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${agent.ws.max-conversations:8}")
+    private int maxConversations;
+
+    @Value("${agent.ws.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+
+    @Value("${agent.ws.send-buffer-size:524288}")
+    private int sendBufferSize;
+
+    /**
+     * sessionId -> 连接上下文
+     */
+    private final Map<String, Connection> connections = new ConcurrentHashMap<>();
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        // 多个对话的回调线程会并发写同一连接，需串行化发送
+        WebSocketSession concurrentSession =
+                new ConcurrentWebSocketSessionDecorator(session, sendTimeLimitMs, sendBufferSize);
+        Long userId = (Long) session.getAttributes().get(JwtHandshakeInterceptor.ATTR_USER_ID);
+        connections.put(session.getId(), new Connection(concurrentSession, userId));
+        log.info("WebSocket 连接建立: sessionId={}, userId={}", session.getId(), userId);
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        Connection connection = connections.get(session.getId());
+        if (connection == null) {
+            return;
+        }
+
+        AgentChatSocketRequest request;
+        try {
+            request = objectMapper.readValue(message.getPayload(), AgentChatSocketRequest.class);
+        } catch (Exception e) {
+            connection.send(AgentChatSocketEvent.builder().type("error").message("消息格式错误").build());
+            return;
+        }
+
+        String type = request.getType() != null ? request.getType() : "chat";
+        switch (type) {
+            case "chat" -> startConversation(connection, request);
+            case "cancel" -> connection.cancel(request.getConversationId());
+            case "ping" -> connection.send(AgentChatSocketEvent.builder().type("pong").build());
+            default -> connection.send(AgentChatSocketEvent.builder()
+                    .type("error").conversationId(request.getConversationId())
+                    .message("不支持的消息类型: " + type).build());
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        Connection connection = connections.remove(session.getId());
+        if (connection != null) {
+            connection.cancelAll();
+        }
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        log.debug("WebSocket 传输异常: sessionId={}, {}", session.getId(), exception.getMessage());
+    }
+
+    private void startConversation(Connection connection, AgentChatSocketRequest request) {
+        String conversationId = request.getConversationId();
+        if (!StringUtils.hasText(conversationId) || request.getAgentId() == null
+                || !StringUtils.hasText(request.getQuestion())) {
+            connection.send(AgentChatSocketEvent.builder().type("error").conversationId(conversationId)
+                    .message("conversationId、agentId、question 不能为空").build());
+            return;
+        }
+        if (connection.conversations.containsKey(conversationId)) {
+            connection.send(AgentChatSocketEvent.builder().type("error").conversationId(conversationId)
+                    .message("该对话仍在进行中").build());
+            return;
+        }
+        if (connection.conversations.size() >= maxConversations) {
+            connection.send(AgentChatSocketEvent.builder().type("error").conversationId(conversationId)
+                    .message("并发对话数已达上限: " + maxConversations).build());
+            return;
+        }
+
+        AgentTestRequest testRequest = new AgentTestRequest();
+        testRequest.setQuestion(request.getQuestion());
+        testRequest.setSessionId(request.getSessionId());
+        AgentStreamListener listener = new ConversationListener(connection, conversationId);
+        try {
+            Disposable subscription = agentService.streamAgent(request.getAgentId(), testRequest,
+                    connection.userId, listener);
+            connection.conversations.put(conversationId, subscription);
+            // 对话可能在登记前就已结束，此时撤销登记
+            if (subscription.isDisposed()) {
+                connection.conversations.remove(conversationId, subscription);
+            }
+        } catch (BusinessException e) {
+            listener.onError(e);
+        }
+    }
+
+    /**
+     * 单条 WebSocket 连接上的发送通道与进行中的对话
+     */
+    private class Connection {
+
+        private final WebSocketSession session;
+        /**
+         * 握手时鉴权得到的用户，用于校验会话归属
+         */
+        private final Long userId;
+        private final Map<String, Disposable> conversations = new ConcurrentHashMap<>();
+
+        Connection(WebSocketSession session, Long userId) {
+            this.session = session;
+            this.userId = userId;
+        }
+
+        void send(AgentChatSocketEvent event) {
+            if (!session.isOpen()) {
+                return;
+            }
+            try {
+                session.sendMessage(new TextMessage(objectMapper.writeValueAsString(event)));
+            } catch (Exception e) {
+                log.debug("WebSocket 推送失败: sessionId={}, {}", session.getId(), e.getMessage());
+            }
+        }
+
+        void cancel(String conversationId) {
+            if (conversationId == null) {
+                return;
+            }
+            Disposable subscription = conversations.remove(conversationId);
+            if (subscription != null) {
+                subscription.dispose();
+                send(AgentChatSocketEvent.builder().type("cancelled").conversationId(conversationId).build());
+            }
+        }
+
+        void cancelAll() {
+            conversations.values().forEach(Disposable::dispose);
+            conversations.clear();
+        }
+    }
+
+    /**
+     * 将单个对话的流式回调转换为带 conversationId 的下行帧
+     */
+    private static class ConversationListener implements AgentStreamListener {
+
+        private final Connection connection;
+        private final String conversationId;
+
+        ConversationListener(Connection connection, String conversationId) {
+            this.connection = connection;
+            this.conversationId = conversationId;
+        }
+
+        @Override
+        public void onToken(String content) {
+            connection.send(AgentChatSocketEvent.builder()
+                    .type("token").conversationId(conversationId).content(content).build());
+        }
+
+        @Override
+        public void onToolStart(String toolName, String arguments) {
+            connection.send(AgentChatSocketEvent.builder()
+                    .type("tool_start").conversationId(conversationId).tool(toolName).arguments(arguments).build());
+        }
+
+        @Override
+        public void onToolEnd(String toolName, long elapsedMs, boolean success) {
+            connection.send(AgentChatSocketEvent.builder()
+                    .type("tool_end").conversationId(conversationId).tool(toolName)
+                    .elapsedMs(elapsedMs).success(success).build());
+        }
+
+        @Override
+        public void onComplete(AgentTestResponse response) {
+            connection.conversations.remove(conversationId);
+            connection.send(AgentChatSocketEvent.builder()
+                    .type("done").conversationId(conversationId).usage(response).build());
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            connection.conversations.remove(conversationId);
+            connection.send(AgentChatSocketEvent.builder()
+                    .type("error").conversationId(conversationId).message(error.getMessage()).build());
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.sspku.agent.module.plugin.breaker;
+
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 一次插件调用从熔断器获得的许可，调用结束后记录结果
+ * 函数级熔断器记录全部结果；插件级熔断器只记录代表整个上游不可用的信号（连接失败、超时与 502/503/504），
+ * 单个函数的 500、4xx 或慢调用只影响该函数，不会摘除同一插件的其他函数。
+ */
+public class PluginCallPermit {
+
+    /**
+     * 熔断未启用时使用，不记录任何结果
+     */
+    public static final PluginCallPermit NOOP = new PluginCallPermit(null, null);
+
+    private final PluginCircuitBreaker pluginBreaker;
+    private final PluginCircuitBreaker functionBreaker;
+    private final long startNanos = System.nanoTime();
+
+    PluginCallPermit(PluginCircuitBreaker pluginBreaker, PluginCircuitBreaker functionBreaker) {
+        this.pluginBreaker = pluginBreaker;
+        this.functionBreaker = functionBreaker;
+    }
+
+    public void onSuccess() {
+        record(false, false);
+    }
+
+    public void onError(Throwable error) {
+        record(isFailure(error), isPluginFailure(error));
+    }
+
+    /**
+     * 调用被主动取消（如对冲请求落败），不计入统计，仅归还半开探测名额
+     */
+    public void release() {
+        if (pluginBreaker != null) {
+            pluginBreaker.releasePermission();
+            functionBreaker.releasePermission();
+        }
+    }
+
+    private void record(boolean failure, boolean pluginFailure) {
+        if (pluginBreaker == null) {
+            return;
+        }
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        functionBreaker.onResult(failure, durationMs);
+        // 慢调用通常只属于个别函数，插件级不按耗时统计；整体超时以超时失败计入
+        pluginBreaker.onResult(pluginFailure, 0);
+    }
+
+    /**
+     * 4xx 多为模型传参错误，说明上游可用，不计为失败；429 与 408 除外
+     */
+    static boolean isFailure(Throwable error) {
+        HttpStatusCode status = statusOf(error);
+        if (status == null || !status.is4xxClientError()) {
+            return true;
+        }
+        return status.value() == 429 || status.value() == 408;
+    }
+
+    /**
+     * 整个上游不可用：收到 502/503/504，或没有收到响应（连接失败、读超时、总超时）
+     */
+    static boolean isPluginFailure(Throwable error) {
+        HttpStatusCode status = statusOf(error);
+        if (status != null) {
+            int value = status.value();
+            return value == 502 || value == 503 || value == 504;
+        }
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IOException || cause instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static HttpStatusCode statusOf(Throwable error) {
+        if (error instanceof RestClientResponseException e) {
+            return e.getStatusCode();
+        }
+        if (error instanceof WebClientResponseException e) {
+            return e.getStatusCode();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,277 @@
+package com.sspku.agent.module.plugin.breaker;
+
+import com.sspku.agent.module.plugin.vo.PluginCircuitBreakerStatsVO;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * 单个插件（或插件函数）的熔断器
+ * CLOSED：按秒分桶统计滑动窗口内的错误率与慢调用率，超过阈值或连续失败达到上限时打开；
+ * OPEN：直接拒绝调用，半开探测失败后打开时长逐次翻倍，持续异常的上游会被摘除更久；
+ * HALF_OPEN：放行少量探测调用，全部成功则关闭，任一失败或过慢则重新打开。
+ */
+@Slf4j
+public class PluginCircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    @Getter
+    private final String name;
+    @Getter
+    private final Long pluginId;
+    @Getter
+    private final String functionName;
+    private final PluginCircuitBreakerConfig config;
+    private final LongSupplier clock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Bucket[] buckets;
+    private final LongAdder rejected = new LongAdder();
+
+    private State state = State.CLOSED;
+    private long openUntil;
+    private int consecutiveFailures;
+    private int consecutiveOpens;
+    private int probesInFlight;
+    private int probeSuccesses;
+
+    public PluginCircuitBreaker(String name, Long pluginId, String functionName, PluginCircuitBreakerConfig config) {
+        this(name, pluginId, functionName, config, System::currentTimeMillis);
+    }
+
+    PluginCircuitBreaker(String name, Long pluginId, String functionName, PluginCircuitBreakerConfig config,
+                         LongSupplier clock) {
+        this.name = name;
+        this.pluginId = pluginId;
+        this.functionName = functionName;
+        this.config = config;
+        this.clock = clock;
+        this.buckets = new Bucket[Math.max(config.getWindowSeconds(), 1)];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new Bucket();
+        }
+    }
+
+    /**
+     * 尝试放行一次调用，放行后必须调用 {@link #onResult} 或 {@link #releasePermission()}
+     * @return 熔断打开或半开探测名额已满时返回 false
+     */
+    public boolean tryAcquire() {
+        lock.lock();
+        try {
+            long now = clock.getAsLong();
+            if (state == State.OPEN) {
+                if (now < openUntil) {
+                    rejected.increment();
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                probesInFlight = 0;
+                probeSuccesses = 0;
+                log.info("插件熔断器进入半开状态: {}", name);
+            }
+            if (state == State.HALF_OPEN) {
+                if (probesInFlight + probeSuccesses >= config.getHalfOpenProbes()) {
+                    rejected.increment();
+                    return false;
+                }
+                probesInFlight++;
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 放弃已获取的许可（调用未真正发出）
+     */
+    public void releasePermission() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN && probesInFlight > 0) {
+                probesInFlight--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 记录一次已放行调用的结果
+     * @param failure 是否计为失败（客户端参数错误等不计入）
+     * @param durationMs 调用耗时
+     */
+    public void onResult(boolean failure, long durationMs) {
+        boolean slow = durationMs >= config.getSlowCallThresholdMs();
+        lock.lock();
+        try {
+            long now = clock.getAsLong();
+            switch (state) {
+                case HALF_OPEN -> {
+                    if (probesInFlight > 0) {
+                        probesInFlight--;
+                    }
+                    if (failure || slow) {
+                        open(now, "半开探测" + (failure ? "失败" : "过慢"));
+                    } else if (++probeSuccesses >= config.getHalfOpenProbes()) {
+                        close();
+                        log.info("插件熔断器已恢复: {}", name);
+                    }
+                }
+                case CLOSED -> {
+                    Bucket bucket = bucket(now);
+                    bucket.calls++;
+                    if (failure) {
+                        bucket.failures++;
+                    }
+                    if (slow) {
+                        bucket.slowCalls++;
+                    }
+                    consecutiveFailures = failure ? consecutiveFailures + 1 : 0;
+                    if (consecutiveFailures >= config.getConsecutiveFailures()) {
+                        open(now, "连续失败 " + consecutiveFailures + " 次");
+                        return;
+                    }
+                    Bucket total = total(now);
+                    if (total.calls < config.getMinimumCalls()) {
+                        return;
+                    }
+                    if (total.failures * 100L >= (long) config.getFailureRateThreshold() * total.calls) {
+                        open(now, "错误率 " + total.failures * 100 / total.calls + "%");
+                    } else if (total.slowCalls * 100L >= (long) config.getSlowCallRateThreshold() * total.calls) {
+                        open(now, "慢调用率 " + total.slowCalls * 100 / total.calls + "%");
+                    }
+                }
+                default -> {
+                    // 熔断打开前已放行的调用，结果不再影响状态
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 手动关闭熔断器并清空统计
+     */
+    public void reset() {
+        lock.lock();
+        try {
+            close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 距离进入半开状态的剩余毫秒数，未打开时为 0
+     */
+    public long remainingOpenMs() {
+        lock.lock();
+        try {
+            return state == State.OPEN ? Math.max(openUntil - clock.getAsLong(), 0L) : 0L;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public State getState() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public PluginCircuitBreakerStatsVO stats() {
+        lock.lock();
+        try {
+            long now = clock.getAsLong();
+            Bucket total = total(now);
+            return PluginCircuitBreakerStatsVO.builder()
+                    .name(name)
+                    .pluginId(pluginId)
+                    .functionName(functionName)
+                    .state(state.name())
+                    .calls(total.calls)
+                    .failureRate(total.calls == 0 ? 0 : total.failures * 100 / total.calls)
+                    .slowCallRate(total.calls == 0 ? 0 : total.slowCalls * 100 / total.calls)
+                    .consecutiveFailures(consecutiveFailures)
+                    .rejected(rejected.sum())
+                    .remainingOpenMs(state == State.OPEN ? Math.max(openUntil - now, 0L) : 0L)
+                    .build();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void open(long now, String reason) {
+        consecutiveOpens++;
+        long duration = config.getOpenDurationMs() << Math.min(consecutiveOpens - 1, 16);
+        duration = Math.min(duration, config.getMaxOpenDurationMs());
+        state = State.OPEN;
+        openUntil = now + duration;
+        consecutiveFailures = 0;
+        probesInFlight = 0;
+        probeSuccesses = 0;
+        log.warn("插件熔断器打开: {}, 原因: {}, 打开时长: {}ms", name, reason, duration);
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        consecutiveOpens = 0;
+        probesInFlight = 0;
+        probeSuccesses = 0;
+        for (Bucket bucket : buckets) {
+            bucket.reset(0L);
+        }
+    }
+
+    private Bucket bucket(long now) {
+        long second = now / 1000;
+        Bucket bucket = buckets[(int) (second % buckets.length)];
+        if (bucket.second != second) {
+            bucket.reset(second);
+        }
+        return bucket;
+    }
+
+    private Bucket total(long now) {
+        long second = now / 1000;
+        Bucket total = new Bucket();
+        for (Bucket bucket : buckets) {
+            if (second - bucket.second < buckets.length) {
+                total.calls += bucket.calls;
+                total.failures += bucket.failures;
+                total.slowCalls += bucket.slowCalls;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 一秒内的调用统计
+     */
+    private static class Bucket {
+        private long second;
+        private int calls;
+        private int failures;
+        private int slowCalls;
+
+        private void reset(long second) {
+            this.second = second;
+            this.calls = 0;
+            this.failures = 0;
+            this.slowCalls = 0;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.sspku.agent.module.plugin.breaker;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * 插件熔断器参数
+ */
+@Getter
+@Builder
+public class PluginCircuitBreakerConfig {
+    /**
+     * 滑动窗口长度（秒），按秒分桶统计
+     */
+    private final int windowSeconds;
+    /**
+     * 窗口内调用数达到该值后才按比例判断是否熔断
+     */
+    private final int minimumCalls;
+    /**
+     * 错误率阈值（百分比）
+     */
+    private final int failureRateThreshold;
+    /**
+     * 耗时达到该值的调用计为慢调用
+     */
+    private final long slowCallThresholdMs;
+    /**
+     * 慢调用率阈值（百分比）
+     */
+    private final int slowCallRateThreshold;
+    /**
+     * 连续失败达到该次数时立即熔断，不等待窗口调用数达标
+     */
+    private final int consecutiveFailures;
+    /**
+     * 首次熔断的打开时长，半开探测失败后逐次翻倍
+     */
+    private final long openDurationMs;
+    private final long maxOpenDurationMs;
+    /**
+     * 半开状态放行的探测调用数，全部成功后关闭
+     */
+    private final int halfOpenProbes;
+}
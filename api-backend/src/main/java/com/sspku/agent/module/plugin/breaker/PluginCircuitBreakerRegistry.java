@@ -0,0 +1,132 @@
+package com.sspku.agent.module.plugin.breaker;
+
+import com.sspku.agent.module.plugin.event.PluginChangedEvent;
+import com.sspku.agent.module.plugin.vo.PluginCircuitBreakerStatsVO;
+import com.sspku.agent.module.plugin.vo.PluginVO;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 插件熔断器注册表
+ * 每个外部插件有一个插件级熔断器，其下每个函数另有一个函数级熔断器：
+ * 整个上游不可用时插件级熔断器打开，单个接口异常时只摘除该函数。
+ * 插件级熔断器只统计连接失败、超时与 502/503/504，见 {@link PluginCallPermit}。
+ */
+@Slf4j
+@Component
+public class PluginCircuitBreakerRegistry {
+
+    @Value("${agent.plugin-breaker.enabled:true}")
+    private boolean enabled;
+
+    @Value("${agent.plugin-breaker.window-seconds:30}")
+    private int windowSeconds;
+
+    @Value("${agent.plugin-breaker.minimum-calls:10}")
+    private int minimumCalls;
+
+    @Value("${agent.plugin-breaker.failure-rate-threshold:50}")
+    private int failureRateThreshold;
+
+    @Value("${agent.plugin-breaker.slow-call-threshold-ms:5000}")
+    private long slowCallThresholdMs;
+
+    @Value("${agent.plugin-breaker.slow-call-rate-threshold:80}")
+    private int slowCallRateThreshold;
+
+    @Value("${agent.plugin-breaker.consecutive-failures:5}")
+    private int consecutiveFailures;
+
+    @Value("${agent.plugin-breaker.open-duration-ms:30000}")
+    private long openDurationMs;
+
+    @Value("${agent.plugin-breaker.max-open-duration-ms:300000}")
+    private long maxOpenDurationMs;
+
+    @Value("${agent.plugin-breaker.half-open-probes:3}")
+    private int halfOpenProbes;
+
+    private final Map<String, PluginCircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    private PluginCircuitBreakerConfig config;
+
+    @PostConstruct
+    public void init() {
+        config = PluginCircuitBreakerConfig.builder()
+                .windowSeconds(windowSeconds)
+                .minimumCalls(minimumCalls)
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallThresholdMs(slowCallThresholdMs)
+                .slowCallRateThreshold(slowCallRateThreshold)
+                .consecutiveFailures(consecutiveFailures)
+                .openDurationMs(openDurationMs)
+                .maxOpenDurationMs(maxOpenDurationMs)
+                .halfOpenProbes(halfOpenProbes)
+                .build();
+    }
+
+    /**
+     * 获取插件函数的调用许可，调用结束后必须记录结果
+     * @throws PluginCircuitOpenException 插件或函数已熔断
+     */
+    public PluginCallPermit acquire(PluginVO pluginVO, String functionName) {
+        if (!enabled) {
+            return PluginCallPermit.NOOP;
+        }
+        Long pluginId = pluginVO.getId();
+        PluginCircuitBreaker pluginBreaker = breakers.computeIfAbsent("plugin-" + pluginId,
+                name -> new PluginCircuitBreaker(name, pluginId, null, config));
+        if (!pluginBreaker.tryAcquire()) {
+            throw rejected(pluginVO, functionName, pluginBreaker);
+        }
+        PluginCircuitBreaker functionBreaker = breakers.computeIfAbsent("plugin-" + pluginId + ":" + functionName,
+                name -> new PluginCircuitBreaker(name, pluginId, functionName, config));
+        if (!functionBreaker.tryAcquire()) {
+            pluginBreaker.releasePermission();
+            throw rejected(pluginVO, functionName, functionBreaker);
+        }
+        return new PluginCallPermit(pluginBreaker, functionBreaker);
+    }
+
+    public List<PluginCircuitBreakerStatsVO> stats() {
+        return breakers.values().stream()
+                .map(PluginCircuitBreaker::stats)
+                .sorted(Comparator.comparing(PluginCircuitBreakerStatsVO::getName))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 手动关闭某个插件的全部熔断器
+     * @return 被重置的熔断器数量
+     */
+    public int reset(Long pluginId) {
+        List<PluginCircuitBreaker> targets = breakers.values().stream()
+                .filter(breaker -> Objects.equals(breaker.getPluginId(), pluginId))
+                .toList();
+        targets.forEach(PluginCircuitBreaker::reset);
+        log.info("手动重置插件熔断器: pluginId={}, count={}", pluginId, targets.size());
+        return targets.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPluginChanged(PluginChangedEvent event) {
+        // 插件配置（如 baseUrl）修改后旧的统计不再有参考意义
+        breakers.values().removeIf(breaker -> Objects.equals(breaker.getPluginId(), event.getPluginId()));
+    }
+
+    private PluginCircuitOpenException rejected(PluginVO pluginVO, String functionName, PluginCircuitBreaker breaker) {
+        long retryAfterSeconds = Math.max((breaker.remainingOpenMs() + 999) / 1000, 1L);
+        log.warn("插件已熔断，拒绝调用: breaker={}, function={}", breaker.getName(), functionName);
+        return new PluginCircuitOpenException(pluginVO.getId(), pluginVO.getName(), functionName, retryAfterSeconds);
+    }
+}
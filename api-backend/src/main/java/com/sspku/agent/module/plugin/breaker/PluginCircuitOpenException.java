@@ -0,0 +1,26 @@
+package com.sspku.agent.module.plugin.breaker;
+
+import com.sspku.agent.common.api.ResultCode;
+import com.sspku.agent.module.plugin.exception.PluginUnavailableException;
+
+/**
+ * 插件熔断异常：上游持续异常，调用被直接拒绝
+ */
+public class PluginCircuitOpenException extends PluginUnavailableException {
+
+    public PluginCircuitOpenException(Long pluginId, String pluginName, String functionName, long retryAfterSeconds) {
+        super(ResultCode.SERVICE_UNAVAILABLE.getCode(),
+                "插件 " + pluginName + " 暂时不可用（已熔断），请 " + retryAfterSeconds + " 秒后重试",
+                pluginId, pluginName, functionName, retryAfterSeconds);
+    }
+
+    @Override
+    protected String getErrorType() {
+        return "TOOL_UNAVAILABLE";
+    }
+
+    @Override
+    protected String getHint() {
+        return "该工具依赖的外部服务当前不可用，请不要再次调用此工具，直接告知用户该功能暂时无法使用，或基于已有信息作答";
+    }
+}
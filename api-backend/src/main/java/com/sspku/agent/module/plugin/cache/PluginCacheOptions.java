@@ -0,0 +1,26 @@
+package com.sspku.agent.module.plugin.cache;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 插件级结果缓存参数
+ * 对应 Plugin.config 中的 "cache" 节点，GET 函数默认可缓存，其余函数需显式列出：
+ * {"cache": {"enabled": true, "ttlSeconds": 300, "functions": ["searchCatalog"]}}
+ */
+@Data
+public class PluginCacheOptions {
+    /**
+     * 设为 false 时该插件的所有函数都不缓存
+     */
+    private Boolean enabled;
+    /**
+     * 上游未返回 Cache-Control/Expires 时使用的缓存时长
+     */
+    private Integer ttlSeconds;
+    /**
+     * 额外标记为可缓存的非 GET 函数（如以 POST 实现的查询接口）
+     */
+    private List<String> functions;
+}
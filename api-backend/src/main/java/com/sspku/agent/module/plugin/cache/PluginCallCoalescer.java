@@ -0,0 +1,104 @@
+package com.sspku.agent.module.plugin.cache;
+
+import cn.hutool.crypto.digest.DigestUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.sspku.agent.module.plugin.dto.FunctionDefinition;
+import com.sspku.agent.module.plugin.vo.PluginCoalescingStatsVO;
+import com.sspku.agent.module.plugin.vo.PluginVO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 相同插件调用的请求合并（single-flight）
+ * 同一缓存键同时只有一个请求真正发往上游，其余并发调用共享它的结果或异常。
+ * 仅用于幂等函数（见 {@link PluginResultCache#isIdempotent}），键独立于结果缓存计算，两者可分别开关。
+ */
+@Slf4j
+@Component
+public class PluginCallCoalescer {
+
+    @Value("${agent.plugin-coalescing.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 参数规范化：Map 键排序后序列化，键顺序不同的相同参数合并为同一请求
+     */
+    private final ObjectMapper canonicalMapper = new ObjectMapper()
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+    private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder leaders = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+
+    /**
+     * 计算合并键：pluginId:插件版本(updatedAt):函数名:参数摘要，插件变更后旧版本的进行中调用不再被加入
+     * 调用方需先确认函数幂等
+     * @return 未启用合并或参数无法规范化时返回 null
+     */
+    public String keyOf(PluginVO pluginVO, FunctionDefinition function, Map<String, Object> arguments) {
+        if (!enabled) {
+            return null;
+        }
+        String canonicalArgs;
+        try {
+            canonicalArgs = canonicalMapper.writeValueAsString(arguments != null ? arguments : Map.of());
+        } catch (Exception e) {
+            log.warn("插件参数无法规范化，跳过请求合并: pluginId={}, function={}", pluginVO.getId(), function.getName());
+            return null;
+        }
+        return pluginVO.getId() + ":" + pluginVO.getUpdatedAt() + ":" + function.getName() + ":"
+                + DigestUtil.sha256Hex(canonicalArgs);
+    }
+
+    /**
+     * 执行或加入同键的进行中调用
+     * @param call 实际发往上游的调用，仅由第一个到达的调用方执行
+     * @return 各调用方独立的 future，取消它不会影响其他调用方
+     */
+    public CompletableFuture<String> execute(String key, Supplier<CompletableFuture<String>> call) {
+        CompletableFuture<String> promise = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(key, promise);
+        if (existing != null) {
+            deduplicated.increment();
+            return existing.copy();
+        }
+        leaders.increment();
+        CompletableFuture<String> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        result.whenComplete((value, error) -> {
+            // 先移除再完成，之后到达的调用会命中结果缓存或发起新请求
+            inFlight.remove(key, promise);
+            if (error != null) {
+                promise.completeExceptionally(error);
+            } else {
+                promise.complete(value);
+            }
+        });
+        return promise.copy();
+    }
+
+    public PluginCoalescingStatsVO stats() {
+        long leaderCount = leaders.sum();
+        long deduplicatedCount = deduplicated.sum();
+        long total = leaderCount + deduplicatedCount;
+        return PluginCoalescingStatsVO.builder()
+                .inFlight(inFlight.size())
+                .upstreamCalls(leaderCount)
+                .deduplicated(deduplicatedCount)
+                .dedupRate(total == 0 ? 0 : (int) (deduplicatedCount * 100 / total))
+                .build();
+    }
+}
@@ -0,0 +1,234 @@
+package com.sspku.agent.module.plugin.cache;
+
+import cn.hutool.cache.Cache;
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.sspku.agent.module.plugin.dto.FunctionDefinition;
+import com.sspku.agent.module.plugin.event.PluginChangedEvent;
+import com.sspku.agent.module.plugin.vo.PluginResultCacheStatsVO;
+import com.sspku.agent.module.plugin.vo.PluginVO;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 插件调用结果缓存
+ * 以 (pluginId, functionName, 规范化参数) 为键缓存幂等函数的响应体，
+ * 缓存时长优先取上游的 Cache-Control/Expires，容量满时按 LRU 淘汰。
+ */
+@Slf4j
+@Component
+public class PluginResultCache {
+
+    @Value("${agent.plugin-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${agent.plugin-cache.size:2000}")
+    private int size;
+
+    @Value("${agent.plugin-cache.default-ttl-seconds:60}")
+    private long defaultTtlSeconds;
+
+    @Value("${agent.plugin-cache.max-ttl-seconds:3600}")
+    private long maxTtlSeconds;
+
+    /**
+     * 参数规范化：Map 键排序后序列化，键顺序不同的相同参数命中同一条缓存
+     */
+    private final ObjectMapper canonicalMapper = new ObjectMapper()
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+    /**
+     * pluginId -> 缓存代次，插件变更时递增，旧代次的条目不再命中并随 LRU 淘汰
+     */
+    private final Map<Long, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    /**
+     * pluginId -> 按插件版本（updatedAt）缓存的缓存参数，避免每次调用重新解析插件配置
+     */
+    private final Map<Long, VersionedOptions> options = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+
+    private Cache<String, String> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = CacheUtil.newLRUCache(size);
+    }
+
+    /**
+     * 计算缓存键
+     * @return 未启用缓存或该函数不可缓存时返回 null
+     */
+    public String keyOf(PluginVO pluginVO, FunctionDefinition function, Map<String, Object> arguments) {
+        if (!enabled) {
+            return null;
+        }
+        PluginCacheOptions options = resolve(pluginVO);
+        if (Boolean.FALSE.equals(options.getEnabled())) {
+            return null;
+        }
+        if (!isIdempotent(pluginVO, function)) {
+            return null;
+        }
+        String canonicalArgs;
+        try {
+            canonicalArgs = canonicalMapper.writeValueAsString(arguments != null ? arguments : Map.of());
+        } catch (Exception e) {
+            log.warn("插件参数无法规范化，跳过缓存: pluginId={}, function={}", pluginVO.getId(), function.getName());
+            return null;
+        }
+        long generation = generations.computeIfAbsent(pluginVO.getId(), id -> new AtomicLong()).get();
+        return pluginVO.getId() + ":" + generation + ":" + function.getName() + ":" + DigestUtil.sha256Hex(canonicalArgs);
+    }
+
+    /**
+     * 函数是否幂等：GET 请求，或在插件配置 cache.functions 中声明
+     * 与缓存开关无关，请求合并同样据此判断
+     */
+    public boolean isIdempotent(PluginVO pluginVO, FunctionDefinition function) {
+        if ("GET".equalsIgnoreCase(function.getMetadata().getMethod())) {
+            return true;
+        }
+        List<String> functions = resolve(pluginVO).getFunctions();
+        return functions != null && functions.contains(function.getName());
+    }
+
+    /**
+     * 读取缓存结果，未命中返回 null
+     */
+    public String get(String key) {
+        String cached = cache.get(key, false);
+        if (cached != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return cached;
+    }
+
+    /**
+     * 按上游缓存头写入响应体
+     */
+    public void put(String key, PluginVO pluginVO, ResponseEntity<String> response) {
+        if (response.getBody() == null) {
+            return;
+        }
+        long ttlSeconds = resolveTtlSeconds(response.getHeaders(), resolve(pluginVO));
+        if (ttlSeconds <= 0) {
+            skipped.increment();
+            return;
+        }
+        cache.put(key, response.getBody(), Math.min(ttlSeconds, maxTtlSeconds) * 1000);
+        puts.increment();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPluginChanged(PluginChangedEvent event) {
+        generations.computeIfAbsent(event.getPluginId(), id -> new AtomicLong()).incrementAndGet();
+        options.remove(event.getPluginId());
+    }
+
+    public PluginResultCacheStatsVO stats() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return PluginResultCacheStatsVO.builder()
+                .size(cache.size())
+                .capacity(size)
+                .hits(hitCount)
+                .misses(total - hitCount)
+                .hitRate(total == 0 ? 0 : (int) (hitCount * 100 / total))
+                .puts(puts.sum())
+                .skipped(skipped.sum())
+                .build();
+    }
+
+    /**
+     * no-store/no-cache 不缓存；s-maxage 优先于 max-age；其次取 Expires 与 Date 之差；都没有时使用配置的默认值。
+     * 插件凭证属于插件而非终端用户，因此 private 响应同样可以缓存。
+     */
+    private long resolveTtlSeconds(HttpHeaders headers, PluginCacheOptions options) {
+        String cacheControl = headers.getCacheControl();
+        if (StringUtils.hasText(cacheControl)) {
+            Long maxAge = null;
+            for (String directive : cacheControl.toLowerCase(Locale.ROOT).split(",")) {
+                directive = directive.trim();
+                if ("no-store".equals(directive) || "no-cache".equals(directive)) {
+                    return 0;
+                }
+                if (directive.startsWith("s-maxage=")) {
+                    maxAge = parseSeconds(directive.substring("s-maxage=".length()));
+                } else if (directive.startsWith("max-age=") && maxAge == null) {
+                    maxAge = parseSeconds(directive.substring("max-age=".length()));
+                }
+            }
+            if (maxAge != null) {
+                return maxAge;
+            }
+        }
+        long expires = headers.getExpires();
+        if (expires >= 0) {
+            long date = headers.getDate() >= 0 ? headers.getDate() : System.currentTimeMillis();
+            return Math.max((expires - date) / 1000, 0L);
+        }
+        return options.getTtlSeconds() != null ? options.getTtlSeconds() : defaultTtlSeconds;
+    }
+
+    private static Long parseSeconds(String value) {
+        try {
+            return Math.max(Long.parseLong(value.trim()), 0L);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private PluginCacheOptions resolve(PluginVO pluginVO) {
+        VersionedOptions current = options.get(pluginVO.getId());
+        if (current != null && Objects.equals(current.version, pluginVO.getUpdatedAt())) {
+            return current.options;
+        }
+        VersionedOptions created = new VersionedOptions(pluginVO.getUpdatedAt(), readOptions(pluginVO.getConfig()));
+        options.put(pluginVO.getId(), created);
+        return created.options;
+    }
+
+    private PluginCacheOptions readOptions(String configJson) {
+        if (!StringUtils.hasText(configJson)) {
+            return new PluginCacheOptions();
+        }
+        try {
+            JsonNode node = canonicalMapper.readTree(configJson).get("cache");
+            if (node == null || !node.isObject()) {
+                return new PluginCacheOptions();
+            }
+            return canonicalMapper.treeToValue(node, PluginCacheOptions.class);
+        } catch (Exception e) {
+            log.warn("解析插件缓存配置失败，使用默认参数: {}", e.getMessage());
+            return new PluginCacheOptions();
+        }
+    }
+
+    private record VersionedOptions(LocalDateTime version, PluginCacheOptions options) {
+    }
+}
@@ -0,0 +1,118 @@
+package com.sspku.agent.module.plugin.controller;
+
+import com.sspku.agent.common.api.ApiResponse;
+import com.sspku.agent.module.plugin.breaker.PluginCircuitBreakerRegistry;
+import com.sspku.agent.module.plugin.cache.PluginCallCoalescer;
+import com.sspku.agent.module.plugin.cache.PluginResultCache;
+import com.sspku.agent.module.plugin.http.PluginHttpClientManager;
+import com.sspku.agent.module.plugin.ratelimit.PluginRateLimiterRegistry;
+import com.sspku.agent.module.plugin.retry.PluginRetryRegistry;
+import com.sspku.agent.module.plugin.validation.PluginArgumentValidatorRegistry;
+import com.sspku.agent.module.plugin.vo.PluginArgumentStatsVO;
+import com.sspku.agent.module.plugin.vo.PluginCircuitBreakerStatsVO;
+import com.sspku.agent.module.plugin.vo.PluginCoalescingStatsVO;
+import com.sspku.agent.module.plugin.vo.PluginHttpPoolStatsVO;
+import com.sspku.agent.module.plugin.vo.PluginRateLimitStatsVO;
+import com.sspku.agent.module.plugin.vo.PluginResultCacheStatsVO;
+import com.sspku.agent.module.plugin.vo.PluginRetryStatsVO;
+import jakarta.annotation.Resource;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * 插件运行状态管理控制器
+ */
+@RestController
+@RequestMapping("/api/admin/plugins")
+public class PluginAdminController {
+
+    @Resource
+    private PluginHttpClientManager pluginHttpClientManager;
+
+    @Resource
+    private PluginCircuitBreakerRegistry pluginCircuitBreakerRegistry;
+
+    @Resource
+    private PluginResultCache pluginResultCache;
+
+    @Resource
+    private PluginRateLimiterRegistry pluginRateLimiterRegistry;
+
+    @Resource
+    private PluginCallCoalescer pluginCallCoalescer;
+
+    @Resource
+    private PluginRetryRegistry pluginRetryRegistry;
+
+    @Resource
+    private PluginArgumentValidatorRegistry pluginArgumentValidatorRegistry;
+
+    /**
+     * 插件 HTTP 连接池使用情况
+     */
+    @GetMapping("/http-pools")
+    public ApiResponse<List<PluginHttpPoolStatsVO>> httpPools() {
+        return ApiResponse.ok(pluginHttpClientManager.stats());
+    }
+
+    /**
+     * 插件结果缓存命中情况
+     */
+    @GetMapping("/result-cache")
+    public ApiResponse<PluginResultCacheStatsVO> resultCache() {
+        return ApiResponse.ok(pluginResultCache.stats());
+    }
+
+    /**
+     * 相同插件调用的请求合并情况
+     */
+    @GetMapping("/coalescing")
+    public ApiResponse<PluginCoalescingStatsVO> coalescing() {
+        return ApiResponse.ok(pluginCallCoalescer.stats());
+    }
+
+    /**
+     * 插件出站限流情况
+     */
+    @GetMapping("/rate-limits")
+    public ApiResponse<List<PluginRateLimitStatsVO>> rateLimits() {
+        return ApiResponse.ok(pluginRateLimiterRegistry.stats());
+    }
+
+    /**
+     * 插件调用重试、对冲与重试预算使用情况
+     */
+    @GetMapping("/retries")
+    public ApiResponse<PluginRetryStatsVO> retries() {
+        return ApiResponse.ok(pluginRetryRegistry.stats());
+    }
+
+    /**
+     * 插件函数参数校验与拒绝次数
+     */
+    @GetMapping("/arguments")
+    public ApiResponse<List<PluginArgumentStatsVO>> arguments() {
+        return ApiResponse.ok(pluginArgumentValidatorRegistry.stats());
+    }
+
+    /**
+     * 插件及插件函数的熔断器状态
+     */
+    @GetMapping("/breakers")
+    public ApiResponse<List<PluginCircuitBreakerStatsVO>> breakers() {
+        return ApiResponse.ok(pluginCircuitBreakerRegistry.stats());
+    }
+
+    /**
+     * 手动关闭某个插件的熔断器（上游已修复时无需等待半开探测）
+     */
+    @PostMapping("/{id}/breakers/reset")
+    public ApiResponse<Integer> resetBreakers(@PathVariable Long id) {
+        return ApiResponse.ok(pluginCircuitBreakerRegistry.reset(id));
+    }
+}
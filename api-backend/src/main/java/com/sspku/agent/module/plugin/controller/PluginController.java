@@ -1,17 +1,31 @@
 package com.sspku.agent.module.plugin.controller;
 
 import com.sspku.agent.common.api.ApiResponse;
+import com.sspku.agent.common.exception.BusinessException;
 import com.sspku.agent.module.plugin.core.PluginExecutor;
 import com.sspku.agent.module.plugin.dto.PluginCreateDTO;
+import com.sspku.agent.module.plugin.dto.PluginInvocationDTO;
 import com.sspku.agent.module.plugin.dto.PluginUpdateDTO;
 import com.sspku.agent.module.plugin.service.IPluginService;
+import com.sspku.agent.module.plugin.vo.PluginBatchItemVO;
 import com.sspku.agent.module.plugin.vo.PluginVO;
+import jakarta.annotation.PostConstruct;
 import jakarta.annotation.Resource;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 插件管理控制器
@@ -26,6 +40,29 @@ public class PluginController {
     @Resource
     private PluginExecutor pluginExecutor;
 
+    /**
+     * 批量调用的整体超时，0 表示按 ceil(max-items / max-parallelism) × plugin-http.total-timeout-ms 计算
+     */
+    @Value("${agent.plugin-batch.timeout-ms:0}")
+    private long batchTimeoutMs;
+
+    @Value("${agent.plugin-batch.max-items:1000}")
+    private int batchMaxItems;
+
+    @Value("${agent.plugin-batch.max-parallelism:8}")
+    private int batchMaxParallelism;
+
+    @Value("${agent.plugin-http.total-timeout-ms:30000}")
+    private long totalTimeoutMs;
+
+    @PostConstruct
+    public void init() {
+        if (batchTimeoutMs <= 0) {
+            int rounds = (batchMaxItems + batchMaxParallelism - 1) / Math.max(1, batchMaxParallelism);
+            batchTimeoutMs = rounds * totalTimeoutMs;
+        }
+    }
+
     /**
      * 创建插件
      */
@@ -92,10 +129,10 @@ public class PluginController {
     }
 
     /**
-     * 执行插件
+     * 执行插件（异步：等待上游响应期间不占用 Servlet 线程）
      */
     @PostMapping("/{id}/execute")
-    public ApiResponse<Map<String, Object>> executePlugin(
+    public CompletableFuture<ApiResponse<Map<String, Object>>> executePlugin(
             @PathVariable Long id,
             @RequestBody Map<String, Object> request) {
         
@@ -103,13 +140,56 @@ public class PluginController {
         @SuppressWarnings("unchecked")
         Map<String, Object> arguments = (Map<String, Object>) request.get("arguments");
         
-        String result = pluginExecutor.execute(id, functionName, arguments);
-        
-        return ApiResponse.ok(Map.of(
-                "pluginId", id,
-                "functionName", functionName,
-                "result", result
-        ));
+        return pluginExecutor.executeAsync(id, functionName, arguments)
+                .thenApply(result -> ApiResponse.ok(Map.of(
+                        "pluginId", id,
+                        "functionName", functionName,
+                        "result", result
+                )));
     }
-}
 
+    /**
+     * 批量执行插件函数，结果按请求顺序返回；单项失败记录在该项中，不影响其他项
+     * 整批耗时可能远超 MVC 默认的异步超时，因此显式使用 agent.plugin-batch.timeout-ms
+     */
+    @PostMapping("/{id}/execute-batch")
+    public DeferredResult<ApiResponse<List<PluginBatchItemVO>>> executeBatch(
+            @PathVariable Long id,
+            @RequestParam(required = false) Integer parallelism,
+            @RequestBody List<PluginInvocationDTO> invocations) {
+        DeferredResult<ApiResponse<List<PluginBatchItemVO>>> result = new DeferredResult<>(batchTimeoutMs);
+        Disposable subscription = pluginExecutor.executeBatch(id, invocations, parallelism)
+                .collectSortedList(Comparator.comparingInt(PluginBatchItemVO::getIndex))
+                .subscribe(items -> result.setResult(ApiResponse.ok(items)), result::setErrorResult);
+        result.onTimeout(() -> {
+            subscription.dispose();
+            result.setErrorResult(new BusinessException("批量调用超时，请减少批量项数或提高并发"));
+        });
+        result.onCompletion(subscription::dispose);
+        return result;
+    }
+
+    /**
+     * 批量执行插件函数（NDJSON 流）：每完成一项即输出一行，行序为完成顺序
+     * 超过 agent.plugin-batch.timeout-ms 后取消未完成的项，并以一行 index 为 -1 的错误结果结束
+     */
+    @PostMapping(value = "/{id}/execute-batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<PluginBatchItemVO> executeBatchStream(
+            @PathVariable Long id,
+            @RequestParam(required = false) Integer parallelism,
+            @RequestBody List<PluginInvocationDTO> invocations) {
+        Flux<PluginBatchItemVO> batch;
+        try {
+            batch = pluginExecutor.executeBatch(id, invocations, parallelism);
+        } catch (BusinessException e) {
+            // 流式响应无法再返回 ApiResponse，整批失败以一行错误结果告知
+            return Flux.just(PluginBatchItemVO.failure(-1, null, e.getMessage()));
+        }
+        // MVC 对流式响应不设超时，由整批截止时间兜底
+        AtomicInteger emitted = new AtomicInteger();
+        return batch.doOnNext(item -> emitted.incrementAndGet())
+                .take(Duration.ofMillis(batchTimeoutMs))
+                .concatWith(Mono.fromSupplier(() -> emitted.get() < invocations.size()
+                        ? PluginBatchItemVO.failure(-1, null, "批量调用超时，未完成的项已取消") : null));
+    }
+}
@@ -0,0 +1,252 @@
+package com.sspku.agent.module.plugin.core;
+
+import cn.hutool.crypto.digest.DigestUtil;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.sspku.agent.common.exception.BusinessException;
+import com.sspku.agent.module.plugin.dto.FunctionDefinition;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 插件函数目录
+ * 保存插件时由 OpenAPI 规范编译得到，与规范内容哈希一同持久化，运行时直接加载而不再解析规范。
+ * 目录中不保存插件ID与名称，加载时以插件当前值为准。
+ * 被多个函数或属性共享的 schema（解析时同一 $ref 组件）只在 components 中保存一次，引用处写作
+ * {"$component": "C1"}；读取时重新链接为同一个只读 Map，目录大小与规范大小线性相关，
+ * 参数校验器按对象身份去重的效果也得以保留。
+ */
+@Slf4j
+public final class FunctionCatalog {
+
+    /**
+     * 目录格式版本，解析逻辑或格式变化时递增；版本不符的旧目录在运行时回退为解析规范
+     */
+    public static final int VERSION = 2;
+
+    private static final String COMPONENT_REF = "$component";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+    /**
+     * 规范哈希使用的规范化序列化：对象键排序、无空白
+     */
+    private static final ObjectMapper CANONICAL_MAPPER = new ObjectMapper()
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+    private FunctionCatalog() {
+    }
+
+    /**
+     * 规范内容哈希（SHA-256），按规范化后的 JSON 计算
+     * openapi_spec 为 MySQL JSON 列，读回的文本键顺序与空白都可能与提交时不同，
+     * 直接哈希原文会使已保存的目录总被视为过期
+     */
+    public static String hash(String openapiSpec) {
+        return DigestUtil.sha256Hex(canonicalize(openapiSpec));
+    }
+
+    /**
+     * 目录是否由当前规范编译且格式版本可用
+     */
+    public static boolean isCurrent(String catalog, String specHash, String openapiSpec) {
+        return specHash != null && openapiSpec != null && specHash.equals(hash(openapiSpec))
+                && read(catalog) != null;
+    }
+
+    /**
+     * 规范化 JSON 文本；无法按 JSON 解析时返回原文
+     */
+    static String canonicalize(String json) {
+        try {
+            JsonNode tree = CANONICAL_MAPPER.readTree(json);
+            if (tree == null) {
+                return json;
+            }
+            return CANONICAL_MAPPER.writeValueAsString(CANONICAL_MAPPER.treeToValue(tree, Object.class));
+        } catch (JsonProcessingException e) {
+            return json;
+        }
+    }
+
+    public static String write(List<FunctionDefinition> functions) {
+        Encoder encoder = new Encoder();
+        for (FunctionDefinition function : functions) {
+            if (function.getParameters() != null) {
+                encoder.count(function.getParameters().getProperties());
+            }
+        }
+        List<FunctionDefinition> encoded = new ArrayList<>(functions.size());
+        for (FunctionDefinition function : functions) {
+            function.getMetadata().setPluginId(null);
+            function.getMetadata().setPluginName(null);
+            encoded.add(copyWithProperties(function, encoder::encodeBody));
+        }
+        try {
+            return MAPPER.writeValueAsString(new Document(VERSION, encoder.components, encoded));
+        } catch (JsonProcessingException e) {
+            throw new BusinessException("生成插件函数目录失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return 函数列表；目录为空、版本不符或无法读取时返回 null
+     */
+    public static List<FunctionDefinition> read(String catalog) {
+        if (!StringUtils.hasText(catalog)) {
+            return null;
+        }
+        try {
+            Document document = MAPPER.readValue(catalog, Document.class);
+            if (document.version() != VERSION || document.functions() == null) {
+                return null;
+            }
+            Linker linker = new Linker(document.components());
+            List<FunctionDefinition> functions = new ArrayList<>(document.functions().size());
+            for (FunctionDefinition function : document.functions()) {
+                functions.add(copyWithProperties(function, linker::decodeBody));
+            }
+            return functions;
+        } catch (JsonProcessingException e) {
+            log.warn("读取插件函数目录失败: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static FunctionDefinition copyWithProperties(FunctionDefinition function,
+                                                         Function<Map<?, ?>, Map<String, Object>> mapper) {
+        FunctionDefinition.Parameters parameters = function.getParameters();
+        if (parameters == null || parameters.getProperties() == null) {
+            return function;
+        }
+        FunctionDefinition.Parameters copy = new FunctionDefinition.Parameters();
+        copy.setType(parameters.getType());
+        copy.setRequired(parameters.getRequired());
+        copy.setProperties(mapper.apply(parameters.getProperties()));
+        FunctionDefinition result = new FunctionDefinition();
+        result.setName(function.getName());
+        result.setDescription(function.getDescription());
+        result.setMetadata(function.getMetadata());
+        result.setParameters(copy);
+        return result;
+    }
+
+    private static boolean isComponentRef(Map<?, ?> map) {
+        return map.size() == 1 && map.get(COMPONENT_REF) instanceof String;
+    }
+
+    /**
+     * 写入时按对象身份统计引用次数，出现多次的 Map 提取到 components
+     */
+    private static final class Encoder {
+        private final Map<Map<?, ?>, Integer> counts = new IdentityHashMap<>();
+        private final Map<Map<?, ?>, String> names = new IdentityHashMap<>();
+        private final Map<String, Object> components = new LinkedHashMap<>();
+
+        private void count(Object value) {
+            if (value instanceof Map<?, ?> map) {
+                if (counts.merge(map, 1, Integer::sum) > 1) {
+                    return;
+                }
+                map.values().forEach(this::count);
+            } else if (value instanceof List<?> list) {
+                list.forEach(this::count);
+            }
+        }
+
+        private Object encode(Object value) {
+            if (value instanceof Map<?, ?> map) {
+                if (counts.getOrDefault(map, 0) < 2) {
+                    return encodeBody(map);
+                }
+                String name = names.get(map);
+                if (name == null) {
+                    name = "C" + (names.size() + 1);
+                    names.put(map, name);
+                    // 先占位保证编号顺序，再写入组件内容（组件内部可能引用其他组件）
+                    components.put(name, null);
+                    components.put(name, encodeBody(map));
+                }
+                return Map.of(COMPONENT_REF, name);
+            }
+            if (value instanceof List<?> list) {
+                List<Object> encoded = new ArrayList<>(list.size());
+                list.forEach(item -> encoded.add(encode(item)));
+                return encoded;
+            }
+            return value;
+        }
+
+        private Map<String, Object> encodeBody(Map<?, ?> map) {
+            Map<String, Object> encoded = new LinkedHashMap<>();
+            map.forEach((key, value) -> encoded.put(String.valueOf(key), encode(value)));
+            return encoded;
+        }
+    }
+
+    /**
+     * 读取时把 {"$component": name} 重新链接为共享的只读 Map，每个组件只构建一次
+     */
+    private static final class Linker {
+        private final Map<String, Object> components;
+        private final Map<String, Map<String, Object>> linked = new LinkedHashMap<>();
+        private final Set<String> linking = new HashSet<>();
+
+        private Linker(Map<String, Object> components) {
+            this.components = components != null ? components : Map.of();
+        }
+
+        private Object decode(Object value) {
+            if (value instanceof Map<?, ?> map) {
+                return isComponentRef(map) ? link((String) map.get(COMPONENT_REF)) : decodeBody(map);
+            }
+            if (value instanceof List<?> list) {
+                List<Object> decoded = new ArrayList<>(list.size());
+                list.forEach(item -> decoded.add(decode(item)));
+                return decoded;
+            }
+            return value;
+        }
+
+        private Map<String, Object> decodeBody(Map<?, ?> map) {
+            Map<String, Object> decoded = new LinkedHashMap<>();
+            map.forEach((key, value) -> decoded.put(String.valueOf(key), decode(value)));
+            return decoded;
+        }
+
+        private Map<String, Object> link(String name) {
+            Map<String, Object> cached = linked.get(name);
+            if (cached != null) {
+                return cached;
+            }
+            // 写入端不会产生循环或缺失的组件，损坏的目录按普通 object 处理
+            if (!(components.get(name) instanceof Map<?, ?> body) || !linking.add(name)) {
+                return Map.of("type", "object");
+            }
+            try {
+                Map<String, Object> schema = Collections.unmodifiableMap(decodeBody(body));
+                linked.put(name, schema);
+                return schema;
+            } finally {
+                linking.remove(name);
+            }
+        }
+    }
+
+    private record Document(int version, Map<String, Object> components, List<FunctionDefinition> functions) {
+    }
+}
@@ -0,0 +1,165 @@
+package com.sspku.agent.module.plugin.core;
+
+import cn.hutool.cache.Cache;
+import cn.hutool.cache.CacheUtil;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sspku.agent.module.plugin.dto.FunctionDefinition;
+import com.sspku.agent.module.plugin.entity.Plugin;
+import com.sspku.agent.module.plugin.event.PluginChangedEvent;
+import com.sspku.agent.module.plugin.validation.ArgumentValidator;
+import com.sspku.agent.module.plugin.vo.PluginVO;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 插件函数索引
+ * 按 (pluginId, updatedAt) 缓存函数目录（保存时编译，缺失时解析 OpenAPI 规范），同一规范版本只加载一次，
+ * 之后按函数名 O(1) 查找 FunctionDefinition；函数首次调用时编译请求计划与参数校验器，同一版本内复用。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FunctionIndex {
+
+    private final OpenAPIParser openAPIParser;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Value("${agent.function-index.cache-size:1000}")
+    private int cacheSize;
+
+    /**
+     * pluginId -> 该插件某一版本的函数索引
+     */
+    private Cache<Long, Entry> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = CacheUtil.newLRUCache(cacheSize);
+    }
+
+    /**
+     * 获取插件当前版本的函数索引（函数名 -> 定义，保持规范中的声明顺序）
+     */
+    public Map<String, FunctionDefinition> get(PluginVO pluginVO) {
+        return entry(pluginVO).functions;
+    }
+
+    /**
+     * 按函数名查找，不存在时返回 null
+     */
+    public FunctionDefinition find(PluginVO pluginVO, String functionName) {
+        return get(pluginVO).get(functionName);
+    }
+
+    /**
+     * 获取函数的请求计划，不存在时返回 null
+     */
+    public RequestPlan plan(PluginVO pluginVO, String functionName) {
+        Entry entry = entry(pluginVO);
+        FunctionDefinition function = entry.functions.get(functionName);
+        if (function == null) {
+            return null;
+        }
+        return entry.plans.computeIfAbsent(functionName, name -> RequestPlan.compile(function, entry.config));
+    }
+
+    /**
+     * 获取函数的参数校验器，不存在时返回 null
+     */
+    public ArgumentValidator validator(PluginVO pluginVO, String functionName) {
+        Entry entry = entry(pluginVO);
+        FunctionDefinition function = entry.functions.get(functionName);
+        if (function == null) {
+            return null;
+        }
+        return entry.validators.computeIfAbsent(functionName, name -> ArgumentValidator.compile(function));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPluginChanged(PluginChangedEvent event) {
+        // updatedAt 精度为秒，同一秒内的多次修改依赖事件显式失效
+        cache.remove(event.getPluginId());
+    }
+
+    private Entry entry(PluginVO pluginVO) {
+        Entry cached = cache.get(pluginVO.getId());
+        if (cached != null && Objects.equals(cached.version, pluginVO.getUpdatedAt())) {
+            return cached;
+        }
+        Entry entry = new Entry(pluginVO.getUpdatedAt(), build(pluginVO), readConfig(pluginVO));
+        cache.put(pluginVO.getId(), entry);
+        return entry;
+    }
+
+    private Map<String, Object> readConfig(PluginVO pluginVO) {
+        if (!StringUtils.hasText(pluginVO.getConfig())) {
+            return Map.of();
+        }
+        try {
+            return objectMapper.readValue(pluginVO.getConfig(), new TypeReference<Map<String, Object>>() {
+            });
+        } catch (Exception e) {
+            log.warn("解析插件配置失败: pluginId={}, {}", pluginVO.getId(), e.getMessage());
+            return Map.of();
+        }
+    }
+
+    private Map<String, FunctionDefinition> build(PluginVO pluginVO) {
+        // 优先加载保存时编译的函数目录；历史数据、目录版本不符或规范已被改动（哈希不一致）时回退为解析规范
+        List<FunctionDefinition> functions = matchesSpec(pluginVO)
+                ? FunctionCatalog.read(pluginVO.getFunctionCatalog()) : null;
+        if (functions != null) {
+            for (FunctionDefinition function : functions) {
+                function.getMetadata().setPluginId(pluginVO.getId());
+                function.getMetadata().setPluginName(pluginVO.getName());
+            }
+        } else {
+            Plugin plugin = new Plugin();
+            plugin.setId(pluginVO.getId());
+            plugin.setName(pluginVO.getName());
+            plugin.setOpenapiSpec(pluginVO.getOpenapiSpec());
+            functions = openAPIParser.parse(plugin);
+        }
+        Map<String, FunctionDefinition> index = new LinkedHashMap<>(functions.size() * 2);
+        for (FunctionDefinition function : functions) {
+            // 与原线性查找保持一致：同名函数以首次出现的为准
+            index.putIfAbsent(function.getName(), function);
+        }
+        log.debug("构建插件函数索引: pluginId={}, functions={}", pluginVO.getId(), index.size());
+        return Collections.unmodifiableMap(index);
+    }
+
+    private static boolean matchesSpec(PluginVO pluginVO) {
+        return pluginVO.getSpecHash() != null && pluginVO.getOpenapiSpec() != null
+                && pluginVO.getSpecHash().equals(FunctionCatalog.hash(pluginVO.getOpenapiSpec()));
+    }
+
+    private static class Entry {
+        private final LocalDateTime version;
+        private final Map<String, FunctionDefinition> functions;
+        private final Map<String, Object> config;
+        private final Map<String, RequestPlan> plans = new ConcurrentHashMap<>();
+        private final Map<String, ArgumentValidator> validators = new ConcurrentHashMap<>();
+
+        private Entry(LocalDateTime version, Map<String, FunctionDefinition> functions, Map<String, Object> config) {
+            this.version = version;
+            this.functions = functions;
+            this.config = config;
+        }
+    }
+}
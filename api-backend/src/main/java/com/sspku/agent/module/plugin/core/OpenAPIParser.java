@@ -1,17 +1,28 @@
 package com.sspku.agent.module.plugin.core;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sspku.agent.common.exception.BusinessException;
 import com.sspku.agent.module.plugin.dto.FunctionDefinition;
 import com.sspku.agent.module.plugin.entity.Plugin;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * OpenAPI 规范解析器
@@ -21,8 +32,25 @@ import java.util.Map;
 @Component
 public class OpenAPIParser {
 
+    /**
+     * 流式解析时 operation 中保留的字段，responses 等其余字段直接跳过
+     */
+    private static final Set<String> OPERATION_FIELDS = Set.of(
+            "operationId", "summary", "description", "parameters", "requestBody");
+
+    /**
+     * 流式解析时保留的 components 分组，仅这些分组可能被 $ref 引用到
+     */
+    private static final Set<String> COMPONENT_FIELDS = Set.of("schemas", "parameters", "requestBodies");
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    /**
+     * 规范超过该字节数时使用流式解析，小于等于 0 表示始终整树解析
+     */
+    @Value("${agent.plugin-openapi.streaming-threshold-bytes:1048576}")
+    private int streamingThresholdBytes;
+
     /**
      * 解析插件的 OpenAPI 规范
      * @param plugin 插件实体
@@ -30,63 +58,191 @@ public class OpenAPIParser {
      */
     public List<FunctionDefinition> parse(Plugin plugin) {
         List<FunctionDefinition> functions = new ArrayList<>();
-        
+        parse(plugin, functions::add);
+        return functions;
+    }
+
+    /**
+     * 解析插件的 OpenAPI 规范，每解析出一个函数即交给 consumer
+     * 大规范按 path 逐个流式读取，峰值内存取决于单个 operation 与被引用的组件，而不是整个文档
+     */
+    public void parse(Plugin plugin, Consumer<FunctionDefinition> consumer) {
         if (plugin == null || plugin.getOpenapiSpec() == null) {
-            return functions;
+            return;
         }
 
         try {
-            JsonNode root = objectMapper.readTree(plugin.getOpenapiSpec());
-            
-            // 1. 获取 Base URL
-            String extractedBaseUrl = "";
-            JsonNode servers = root.get("servers");
-            if (servers != null && servers.isArray() && servers.size() > 0) {
-                extractedBaseUrl = servers.get(0).get("url").asText();
+            parseSpec(plugin, consumer);
+        } catch (Exception e) {
+            log.error("解析插件[{}] OpenAPI 失败: {}", plugin.getName(), e.getMessage());
+        }
+    }
+
+    /**
+     * 保存插件时编译并校验 OpenAPI 规范
+     * @return 函数定义列表
+     * @throws BusinessException 规范无法解析、没有可调用的接口或 operationId 重复
+     */
+    public List<FunctionDefinition> compile(Plugin plugin) {
+        if (plugin == null || !StringUtils.hasText(plugin.getOpenapiSpec())) {
+            throw new BusinessException("OpenAPI规范不能为空");
+        }
+        List<FunctionDefinition> functions = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        try {
+            parseSpec(plugin, function -> {
+                if (!names.add(function.getName())) {
+                    throw new BusinessException("OpenAPI规范中 operationId 重复: " + function.getName());
+                }
+                functions.add(function);
+            });
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new BusinessException("OpenAPI规范无效: " + e.getMessage());
+        }
+        if (functions.isEmpty()) {
+            throw new BusinessException("OpenAPI规范中没有可调用的接口");
+        }
+        return functions;
+    }
+
+    private void parseSpec(Plugin plugin, Consumer<FunctionDefinition> consumer) throws IOException {
+        if (streamingThresholdBytes > 0 && plugin.getOpenapiSpec().length() > streamingThresholdBytes) {
+            parseStreaming(plugin, consumer);
+        } else {
+            parseTree(plugin, consumer);
+        }
+    }
+
+    private void parseTree(Plugin plugin, Consumer<FunctionDefinition> consumer) throws IOException {
+        JsonNode root = objectMapper.readTree(plugin.getOpenapiSpec());
+
+        // 1. 获取 Base URL
+        String baseUrl = firstServerUrl(root.get("servers"));
+        // 同一规范内的共享组件只解析一次，各函数共用
+        SchemaResolver resolver = new SchemaResolver(root);
+
+        // 2. 遍历 Paths
+        JsonNode paths = root.get("paths");
+        if (paths != null && paths.isObject()) {
+            Iterator<Map.Entry<String, JsonNode>> pathIterator = paths.fields();
+            while (pathIterator.hasNext()) {
+                Map.Entry<String, JsonNode> pathEntry = pathIterator.next();
+                String path = pathEntry.getKey();
+                JsonNode pathNode = pathEntry.getValue();
+
+                // 3. 遍历 Methods (GET, POST, etc.)
+                Iterator<Map.Entry<String, JsonNode>> methodIterator = pathNode.fields();
+                while (methodIterator.hasNext()) {
+                    Map.Entry<String, JsonNode> methodEntry = methodIterator.next();
+                    String method = methodEntry.getKey().toUpperCase();
+                    JsonNode operation = methodEntry.getValue();
+
+                    // 忽略非标准 HTTP 方法
+                    if (!isValidMethod(method)) {
+                        continue;
+                    }
+
+                    FunctionDefinition function = parseOperation(plugin, path, method, baseUrl, operation, resolver);
+                    if (function != null) {
+                        consumer.accept(function);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 流式解析：第一遍只读取 servers 与可能被引用的 components，第二遍逐个读取 operation 并立即转换，
+     * 其余部分（info、tags、responses、examples 等）只做词法跳过
+     */
+    private void parseStreaming(Plugin plugin, Consumer<FunctionDefinition> consumer) throws IOException {
+        String spec = plugin.getOpenapiSpec();
+        ObjectNode refRoot = objectMapper.createObjectNode();
+        String baseUrl = "";
+
+        // 1. servers 与 components 可能出现在 paths 之后，先单独扫描一遍
+        try (JsonParser parser = objectMapper.getFactory().createParser(spec)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("OpenAPI 规范必须是 JSON 对象");
             }
-            final String baseUrl = extractedBaseUrl; // 确保是 final 的
-            
-            // 2. 遍历 Paths
-            JsonNode paths = root.get("paths");
-            if (paths != null && paths.isObject()) {
-                Iterator<Map.Entry<String, JsonNode>> pathIterator = paths.fields();
-                while (pathIterator.hasNext()) {
-                    Map.Entry<String, JsonNode> pathEntry = pathIterator.next();
-                    String path = pathEntry.getKey();
-                    JsonNode pathNode = pathEntry.getValue();
-                    
-                    // 3. 遍历 Methods (GET, POST, etc.)
-                    Iterator<Map.Entry<String, JsonNode>> methodIterator = pathNode.fields();
-                    while (methodIterator.hasNext()) {
-                        Map.Entry<String, JsonNode> methodEntry = methodIterator.next();
-                        String method = methodEntry.getKey().toUpperCase();
-                        JsonNode operation = methodEntry.getValue();
-                        
-                        // 忽略非标准 HTTP 方法
-                        if (!isValidMethod(method)) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if ("servers".equals(field)) {
+                    baseUrl = firstServerUrl(parser.readValueAsTree());
+                } else if ("components".equals(field) && parser.currentToken() == JsonToken.START_OBJECT) {
+                    refRoot.set("components", readFields(parser, COMPONENT_FIELDS));
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        SchemaResolver resolver = new SchemaResolver(refRoot);
+
+        // 2. 逐个读取 path 下的 operation，转换完即交给调用方
+        try (JsonParser parser = objectMapper.getFactory().createParser(spec)) {
+            parser.nextToken();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                if (parser.nextToken() != JsonToken.START_OBJECT || !"paths".equals(field)) {
+                    parser.skipChildren();
+                    continue;
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String path = parser.currentName();
+                    if (parser.nextToken() != JsonToken.START_OBJECT) {
+                        parser.skipChildren();
+                        continue;
+                    }
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String method = parser.currentName().toUpperCase();
+                        if (parser.nextToken() != JsonToken.START_OBJECT || !isValidMethod(method)) {
+                            parser.skipChildren();
                             continue;
                         }
-                        
-                        FunctionDefinition function = parseOperation(plugin, path, method, baseUrl, operation);
+                        ObjectNode operation = readFields(parser, OPERATION_FIELDS);
+                        FunctionDefinition function = parseOperation(plugin, path, method, baseUrl, operation, resolver);
                         if (function != null) {
-                            functions.add(function);
+                            consumer.accept(function);
                         }
                     }
                 }
             }
-            
-        } catch (Exception e) {
-            log.error("解析插件[{}] OpenAPI 失败: {}", plugin.getName(), e.getMessage());
         }
-        
-        return functions;
+    }
+
+    /**
+     * 从当前对象中只读取指定字段，其余字段跳过；调用时 parser 位于对象的 START_OBJECT
+     */
+    private ObjectNode readFields(JsonParser parser, Set<String> fields) throws IOException {
+        ObjectNode node = objectMapper.createObjectNode();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if (fields.contains(field)) {
+                node.set(field, parser.readValueAsTree());
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return node;
+    }
+
+    private static String firstServerUrl(JsonNode servers) {
+        if (servers != null && servers.isArray() && servers.size() > 0) {
+            return servers.get(0).get("url").asText();
+        }
+        return "";
     }
 
     private boolean isValidMethod(String method) {
         return List.of("GET", "POST", "PUT", "DELETE", "PATCH").contains(method);
     }
 
-    private FunctionDefinition parseOperation(Plugin plugin, String path, String method, String baseUrl, JsonNode operation) {
+    private FunctionDefinition parseOperation(Plugin plugin, String path, String method, String baseUrl, JsonNode operation,
+                                              SchemaResolver resolver) {
         FunctionDefinition function = new FunctionDefinition();
         
         // 1. 设置函数名 (operationId)
@@ -105,25 +261,34 @@ public class OpenAPIParser {
         FunctionDefinition.Parameters parameters = new FunctionDefinition.Parameters();
         Map<String, Object> properties = new HashMap<>();
         List<String> required = new ArrayList<>();
+        // 参数名 -> 位置，用于执行时把参数放到正确的位置
+        Map<String, String> parameterIn = new HashMap<>();
         
-        // 3.1 处理 parameters (path & query)
+        // 3.1 处理 parameters (path & query & header)
         if (operation.has("parameters")) {
-            for (JsonNode param : operation.get("parameters")) {
+            for (JsonNode paramRef : operation.get("parameters")) {
+                JsonNode param = resolver.deref(paramRef);
+                if (param == null || !param.has("name") || !param.has("in")) {
+                    continue;
+                }
                 String paramName = param.get("name").asText();
                 String paramIn = param.get("in").asText(); // path, query, header, cookie
                 boolean isRequired = param.has("required") && param.get("required").asBoolean();
                 
-                // 暂时只处理 path 和 query 参数
-                if (!"path".equals(paramIn) && !"query".equals(paramIn)) {
+                // cookie 参数暂不支持
+                if (!"path".equals(paramIn) && !"query".equals(paramIn) && !"header".equals(paramIn)) {
                     continue;
                 }
                 
-                Map<String, Object> schemaMap = objectMapper.convertValue(param.get("schema"), Map.class);
+                Map<String, Object> schemaMap = resolver.resolve(param.get("schema"));
                 if (param.has("description")) {
+                    // 解析结果可能是共享组件，补充描述前先复制
+                    schemaMap = new LinkedHashMap<>(schemaMap);
                     schemaMap.put("description", param.get("description").asText());
                 }
                 
                 properties.put(paramName, schemaMap);
+                parameterIn.put(paramName, paramIn);
                 if (isRequired) {
                     required.add(paramName);
                 }
@@ -131,23 +296,25 @@ public class OpenAPIParser {
         }
         
         // 3.2 处理 requestBody
-        if (operation.has("requestBody")) {
-            JsonNode content = operation.get("requestBody").get("content");
+        JsonNode requestBody = operation.has("requestBody") ? resolver.deref(operation.get("requestBody")) : null;
+        if (requestBody != null) {
+            JsonNode content = requestBody.get("content");
             if (content != null && content.has("application/json")) {
-                JsonNode schema = content.get("application/json").get("schema");
-                if (schema != null) {
+                JsonNode schemaNode = content.get("application/json").get("schema");
+                if (schemaNode != null) {
+                    Map<String, Object> schema = resolver.resolve(schemaNode);
                     // 合并 properties
-                    if (schema.has("properties")) {
-                        Iterator<Map.Entry<String, JsonNode>> propIterator = schema.get("properties").fields();
-                        while (propIterator.hasNext()) {
-                            Map.Entry<String, JsonNode> prop = propIterator.next();
-                            properties.put(prop.getKey(), objectMapper.convertValue(prop.getValue(), Map.class));
+                    if (schema.get("properties") instanceof Map<?, ?> bodyProperties) {
+                        for (Map.Entry<?, ?> prop : bodyProperties.entrySet()) {
+                            String propName = String.valueOf(prop.getKey());
+                            properties.put(propName, prop.getValue());
+                            parameterIn.putIfAbsent(propName, "body");
                         }
                     }
                     // 合并 required
-                    if (schema.has("required")) {
-                        for (JsonNode req : schema.get("required")) {
-                            required.add(req.asText());
+                    if (schema.get("required") instanceof List<?> bodyRequired) {
+                        for (Object req : bodyRequired) {
+                            required.add(String.valueOf(req));
                         }
                     }
                 }
@@ -165,6 +332,7 @@ public class OpenAPIParser {
         metadata.setMethod(method);
         metadata.setPath(path);
         metadata.setBaseUrl(baseUrl);
+        metadata.setParameterIn(parameterIn);
         function.setMetadata(metadata);
         
         return function;
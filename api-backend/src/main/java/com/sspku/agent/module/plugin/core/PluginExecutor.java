@@ -1,6 +1,12 @@
 package com.sspku.agent.module.plugin.core;
 
+import com.sspku.agent.module.plugin.dto.PluginInvocationDTO;
+import com.sspku.agent.module.plugin.vo.PluginBatchItemVO;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 插件执行器接口
@@ -15,5 +21,17 @@ public interface PluginExecutor {
      * @return 执行结果（JSON字符串）
      */
     String execute(Long pluginId, String functionName, Map<String, Object> arguments);
-}
 
+    /**
+     * 异步执行插件函数，外部插件通过非阻塞 HTTP 客户端发送请求，不占用等待线程
+     * @return 执行结果（JSON字符串）；失败时以 BusinessException 异常完成
+     */
+    CompletableFuture<String> executeAsync(Long pluginId, String functionName, Map<String, Object> arguments);
+
+    /**
+     * 批量执行同一插件的多个函数调用：整批只查询一次插件，各项按并发上限同时执行
+     * @param parallelism 期望并发数，为空或超过配置上限时取上限
+     * @return 按完成顺序发出的单项结果，单项失败不影响其他项；插件不存在或未启用时直接抛出 BusinessException
+     */
+    Flux<PluginBatchItemVO> executeBatch(Long pluginId, List<PluginInvocationDTO> invocations, Integer parallelism);
+}
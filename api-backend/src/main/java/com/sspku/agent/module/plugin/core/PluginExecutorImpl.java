@@ -1,21 +1,43 @@
 package com.sspku.agent.module.plugin.core;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sspku.agent.common.exception.BusinessException;
+import com.sspku.agent.module.plugin.breaker.PluginCallPermit;
+import com.sspku.agent.module.plugin.breaker.PluginCircuitBreakerRegistry;
+import com.sspku.agent.module.plugin.cache.PluginCallCoalescer;
+import com.sspku.agent.module.plugin.cache.PluginResultCache;
 import com.sspku.agent.module.plugin.core.handler.BuiltinPluginHandler;
 import com.sspku.agent.module.plugin.dto.FunctionDefinition;
-import com.sspku.agent.module.plugin.entity.Plugin;
+import com.sspku.agent.module.plugin.dto.PluginInvocationDTO;
+import com.sspku.agent.module.plugin.exception.PluginUnavailableException;
+import com.sspku.agent.module.plugin.http.BoundedResponseExtractor;
+import com.sspku.agent.module.plugin.http.PluginHttpClientManager;
+import com.sspku.agent.module.plugin.http.PluginRequest;
+import com.sspku.agent.module.plugin.http.PluginResponseLimit;
+import com.sspku.agent.module.plugin.ratelimit.PluginRateLimiterRegistry;
+import com.sspku.agent.module.plugin.retry.HedgedCall;
+import com.sspku.agent.module.plugin.retry.PluginRetryPolicy;
+import com.sspku.agent.module.plugin.retry.PluginRetryRegistry;
 import com.sspku.agent.module.plugin.service.IPluginService;
+import com.sspku.agent.module.plugin.validation.PluginArgumentValidatorRegistry;
+import com.sspku.agent.module.plugin.vo.PluginBatchItemVO;
+import com.sspku.agent.module.plugin.vo.PluginVO;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 import org.springframework.web.client.RestTemplate;
-import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -29,16 +51,38 @@ public class PluginExecutorImpl implements PluginExecutor {
     private IPluginService pluginService;
 
     @Resource
-    private OpenAPIParser openAPIParser;
+    private FunctionIndex functionIndex;
 
     @Resource
-    private RestTemplate restTemplate;
+    private PluginHttpClientManager pluginHttpClientManager;
+
+    @Resource
+    private PluginCircuitBreakerRegistry pluginCircuitBreakerRegistry;
+
+    @Resource
+    private PluginRateLimiterRegistry pluginRateLimiterRegistry;
+
+    @Resource
+    private PluginRetryRegistry pluginRetryRegistry;
+
+    @Resource
+    private PluginArgumentValidatorRegistry pluginArgumentValidatorRegistry;
+
+    @Resource
+    private PluginResultCache pluginResultCache;
+
+    @Resource
+    private PluginCallCoalescer pluginCallCoalescer;
 
     @Resource
     private List<BuiltinPluginHandler> builtinHandlers;
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
-    
+    @Value("${agent.plugin-batch.max-items:1000}")
+    private int batchMaxItems;
+
+    @Value("${agent.plugin-batch.max-parallelism:8}")
+    private int batchMaxParallelism;
+
     // Handler 映射缓存
     private Map<String, BuiltinPluginHandler> handlerMap;
 
@@ -47,135 +91,413 @@ public class PluginExecutorImpl implements PluginExecutor {
         log.info("准备执行插件[{}], 函数[{}], 参数: {}", pluginId, functionName, arguments);
 
         // 1. 获取插件信息
-        var pluginVO = pluginService.getPluginById(pluginId);
-        
-        if (!"enabled".equals(pluginVO.getStatus())) {
-            throw new BusinessException("插件未启用");
-        }
+        PluginVO pluginVO = loadEnabledPlugin(pluginId);
 
         // 2. 判断是内置插件还是外部插件
         if ("builtin".equals(pluginVO.getType())) {
             return executeBuiltin(pluginVO.getName(), functionName, arguments);
         }
 
-        // 3. 外部插件：解析 OpenAPI，找到对应函数
-        Plugin plugin = new Plugin();
-        plugin.setId(pluginVO.getId());
-        plugin.setName(pluginVO.getName());
-        plugin.setOpenapiSpec(pluginVO.getOpenapiSpec());
-        plugin.setConfig(pluginVO.getConfig());
+        // 3. 外部插件：从函数索引中查找（同一规范版本只解析一次）
+        FunctionDefinition targetFunction = findFunction(pluginVO, functionName);
 
-        List<FunctionDefinition> functions = openAPIParser.parse(plugin);
-        FunctionDefinition targetFunction = functions.stream()
-                .filter(f -> f.getName().equals(functionName))
-                .findFirst()
-                .orElseThrow(() -> new BusinessException("未找到函数: " + functionName));
+        // 4. 按参数 Schema 校验并修正参数，不合法的调用不发往上游
+        Map<String, Object> validArguments = pluginArgumentValidatorRegistry.validate(pluginVO, targetFunction, arguments);
 
-        // 4. 准备请求参数
-        FunctionDefinition.Metadata metadata = targetFunction.getMetadata();
-        String url = metadata.getBaseUrl() + metadata.getPath();
-        String method = metadata.getMethod().toUpperCase();
-        
-        // 5. 构建请求
-        return doExecute(url, method, arguments, plugin.getConfig());
+        // 5. 幂等函数先查结果缓存
+        String cacheKey = pluginResultCache.keyOf(pluginVO, targetFunction, validArguments);
+        String cached = getCached(cacheKey, pluginId, functionName);
+        if (cached != null) {
+            return cached;
+        }
+
+        // 6. 非幂等函数或未启用请求合并时直接发往上游
+        String coalescingKey = coalescingKeyOf(pluginVO, targetFunction, validArguments);
+        if (coalescingKey == null) {
+            return executeRemote(pluginVO, targetFunction, validArguments, cacheKey);
+        }
+
+        // 7. 幂等函数合并同参数的并发调用，只有一个请求发往上游
+        CompletableFuture<String> shared = pluginCallCoalescer.execute(coalescingKey, () ->
+                CompletableFuture.completedFuture(executeRemote(pluginVO, targetFunction, validArguments, cacheKey)));
+        return join(shared);
     }
 
-    /**
-     * 执行内置插件
-     */
-    private String executeBuiltin(String pluginName, String functionName, Map<String, Object> arguments) {
-        // 初始化 handler 映射（懒加载）
-        if (handlerMap == null) {
-            handlerMap = builtinHandlers.stream()
-                    .collect(Collectors.toMap(BuiltinPluginHandler::getPluginName, h -> h));
+    @Override
+    public CompletableFuture<String> executeAsync(Long pluginId, String functionName, Map<String, Object> arguments) {
+        log.info("准备异步执行插件[{}], 函数[{}], 参数: {}", pluginId, functionName, arguments);
+        try {
+            return executeAsync(loadEnabledPlugin(pluginId), functionName, arguments);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
         }
+    }
 
-        BuiltinPluginHandler handler = handlerMap.get(pluginName);
-        if (handler == null) {
-            throw new BusinessException("未找到内置插件处理器: " + pluginName);
+    @Override
+    public Flux<PluginBatchItemVO> executeBatch(Long pluginId, List<PluginInvocationDTO> invocations,
+                                                Integer parallelism) {
+        if (invocations == null || invocations.isEmpty()) {
+            throw new BusinessException("批量调用列表不能为空");
+        }
+        if (invocations.size() > batchMaxItems) {
+            throw new BusinessException("批量调用最多 " + batchMaxItems + " 项");
         }
+        int concurrency = parallelism == null || parallelism <= 0
+                ? batchMaxParallelism : Math.min(parallelism, batchMaxParallelism);
+        log.info("准备批量执行插件[{}], 共 {} 项, 并发 {}", pluginId, invocations.size(), concurrency);
 
-        log.info("执行内置插件[{}], 函数[{}]", pluginName, functionName);
-        return handler.execute(functionName, arguments);
+        // 整批共用一次插件查询，函数索引与请求计划按插件配置版本缓存
+        PluginVO pluginVO = loadEnabledPlugin(pluginId);
+        return Flux.range(0, invocations.size())
+                .flatMap(index -> executeItem(pluginVO, index, invocations.get(index)), concurrency);
     }
 
-    private String doExecute(String urlTemplate, String method, Map<String, Object> arguments, String configJson) {
+    /**
+     * 执行批量中的一项，失败转为该项的错误结果
+     */
+    private Mono<PluginBatchItemVO> executeItem(PluginVO pluginVO, int index, PluginInvocationDTO invocation) {
+        String functionName = invocation != null ? invocation.getFunctionName() : null;
+        if (!StringUtils.hasText(functionName)) {
+            return Mono.just(PluginBatchItemVO.failure(index, functionName, "函数名称不能为空"));
+        }
+        return Mono.fromFuture(() -> executeAsync(pluginVO, functionName, invocation.getArguments()))
+                .map(result -> PluginBatchItemVO.builder()
+                        .index(index)
+                        .functionName(functionName)
+                        .success(true)
+                        .result(result)
+                        .build())
+                .onErrorResume(e -> Mono.just(PluginBatchItemVO.failure(index, functionName, unwrap(e).getMessage())));
+    }
+
+    private CompletableFuture<String> executeAsync(PluginVO pluginVO, String functionName,
+                                                   Map<String, Object> arguments) {
         try {
-            // 4.1 处理路径参数 (e.g. /users/{id})
-            Map<String, Object> uriVariables = new HashMap<>();
-            // 4.2 处理查询参数 (e.g. ?city=Beijing)
-            UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(urlTemplate);
-            // 4.3 处理请求体
-            Map<String, Object> requestBody = new HashMap<>();
-
-            // 简单策略：如果是 GET/DELETE，所有参数默认作为 query param
-            // 如果是 POST/PUT，参数如果没有在 path 中，则作为 body
-            // 更严谨的做法是根据 FunctionDefinition.parameters 来区分
-            
-            // 这里为了简化，我们假设 arguments 包含了所有参数
-            // 我们遍历 urlTemplate 中的 {param}，如果在 arguments 中有，则作为 path param，否则...
-            
-            for (Map.Entry<String, Object> entry : arguments.entrySet()) {
-                String key = entry.getKey();
-                Object value = entry.getValue();
-                
-                if (urlTemplate.contains("{" + key + "}")) {
-                    uriVariables.put(key, value);
-                } else if ("GET".equals(method) || "DELETE".equals(method)) {
-                    builder.queryParam(key, value);
-                } else {
-                    requestBody.put(key, value);
-                }
+            if ("builtin".equals(pluginVO.getType())) {
+                // 内置插件为纯计算，直接在调用线程完成
+                return CompletableFuture.completedFuture(executeBuiltin(pluginVO.getName(), functionName, arguments));
+            }
+            FunctionDefinition targetFunction = findFunction(pluginVO, functionName);
+            Map<String, Object> validArguments = pluginArgumentValidatorRegistry.validate(pluginVO, targetFunction,
+                    arguments);
+            String cacheKey = pluginResultCache.keyOf(pluginVO, targetFunction, validArguments);
+            String cached = getCached(cacheKey, pluginVO.getId(), functionName);
+            if (cached != null) {
+                return CompletableFuture.completedFuture(cached);
+            }
+            String coalescingKey = coalescingKeyOf(pluginVO, targetFunction, validArguments);
+            if (coalescingKey == null) {
+                return executeRemoteAsync(pluginVO, targetFunction, validArguments, cacheKey);
             }
+            return pluginCallCoalescer.execute(coalescingKey,
+                    () -> executeRemoteAsync(pluginVO, targetFunction, validArguments, cacheKey));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 
-            String finalUrl = builder.buildAndExpand(uriVariables).toUriString();
-            log.info("发送请求: {} {}", method, finalUrl);
+    /**
+     * 请求合并键，与结果缓存各自开关
+     * @return 函数非幂等或未启用合并时返回 null
+     */
+    private String coalescingKeyOf(PluginVO pluginVO, FunctionDefinition function, Map<String, Object> arguments) {
+        if (!pluginResultCache.isIdempotent(pluginVO, function)) {
+            return null;
+        }
+        return pluginCallCoalescer.keyOf(pluginVO, function, arguments);
+    }
 
-            // 4.4 设置 Headers (如 API Key)
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            
-            // 解析 config，添加认证头
-            if (configJson != null && !configJson.isEmpty()) {
+    /**
+     * 组装请求、经熔断器发往上游，瞬时错误按策略重试，成功后写入结果缓存
+     */
+    private String executeRemote(PluginVO pluginVO, FunctionDefinition targetFunction, Map<String, Object> arguments,
+                                 String cacheKey) {
+        RemoteCall call = prepareCall(pluginVO, targetFunction, arguments);
+        if (call.policy().isHedge()) {
+            // 对冲需要并发发出第二个请求，交由异步链路完成
+            return join(sendWithRetryAsync(call, cacheKey));
+        }
+        pluginRetryRegistry.onRequest();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                ResponseEntity<String> response = attempt(call);
+                if (cacheKey != null) {
+                    pluginResultCache.put(cacheKey, pluginVO, response);
+                }
+                return response.getBody();
+            } catch (RuntimeException e) {
+                if (!shouldRetry(call, attempt, e)) {
+                    throw failure(e);
+                }
                 try {
-                    Map<String, String> config = objectMapper.readValue(configJson, Map.class);
-                    // 假设 config 中配置了 apiKey，我们需要知道它放在哪里 (header/query)
-                    // 这里为了演示，假设如果是 apiKey 字段，就放在 Header: Authorization: Bearer xxx
-                    if (config.containsKey("apiKey")) {
-                        headers.set("Authorization", "Bearer " + config.get("apiKey"));
-                    }
-                    // 也可以遍历所有 config 添加到 header
-                    config.forEach((k, v) -> {
-                        if (!"apiKey".equals(k) && !"baseUrl".equals(k)) {
-                            headers.set(k, v);
-                        }
-                    });
-                } catch (Exception e) {
-                    log.warn("解析插件配置失败", e);
+                    Thread.sleep(call.policy().backoffMs(attempt));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw failure(e);
                 }
             }
+        }
+    }
+
+    private CompletableFuture<String> executeRemoteAsync(PluginVO pluginVO, FunctionDefinition targetFunction,
+                                                         Map<String, Object> arguments, String cacheKey) {
+        return sendWithRetryAsync(prepareCall(pluginVO, targetFunction, arguments), cacheKey);
+    }
+
+    private RemoteCall prepareCall(PluginVO pluginVO, FunctionDefinition targetFunction, Map<String, Object> arguments) {
+        PluginRequest request = prepareRequest(pluginVO, targetFunction, arguments);
+        return new RemoteCall(pluginVO, targetFunction.getName(), request,
+                pluginHttpClientManager.responseLimit(pluginVO, targetFunction.getName()),
+                pluginRetryRegistry.policy(pluginVO, targetFunction));
+    }
+
+    private CompletableFuture<String> sendWithRetryAsync(RemoteCall call, String cacheKey) {
+        pluginRetryRegistry.onRequest();
+        return retryAsync(call, 1)
+                .exceptionallyCompose(e -> CompletableFuture.failedFuture(failure(unwrap(e))))
+                .thenApply(response -> {
+                    if (cacheKey != null) {
+                        pluginResultCache.put(cacheKey, call.pluginVO(), response);
+                    }
+                    return response.getBody();
+                });
+    }
 
-            HttpEntity<?> entity;
-            if ("GET".equals(method) || "DELETE".equals(method)) {
-                entity = new HttpEntity<>(headers);
-            } else {
-                entity = new HttpEntity<>(requestBody, headers);
+    private CompletableFuture<ResponseEntity<String>> retryAsync(RemoteCall call, int attempt) {
+        return hedgedAttemptAsync(call).exceptionallyCompose(e -> {
+            Throwable cause = unwrap(e);
+            if (!shouldRetry(call, attempt, cause)) {
+                return CompletableFuture.failedFuture(cause);
             }
+            // 退避期间不占用线程
+            Executor delayed = CompletableFuture.delayedExecutor(call.policy().backoffMs(attempt), TimeUnit.MILLISECONDS);
+            return CompletableFuture.supplyAsync(() -> attempt + 1, delayed)
+                    .thenCompose(next -> retryAsync(call, next));
+        });
+    }
+
+    /**
+     * 首个请求超过对冲延迟仍未返回时再发出一个相同请求，取先返回的成功结果
+     */
+    private CompletableFuture<ResponseEntity<String>> hedgedAttemptAsync(RemoteCall call) {
+        long hedgeDelayMs = pluginRetryRegistry.hedgeDelayMs(call.pluginVO().getId(), call.functionName(),
+                call.policy());
+        if (hedgeDelayMs < 0) {
+            return attemptAsync(call);
+        }
+        return HedgedCall.execute(() -> attemptAsync(call), hedgeDelayMs,
+                pluginRetryRegistry::tryHedge, pluginRetryRegistry::onHedgeWin);
+    }
+
+    /**
+     * 同步发出一次上游请求：出站限流排队、熔断检查后发送，并记录结果
+     */
+    private ResponseEntity<String> attempt(RemoteCall call) {
+        // 出站限流：按上游配额排队，排队耗时不计入熔断器统计的调用耗时
+        pluginRateLimiterRegistry.acquire(call.pluginVO(), call.functionName());
 
-            // 5. 发送请求
-            ResponseEntity<String> response = restTemplate.exchange(
-                    finalUrl,
-                    HttpMethod.valueOf(method),
-                    entity,
-                    String.class
+        // 熔断检查：上游持续异常时直接失败，不再等待 HTTP 超时
+        PluginCallPermit permit = pluginCircuitBreakerRegistry.acquire(call.pluginVO(), call.functionName());
+
+        // 按插件配置版本选择带连接池与超时的客户端发送请求，响应体按函数上限流式读取
+        RestTemplate restTemplate = pluginHttpClientManager.getRestTemplate(call.pluginVO());
+        long start = System.nanoTime();
+        try {
+            ResponseEntity<String> response = restTemplate.execute(
+                    call.request().url(),
+                    call.request().method(),
+                    restTemplate.httpEntityCallback(call.request().entity(), String.class),
+                    new BoundedResponseExtractor(call.limit())
             );
+            onAttemptSuccess(call, permit, response, start);
+            return response;
+        } catch (RuntimeException e) {
+            onAttemptError(call, permit, e);
+            throw e;
+        }
+    }
+
+    /**
+     * 异步发出一次上游请求；返回的 future 被取消时（对冲落败）中断上游请求
+     */
+    private CompletableFuture<ResponseEntity<String>> attemptAsync(RemoteCall call) {
+        long waitMs = pluginRateLimiterRegistry.reserve(call.pluginVO(), call.functionName());
+        CompletableFuture<ResponseEntity<String>> result = new CompletableFuture<>();
+        Runnable send = () -> {
+            if (result.isDone()) {
+                // 排队期间已被取消
+                return;
+            }
+            PluginCallPermit permit;
+            CompletableFuture<ResponseEntity<String>> exchange;
+            long start = System.nanoTime();
+            try {
+                permit = pluginCircuitBreakerRegistry.acquire(call.pluginVO(), call.functionName());
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+                return;
+            }
+            try {
+                exchange = pluginHttpClientManager.exchangeAsync(call.pluginVO(), call.request(), call.limit());
+            } catch (RuntimeException e) {
+                onAttemptError(call, permit, e);
+                result.completeExceptionally(e);
+                return;
+            }
+            result.whenComplete((response, error) -> {
+                if (result.isCancelled()) {
+                    exchange.cancel(true);
+                }
+            });
+            exchange.whenComplete((response, error) -> {
+                if (error == null) {
+                    onAttemptSuccess(call, permit, response, start);
+                    result.complete(response);
+                    return;
+                }
+                Throwable cause = unwrap(error);
+                if (cause instanceof CancellationException) {
+                    permit.release();
+                    return;
+                }
+                onAttemptError(call, permit, cause);
+                result.completeExceptionally(cause);
+            });
+        };
+        if (waitMs <= 0) {
+            send.run();
+        } else {
+            // 排队期间不占用线程，到点后再发送
+            CompletableFuture.delayedExecutor(waitMs, TimeUnit.MILLISECONDS).execute(send);
+        }
+        return result;
+    }
+
+    private void onAttemptSuccess(RemoteCall call, PluginCallPermit permit, ResponseEntity<String> response,
+                                  long startNanos) {
+        permit.onSuccess();
+        pluginRateLimiterRegistry.onResponse(call.pluginVO().getId(), response.getStatusCode(), response.getHeaders());
+        pluginRetryRegistry.recordLatency(call.pluginVO().getId(), call.functionName(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+    }
+
+    private void onAttemptError(RemoteCall call, PluginCallPermit permit, Throwable error) {
+        permit.onError(error);
+        pluginRateLimiterRegistry.onError(call.pluginVO().getId(), error);
+        log.warn("插件请求失败: pluginId={}, function={}, error={}", call.pluginVO().getId(), call.functionName(),
+                error.toString());
+    }
+
+    /**
+     * 仅在尝试次数未用完、错误为瞬时错误且重试预算充足时重试；
+     * 熔断与限流等本地拒绝不重试
+     */
+    private boolean shouldRetry(RemoteCall call, int attempt, Throwable error) {
+        if (attempt >= call.policy().getMaxAttempts() || error instanceof PluginUnavailableException
+                || !PluginRetryPolicy.isRetryable(error)) {
+            return false;
+        }
+        if (!pluginRetryRegistry.tryRetry()) {
+            log.warn("重试预算已耗尽，放弃重试: pluginId={}, function={}", call.pluginVO().getId(), call.functionName());
+            return false;
+        }
+        log.info("重试插件请求: pluginId={}, function={}, attempt={}", call.pluginVO().getId(), call.functionName(),
+                attempt + 1);
+        return true;
+    }
+
+    /**
+     * 最终失败：本地拒绝等业务异常原样抛出，其余包装为插件执行失败
+     */
+    private static BusinessException failure(Throwable error) {
+        if (error instanceof BusinessException businessException) {
+            return businessException;
+        }
+        log.error("执行插件请求失败", error);
+        return new BusinessException("插件执行失败: " + error.getMessage());
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private static String join(CompletableFuture<String> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw failure(unwrap(e));
+        }
+    }
+
+    private PluginVO loadEnabledPlugin(Long pluginId) {
+        PluginVO pluginVO = pluginService.getPluginById(pluginId);
+
+        if (!"enabled".equals(pluginVO.getStatus())) {
+            throw new BusinessException("插件未启用");
+        }
+        return pluginVO;
+    }
+
+    private FunctionDefinition findFunction(PluginVO pluginVO, String functionName) {
+        FunctionDefinition targetFunction = functionIndex.find(pluginVO, functionName);
+        if (targetFunction == null) {
+            throw new BusinessException("未找到函数: " + functionName);
+        }
+        return targetFunction;
+    }
 
-            return response.getBody();
+    private String getCached(String cacheKey, Long pluginId, String functionName) {
+        if (cacheKey == null) {
+            return null;
+        }
+        String cached = pluginResultCache.get(cacheKey);
+        if (cached != null) {
+            log.info("插件结果命中缓存: pluginId={}, function={}", pluginId, functionName);
+        }
+        return cached;
+    }
 
+    /**
+     * 按预编译的请求计划填充参数
+     */
+    private PluginRequest prepareRequest(PluginVO pluginVO, FunctionDefinition targetFunction, Map<String, Object> arguments) {
+        RequestPlan plan = functionIndex.plan(pluginVO, targetFunction.getName());
+        if (plan == null) {
+            throw new BusinessException("未找到函数: " + targetFunction.getName());
+        }
+        try {
+            PluginRequest request = plan.build(arguments != null ? arguments : Map.of());
+            log.info("发送请求: {} {}", request.method(), request.url());
+            return request;
         } catch (Exception e) {
-            log.error("执行插件请求失败", e);
+            log.error("组装插件请求失败", e);
             throw new BusinessException("插件执行失败: " + e.getMessage());
         }
     }
-}
 
+    /**
+     * 执行内置插件
+     */
+    private String executeBuiltin(String pluginName, String functionName, Map<String, Object> arguments) {
+        // 初始化 handler 映射（懒加载）
+        if (handlerMap == null) {
+            handlerMap = builtinHandlers.stream()
+                    .collect(Collectors.toMap(BuiltinPluginHandler::getPluginName, h -> h));
+        }
+
+        BuiltinPluginHandler handler = handlerMap.get(pluginName);
+        if (handler == null) {
+            throw new BusinessException("未找到内置插件处理器: " + pluginName);
+        }
+
+        log.info("执行内置插件[{}], 函数[{}]", pluginName, functionName);
+        return handler.execute(functionName, arguments);
+    }
+
+    /**
+     * 一次远程调用的上下文
+     */
+    private record RemoteCall(PluginVO pluginVO, String functionName, PluginRequest request,
+                              PluginResponseLimit limit, PluginRetryPolicy policy) {
+    }
+}
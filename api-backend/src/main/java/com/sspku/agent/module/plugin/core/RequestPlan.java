@@ -0,0 +1,159 @@
+package com.sspku.agent.module.plugin.core;
+
+import com.sspku.agent.module.plugin.dto.FunctionDefinition;
+import com.sspku.agent.module.plugin.http.PluginRequest;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 预编译的插件请求计划
+ * 每个规范版本内对每个函数只编译一次：URL 只解析一次，参数按 OpenAPI 的 in 字段
+ * 分配到 path/query/header/body，认证与静态请求头预先计算；每次调用只需按参数名查表填充。
+ * 与认证头、静态请求头或连接相关请求头同名的 header 参数在编译时被丢弃，模型传入的值不能覆盖它们。
+ * 不可变，可被并发调用共享。
+ */
+public final class RequestPlan {
+
+    private enum Location {
+        PATH, QUERY, HEADER, BODY,
+        /**
+         * 不允许由参数设置的请求头，调用时丢弃
+         */
+        DROPPED
+    }
+
+    /**
+     * 由 HTTP 客户端管理的请求头，参数不能设置
+     */
+    private static final Set<String> RESERVED_HEADERS = Set.of(
+            "host", "content-length", "transfer-encoding", "connection", "te", "upgrade", "trailer");
+
+    private final HttpMethod method;
+    private final UriComponentsBuilder uriPrototype;
+    private final Map<String, Location> locations;
+    /**
+     * 规范中未声明的参数：GET/DELETE 作为查询参数，其余放入请求体
+     */
+    private final Location fallback;
+    private final boolean hasBody;
+    private final boolean hasPathVariables;
+    private final HttpHeaders staticHeaders;
+
+    private RequestPlan(HttpMethod method, UriComponentsBuilder uriPrototype, Map<String, Location> locations,
+                        boolean hasPathVariables, HttpHeaders staticHeaders) {
+        this.method = method;
+        this.uriPrototype = uriPrototype;
+        this.locations = locations;
+        this.hasBody = method != HttpMethod.GET && method != HttpMethod.DELETE;
+        this.fallback = hasBody ? Location.BODY : Location.QUERY;
+        this.hasPathVariables = hasPathVariables;
+        this.staticHeaders = staticHeaders;
+    }
+
+    /**
+     * 编译函数的请求计划
+     * @param config 插件配置：apiKey 作为 Bearer 认证头，其余字符串值作为静态请求头
+     */
+    public static RequestPlan compile(FunctionDefinition function, Map<String, Object> config) {
+        FunctionDefinition.Metadata metadata = function.getMetadata();
+        String url = metadata.getBaseUrl() + metadata.getPath();
+        HttpMethod method = HttpMethod.valueOf(metadata.getMethod().toUpperCase());
+
+        Map<String, Location> locations = new HashMap<>();
+        if (metadata.getParameterIn() != null) {
+            metadata.getParameterIn().forEach((name, in) -> {
+                Location location = toLocation(in);
+                if (location != null) {
+                    locations.put(name, location);
+                }
+            });
+        }
+        // URL 模板中的变量一定是路径参数（兼容未声明 in 的旧规范）
+        List<String> pathVariables = new UriTemplate(url).getVariableNames();
+        pathVariables.forEach(name -> locations.put(name, Location.PATH));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        if (config.containsKey("apiKey")) {
+            headers.set(HttpHeaders.AUTHORIZATION, "Bearer " + config.get("apiKey"));
+        }
+        // 仅字符串值作为请求头，"http" 等对象节点为客户端参数
+        config.forEach((key, value) -> {
+            if (!"apiKey".equals(key) && !"baseUrl".equals(key) && value instanceof String stringValue) {
+                headers.set(key, stringValue);
+            }
+        });
+
+        // 插件配置的认证与静态请求头优先，同名的 header 参数不能覆盖
+        locations.replaceAll((name, location) -> location == Location.HEADER
+                && (headers.containsKey(name) || RESERVED_HEADERS.contains(name.toLowerCase(Locale.ROOT)))
+                ? Location.DROPPED : location);
+
+        return new RequestPlan(method, UriComponentsBuilder.fromHttpUrl(url), Map.copyOf(locations),
+                !pathVariables.isEmpty(), HttpHeaders.readOnlyHttpHeaders(headers));
+    }
+
+    /**
+     * 按参数填充请求
+     */
+    public PluginRequest build(Map<String, Object> arguments) {
+        UriComponentsBuilder builder = uriPrototype.cloneBuilder();
+        Map<String, Object> uriVariables = hasPathVariables ? new HashMap<>() : Map.of();
+        Map<String, Object> body = hasBody ? new HashMap<>() : null;
+        HttpHeaders headers = staticHeaders;
+
+        for (Map.Entry<String, Object> entry : arguments.entrySet()) {
+            String key = entry.getKey();
+            Object value = entry.getValue();
+            Location location = locations.getOrDefault(key, fallback);
+            if (location == Location.BODY && !hasBody) {
+                location = Location.QUERY;
+            }
+            switch (location) {
+                case PATH -> uriVariables.put(key, value);
+                case QUERY -> builder.queryParam(key, value);
+                case HEADER -> {
+                    if (value != null) {
+                        // 静态请求头共享只读，仅在有请求头参数时复制
+                        if (headers == staticHeaders) {
+                            headers = new HttpHeaders();
+                            headers.addAll(staticHeaders);
+                        }
+                        headers.set(key, String.valueOf(value));
+                    }
+                }
+                case BODY -> body.put(key, value);
+                case DROPPED -> {
+                    // 与认证或静态请求头冲突的参数不发送
+                }
+            }
+        }
+
+        String url = builder.buildAndExpand(uriVariables).toUriString();
+        HttpEntity<?> entity = hasBody ? new HttpEntity<>(body, headers) : new HttpEntity<>(headers);
+        return new PluginRequest(url, method, entity);
+    }
+
+    private static Location toLocation(String in) {
+        if (in == null) {
+            return null;
+        }
+        return switch (in) {
+            case "path" -> Location.PATH;
+            case "query" -> Location.QUERY;
+            case "header" -> Location.HEADER;
+            case "body" -> Location.BODY;
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,161 @@
+package com.sspku.agent.module.plugin.core;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 单个 OpenAPI 规范内的 $ref 解析器
+ * 按引用路径记忆已解析的组件：每个共享组件只转换一次，多个函数引用同一组件时共用同一个只读 Map，
+ * 内存与耗时随规范大小线性增长。循环引用与过深的引用链在重入处截断为普通 object。
+ * 非线程安全，每次解析规范新建一个实例。
+ */
+final class SchemaResolver {
+
+    /**
+     * 引用链最大深度，超出后截断
+     */
+    static final int MAX_REF_DEPTH = 32;
+
+    private final JsonNode root;
+
+    /**
+     * 引用路径 -> 解析后的只读 schema
+     */
+    private final Map<String, Map<String, Object>> resolved = new HashMap<>();
+
+    /**
+     * 正在解析的引用链，用于检测循环引用
+     */
+    private final Set<String> resolving = new HashSet<>();
+
+    SchemaResolver(JsonNode root) {
+        this.root = root;
+    }
+
+    /**
+     * 将 schema 转换为 Map，内部的 $ref 替换为解析后的组件
+     * @return 结果可能是共享的只读 Map，调用方需要修改时应先复制
+     */
+    Map<String, Object> resolve(JsonNode schema) {
+        if (schema == null || !schema.isObject()) {
+            return new LinkedHashMap<>();
+        }
+        return toMap(schema);
+    }
+
+    /**
+     * 跟随 parameters、requestBody 等对象自身的 $ref，返回被引用的原始节点；无法解析时返回 null
+     */
+    JsonNode deref(JsonNode node) {
+        JsonNode current = node;
+        for (int i = 0; current != null && current.has("$ref"); i++) {
+            if (i >= MAX_REF_DEPTH) {
+                return null;
+            }
+            current = lookup(current.get("$ref").asText());
+        }
+        return current;
+    }
+
+    private Map<String, Object> toMap(JsonNode node) {
+        if (node.has("$ref")) {
+            Map<String, Object> target = resolveRef(node.get("$ref").asText());
+            if (node.size() == 1) {
+                return target;
+            }
+            // $ref 旁的 description 等字段覆盖到被引用的 schema 上
+            Map<String, Object> merged = new LinkedHashMap<>(target);
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                if (!"$ref".equals(field.getKey())) {
+                    merged.put(field.getKey(), toValue(field.getValue()));
+                }
+            }
+            return merged;
+        }
+        Map<String, Object> map = new LinkedHashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            map.put(field.getKey(), toValue(field.getValue()));
+        }
+        return map;
+    }
+
+    private Object toValue(JsonNode node) {
+        if (node.isObject()) {
+            return toMap(node);
+        }
+        if (node.isArray()) {
+            List<Object> list = new ArrayList<>(node.size());
+            for (JsonNode item : node) {
+                list.add(toValue(item));
+            }
+            return list;
+        }
+        if (node.isNull()) {
+            return null;
+        }
+        if (node.isBoolean()) {
+            return node.booleanValue();
+        }
+        if (node.isNumber()) {
+            return node.numberValue();
+        }
+        return node.asText();
+    }
+
+    private Map<String, Object> resolveRef(String ref) {
+        Map<String, Object> cached = resolved.get(ref);
+        if (cached != null) {
+            return cached;
+        }
+        if (resolving.contains(ref)) {
+            return truncated(ref, "循环引用");
+        }
+        if (resolving.size() >= MAX_REF_DEPTH) {
+            return truncated(ref, "引用层级过深");
+        }
+        JsonNode target = lookup(ref);
+        if (target == null || !target.isObject()) {
+            return truncated(ref, "无法解析的引用");
+        }
+        resolving.add(ref);
+        try {
+            Map<String, Object> schema = Collections.unmodifiableMap(toMap(target));
+            resolved.put(ref, schema);
+            return schema;
+        } finally {
+            resolving.remove(ref);
+        }
+    }
+
+    /**
+     * 仅支持规范内的引用（#/components/...），外部文件引用视为无法解析
+     */
+    private JsonNode lookup(String ref) {
+        if (!ref.startsWith("#")) {
+            return null;
+        }
+        JsonNode target = root.at(ref.substring(1));
+        return target.isMissingNode() ? null : target;
+    }
+
+    private static Map<String, Object> truncated(String ref, String reason) {
+        String name = ref.substring(ref.lastIndexOf('/') + 1);
+        Map<String, Object> schema = new LinkedHashMap<>();
+        schema.put("type", "object");
+        schema.put("description", reason + ": " + name);
+        return Collections.unmodifiableMap(schema);
+    }
+}
@@ -45,6 +45,7 @@ public class FunctionDefinition {
         private String method; // GET, POST, etc.
         private String path;   // /api/v1/weather
         private String baseUrl; // https://api.example.com
+        private Map<String, String> parameterIn; // 参数名 -> path/query/header/body
     }
 }
 
@@ -0,0 +1,19 @@
+package com.sspku.agent.module.plugin.dto;
+
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * 批量执行中的一次函数调用
+ */
+@Data
+public class PluginInvocationDTO {
+
+    /**
+     * 函数名称（operationId）
+     */
+    private String functionName;
+
+    private Map<String, Object> arguments;
+}
@@ -37,6 +37,17 @@ public class Plugin {
      */
     private String openapiSpec;
 
+    /**
+     * 函数目录（JSON格式字符串）
+     * 保存插件时由 openapiSpec 编译得到，运行时直接加载，见 FunctionCatalog
+     */
+    private String functionCatalog;
+
+    /**
+     * openapiSpec 内容哈希（SHA-256），用于判断规范是否变化
+     */
+    private String specHash;
+
     /**
      * 插件配置（JSON格式字符串）
      * 存储API密钥、服务器地址等配置信息
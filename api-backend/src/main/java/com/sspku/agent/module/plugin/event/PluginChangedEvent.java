@@ -0,0 +1,27 @@
+package com.sspku.agent.module.plugin.event;
+
+import lombok.Getter;
+
+/**
+ * 插件变更事件（更新、删除、启用、禁用）
+ * 供依赖插件定义的各级缓存失效使用
+ */
+@Getter
+public class PluginChangedEvent {
+
+    private final Long pluginId;
+
+    /**
+     * 插件是否已被删除，删除后按插件保存的统计也应一并清理
+     */
+    private final boolean deleted;
+
+    public PluginChangedEvent(Long pluginId) {
+        this(pluginId, false);
+    }
+
+    public PluginChangedEvent(Long pluginId, boolean deleted) {
+        this.pluginId = pluginId;
+        this.deleted = deleted;
+    }
+}
@@ -0,0 +1,40 @@
+package com.sspku.agent.module.plugin.exception;
+
+import cn.hutool.json.JSONUtil;
+import com.sspku.agent.common.api.ResultCode;
+import com.sspku.agent.common.exception.BusinessException;
+import lombok.Getter;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 插件函数参数不符合参数 Schema，调用未发往上游即被拒绝
+ * 作为工具结果时列出每一处错误，便于模型修正参数后重新调用。
+ */
+@Getter
+public class PluginArgumentException extends BusinessException {
+
+    private final String functionName;
+    private final List<String> errors;
+
+    public PluginArgumentException(String functionName, List<String> errors) {
+        super(ResultCode.PARAM_ERROR.getCode(), "函数 " + functionName + " 参数校验失败: " + String.join("; ", errors));
+        this.functionName = functionName;
+        this.errors = errors;
+    }
+
+    /**
+     * 作为工具结果返回给模型的结构化错误
+     */
+    public String toToolResult() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("error", "TOOL_INVALID_ARGUMENTS");
+        result.put("tool", functionName);
+        result.put("retryable", true);
+        result.put("errors", errors);
+        result.put("message", "工具参数不符合参数定义，请按 errors 逐项修正后重新调用");
+        return JSONUtil.toJsonStr(result);
+    }
+}
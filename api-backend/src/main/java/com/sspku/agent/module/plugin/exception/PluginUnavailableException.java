@@ -0,0 +1,56 @@
+package com.sspku.agent.module.plugin.exception;
+
+import cn.hutool.json.JSONUtil;
+import com.sspku.agent.common.exception.BusinessException;
+import lombok.Getter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 插件暂时不可调用（熔断、限流等），调用未发往上游即被拒绝
+ * code 即响应的 HTTP 状态码，并携带 Retry-After；作为工具结果时转换为模型可理解的结构化错误。
+ */
+@Getter
+public abstract class PluginUnavailableException extends BusinessException {
+
+    private final Long pluginId;
+    private final String pluginName;
+    private final String functionName;
+    /**
+     * 建议重试前等待的秒数
+     */
+    private final long retryAfterSeconds;
+
+    protected PluginUnavailableException(int code, String message, Long pluginId, String pluginName,
+                                         String functionName, long retryAfterSeconds) {
+        super(code, message);
+        this.pluginId = pluginId;
+        this.pluginName = pluginName;
+        this.functionName = functionName;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * 工具结果中的错误类型
+     */
+    protected abstract String getErrorType();
+
+    /**
+     * 给模型的处理建议
+     */
+    protected abstract String getHint();
+
+    /**
+     * 作为工具结果返回给模型的结构化错误，明确提示本轮对话不要再调用该工具
+     */
+    public String toToolResult() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("error", getErrorType());
+        result.put("tool", functionName);
+        result.put("retryable", false);
+        result.put("retryAfterSeconds", retryAfterSeconds);
+        result.put("message", getHint());
+        return JSONUtil.toJsonStr(result);
+    }
+}
@@ -0,0 +1,65 @@
+package com.sspku.agent.module.plugin.http;
+
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Future;
+
+/**
+ * 可中断的响应：取消底层请求以直接关闭连接，
+ * 之后的 close() 不会再为复用连接而读完剩余响应体
+ */
+class AbortableClientHttpResponse implements ClientHttpResponse {
+
+    private final ClientHttpResponse delegate;
+    private final Cancellable cancellable;
+    /**
+     * 请求的总超时任务，响应关闭后不再需要
+     */
+    private final Future<?> timeout;
+
+    AbortableClientHttpResponse(ClientHttpResponse delegate, Cancellable cancellable, Future<?> timeout) {
+        this.delegate = delegate;
+        this.cancellable = cancellable;
+        this.timeout = timeout;
+    }
+
+    void abort() {
+        cancellable.cancel();
+    }
+
+    @Override
+    public HttpStatusCode getStatusCode() throws IOException {
+        return delegate.getStatusCode();
+    }
+
+    @Override
+    public String getStatusText() throws IOException {
+        return delegate.getStatusText();
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return delegate.getHeaders();
+    }
+
+    @Override
+    public InputStream getBody() throws IOException {
+        return delegate.getBody();
+    }
+
+    @Override
+    public void close() {
+        try {
+            delegate.close();
+        } finally {
+            if (timeout != null) {
+                timeout.cancel(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.sspku.agent.module.plugin.http;
+
+import com.sspku.agent.common.util.TokenEstimator;
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * 有上限的响应体读取器
+ * 按块写入字节并增量解码，跨块的多字节字符留到下一块再解码；
+ * 字节数或估算 token 数达到上限后丢弃后续内容，结果末尾追加截断标记。
+ */
+public class BoundedBodyReader {
+
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+    private final CharsetDecoder decoder;
+    private final PluginResponseLimit limit;
+    private final StringBuilder text = new StringBuilder();
+
+    /**
+     * 上一块末尾未能解码的不完整字符
+     */
+    private ByteBuffer carry = EMPTY;
+    @Getter
+    private long bytesRead;
+    private int cjkChars;
+    private int otherChars;
+    /**
+     * 截断原因，未截断时为 null
+     */
+    private String truncation;
+
+    public BoundedBodyReader(Charset charset, PluginResponseLimit limit) {
+        this.decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.limit = limit;
+    }
+
+    /**
+     * 写入一块响应体
+     * @return true 表示已达上限，调用方应停止读取并中断连接
+     */
+    public boolean write(ByteBuffer chunk) {
+        if (truncation != null) {
+            return true;
+        }
+        if (limit.maxBytes() > 0 && chunk.remaining() > limit.maxBytes() - bytesRead) {
+            chunk = chunk.slice(chunk.position(), (int) (limit.maxBytes() - bytesRead));
+            truncation = "超过 " + limit.maxBytes() + " 字节上限";
+        }
+        bytesRead += chunk.remaining();
+        decode(chunk, false);
+        return truncation != null;
+    }
+
+    public boolean isTruncated() {
+        return truncation != null;
+    }
+
+    /**
+     * 结束读取并返回文本，截断时末尾附带截断标记
+     */
+    public String finish() {
+        if (truncation == null) {
+            decode(EMPTY, true);
+            return text.toString();
+        }
+        // 截断处可能落在多字节字符中间，丢弃残留字节
+        return text.append("\n...[响应已截断：").append(truncation).append("]").toString();
+    }
+
+    private void decode(ByteBuffer chunk, boolean endOfInput) {
+        ByteBuffer in = chunk;
+        if (carry.hasRemaining()) {
+            in = ByteBuffer.allocate(carry.remaining() + chunk.remaining()).put(carry).put(chunk).flip();
+        }
+        CharBuffer out = CharBuffer.allocate((int) (in.remaining() * (double) decoder.maxCharsPerByte()) + 2);
+        decoder.decode(in, out, endOfInput);
+        if (endOfInput) {
+            decoder.flush(out);
+        }
+        // 调用方会复用读缓冲区，残留字节需要复制
+        carry = in.hasRemaining() ? ByteBuffer.allocate(in.remaining()).put(in).flip() : EMPTY;
+        append(out.flip());
+    }
+
+    private void append(CharBuffer chars) {
+        if (limit.maxTokens() <= 0) {
+            text.append(chars);
+            return;
+        }
+        int end = 0;
+        while (end < chars.length()) {
+            char c = chars.charAt(end);
+            if (TokenEstimator.isCjk(c)) {
+                cjkChars++;
+            } else {
+                otherChars++;
+            }
+            if (cjkChars + (otherChars + 3) / 4 > limit.maxTokens()) {
+                truncation = "超过 " + limit.maxTokens() + " token 上限";
+                break;
+            }
+            end++;
+        }
+        // 不在代理对中间截断
+        if (truncation != null && end > 0 && Character.isHighSurrogate(chars.charAt(end - 1))) {
+            end--;
+        }
+        text.append(chars, 0, end);
+    }
+}
@@ -0,0 +1,58 @@
+package com.sspku.agent.module.plugin.http;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.ResponseExtractor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 流式读取插件响应体，达到字节或 token 上限后截断并中断连接，
+ * 而不是像 String 转换器那样把整个响应体读入内存
+ */
+@Slf4j
+public class BoundedResponseExtractor implements ResponseExtractor<ResponseEntity<String>> {
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private final PluginResponseLimit limit;
+
+    public BoundedResponseExtractor(PluginResponseLimit limit) {
+        this.limit = limit;
+    }
+
+    @Override
+    public ResponseEntity<String> extractData(ClientHttpResponse response) throws IOException {
+        BoundedBodyReader reader = new BoundedBodyReader(charsetOf(response.getHeaders().getContentType()), limit);
+        InputStream body = response.getBody();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = body.read(buffer)) != -1) {
+            if (reader.write(ByteBuffer.wrap(buffer, 0, read))) {
+                // 不再读取剩余内容，直接断开连接（关闭响应默认会读完响应体以复用连接）
+                if (response instanceof AbortableClientHttpResponse abortable) {
+                    abortable.abort();
+                }
+                log.warn("插件响应体超出上限已截断: bytesRead={}, limit={}", reader.getBytesRead(), limit);
+                break;
+            }
+        }
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .body(reader.finish());
+    }
+
+    /**
+     * 未声明字符集时按 UTF-8 解码（JSON 的默认编码）
+     */
+    static Charset charsetOf(MediaType contentType) {
+        return contentType != null && contentType.getCharset() != null
+                ? contentType.getCharset() : StandardCharsets.UTF_8;
+    }
+}
@@ -0,0 +1,138 @@
+package com.sspku.agent.module.plugin.http;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * 流式 gzip 解码器
+ * JDK HttpClient 不会解压响应体，异步调用按块解压后再交给 {@link BoundedBodyReader}，
+ * 与同步调用（HttpClient 5 自动解压）一致；上限按解压后的字节计算，达到上限即停止解压。
+ * 每个响应新建一个实例，用完后调用 {@link #close()} 释放本地内存；超时取消可能与解压并发，二者由锁串行。
+ */
+final class GzipBodyDecoder implements AutoCloseable {
+
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+
+    private final Inflater inflater = new Inflater(true);
+    private final byte[] output = new byte[8192];
+    private final ReentrantLock lock = new ReentrantLock();
+    private boolean closed;
+
+    /**
+     * 尚未解析完的 gzip 头，解析完成后为 null
+     */
+    private byte[] header = new byte[0];
+
+    /**
+     * 解压一块压缩数据，解压结果依次交给 consumer
+     * @param consumer 返回 true 表示不再需要后续内容
+     * @return true 表示 consumer 已要求停止
+     */
+    boolean decode(ByteBuffer chunk, Predicate<ByteBuffer> consumer) throws ZipException {
+        lock.lock();
+        try {
+            return closed || inflate(chunk, consumer);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean inflate(ByteBuffer chunk, Predicate<ByteBuffer> consumer) throws ZipException {
+        byte[] input = new byte[chunk.remaining()];
+        chunk.get(input);
+        if (header != null) {
+            header = concat(header, input);
+            int length = headerLength(header);
+            if (length < 0) {
+                return false;
+            }
+            input = Arrays.copyOfRange(header, length, header.length);
+            header = null;
+        }
+        if (inflater.finished()) {
+            // 压缩流之后的 CRC 与长度尾部
+            return false;
+        }
+        inflater.setInput(input);
+        try {
+            while (!inflater.finished() && !inflater.needsInput()) {
+                int count = inflater.inflate(output);
+                if (count == 0 && inflater.needsDictionary()) {
+                    throw new ZipException("不支持带预置字典的 gzip 响应");
+                }
+                if (count > 0 && consumer.test(ByteBuffer.wrap(output, 0, count))) {
+                    return true;
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new ZipException("gzip 响应体损坏: " + e.getMessage());
+        }
+        return false;
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (!closed) {
+                closed = true;
+                inflater.end();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return gzip 头长度；数据不足以确定时返回 -1
+     */
+    private static int headerLength(byte[] bytes) throws ZipException {
+        if (bytes.length < 10) {
+            return -1;
+        }
+        if ((bytes[0] & 0xff) != 0x1f || (bytes[1] & 0xff) != 0x8b || bytes[2] != 8) {
+            throw new ZipException("响应声明为 gzip 但内容不是 gzip 格式");
+        }
+        int flags = bytes[3] & 0xff;
+        int position = 10;
+        if ((flags & FEXTRA) != 0) {
+            if (bytes.length < position + 2) {
+                return -1;
+            }
+            position += 2 + ((bytes[position] & 0xff) | ((bytes[position + 1] & 0xff) << 8));
+        }
+        if ((flags & FNAME) != 0) {
+            position = skipZeroTerminated(bytes, position);
+        }
+        if ((flags & FCOMMENT) != 0 && position >= 0) {
+            position = skipZeroTerminated(bytes, position);
+        }
+        if ((flags & FHCRC) != 0 && position >= 0) {
+            position += 2;
+        }
+        return position >= 0 && position <= bytes.length ? position : -1;
+    }
+
+    private static int skipZeroTerminated(byte[] bytes, int from) {
+        for (int i = from; i < bytes.length; i++) {
+            if (bytes[i] == 0) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+}
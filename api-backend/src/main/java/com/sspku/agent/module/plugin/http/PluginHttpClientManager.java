@@ -0,0 +1,693 @@
+package com.sspku.agent.module.plugin.http;
+
+import cn.hutool.cache.Cache;
+import cn.hutool.cache.CacheUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sspku.agent.common.util.ThreadFactories;
+import com.sspku.agent.module.plugin.event.PluginChangedEvent;
+import com.sspku.agent.module.plugin.vo.PluginHttpPoolStatsVO;
+import com.sspku.agent.module.plugin.vo.PluginVO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.reactive.JdkClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.zip.ZipException;
+
+/**
+ * 插件 HTTP 客户端管理器
+ * 所有外部插件调用共用一个带 keep-alive 的连接池，按插件版本构建 RestTemplate：
+ * 读超时、总超时与 gzip 可按插件覆盖；覆盖了建连超时或单路由连接数的插件使用独立连接池。
+ * 异步调用使用基于 JDK HttpClient 的 WebClient，少量固定线程即可承载大量并发请求；
+ * JDK HttpClient 不自带解压与读超时，这里显式补齐 gzip、读超时与重定向，使插件的 http 配置在两条路径上一致。
+ * 响应体均以流式读取，超过字节或 token 上限时截断并中断连接。
+ */
+@Slf4j
+@Component
+public class PluginHttpClientManager {
+
+    private static final String SHARED_POOL = "shared";
+
+    /**
+     * 异步调用单个响应体的内存上限（成功响应另按插件上限流式读取，此处仅约束错误响应体）
+     */
+    private static final int MAX_IN_MEMORY_BYTES = 4 * 1024 * 1024;
+
+    /**
+     * 同步调用错误响应体的读取上限，仅用于异常信息
+     */
+    private static final int MAX_ERROR_BODY_BYTES = 64 * 1024;
+
+    /**
+     * 异步请求的读超时（请求属性），由 {@link #READ_TIMEOUT} 过滤器作用于等待响应头阶段
+     */
+    private static final String READ_TIMEOUT_ATTRIBUTE = PluginHttpClientManager.class.getName() + ".readTimeout";
+
+    private static final ExchangeFilterFunction READ_TIMEOUT = (request, next) -> {
+        Mono<ClientResponse> exchange = next.exchange(request);
+        return request.attribute(READ_TIMEOUT_ATTRIBUTE)
+                .map(timeout -> exchange.timeout((Duration) timeout))
+                .orElse(exchange);
+    };
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Value("${agent.plugin-http.max-total:200}")
+    private int maxTotal;
+
+    @Value("${agent.plugin-http.max-per-route:20}")
+    private int maxPerRoute;
+
+    @Value("${agent.plugin-http.connect-timeout-ms:3000}")
+    private int connectTimeoutMs;
+
+    @Value("${agent.plugin-http.read-timeout-ms:10000}")
+    private int readTimeoutMs;
+
+    @Value("${agent.plugin-http.total-timeout-ms:30000}")
+    private int totalTimeoutMs;
+
+    @Value("${agent.plugin-http.connection-request-timeout-ms:2000}")
+    private int connectionRequestTimeoutMs;
+
+    @Value("${agent.plugin-http.keep-alive-ms:30000}")
+    private long keepAliveMs;
+
+    @Value("${agent.plugin-http.gzip:true}")
+    private boolean gzip;
+
+    @Value("${agent.plugin-http.cache-size:1000}")
+    private int cacheSize;
+
+    @Value("${agent.plugin-http.async-threads:4}")
+    private int asyncThreads;
+
+    @Value("${agent.plugin-http.max-response-bytes:1048576}")
+    private int maxResponseBytes;
+
+    @Value("${agent.plugin-http.max-response-tokens:8000}")
+    private int maxResponseTokens;
+
+    @Value("${agent.plugin-http.retire-delay-ms:60000}")
+    private long retireDelayMs;
+
+    private PoolingHttpClientConnectionManager sharedPool;
+    private RestTemplate defaultRestTemplate;
+    private RestTemplate noRedirectRestTemplate;
+    private ScheduledThreadPoolExecutor scheduler;
+    private ExecutorService asyncExecutor;
+    private HttpClient sharedAsyncClient;
+    private WebClient defaultWebClient;
+
+    /**
+     * pluginId -> 该插件某一配置版本的客户端
+     */
+    private Cache<Long, PluginHttpClient> clients;
+
+    /**
+     * 串行化未命中时的客户端创建与替换，避免并发创建出多个独立连接池
+     */
+    private final ReentrantLock resolveLock = new ReentrantLock();
+
+    /**
+     * 已被替换或淘汰、等待延迟关闭的客户端
+     */
+    private final Set<PluginHttpClient> retiring = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void init() {
+        scheduler = (ScheduledThreadPoolExecutor) Executors.newScheduledThreadPool(1,
+                ThreadFactories.named("plugin-http-", false));
+        // 撤销的超时任务立即移出队列
+        scheduler.setRemoveOnCancelPolicy(true);
+
+        sharedPool = createPool(connectTimeoutMs, maxPerRoute, maxTotal);
+        defaultRestTemplate = createRestTemplate(sharedPool, new PluginHttpOptions());
+        noRedirectRestTemplate = createRestTemplate(sharedPool, new PluginHttpOptions(), false);
+
+        asyncExecutor = Executors.newFixedThreadPool(asyncThreads, ThreadFactories.named("plugin-http-async-", false));
+        sharedAsyncClient = createAsyncClient(connectTimeoutMs);
+        defaultWebClient = createWebClient(sharedAsyncClient);
+
+        clients = CacheUtil.newLRUCache(cacheSize);
+        // 被替换、失效或 LRU 淘汰的客户端可能仍有进行中的请求，延迟关闭
+        clients.setListener((pluginId, client) -> retire(client));
+
+        // 定期清理过期与空闲连接
+        scheduler.scheduleWithFixedDelay(this::evictIdleConnections, keepAliveMs, keepAliveMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        scheduler.shutdownNow();
+        for (PluginHttpClient client : clients) {
+            client.close();
+        }
+        clients.clear();
+        retiring.forEach(PluginHttpClient::close);
+        retiring.clear();
+        sharedPool.close(CloseMode.GRACEFUL);
+        sharedAsyncClient.shutdown();
+        asyncExecutor.shutdown();
+    }
+
+    /**
+     * 使用全局默认参数的 RestTemplate（共享连接池）
+     */
+    public RestTemplate getDefaultRestTemplate() {
+        return defaultRestTemplate;
+    }
+
+    /**
+     * 不跟随重定向的默认 RestTemplate（共享连接池），用于请求调用方提供的地址：
+     * 地址在发送前校验，跟随重定向会绕过校验
+     */
+    public RestTemplate getNoRedirectRestTemplate() {
+        return noRedirectRestTemplate;
+    }
+
+    /**
+     * 获取插件当前配置版本对应的 RestTemplate
+     */
+    public RestTemplate getRestTemplate(PluginVO pluginVO) {
+        return resolve(pluginVO).restTemplate;
+    }
+
+    /**
+     * 插件函数生效的响应体上限：函数级配置优先，其次插件级，最后全局默认
+     */
+    public PluginResponseLimit responseLimit(PluginVO pluginVO, String functionName) {
+        PluginResponseOptions options = resolve(pluginVO).responseOptions;
+        PluginResponseOptions function = options.getFunctions() != null
+                ? options.getFunctions().get(functionName) : null;
+        int maxBytes = firstNonNull(function != null ? function.getMaxBytes() : null, options.getMaxBytes(),
+                maxResponseBytes);
+        int maxTokens = firstNonNull(function != null ? function.getMaxTokens() : null, options.getMaxTokens(),
+                maxResponseTokens);
+        return new PluginResponseLimit(maxBytes, maxTokens);
+    }
+
+    /**
+     * 以非阻塞方式发送插件请求，读超时、总超时与 gzip 按插件配置生效；
+     * 响应体按块解压、解码，达到上限后取消订阅，JDK HttpClient 随之中断连接。
+     * 重定向与同步调用一样自动跟随，未被跟随的 3xx 按错误处理，不会作为结果返回给模型或写入缓存
+     */
+    public CompletableFuture<ResponseEntity<String>> exchangeAsync(PluginVO pluginVO, PluginRequest request,
+                                                                   PluginResponseLimit limit) {
+        PluginHttpClient client = resolve(pluginVO);
+        Duration readTimeout = Duration.ofMillis(client.readTimeout);
+        WebClient.RequestBodySpec spec = client.webClient
+                .method(request.method())
+                .uri(request.url())
+                .headers(headers -> {
+                    headers.addAll(request.entity().getHeaders());
+                    if (client.gzip && !headers.containsKey(HttpHeaders.ACCEPT_ENCODING)) {
+                        headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+                    }
+                })
+                .attribute(READ_TIMEOUT_ATTRIBUTE, readTimeout);
+        if (request.entity().hasBody()) {
+            spec.bodyValue(request.entity().getBody());
+        }
+        return spec.exchangeToMono(response -> {
+                    if (!response.statusCode().is2xxSuccessful()) {
+                        return response.createError();
+                    }
+                    HttpHeaders headers = new HttpHeaders();
+                    headers.addAll(response.headers().asHttpHeaders());
+                    GzipBodyDecoder gzipDecoder = null;
+                    if (isGzip(headers)) {
+                        // 返回的是解压后的内容，去掉与之不符的编码与长度头
+                        headers.remove(HttpHeaders.CONTENT_ENCODING);
+                        headers.remove(HttpHeaders.CONTENT_LENGTH);
+                        gzipDecoder = new GzipBodyDecoder();
+                    }
+                    GzipBodyDecoder decoder = gzipDecoder;
+                    BoundedBodyReader reader = new BoundedBodyReader(
+                            BoundedResponseExtractor.charsetOf(response.headers().contentType().orElse(null)), limit);
+                    return response.bodyToFlux(DataBuffer.class)
+                            // 相邻两块之间的等待同样受读超时约束
+                            .timeout(readTimeout)
+                            .takeUntil(buffer -> write(reader, decoder, buffer))
+                            .doFinally(signal -> {
+                                if (decoder != null) {
+                                    decoder.close();
+                                }
+                            })
+                            .then(Mono.fromSupplier(() -> {
+                                if (reader.isTruncated()) {
+                                    log.warn("插件响应体超出上限已截断: pluginId={}, bytesRead={}, limit={}",
+                                            pluginVO.getId(), reader.getBytesRead(), limit);
+                                }
+                                return ResponseEntity.status(response.statusCode())
+                                        .headers(headers)
+                                        .body(reader.finish());
+                            }));
+                })
+                .timeout(Duration.ofMillis(client.totalTimeout))
+                .toFuture();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPluginChanged(PluginChangedEvent event) {
+        clients.remove(event.getPluginId());
+    }
+
+    /**
+     * 连接池使用情况：共享池与各插件独立池
+     */
+    public List<PluginHttpPoolStatsVO> stats() {
+        List<PluginHttpPoolStatsVO> stats = new ArrayList<>();
+        stats.add(toStats(SHARED_POOL, sharedPool.getTotalStats()));
+        for (PluginHttpClient client : clients) {
+            if (client.pool != null) {
+                stats.add(toStats(client.poolName, client.pool.getTotalStats()));
+            }
+        }
+        return stats;
+    }
+
+    private PluginHttpClient resolve(PluginVO pluginVO) {
+        PluginHttpClient cached = clients.get(pluginVO.getId());
+        if (cached != null && Objects.equals(cached.version, pluginVO.getUpdatedAt())) {
+            return cached;
+        }
+        resolveLock.lock();
+        try {
+            // 并发未命中时只有第一个调用方创建，其余复用其结果
+            PluginHttpClient current = clients.get(pluginVO.getId(), false);
+            if (current != null && Objects.equals(current.version, pluginVO.getUpdatedAt())) {
+                return current;
+            }
+            PluginHttpClient client = createClient(pluginVO.getId(), pluginVO.getUpdatedAt(),
+                    readOptions(pluginVO.getConfig(), "http", PluginHttpOptions.class, PluginHttpOptions::new),
+                    readOptions(pluginVO.getConfig(), "response", PluginResponseOptions.class,
+                            PluginResponseOptions::new));
+            // 直接覆盖，不留出缺失窗口；旧版本交由延迟关闭
+            clients.put(pluginVO.getId(), client);
+            if (current != null) {
+                retire(current);
+            }
+            return client;
+        } finally {
+            resolveLock.unlock();
+        }
+    }
+
+    /**
+     * 延迟关闭客户端独占的连接池与异步客户端：
+     * 取得旧客户端的请求最迟在总超时后结束，等待期过后再关闭，避免进行中的请求遇到连接池已关闭
+     */
+    private void retire(PluginHttpClient client) {
+        if (!client.hasDedicatedResources() || !retiring.add(client)) {
+            return;
+        }
+        long delay = Math.max(retireDelayMs, (long) client.totalTimeout + connectionRequestTimeoutMs);
+        try {
+            scheduler.schedule(() -> {
+                retiring.remove(client);
+                client.close();
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // 应用关闭中，由 destroy 统一关闭
+        }
+    }
+
+    private PluginHttpClient createClient(Long pluginId, LocalDateTime version, PluginHttpOptions options,
+                                          PluginResponseOptions responseOptions) {
+        int totalTimeout = options.getTotalTimeoutMs() != null ? options.getTotalTimeoutMs() : totalTimeoutMs;
+        int readTimeout = options.getReadTimeoutMs() != null ? options.getReadTimeoutMs() : readTimeoutMs;
+        boolean useGzip = options.getGzip() != null ? options.getGzip() : gzip;
+        if (options.equals(new PluginHttpOptions())) {
+            // 无插件级参数时复用默认客户端
+            return new PluginHttpClient(version, defaultRestTemplate, null, SHARED_POOL,
+                    defaultWebClient, null, totalTimeout, readTimeout, useGzip, responseOptions);
+        }
+        PoolingHttpClientConnectionManager pool = null;
+        String poolName = SHARED_POOL;
+        if (options.requiresDedicatedPool()) {
+            int perRoute = options.getMaxPerRoute() != null ? options.getMaxPerRoute() : maxPerRoute;
+            pool = createPool(options.getConnectTimeoutMs() != null ? options.getConnectTimeoutMs() : connectTimeoutMs,
+                    perRoute, Math.min(maxTotal, perRoute * 4));
+            poolName = "plugin-" + pluginId;
+        }
+        RestTemplate restTemplate = createRestTemplate(pool != null ? pool : sharedPool, options);
+
+        // 异步客户端：仅建连超时需要独立的 HttpClient，读超时、总超时与 gzip 在每次请求上生效
+        HttpClient asyncClient = null;
+        WebClient webClient = defaultWebClient;
+        if (options.getConnectTimeoutMs() != null) {
+            asyncClient = createAsyncClient(options.getConnectTimeoutMs());
+            webClient = createWebClient(asyncClient);
+        }
+        return new PluginHttpClient(version, restTemplate, pool, poolName, webClient, asyncClient, totalTimeout,
+                readTimeout, useGzip, responseOptions);
+    }
+
+    private HttpClient createAsyncClient(int connectTimeout) {
+        return HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeout))
+                // 与 HttpClient 5 的默认行为一致地跟随重定向（不从 https 降级到 http）
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(asyncExecutor)
+                .build();
+    }
+
+    private WebClient createWebClient(HttpClient httpClient) {
+        return WebClient.builder()
+                .clientConnector(new JdkClientHttpConnector(httpClient))
+                .filter(READ_TIMEOUT)
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(MAX_IN_MEMORY_BYTES))
+                .build();
+    }
+
+    private PoolingHttpClientConnectionManager createPool(int connectTimeout, int perRoute, int total) {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(total)
+                .setMaxConnPerRoute(perRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeout))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+    }
+
+    private RestTemplate createRestTemplate(PoolingHttpClientConnectionManager pool, PluginHttpOptions options) {
+        return createRestTemplate(pool, options, true);
+    }
+
+    private RestTemplate createRestTemplate(PoolingHttpClientConnectionManager pool, PluginHttpOptions options,
+                                            boolean followRedirects) {
+        int readTimeout = options.getReadTimeoutMs() != null ? options.getReadTimeoutMs() : readTimeoutMs;
+        int totalTimeout = options.getTotalTimeoutMs() != null ? options.getTotalTimeoutMs() : totalTimeoutMs;
+        boolean useGzip = options.getGzip() != null ? options.getGzip() : gzip;
+
+        HttpClientBuilder builder = HttpClientBuilder.create()
+                .setConnectionManager(pool)
+                // 多个客户端共享连接池，关闭客户端时不关闭连接池
+                .setConnectionManagerShared(true)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(connectionRequestTimeoutMs))
+                        .setResponseTimeout(Timeout.ofMilliseconds(readTimeout))
+                        .setConnectionKeepAlive(TimeValue.ofMilliseconds(keepAliveMs))
+                        .build());
+        if (!useGzip) {
+            builder.disableContentCompression();
+        }
+        if (!followRedirects) {
+            builder.disableRedirectHandling();
+        }
+        CloseableHttpClient httpClient = builder.build();
+        RestTemplate restTemplate = new RestTemplate(new TotalTimeoutRequestFactory(httpClient, totalTimeout));
+        restTemplate.setErrorHandler(new BoundedErrorHandler());
+        return restTemplate;
+    }
+
+    private <T> T readOptions(String configJson, String field, Class<T> type, Supplier<T> defaults) {
+        if (!StringUtils.hasText(configJson)) {
+            return defaults.get();
+        }
+        try {
+            JsonNode node = objectMapper.readTree(configJson).get(field);
+            if (node == null || !node.isObject()) {
+                return defaults.get();
+            }
+            return objectMapper.treeToValue(node, type);
+        } catch (Exception e) {
+            log.warn("解析插件 {} 配置失败，使用默认参数: {}", field, e.getMessage());
+            return defaults.get();
+        }
+    }
+
+    private static boolean write(BoundedBodyReader reader, GzipBodyDecoder decoder, DataBuffer buffer) {
+        try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+            while (iterator.hasNext()) {
+                ByteBuffer chunk = iterator.next();
+                if (decoder != null ? decoder.decode(chunk, reader::write) : reader.write(chunk)) {
+                    return true;
+                }
+            }
+            return false;
+        } catch (ZipException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    private static boolean isGzip(HttpHeaders headers) {
+        String encoding = headers.getFirst(HttpHeaders.CONTENT_ENCODING);
+        if (encoding == null) {
+            return false;
+        }
+        encoding = encoding.trim();
+        return "gzip".equalsIgnoreCase(encoding) || "x-gzip".equalsIgnoreCase(encoding);
+    }
+
+    private static int firstNonNull(Integer function, Integer plugin, int global) {
+        if (function != null) {
+            return function;
+        }
+        return plugin != null ? plugin : global;
+    }
+
+    private void evictIdleConnections() {
+        try {
+            sharedPool.closeExpired();
+            sharedPool.closeIdle(TimeValue.ofMilliseconds(keepAliveMs));
+            for (PluginHttpClient client : clients) {
+                if (client.pool != null) {
+                    client.pool.closeExpired();
+                    client.pool.closeIdle(TimeValue.ofMilliseconds(keepAliveMs));
+                }
+            }
+        } catch (Exception e) {
+            log.warn("清理空闲连接失败", e);
+        }
+    }
+
+    private static PluginHttpPoolStatsVO toStats(String name, PoolStats poolStats) {
+        return PluginHttpPoolStatsVO.builder()
+                .name(name)
+                .leased(poolStats.getLeased())
+                .pending(poolStats.getPending())
+                .available(poolStats.getAvailable())
+                .max(poolStats.getMax())
+                .build();
+    }
+
+    /**
+     * 为每个请求安排总超时：到期仍未结束则取消请求并释放连接；
+     * 请求失败或响应关闭时撤销超时任务，调度队列中只保留进行中的请求。
+     * 响应包装为可中断的响应，供读取响应体超出上限时直接断开连接
+     */
+    private class TotalTimeoutRequestFactory extends HttpComponentsClientHttpRequestFactory {
+
+        private final int totalTimeout;
+
+        /**
+         * createRequest 内部同步调用 postProcessHttpRequest，借此取得底层请求
+         */
+        private final ThreadLocal<Cancellable> created = new ThreadLocal<>();
+
+        private TotalTimeoutRequestFactory(CloseableHttpClient httpClient, int totalTimeout) {
+            super(httpClient);
+            this.totalTimeout = totalTimeout;
+        }
+
+        @Override
+        public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+            try {
+                ClientHttpRequest request = super.createRequest(uri, httpMethod);
+                Cancellable cancellable = created.get();
+                return cancellable != null
+                        ? new AbortableClientHttpRequest(request, cancellable, totalTimeout) : request;
+            } finally {
+                created.remove();
+            }
+        }
+
+        @Override
+        protected void postProcessHttpRequest(ClassicHttpRequest request) {
+            if (request instanceof Cancellable cancellable) {
+                created.set(cancellable);
+            }
+        }
+    }
+
+    /**
+     * 执行后返回可中断响应的请求包装；总超时任务在执行时安排，请求失败时撤销，成功时随响应关闭撤销
+     */
+    private class AbortableClientHttpRequest implements ClientHttpRequest, StreamingHttpOutputMessage {
+
+        private final ClientHttpRequest delegate;
+        private final Cancellable cancellable;
+        private final int totalTimeout;
+
+        private AbortableClientHttpRequest(ClientHttpRequest delegate, Cancellable cancellable, int totalTimeout) {
+            this.delegate = delegate;
+            this.cancellable = cancellable;
+            this.totalTimeout = totalTimeout;
+        }
+
+        @Override
+        public ClientHttpResponse execute() throws IOException {
+            ScheduledFuture<?> timeout = totalTimeout > 0
+                    ? scheduler.schedule(cancellable::cancel, totalTimeout, TimeUnit.MILLISECONDS) : null;
+            try {
+                return new AbortableClientHttpResponse(delegate.execute(), cancellable, timeout);
+            } catch (IOException | RuntimeException e) {
+                if (timeout != null) {
+                    timeout.cancel(false);
+                }
+                throw e;
+            }
+        }
+
+        @Override
+        public void setBody(Body body) {
+            ((StreamingHttpOutputMessage) delegate).setBody(body);
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return delegate.getMethod();
+        }
+
+        @Override
+        public URI getURI() {
+            return delegate.getURI();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+    }
+
+    /**
+     * 错误响应体只读取前 64KB 用于异常信息，超出部分中断连接不再读取
+     */
+    private static class BoundedErrorHandler extends DefaultResponseErrorHandler {
+
+        @Override
+        protected byte[] getResponseBody(ClientHttpResponse response) {
+            try {
+                InputStream body = response.getBody();
+                byte[] bytes = body.readNBytes(MAX_ERROR_BODY_BYTES);
+                if (bytes.length == MAX_ERROR_BODY_BYTES && body.read() != -1
+                        && response instanceof AbortableClientHttpResponse abortable) {
+                    abortable.abort();
+                }
+                return bytes;
+            } catch (IOException e) {
+                return new byte[0];
+            }
+        }
+    }
+
+    /**
+     * 插件某一配置版本的客户端；pool / asyncClient 非空时为该插件独占，淘汰后延迟关闭
+     */
+    private static class PluginHttpClient {
+        private final LocalDateTime version;
+        private final RestTemplate restTemplate;
+        private final PoolingHttpClientConnectionManager pool;
+        private final String poolName;
+        private final WebClient webClient;
+        private final HttpClient asyncClient;
+        private final int totalTimeout;
+        private final int readTimeout;
+        private final boolean gzip;
+        private final PluginResponseOptions responseOptions;
+
+        private PluginHttpClient(LocalDateTime version, RestTemplate restTemplate,
+                                 PoolingHttpClientConnectionManager pool, String poolName,
+                                 WebClient webClient, HttpClient asyncClient, int totalTimeout, int readTimeout,
+                                 boolean gzip, PluginResponseOptions responseOptions) {
+            this.version = version;
+            this.restTemplate = restTemplate;
+            this.pool = pool;
+            this.poolName = poolName;
+            this.webClient = webClient;
+            this.asyncClient = asyncClient;
+            this.totalTimeout = totalTimeout;
+            this.readTimeout = readTimeout;
+            this.gzip = gzip;
+            this.responseOptions = responseOptions;
+        }
+
+        private boolean hasDedicatedResources() {
+            return pool != null || asyncClient != null;
+        }
+
+        private void close() {
+            if (pool != null) {
+                pool.close(CloseMode.GRACEFUL);
+            }
+            if (asyncClient != null) {
+                asyncClient.shutdown();
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.sspku.agent.module.plugin.http;
+
+import lombok.Data;
+
+/**
+ * 插件级 HTTP 客户端参数
+ * 对应 Plugin.config 中的 "http" 节点，未设置的字段使用全局默认值：
+ * {"apiKey": "xxx", "http": {"connectTimeoutMs": 2000, "readTimeoutMs": 5000, "totalTimeoutMs": 10000,
+ * "maxPerRoute": 10, "gzip": true}}
+ */
+@Data
+public class PluginHttpOptions {
+    private Integer connectTimeoutMs;
+    private Integer readTimeoutMs;
+    /**
+     * 单次请求总耗时上限（含排队取连接、建连与读完响应体）
+     */
+    private Integer totalTimeoutMs;
+    private Integer maxPerRoute;
+    private Boolean gzip;
+
+    /**
+     * 是否需要独立连接池（建连超时与单路由连接数属于连接池级别参数）
+     */
+    public boolean requiresDedicatedPool() {
+        return connectTimeoutMs != null || maxPerRoute != null;
+    }
+}
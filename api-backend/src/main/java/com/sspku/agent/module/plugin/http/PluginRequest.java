@@ -0,0 +1,10 @@
+package com.sspku.agent.module.plugin.http;
+
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+
+/**
+ * 已组装好的插件 HTTP 请求（路径/查询参数已展开，entity 含请求头与可选请求体）
+ */
+public record PluginRequest(String url, HttpMethod method, HttpEntity<?> entity) {
+}
@@ -0,0 +1,7 @@
+package com.sspku.agent.module.plugin.http;
+
+/**
+ * 单次插件调用生效的响应体上限，非正数表示不限制
+ */
+public record PluginResponseLimit(int maxBytes, int maxTokens) {
+}
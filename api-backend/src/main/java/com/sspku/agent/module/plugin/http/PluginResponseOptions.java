@@ -0,0 +1,26 @@
+package com.sspku.agent.module.plugin.http;
+
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * 插件级响应体上限
+ * 对应 Plugin.config 中的 "response" 节点，可按函数覆盖，未设置的字段使用全局默认值：
+ * {"response": {"maxBytes": 262144, "maxTokens": 4000, "functions": {"exportReport": {"maxBytes": 1048576}}}}
+ */
+@Data
+public class PluginResponseOptions {
+    /**
+     * 读取的响应体字节数上限（解压后），达到后中断连接
+     */
+    private Integer maxBytes;
+    /**
+     * 返回给模型的响应文本 token 上限
+     */
+    private Integer maxTokens;
+    /**
+     * 函数级覆盖，函数名 -> 参数
+     */
+    private Map<String, PluginResponseOptions> functions;
+}
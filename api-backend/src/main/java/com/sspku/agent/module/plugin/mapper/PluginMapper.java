@@ -19,6 +19,13 @@ public interface PluginMapper {
      * @return 插件对象，未找到返回null
      */
     Plugin selectById(@Param("id") Long id);
+
+    /**
+     * 根据ID列表批量查询插件
+     * @param ids 插件ID列表
+     * @return 插件列表（不保证与入参顺序一致）
+     */
+    List<Plugin> selectByIds(@Param("ids") List<Long> ids);
     
     /**
      * 根据名称查询插件
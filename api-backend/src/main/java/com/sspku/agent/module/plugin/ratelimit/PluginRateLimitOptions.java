@@ -0,0 +1,24 @@
+package com.sspku.agent.module.plugin.ratelimit;
+
+import lombok.Data;
+
+/**
+ * 插件级出站限流参数
+ * 对应 Plugin.config 中的 "rateLimit" 节点，按上游配额设置，未设置的字段使用全局默认值：
+ * {"rateLimit": {"rate": 5, "burst": 10, "maxWaitMs": 2000}}
+ */
+@Data
+public class PluginRateLimitOptions {
+    /**
+     * 每秒允许的调用数，可为小数（如 0.5 表示每 2 秒一次），0 表示不限速
+     */
+    private Double rate;
+    /**
+     * 令牌桶容量，即空闲后允许的瞬时突发调用数
+     */
+    private Integer burst;
+    /**
+     * 令牌不足时的最长排队时间，超出则直接拒绝
+     */
+    private Long maxWaitMs;
+}
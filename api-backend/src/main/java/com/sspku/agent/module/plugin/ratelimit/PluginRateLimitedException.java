@@ -0,0 +1,26 @@
+package com.sspku.agent.module.plugin.ratelimit;
+
+import com.sspku.agent.common.api.ResultCode;
+import com.sspku.agent.module.plugin.exception.PluginUnavailableException;
+
+/**
+ * 插件限流异常：排队等待超过上限，调用在本节点被拒绝
+ */
+public class PluginRateLimitedException extends PluginUnavailableException {
+
+    public PluginRateLimitedException(Long pluginId, String pluginName, String functionName, long retryAfterSeconds) {
+        super(ResultCode.TOO_MANY_REQUESTS.getCode(),
+                "插件 " + pluginName + " 调用过于频繁，请 " + retryAfterSeconds + " 秒后重试",
+                pluginId, pluginName, functionName, retryAfterSeconds);
+    }
+
+    @Override
+    protected String getErrorType() {
+        return "TOOL_RATE_LIMITED";
+    }
+
+    @Override
+    protected String getHint() {
+        return "该工具的调用频率已达到外部服务配额，请不要立即重试此工具，可基于已有信息作答或告知用户稍后再试";
+    }
+}
@@ -0,0 +1,119 @@
+package com.sspku.agent.module.plugin.ratelimit;
+
+import com.sspku.agent.module.plugin.vo.PluginRateLimitStatsVO;
+import lombok.Getter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * 单个插件的出站令牌桶
+ * 以 GCRA（理论到达时间）实现：调用方预约下一个可用时刻并等待到该时刻，
+ * 预约等待超过 maxWait 时拒绝；上游返回配额耗尽信号时暂停发送直到配额恢复。
+ */
+public class PluginRateLimiter {
+
+    @Getter
+    private final Long pluginId;
+    private final double rate;
+    private final int burst;
+    private final long maxWaitNanos;
+    private final LongSupplier nanoClock;
+
+    /**
+     * 相邻两次调用的最小间隔
+     */
+    private final long intervalNanos;
+    /**
+     * 允许提前于理论到达时间的突发容量
+     */
+    private final long burstToleranceNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private long theoreticalArrival;
+    private long pausedUntil;
+
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public PluginRateLimiter(Long pluginId, double rate, int burst, long maxWaitMs) {
+        this(pluginId, rate, burst, maxWaitMs, System::nanoTime);
+    }
+
+    PluginRateLimiter(Long pluginId, double rate, int burst, long maxWaitMs, LongSupplier nanoClock) {
+        this.pluginId = pluginId;
+        this.rate = Math.max(rate, 0D);
+        this.burst = Math.max(burst, 1);
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        this.nanoClock = nanoClock;
+        this.intervalNanos = this.rate > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / this.rate) : 0L;
+        this.burstToleranceNanos = intervalNanos * (this.burst - 1);
+        long now = nanoClock.getAsLong();
+        this.theoreticalArrival = now;
+        this.pausedUntil = now;
+    }
+
+    /**
+     * 预约一次调用
+     * @return 调用前需要等待的纳秒数，0 表示可立即发送；超过最长排队时间时返回 -(需要等待的纳秒数)
+     */
+    public long reserve() {
+        lock.lock();
+        try {
+            long now = nanoClock.getAsLong();
+            long earliest = Math.max(now, pausedUntil);
+            long arrival = Math.max(theoreticalArrival, earliest);
+            long allowAt = rate > 0 ? Math.max(arrival - burstToleranceNanos, earliest) : earliest;
+            long wait = allowAt - now;
+            if (wait > maxWaitNanos) {
+                rejected.increment();
+                return -wait;
+            }
+            theoreticalArrival = arrival + intervalNanos;
+            acquired.increment();
+            if (wait > 0) {
+                throttled.increment();
+                totalWaitNanos.add(wait);
+            }
+            return wait;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 上游声明配额耗尽，在指定时长内暂停发送
+     */
+    public void pause(long delayNanos) {
+        lock.lock();
+        try {
+            pausedUntil = Math.max(pausedUntil, nanoClock.getAsLong() + delayNanos);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public PluginRateLimitStatsVO stats() {
+        long pausedRemaining;
+        lock.lock();
+        try {
+            pausedRemaining = Math.max(pausedUntil - nanoClock.getAsLong(), 0L);
+        } finally {
+            lock.unlock();
+        }
+        return PluginRateLimitStatsVO.builder()
+                .pluginId(pluginId)
+                .rate(rate)
+                .burst(burst)
+                .acquired(acquired.sum())
+                .throttled(throttled.sum())
+                .totalWaitMs(TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.sum()))
+                .rejected(rejected.sum())
+                .pausedRemainingMs(TimeUnit.NANOSECONDS.toMillis(pausedRemaining))
+                .build();
+    }
+}
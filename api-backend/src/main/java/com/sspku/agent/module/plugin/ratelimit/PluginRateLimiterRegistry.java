@@ -0,0 +1,240 @@
+package com.sspku.agent.module.plugin.ratelimit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sspku.agent.module.plugin.event.PluginChangedEvent;
+import com.sspku.agent.module.plugin.vo.PluginRateLimitStatsVO;
+import com.sspku.agent.module.plugin.vo.PluginVO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 插件出站限流注册表
+ * 每个外部插件一个令牌桶，参数取自 Plugin.config 的 "rateLimit" 节点；
+ * 同时根据上游的 Retry-After 与 X-RateLimit-* 响应头暂停发送，避免 429 后继续打满配额。
+ */
+@Slf4j
+@Component
+public class PluginRateLimiterRegistry {
+
+    /**
+     * 超过该值的 reset 视为 Unix 时间戳（秒），否则视为距重置的秒数
+     */
+    private static final long EPOCH_SECONDS_THRESHOLD = 1_000_000_000L;
+
+    @Value("${agent.plugin-rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${agent.plugin-rate-limit.default-rate:0}")
+    private double defaultRate;
+
+    @Value("${agent.plugin-rate-limit.default-burst:1}")
+    private int defaultBurst;
+
+    @Value("${agent.plugin-rate-limit.default-max-wait-ms:1000}")
+    private long defaultMaxWaitMs;
+
+    /**
+     * 单次根据响应头暂停发送的上限，防止异常的响应头长时间阻断插件
+     */
+    @Value("${agent.plugin-rate-limit.max-pause-ms:60000}")
+    private long maxPauseMs;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * pluginId -> 该插件某一配置版本的令牌桶
+     */
+    private final Map<Long, VersionedLimiter> limiters = new ConcurrentHashMap<>();
+
+    /**
+     * 预约一次插件调用
+     * @return 发送前需要等待的毫秒数（仅用于排队，不计入上游耗时）
+     * @throws PluginRateLimitedException 排队时间超过上限
+     */
+    public long reserve(PluginVO pluginVO, String functionName) {
+        if (!enabled) {
+            return 0L;
+        }
+        PluginRateLimiter limiter = resolve(pluginVO);
+        long waitNanos = limiter.reserve();
+        if (waitNanos < 0) {
+            long retryAfterSeconds = Math.max(TimeUnit.NANOSECONDS.toSeconds(-waitNanos + 999_999_999L), 1L);
+            log.warn("插件调用被限流: pluginId={}, function={}, retryAfter={}s", pluginVO.getId(), functionName,
+                    retryAfterSeconds);
+            throw new PluginRateLimitedException(pluginVO.getId(), pluginVO.getName(), functionName, retryAfterSeconds);
+        }
+        return TimeUnit.NANOSECONDS.toMillis(waitNanos + 999_999L);
+    }
+
+    /**
+     * 同步调用：预约并在当前线程等待到可发送时刻
+     */
+    public void acquire(PluginVO pluginVO, String functionName) {
+        long waitMs = reserve(pluginVO, functionName);
+        if (waitMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(waitMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PluginRateLimitedException(pluginVO.getId(), pluginVO.getName(), functionName,
+                    Math.max(TimeUnit.MILLISECONDS.toSeconds(waitMs), 1L));
+        }
+    }
+
+    /**
+     * 根据上游响应头调整发送节奏
+     */
+    public void onResponse(Long pluginId, HttpStatusCode status, HttpHeaders headers) {
+        if (!enabled || headers == null) {
+            return;
+        }
+        VersionedLimiter current = limiters.get(pluginId);
+        if (current == null) {
+            return;
+        }
+        long pauseMs = pauseMillis(status, headers);
+        if (pauseMs > 0) {
+            pauseMs = Math.min(pauseMs, maxPauseMs);
+            current.limiter.pause(TimeUnit.MILLISECONDS.toNanos(pauseMs));
+            log.warn("上游配额耗尽，暂停发送: pluginId={}, status={}, pauseMs={}", pluginId, status.value(), pauseMs);
+        }
+    }
+
+    /**
+     * 根据上游错误响应调整发送节奏
+     */
+    public void onError(Long pluginId, Throwable error) {
+        if (error instanceof RestClientResponseException e) {
+            onResponse(pluginId, e.getStatusCode(), e.getResponseHeaders());
+        } else if (error instanceof WebClientResponseException e) {
+            onResponse(pluginId, e.getStatusCode(), e.getHeaders());
+        }
+    }
+
+    public List<PluginRateLimitStatsVO> stats() {
+        return limiters.values().stream()
+                .map(versioned -> versioned.limiter.stats())
+                .sorted(Comparator.comparing(PluginRateLimitStatsVO::getPluginId))
+                .collect(Collectors.toList());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPluginChanged(PluginChangedEvent event) {
+        limiters.remove(event.getPluginId());
+    }
+
+    private PluginRateLimiter resolve(PluginVO pluginVO) {
+        VersionedLimiter current = limiters.get(pluginVO.getId());
+        if (current != null && Objects.equals(current.version, pluginVO.getUpdatedAt())) {
+            return current.limiter;
+        }
+        PluginRateLimitOptions options = readOptions(pluginVO.getConfig());
+        double rate = options.getRate() != null ? options.getRate() : defaultRate;
+        int burst = options.getBurst() != null ? options.getBurst()
+                : Math.max(defaultBurst, (int) Math.ceil(rate));
+        long maxWaitMs = options.getMaxWaitMs() != null ? options.getMaxWaitMs() : defaultMaxWaitMs;
+        VersionedLimiter created = new VersionedLimiter(pluginVO.getUpdatedAt(),
+                new PluginRateLimiter(pluginVO.getId(), rate, burst, maxWaitMs));
+        // 并发创建时以先写入者为准，保证同一插件只有一个令牌桶
+        VersionedLimiter winner = limiters.compute(pluginVO.getId(), (id, existing) ->
+                existing != null && Objects.equals(existing.version, created.version) ? existing : created);
+        return winner.limiter;
+    }
+
+    private long pauseMillis(HttpStatusCode status, HttpHeaders headers) {
+        if (status.value() == 429 || status.value() == 503) {
+            long retryAfter = parseRetryAfter(headers.getFirst(HttpHeaders.RETRY_AFTER), headers);
+            if (retryAfter > 0) {
+                return retryAfter;
+            }
+        }
+        String remaining = firstHeader(headers, "X-RateLimit-Remaining", "RateLimit-Remaining");
+        if (remaining != null && "0".equals(remaining.trim())) {
+            return parseReset(firstHeader(headers, "X-RateLimit-Reset", "RateLimit-Reset"));
+        }
+        return 0L;
+    }
+
+    /**
+     * Retry-After 为秒数或 HTTP 日期
+     */
+    private static long parseRetryAfter(String value, HttpHeaders headers) {
+        if (!StringUtils.hasText(value)) {
+            return 0L;
+        }
+        try {
+            return TimeUnit.SECONDS.toMillis(Long.parseLong(value.trim()));
+        } catch (NumberFormatException ignored) {
+            // 非数字时按 HTTP 日期解析
+        }
+        try {
+            long date = headers.getFirstDate(HttpHeaders.RETRY_AFTER);
+            return date > 0 ? date - System.currentTimeMillis() : 0L;
+        } catch (IllegalArgumentException e) {
+            return 0L;
+        }
+    }
+
+    private static long parseReset(String value) {
+        if (!StringUtils.hasText(value)) {
+            return 0L;
+        }
+        try {
+            long reset = (long) Double.parseDouble(value.trim());
+            if (reset > EPOCH_SECONDS_THRESHOLD) {
+                return TimeUnit.SECONDS.toMillis(reset) - System.currentTimeMillis();
+            }
+            return TimeUnit.SECONDS.toMillis(reset);
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+
+    private static String firstHeader(HttpHeaders headers, String... names) {
+        for (String name : names) {
+            String value = headers.getFirst(name);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private PluginRateLimitOptions readOptions(String configJson) {
+        if (!StringUtils.hasText(configJson)) {
+            return new PluginRateLimitOptions();
+        }
+        try {
+            JsonNode node = objectMapper.readTree(configJson).get("rateLimit");
+            if (node == null || !node.isObject()) {
+                return new PluginRateLimitOptions();
+            }
+            return objectMapper.treeToValue(node, PluginRateLimitOptions.class);
+        } catch (Exception e) {
+            log.warn("解析插件限流配置失败，使用默认参数: {}", e.getMessage());
+            return new PluginRateLimitOptions();
+        }
+    }
+
+    private record VersionedLimiter(LocalDateTime version, PluginRateLimiter limiter) {
+    }
+}
@@ -0,0 +1,158 @@
+package com.sspku.agent.module.plugin.retry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * 对冲调用：首个请求超过延迟仍未返回时再发出一个相同请求，取先成功者并取消另一个；
+ * 所有已发出的请求都失败时以最后一个错误失败。
+ */
+public final class HedgedCall<T> {
+
+    private final Supplier<CompletableFuture<T>> attempt;
+    private final Runnable onHedgeWin;
+    private final CompletableFuture<T> result = new CompletableFuture<>();
+    private final List<CompletableFuture<T>> attempts = new ArrayList<>(2);
+    private final ReentrantLock lock = new ReentrantLock();
+    /**
+     * 已发出或已占位、尚未返回的请求数
+     */
+    private int pending;
+    private boolean done;
+    private Throwable lastError;
+
+    private HedgedCall(Supplier<CompletableFuture<T>> attempt, Runnable onHedgeWin) {
+        this.attempt = attempt;
+        this.onHedgeWin = onHedgeWin;
+    }
+
+    /**
+     * @param hedgeDelayMs 发出对冲请求前的等待时长
+     * @param admit        发出对冲请求前的准入检查（如重试预算），返回 false 时不再对冲
+     * @param onHedgeWin   对冲请求先于首个请求成功时回调
+     */
+    public static <T> CompletableFuture<T> execute(Supplier<CompletableFuture<T>> attempt, long hedgeDelayMs,
+                                                   BooleanSupplier admit, Runnable onHedgeWin) {
+        HedgedCall<T> call = new HedgedCall<>(attempt, onHedgeWin);
+        // 调用方放弃等待时取消全部请求
+        call.result.whenComplete((value, error) -> {
+            if (call.result.isCancelled()) {
+                call.finish().forEach(future -> future.cancel(true));
+            }
+        });
+        call.reserve();
+        call.send(false);
+        if (!call.result.isDone()) {
+            CompletableFuture.delayedExecutor(hedgeDelayMs, TimeUnit.MILLISECONDS).execute(() -> call.hedge(admit));
+        }
+        return call.result;
+    }
+
+    private void hedge(BooleanSupplier admit) {
+        // 先占位，避免准入检查期间首个请求失败导致结果提前完成
+        if (!reserve()) {
+            return;
+        }
+        if (admit.getAsBoolean()) {
+            send(true);
+        } else {
+            onFailure(null);
+        }
+    }
+
+    private boolean reserve() {
+        lock.lock();
+        try {
+            if (done) {
+                return false;
+            }
+            pending++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void send(boolean hedge) {
+        CompletableFuture<T> future;
+        try {
+            future = attempt.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        boolean finished;
+        lock.lock();
+        try {
+            attempts.add(future);
+            finished = done;
+        } finally {
+            lock.unlock();
+        }
+        if (finished) {
+            future.cancel(true);
+            return;
+        }
+        future.whenComplete((value, error) -> {
+            if (error == null) {
+                onSuccess(value, hedge);
+            } else {
+                onFailure(error);
+            }
+        });
+    }
+
+    private void onSuccess(T value, boolean hedge) {
+        List<CompletableFuture<T>> losers;
+        lock.lock();
+        try {
+            if (done) {
+                return;
+            }
+            losers = finish();
+        } finally {
+            lock.unlock();
+        }
+        // 先取消落败的请求再返回结果
+        losers.forEach(future -> future.cancel(true));
+        if (hedge) {
+            onHedgeWin.run();
+        }
+        result.complete(value);
+    }
+
+    /**
+     * @param error 请求失败的原因；为 null 表示占位的对冲请求未获准发出
+     */
+    private void onFailure(Throwable error) {
+        Throwable failure;
+        lock.lock();
+        try {
+            if (error != null) {
+                lastError = error;
+            }
+            if (done || --pending > 0) {
+                return;
+            }
+            finish();
+            failure = lastError;
+        } finally {
+            lock.unlock();
+        }
+        result.completeExceptionally(failure);
+    }
+
+    private List<CompletableFuture<T>> finish() {
+        lock.lock();
+        try {
+            done = true;
+            return new ArrayList<>(attempts);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.sspku.agent.module.plugin.retry;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 最近若干次成功调用的耗时，用于估算对冲延迟
+ */
+public class LatencyTracker {
+
+    private final long[] samples;
+    private final int minSamples;
+    private final ReentrantLock lock = new ReentrantLock();
+    private int next;
+    private int size;
+
+    public LatencyTracker(int capacity, int minSamples) {
+        this.samples = new long[capacity];
+        this.minSamples = minSamples;
+    }
+
+    public void record(long latencyMs) {
+        lock.lock();
+        try {
+            samples[next] = latencyMs;
+            next = (next + 1) % samples.length;
+            size = Math.min(size + 1, samples.length);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 近期耗时的百分位，样本不足时返回 -1
+     */
+    public long percentile(int percent) {
+        long[] copy;
+        lock.lock();
+        try {
+            if (size < minSamples) {
+                return -1L;
+            }
+            copy = Arrays.copyOf(samples, size);
+        } finally {
+            lock.unlock();
+        }
+        Arrays.sort(copy);
+        int index = (int) Math.ceil(percent / 100.0 * copy.length) - 1;
+        return copy[Math.max(index, 0)];
+    }
+}
@@ -0,0 +1,37 @@
+package com.sspku.agent.module.plugin.retry;
+
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * 插件级重试与对冲参数
+ * 对应 Plugin.config 中的 "retry" 节点，可按函数覆盖，未设置的字段使用全局默认值：
+ * {"retry": {"maxAttempts": 3, "initialBackoffMs": 200, "hedge": true,
+ * "functions": {"searchCatalog": {"idempotent": true, "hedgeDelayMs": 300}}}}
+ */
+@Data
+public class PluginRetryOptions {
+    /**
+     * 总尝试次数（含首次），1 表示不重试
+     */
+    private Integer maxAttempts;
+    private Integer initialBackoffMs;
+    private Integer maxBackoffMs;
+    /**
+     * 显式声明幂等；默认 GET/PUT/DELETE 幂等，其余方法不重试
+     */
+    private Boolean idempotent;
+    /**
+     * 是否在首个请求迟迟未返回时发出对冲请求
+     */
+    private Boolean hedge;
+    /**
+     * 对冲延迟，未设置时取该函数近期耗时的 p95
+     */
+    private Integer hedgeDelayMs;
+    /**
+     * 函数级覆盖，函数名 -> 参数
+     */
+    private Map<String, PluginRetryOptions> functions;
+}
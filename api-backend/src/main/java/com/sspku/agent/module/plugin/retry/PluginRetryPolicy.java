@@ -0,0 +1,74 @@
+package com.sspku.agent.module.plugin.retry;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 插件函数生效的重试与对冲策略（不可变）
+ */
+@Getter
+public class PluginRetryPolicy {
+
+    /**
+     * 不重试、不对冲（非幂等函数或重试未启用）
+     */
+    public static final PluginRetryPolicy NONE = new PluginRetryPolicy(1, 0, 0, false, null);
+
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final boolean hedge;
+    /**
+     * 固定对冲延迟，null 表示按近期耗时 p95 自适应
+     */
+    private final Long hedgeDelayMs;
+
+    public PluginRetryPolicy(int maxAttempts, long initialBackoffMs, long maxBackoffMs, boolean hedge,
+                             Long hedgeDelayMs) {
+        this.maxAttempts = Math.max(maxAttempts, 1);
+        this.initialBackoffMs = Math.max(initialBackoffMs, 0L);
+        this.maxBackoffMs = Math.max(maxBackoffMs, this.initialBackoffMs);
+        this.hedge = hedge;
+        this.hedgeDelayMs = hedgeDelayMs;
+    }
+
+    /**
+     * 第 attempt 次失败后的退避时长：指数增长并取 [0, 上限] 内的随机值（full jitter），
+     * 避免大量调用方在同一时刻集中重试
+     */
+    public long backoffMs(int attempt) {
+        long ceiling = initialBackoffMs << Math.min(attempt - 1, 20);
+        ceiling = Math.min(ceiling, maxBackoffMs);
+        return ceiling > 0 ? ThreadLocalRandom.current().nextLong(ceiling + 1) : 0L;
+    }
+
+    /**
+     * 只重试瞬时错误：网络异常、超时与 408/502/503/504；
+     * 429 由出站限流按 Retry-After 暂停，不在此重试
+     */
+    public static boolean isRetryable(Throwable error) {
+        if (error instanceof ResourceAccessException || error instanceof WebClientRequestException
+                || error instanceof TimeoutException || error instanceof IOException) {
+            return true;
+        }
+        HttpStatusCode status = null;
+        if (error instanceof RestClientResponseException e) {
+            status = e.getStatusCode();
+        } else if (error instanceof WebClientResponseException e) {
+            status = e.getStatusCode();
+        }
+        if (status == null) {
+            return false;
+        }
+        int code = status.value();
+        return code == 408 || code == 502 || code == 503 || code == 504;
+    }
+}
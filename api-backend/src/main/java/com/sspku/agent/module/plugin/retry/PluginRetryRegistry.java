@@ -0,0 +1,217 @@
+package com.sspku.agent.module.plugin.retry;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sspku.agent.module.plugin.dto.FunctionDefinition;
+import com.sspku.agent.module.plugin.event.PluginChangedEvent;
+import com.sspku.agent.module.plugin.vo.PluginRetryStatsVO;
+import com.sspku.agent.module.plugin.vo.PluginVO;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 插件重试与对冲策略注册表
+ * 策略取自 Plugin.config 的 "retry" 节点并按插件配置版本缓存；
+ * 全部插件共享一个节点级重试预算，按函数统计近期耗时用于自适应对冲延迟。
+ */
+@Slf4j
+@Component
+public class PluginRetryRegistry {
+
+    private static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "PUT", "DELETE");
+
+    /**
+     * 估算 p95 使用的最近样本数
+     */
+    private static final int LATENCY_SAMPLES = 128;
+
+    @Value("${agent.plugin-retry.enabled:true}")
+    private boolean enabled;
+
+    @Value("${agent.plugin-retry.default-max-attempts:2}")
+    private int defaultMaxAttempts;
+
+    @Value("${agent.plugin-retry.initial-backoff-ms:100}")
+    private int initialBackoffMs;
+
+    @Value("${agent.plugin-retry.max-backoff-ms:2000}")
+    private int maxBackoffMs;
+
+    @Value("${agent.plugin-retry.budget-percent:10}")
+    private int budgetPercent;
+
+    @Value("${agent.plugin-retry.budget-min-retries-per-second:5}")
+    private int budgetMinRetriesPerSecond;
+
+    @Value("${agent.plugin-retry.budget-window-seconds:10}")
+    private int budgetWindowSeconds;
+
+    @Value("${agent.plugin-retry.hedge-min-delay-ms:50}")
+    private long hedgeMinDelayMs;
+
+    @Value("${agent.plugin-retry.hedge-min-samples:20}")
+    private int hedgeMinSamples;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private RetryBudget budget;
+
+    /**
+     * pluginId -> 该插件某一配置版本的重试参数
+     */
+    private final Map<Long, VersionedOptions> options = new ConcurrentHashMap<>();
+
+    /**
+     * "pluginId:functionName" -> 近期成功调用耗时
+     */
+    private final Map<String, LatencyTracker> latencies = new ConcurrentHashMap<>();
+
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        budget = new RetryBudget(budgetPercent, budgetMinRetriesPerSecond, budgetWindowSeconds);
+    }
+
+    /**
+     * 插件函数生效的策略：函数级配置优先，其次插件级，最后全局默认；非幂等函数不重试也不对冲
+     */
+    public PluginRetryPolicy policy(PluginVO pluginVO, FunctionDefinition function) {
+        if (!enabled) {
+            return PluginRetryPolicy.NONE;
+        }
+        PluginRetryOptions plugin = resolve(pluginVO);
+        PluginRetryOptions override = plugin.getFunctions() != null
+                ? plugin.getFunctions().get(function.getName()) : null;
+        if (override == null) {
+            override = new PluginRetryOptions();
+        }
+        boolean idempotent = firstNonNull(override.getIdempotent(), plugin.getIdempotent(),
+                IDEMPOTENT_METHODS.contains(function.getMetadata().getMethod().toUpperCase()));
+        if (!idempotent) {
+            return PluginRetryPolicy.NONE;
+        }
+        Integer hedgeDelayMs = override.getHedgeDelayMs() != null ? override.getHedgeDelayMs()
+                : plugin.getHedgeDelayMs();
+        return new PluginRetryPolicy(
+                firstNonNull(override.getMaxAttempts(), plugin.getMaxAttempts(), defaultMaxAttempts),
+                firstNonNull(override.getInitialBackoffMs(), plugin.getInitialBackoffMs(), initialBackoffMs),
+                firstNonNull(override.getMaxBackoffMs(), plugin.getMaxBackoffMs(), maxBackoffMs),
+                firstNonNull(override.getHedge(), plugin.getHedge(), false),
+                hedgeDelayMs != null ? hedgeDelayMs.longValue() : null);
+    }
+
+    /**
+     * 记录一次原始调用，作为重试预算的基数
+     */
+    public void onRequest() {
+        budget.onRequest();
+    }
+
+    /**
+     * 申请一次重试
+     */
+    public boolean tryRetry() {
+        return budget.tryAcquire();
+    }
+
+    /**
+     * 申请一次对冲，与重试共用预算
+     */
+    public boolean tryHedge() {
+        if (!budget.tryAcquire()) {
+            return false;
+        }
+        hedges.increment();
+        return true;
+    }
+
+    public void onHedgeWin() {
+        hedgeWins.increment();
+    }
+
+    /**
+     * 对冲延迟：固定值或近期耗时 p95（不低于下限）；样本不足时返回 -1 表示暂不对冲
+     */
+    public long hedgeDelayMs(Long pluginId, String functionName, PluginRetryPolicy policy) {
+        if (!policy.isHedge()) {
+            return -1L;
+        }
+        if (policy.getHedgeDelayMs() != null) {
+            return policy.getHedgeDelayMs();
+        }
+        LatencyTracker tracker = latencies.get(pluginId + ":" + functionName);
+        long p95 = tracker != null ? tracker.percentile(95) : -1L;
+        return p95 < 0 ? -1L : Math.max(p95, hedgeMinDelayMs);
+    }
+
+    /**
+     * 记录一次成功调用的上游耗时
+     */
+    public void recordLatency(Long pluginId, String functionName, long latencyMs) {
+        latencies.computeIfAbsent(pluginId + ":" + functionName,
+                key -> new LatencyTracker(LATENCY_SAMPLES, hedgeMinSamples)).record(latencyMs);
+    }
+
+    public PluginRetryStatsVO stats() {
+        PluginRetryStatsVO stats = budget.stats();
+        stats.setHedges(hedges.sum());
+        stats.setHedgeWins(hedgeWins.sum());
+        return stats;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPluginChanged(PluginChangedEvent event) {
+        options.remove(event.getPluginId());
+        // baseUrl 等修改后旧的耗时分布不再有参考意义
+        latencies.keySet().removeIf(key -> key.startsWith(event.getPluginId() + ":"));
+    }
+
+    private PluginRetryOptions resolve(PluginVO pluginVO) {
+        VersionedOptions current = options.get(pluginVO.getId());
+        if (current != null && Objects.equals(current.version, pluginVO.getUpdatedAt())) {
+            return current.options;
+        }
+        VersionedOptions created = new VersionedOptions(pluginVO.getUpdatedAt(), readOptions(pluginVO.getConfig()));
+        options.put(pluginVO.getId(), created);
+        return created.options;
+    }
+
+    private PluginRetryOptions readOptions(String configJson) {
+        if (!StringUtils.hasText(configJson)) {
+            return new PluginRetryOptions();
+        }
+        try {
+            JsonNode node = objectMapper.readTree(configJson).get("retry");
+            if (node == null || !node.isObject()) {
+                return new PluginRetryOptions();
+            }
+            return objectMapper.treeToValue(node, PluginRetryOptions.class);
+        } catch (Exception e) {
+            log.warn("解析插件重试配置失败，使用默认参数: {}", e.getMessage());
+            return new PluginRetryOptions();
+        }
+    }
+
+    private static <T> T firstNonNull(T function, T plugin, T global) {
+        if (function != null) {
+            return function;
+        }
+        return plugin != null ? plugin : global;
+    }
+
+    private record VersionedOptions(LocalDateTime version, PluginRetryOptions options) {
+    }
+}
@@ -0,0 +1,116 @@
+package com.sspku.agent.module.plugin.retry;
+
+import com.sspku.agent.module.plugin.vo.PluginRetryStatsVO;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * 节点级重试预算
+ * 滑动窗口内重试（含对冲）次数不超过 请求数 × 比例 + 每秒保底次数 × 窗口秒数：
+ * 上游整体故障时所有调用都会失败，预算耗尽后不再重试，避免重试把故障放大成数倍流量。
+ */
+public class RetryBudget {
+
+    private final int percent;
+    private final int minRetriesPerSecond;
+    private final int windowSeconds;
+    private final LongSupplier clock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final long[] bucketSecond;
+    private final long[] requests;
+    private final long[] retries;
+
+    private long totalRequests;
+    private long totalRetries;
+    private long exhausted;
+
+    public RetryBudget(int percent, int minRetriesPerSecond, int windowSeconds) {
+        this(percent, minRetriesPerSecond, windowSeconds, System::currentTimeMillis);
+    }
+
+    RetryBudget(int percent, int minRetriesPerSecond, int windowSeconds, LongSupplier clock) {
+        this.percent = Math.max(percent, 0);
+        this.minRetriesPerSecond = Math.max(minRetriesPerSecond, 0);
+        this.windowSeconds = Math.max(windowSeconds, 1);
+        this.clock = clock;
+        this.bucketSecond = new long[this.windowSeconds];
+        this.requests = new long[this.windowSeconds];
+        this.retries = new long[this.windowSeconds];
+    }
+
+    /**
+     * 记录一次原始请求（不含重试）
+     */
+    public void onRequest() {
+        lock.lock();
+        try {
+            requests[bucket()]++;
+            totalRequests++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 申请一次重试或对冲，预算不足时返回 false
+     */
+    public boolean tryAcquire() {
+        lock.lock();
+        try {
+            int current = bucket();
+            long windowRequests = 0;
+            long windowRetries = 0;
+            for (int i = 0; i < windowSeconds; i++) {
+                windowRequests += requests[i];
+                windowRetries += retries[i];
+            }
+            long allowed = windowRequests * percent / 100 + (long) minRetriesPerSecond * windowSeconds;
+            if (windowRetries >= allowed) {
+                exhausted++;
+                return false;
+            }
+            retries[current]++;
+            totalRetries++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public PluginRetryStatsVO stats() {
+        lock.lock();
+        try {
+            return PluginRetryStatsVO.builder()
+                    .requests(totalRequests)
+                    .retries(totalRetries)
+                    .budgetExhausted(exhausted)
+                    .build();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 定位当前秒的桶，过期的桶先清零
+     */
+    private int bucket() {
+        long second = TimeUnit.MILLISECONDS.toSeconds(clock.getAsLong());
+        int index = (int) (second % windowSeconds);
+        if (bucketSecond[index] != second) {
+            bucketSecond[index] = second;
+            requests[index] = 0;
+            retries[index] = 0;
+        }
+        // 清理窗口外未被覆盖的桶
+        for (int i = 0; i < windowSeconds; i++) {
+            if (second - bucketSecond[i] >= windowSeconds) {
+                requests[i] = 0;
+                retries[i] = 0;
+            }
+        }
+        return index;
+    }
+}
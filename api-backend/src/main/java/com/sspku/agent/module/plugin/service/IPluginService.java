@@ -30,6 +30,11 @@ public interface IPluginService {
      * 根据ID获取插件
      */
     PluginVO getPluginById(Long id);
+
+    /**
+     * 根据ID列表批量获取插件（单次查询，按入参顺序返回，不存在的ID被忽略）
+     */
+    List<PluginVO> getPluginsByIds(List<Long> ids);
     
     /**
      * 查询插件列表
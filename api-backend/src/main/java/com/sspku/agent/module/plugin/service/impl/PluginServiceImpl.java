@@ -2,17 +2,23 @@ package com.sspku.agent.module.plugin.service.impl;
 
 import cn.hutool.core.bean.BeanUtil;
 import com.sspku.agent.common.exception.BusinessException;
+import com.sspku.agent.module.plugin.core.FunctionCatalog;
+import com.sspku.agent.module.plugin.core.OpenAPIParser;
 import com.sspku.agent.module.plugin.dto.PluginCreateDTO;
 import com.sspku.agent.module.plugin.dto.PluginUpdateDTO;
 import com.sspku.agent.module.plugin.entity.Plugin;
+import com.sspku.agent.module.plugin.event.PluginChangedEvent;
 import com.sspku.agent.module.plugin.mapper.PluginMapper;
 import com.sspku.agent.module.plugin.service.IPluginService;
 import com.sspku.agent.module.plugin.vo.PluginVO;
 import jakarta.annotation.Resource;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 /**
@@ -24,6 +30,12 @@ public class PluginServiceImpl implements IPluginService {
     @Resource
     private PluginMapper pluginMapper;
 
+    @Resource
+    private ApplicationEventPublisher eventPublisher;
+
+    @Resource
+    private OpenAPIParser openAPIParser;
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public PluginVO createPlugin(PluginCreateDTO createDTO) {
@@ -38,6 +50,9 @@ public class PluginServiceImpl implements IPluginService {
         // 设置默认值
         plugin.setType("custom"); // 默认为自定义插件
         plugin.setStatus("disabled"); // 默认为禁用状态
+
+        // 保存前编译规范，无效规范直接拒绝
+        compileCatalog(plugin);
         
         pluginMapper.insert(plugin);
         
@@ -60,8 +75,15 @@ public class PluginServiceImpl implements IPluginService {
         }
 
         BeanUtil.copyProperties(updateDTO, plugin, "id", "createdAt", "updatedAt", "type");
+
+        // 规范有变化时重新编译函数目录；内容与已保存的哈希一致且目录可用时沿用原目录
+        if (updateDTO.getOpenapiSpec() != null && !FunctionCatalog.isCurrent(plugin.getFunctionCatalog(),
+                plugin.getSpecHash(), plugin.getOpenapiSpec())) {
+            compileCatalog(plugin);
+        }
         
         pluginMapper.updateById(plugin);
+        eventPublisher.publishEvent(new PluginChangedEvent(id));
         
         return getPluginById(id); // 返回最新数据
     }
@@ -80,6 +102,7 @@ public class PluginServiceImpl implements IPluginService {
         }
         
         pluginMapper.deleteById(id);
+        eventPublisher.publishEvent(new PluginChangedEvent(id, true));
     }
 
     @Override
@@ -91,6 +114,20 @@ public class PluginServiceImpl implements IPluginService {
         return BeanUtil.copyProperties(plugin, PluginVO.class);
     }
 
+    @Override
+    public List<PluginVO> getPluginsByIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Plugin> pluginMap = pluginMapper.selectByIds(ids).stream()
+                .collect(Collectors.toMap(Plugin::getId, p -> p));
+        return ids.stream()
+                .map(pluginMap::get)
+                .filter(Objects::nonNull)
+                .map(p -> BeanUtil.copyProperties(p, PluginVO.class))
+                .collect(Collectors.toList());
+    }
+
     @Override
     public List<PluginVO> listPlugins(String type, String status) {
         List<Plugin> plugins;
@@ -116,6 +153,7 @@ public class PluginServiceImpl implements IPluginService {
             throw new BusinessException("插件不存在");
         }
         pluginMapper.updateStatus(id, "enabled");
+        eventPublisher.publishEvent(new PluginChangedEvent(id));
     }
 
     @Override
@@ -126,6 +164,14 @@ public class PluginServiceImpl implements IPluginService {
             throw new BusinessException("插件不存在");
         }
         pluginMapper.updateStatus(id, "disabled");
+        eventPublisher.publishEvent(new PluginChangedEvent(id));
     }
-}
 
+    /**
+     * 编译并校验 OpenAPI 规范，生成函数目录与规范哈希
+     */
+    private void compileCatalog(Plugin plugin) {
+        plugin.setFunctionCatalog(FunctionCatalog.write(openAPIParser.compile(plugin)));
+        plugin.setSpecHash(FunctionCatalog.hash(plugin.getOpenapiSpec()));
+    }
+}
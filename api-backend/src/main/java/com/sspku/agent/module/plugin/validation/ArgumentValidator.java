@@ -0,0 +1,453 @@
+package com.sspku.agent.module.plugin.validation;
+
+import com.sspku.agent.module.plugin.dto.FunctionDefinition;
+import com.sspku.agent.module.plugin.exception.PluginArgumentException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * 由函数参数 Schema 编译得到的参数校验器（不可变，可并发使用）
+ * 支持 type、required、enum、数值范围、字符串长度与 pattern、数组长度与 items、嵌套 object；
+ * 开启类型转换时把模型常见的类型偏差（"3" -> 3、"true" -> true、单值 -> 数组等）就地修正，
+ * 无法修正的错误一次性全部列出，调用不发往上游。
+ */
+@Slf4j
+public final class ArgumentValidator {
+
+    /**
+     * 错误信息中展示的参数值最大长度
+     */
+    private static final int MAX_VALUE_DISPLAY = 60;
+
+    /**
+     * 类型检查与转换失败的标记
+     */
+    private static final Object INVALID = new Object();
+
+    private final String functionName;
+    private final Node root;
+
+    private ArgumentValidator(String functionName, Node root) {
+        this.functionName = functionName;
+        this.root = root;
+    }
+
+    /**
+     * 编译函数的参数 Schema；多个参数引用同一个共享组件时只编译一次
+     */
+    public static ArgumentValidator compile(FunctionDefinition function) {
+        FunctionDefinition.Parameters parameters = function.getParameters();
+        Map<String, Object> schema = new LinkedHashMap<>();
+        schema.put("type", "object");
+        if (parameters != null) {
+            schema.put("properties", parameters.getProperties() != null ? parameters.getProperties() : Map.of());
+            schema.put("required", parameters.getRequired() != null ? parameters.getRequired() : List.of());
+        }
+        Node root = new Compiler().compile(schema);
+        return new ArgumentValidator(function.getName(), root);
+    }
+
+    /**
+     * 校验并修正参数
+     * @param coerce 是否修正可无损转换的类型偏差
+     * @return 修正后的参数（新 Map，不修改入参）
+     * @throws PluginArgumentException 存在无法修正的错误
+     */
+    public ValidatedArguments validate(Map<String, Object> arguments, boolean coerce) {
+        Context context = new Context(coerce);
+        Object value = root.check(arguments != null ? arguments : Map.of(), "", context);
+        if (!context.errors.isEmpty()) {
+            throw new PluginArgumentException(functionName, context.errors);
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, Object> validated = (Map<String, Object>) value;
+        return new ValidatedArguments(validated, context.coerced);
+    }
+
+    /**
+     * 校验结果
+     * @param arguments 修正后的参数
+     * @param coerced   是否发生过类型修正
+     */
+    public record ValidatedArguments(Map<String, Object> arguments, boolean coerced) {
+    }
+
+    private static final class Context {
+        private final boolean coerce;
+        private final List<String> errors = new ArrayList<>();
+        private boolean coerced;
+
+        private Context(boolean coerce) {
+            this.coerce = coerce;
+        }
+
+        private void error(String path, String message) {
+            errors.add("参数 " + (path.isEmpty() ? "(根)" : path) + " " + message);
+        }
+    }
+
+    /**
+     * 编译期按 Map 实例去重：$ref 解析后的共享组件是同一实例，只编译一次
+     */
+    private static final class Compiler {
+        private final Map<Map<?, ?>, Node> compiled = new IdentityHashMap<>();
+
+        private Node compile(Map<?, ?> schema) {
+            Node cached = compiled.get(schema);
+            if (cached != null) {
+                return cached;
+            }
+            Node node = new Node();
+            compiled.put(schema, node);
+            node.types = readTypes(schema.get("type"));
+            if (schema.get("enum") instanceof List<?> values && !values.isEmpty()) {
+                node.enumValues = values;
+            }
+            node.minimum = decimal(schema.get("minimum"));
+            node.maximum = decimal(schema.get("maximum"));
+            // OpenAPI 3.0 中 exclusiveMinimum 为布尔值修饰 minimum，3.1 中为独立的数值
+            Object exclusiveMinimum = schema.get("exclusiveMinimum");
+            if (exclusiveMinimum instanceof Boolean flag) {
+                node.exclusiveMinimum = flag;
+            } else if (decimal(exclusiveMinimum) != null) {
+                node.minimum = decimal(exclusiveMinimum);
+                node.exclusiveMinimum = true;
+            }
+            Object exclusiveMaximum = schema.get("exclusiveMaximum");
+            if (exclusiveMaximum instanceof Boolean flag) {
+                node.exclusiveMaximum = flag;
+            } else if (decimal(exclusiveMaximum) != null) {
+                node.maximum = decimal(exclusiveMaximum);
+                node.exclusiveMaximum = true;
+            }
+            node.minLength = integer(schema.get("minLength"));
+            node.maxLength = integer(schema.get("maxLength"));
+            node.minItems = integer(schema.get("minItems"));
+            node.maxItems = integer(schema.get("maxItems"));
+            if (schema.get("pattern") instanceof String pattern) {
+                try {
+                    node.pattern = Pattern.compile(pattern);
+                } catch (PatternSyntaxException e) {
+                    log.warn("忽略无法编译的参数 pattern: {}", pattern);
+                }
+            }
+            if (schema.get("items") instanceof Map<?, ?> items) {
+                node.items = compile(items);
+            }
+            if (schema.get("properties") instanceof Map<?, ?> properties) {
+                Map<String, Node> children = new LinkedHashMap<>();
+                for (Map.Entry<?, ?> entry : properties.entrySet()) {
+                    if (entry.getValue() instanceof Map<?, ?> child) {
+                        children.put(String.valueOf(entry.getKey()), compile(child));
+                    }
+                }
+                node.properties = children;
+            }
+            if (schema.get("required") instanceof Collection<?> required && !required.isEmpty()) {
+                Set<String> names = new LinkedHashSet<>();
+                required.forEach(name -> names.add(String.valueOf(name)));
+                node.required = names;
+            }
+            return node;
+        }
+
+        private static List<String> readTypes(Object type) {
+            if (type instanceof String single) {
+                return List.of(single);
+            }
+            if (type instanceof List<?> list && !list.isEmpty()) {
+                List<String> types = new ArrayList<>(list.size());
+                list.forEach(item -> types.add(String.valueOf(item)));
+                return types;
+            }
+            return null;
+        }
+
+        private static BigDecimal decimal(Object value) {
+            if (value instanceof Number number) {
+                return new BigDecimal(number.toString());
+            }
+            return null;
+        }
+
+        private static Integer integer(Object value) {
+            return value instanceof Number number ? number.intValue() : null;
+        }
+    }
+
+    /**
+     * 编译后的 schema 节点；未声明的约束为 null
+     */
+    private static final class Node {
+        private List<String> types;
+        private List<?> enumValues;
+        private BigDecimal minimum;
+        private BigDecimal maximum;
+        private boolean exclusiveMinimum;
+        private boolean exclusiveMaximum;
+        private Integer minLength;
+        private Integer maxLength;
+        private Pattern pattern;
+        private Integer minItems;
+        private Integer maxItems;
+        private Node items;
+        private Map<String, Node> properties;
+        private Set<String> required = Collections.emptySet();
+
+        private Object check(Object value, String path, Context context) {
+            Object typed = checkType(value, path, context);
+            if (typed == INVALID) {
+                return value;
+            }
+            if (enumValues != null) {
+                typed = checkEnum(typed, path, context);
+            }
+            if (typed instanceof Number number) {
+                checkRange(number, path, context);
+            } else if (typed instanceof String text) {
+                checkString(text, path, context);
+            } else if (typed instanceof List<?> list) {
+                return checkArray(list, path, context);
+            } else if (typed instanceof Map<?, ?> map) {
+                return checkObject(map, path, context);
+            }
+            return typed;
+        }
+
+        private Object checkType(Object value, String path, Context context) {
+            if (types == null) {
+                return value;
+            }
+            for (String type : types) {
+                if (matches(type, value)) {
+                    return value;
+                }
+            }
+            if (context.coerce) {
+                for (String type : types) {
+                    Object converted = convert(type, value);
+                    if (converted != INVALID) {
+                        context.coerced = true;
+                        return converted;
+                    }
+                }
+            }
+            context.error(path, "应为 " + String.join(" 或 ", types) + " 类型，实际为 " + display(value));
+            return INVALID;
+        }
+
+        private Object checkEnum(Object value, String path, Context context) {
+            for (Object candidate : enumValues) {
+                if (sameValue(candidate, value)) {
+                    return value;
+                }
+            }
+            if (context.coerce && value instanceof String text) {
+                // 大小写不同时修正为枚举中的写法
+                for (Object candidate : enumValues) {
+                    if (candidate instanceof String option && option.equalsIgnoreCase(text)) {
+                        context.coerced = true;
+                        return option;
+                    }
+                }
+            }
+            context.error(path, "应为 " + enumValues + " 之一，实际为 " + display(value));
+            return value;
+        }
+
+        private void checkRange(Number number, String path, Context context) {
+            if (minimum == null && maximum == null) {
+                return;
+            }
+            BigDecimal decimal = new BigDecimal(number.toString());
+            if (minimum != null) {
+                int compare = decimal.compareTo(minimum);
+                if (exclusiveMinimum ? compare <= 0 : compare < 0) {
+                    context.error(path, "应 " + (exclusiveMinimum ? "> " : ">= ") + minimum.toPlainString()
+                            + "，实际为 " + number);
+                }
+            }
+            if (maximum != null) {
+                int compare = decimal.compareTo(maximum);
+                if (exclusiveMaximum ? compare >= 0 : compare > 0) {
+                    context.error(path, "应 " + (exclusiveMaximum ? "< " : "<= ") + maximum.toPlainString()
+                            + "，实际为 " + number);
+                }
+            }
+        }
+
+        private void checkString(String text, String path, Context context) {
+            int length = text.codePointCount(0, text.length());
+            if (minLength != null && length < minLength) {
+                context.error(path, "长度应 >= " + minLength + "，实际为 " + length);
+            }
+            if (maxLength != null && length > maxLength) {
+                context.error(path, "长度应 <= " + maxLength + "，实际为 " + length);
+            }
+            if (pattern != null && !pattern.matcher(text).find()) {
+                context.error(path, "应匹配正则 " + pattern.pattern() + "，实际为 " + display(text));
+            }
+        }
+
+        private List<Object> checkArray(List<?> list, String path, Context context) {
+            if (minItems != null && list.size() < minItems) {
+                context.error(path, "元素个数应 >= " + minItems + "，实际为 " + list.size());
+            }
+            if (maxItems != null && list.size() > maxItems) {
+                context.error(path, "元素个数应 <= " + maxItems + "，实际为 " + list.size());
+            }
+            List<Object> checked = new ArrayList<>(list.size());
+            for (int i = 0; i < list.size(); i++) {
+                Object item = list.get(i);
+                checked.add(items != null && item != null ? items.check(item, path + "[" + i + "]", context) : item);
+            }
+            return checked;
+        }
+
+        private Map<String, Object> checkObject(Map<?, ?> map, String path, Context context) {
+            Map<String, Object> checked = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                String name = String.valueOf(entry.getKey());
+                Object value = entry.getValue();
+                if (value == null) {
+                    // 可选参数传 null 视为未传
+                    continue;
+                }
+                Node child = properties != null ? properties.get(name) : null;
+                checked.put(name, child != null ? child.check(value, join(path, name), context) : value);
+            }
+            for (String name : required) {
+                if (!checked.containsKey(name)) {
+                    context.error(join(path, name), "为必填参数，不能缺失或为 null");
+                }
+            }
+            return checked;
+        }
+
+        private static String join(String path, String name) {
+            return path.isEmpty() ? name : path + "." + name;
+        }
+    }
+
+    private static boolean matches(String type, Object value) {
+        return switch (type) {
+            case "string" -> value instanceof String;
+            case "integer" -> isInteger(value);
+            case "number" -> value instanceof Number;
+            case "boolean" -> value instanceof Boolean;
+            case "array" -> value instanceof List<?>;
+            case "object" -> value instanceof Map<?, ?>;
+            case "null" -> value == null;
+            // 未知类型不做限制
+            default -> true;
+        };
+    }
+
+    private static boolean isInteger(Object value) {
+        return value instanceof Integer || value instanceof Long || value instanceof Short
+                || value instanceof Byte || value instanceof BigInteger;
+    }
+
+    /**
+     * 仅做无损转换，无法转换时返回 INVALID
+     */
+    private static Object convert(String type, Object value) {
+        switch (type) {
+            case "integer" -> {
+                BigDecimal decimal = toDecimal(value);
+                if (decimal == null) {
+                    return INVALID;
+                }
+                try {
+                    return decimal.stripTrailingZeros().scale() <= 0 ? decimal.longValueExact() : INVALID;
+                } catch (ArithmeticException e) {
+                    return INVALID;
+                }
+            }
+            case "number" -> {
+                BigDecimal decimal = toDecimal(value);
+                if (decimal == null) {
+                    return INVALID;
+                }
+                if (decimal.stripTrailingZeros().scale() <= 0) {
+                    try {
+                        return decimal.longValueExact();
+                    } catch (ArithmeticException e) {
+                        // 超出 long 范围时按浮点数处理
+                    }
+                }
+                return decimal.doubleValue();
+            }
+            case "boolean" -> {
+                if (value instanceof String text) {
+                    String trimmed = text.trim();
+                    if ("true".equalsIgnoreCase(trimmed)) {
+                        return Boolean.TRUE;
+                    }
+                    if ("false".equalsIgnoreCase(trimmed)) {
+                        return Boolean.FALSE;
+                    }
+                }
+                return INVALID;
+            }
+            case "string" -> {
+                return value instanceof Number || value instanceof Boolean ? String.valueOf(value) : INVALID;
+            }
+            case "array" -> {
+                // 单个值包装为只有一个元素的数组
+                return value instanceof Map<?, ?> ? INVALID : new ArrayList<>(List.of(value));
+            }
+            default -> {
+                return INVALID;
+            }
+        }
+    }
+
+    private static BigDecimal toDecimal(Object value) {
+        if (value instanceof Number number) {
+            return new BigDecimal(number.toString());
+        }
+        if (value instanceof String text) {
+            try {
+                return new BigDecimal(text.trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static boolean sameValue(Object expected, Object actual) {
+        if (expected instanceof Number a && actual instanceof Number b) {
+            return new BigDecimal(a.toString()).compareTo(new BigDecimal(b.toString())) == 0;
+        }
+        return expected != null && expected.equals(actual);
+    }
+
+    private static String display(Object value) {
+        if (value instanceof String text) {
+            String shown = text.length() > MAX_VALUE_DISPLAY ? text.substring(0, MAX_VALUE_DISPLAY) + "..." : text;
+            return "\"" + shown + "\"";
+        }
+        if (value instanceof Map<?, ?>) {
+            return "object";
+        }
+        if (value instanceof List<?>) {
+            return "array";
+        }
+        return String.valueOf(value);
+    }
+}
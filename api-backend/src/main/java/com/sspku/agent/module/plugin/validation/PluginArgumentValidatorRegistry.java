@@ -0,0 +1,115 @@
+package com.sspku.agent.module.plugin.validation;
+
+import com.sspku.agent.module.plugin.core.FunctionIndex;
+import com.sspku.agent.module.plugin.dto.FunctionDefinition;
+import com.sspku.agent.module.plugin.event.PluginChangedEvent;
+import com.sspku.agent.module.plugin.exception.PluginArgumentException;
+import com.sspku.agent.module.plugin.vo.PluginArgumentStatsVO;
+import com.sspku.agent.module.plugin.vo.PluginVO;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * 插件函数参数校验
+ * 校验器由函数索引按插件版本编译并缓存，这里负责开关与按函数统计拒绝次数。
+ */
+@Slf4j
+@Component
+public class PluginArgumentValidatorRegistry {
+
+    @Value("${agent.plugin-validation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${agent.plugin-validation.coerce:true}")
+    private boolean coerce;
+
+    @Resource
+    private FunctionIndex functionIndex;
+
+    /**
+     * "pluginId:functionName" -> 校验统计
+     */
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+
+    /**
+     * 在发往上游前校验参数
+     * @return 修正后的参数
+     * @throws PluginArgumentException 参数不合法
+     */
+    public Map<String, Object> validate(PluginVO pluginVO, FunctionDefinition function, Map<String, Object> arguments) {
+        if (!enabled) {
+            return arguments;
+        }
+        ArgumentValidator validator = functionIndex.validator(pluginVO, function.getName());
+        if (validator == null) {
+            return arguments;
+        }
+        Counters stats = counters.computeIfAbsent(pluginVO.getId() + ":" + function.getName(),
+                key -> new Counters(pluginVO.getId(), function.getName()));
+        stats.validated.increment();
+        try {
+            ArgumentValidator.ValidatedArguments result = validator.validate(arguments, coerce);
+            if (result.coerced()) {
+                stats.coerced.increment();
+            }
+            return result.arguments();
+        } catch (PluginArgumentException e) {
+            stats.rejected.increment();
+            stats.lastError = e.getMessage();
+            log.warn("插件参数校验失败: pluginId={}, {}", pluginVO.getId(), e.getMessage());
+            throw e;
+        }
+    }
+
+    public List<PluginArgumentStatsVO> stats() {
+        return counters.values().stream()
+                .map(Counters::toVO)
+                .sorted(Comparator.comparing(PluginArgumentStatsVO::getPluginId)
+                        .thenComparing(PluginArgumentStatsVO::getFunctionName))
+                .collect(Collectors.toList());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPluginChanged(PluginChangedEvent event) {
+        // 修改插件时保留统计便于对比前后效果，删除后统计不再有意义
+        if (event.isDeleted()) {
+            counters.values().removeIf(stats -> Objects.equals(stats.pluginId, event.getPluginId()));
+        }
+    }
+
+    private static class Counters {
+        private final Long pluginId;
+        private final String functionName;
+        private final LongAdder validated = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder coerced = new LongAdder();
+        private volatile String lastError;
+
+        private Counters(Long pluginId, String functionName) {
+            this.pluginId = pluginId;
+            this.functionName = functionName;
+        }
+
+        private PluginArgumentStatsVO toVO() {
+            return PluginArgumentStatsVO.builder()
+                    .pluginId(pluginId)
+                    .functionName(functionName)
+                    .validated(validated.sum())
+                    .rejected(rejected.sum())
+                    .coerced(coerced.sum())
+                    .lastError(lastError)
+                    .build();
+        }
+    }
+}
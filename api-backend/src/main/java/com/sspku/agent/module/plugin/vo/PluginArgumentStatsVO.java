@@ -0,0 +1,30 @@
+package com.sspku.agent.module.plugin.vo;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * 插件函数参数校验情况
+ */
+@Data
+@Builder
+public class PluginArgumentStatsVO {
+    private Long pluginId;
+    private String functionName;
+    /**
+     * 经过校验的调用数
+     */
+    private long validated;
+    /**
+     * 参数不合法、未发往上游即被拒绝的调用数
+     */
+    private long rejected;
+    /**
+     * 参数类型经修正后放行的调用数
+     */
+    private long coerced;
+    /**
+     * 最近一次拒绝的原因
+     */
+    private String lastError;
+}
@@ -0,0 +1,35 @@
+package com.sspku.agent.module.plugin.vo;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * 批量执行中单项调用的结果
+ */
+@Data
+@Builder
+public class PluginBatchItemVO {
+    /**
+     * 在请求数组中的下标；整批失败（如插件未启用）时为 -1
+     */
+    private int index;
+    private String functionName;
+    private boolean success;
+    /**
+     * 执行结果（JSON字符串），失败时为空
+     */
+    private String result;
+    /**
+     * 失败原因，成功时为空
+     */
+    private String error;
+
+    public static PluginBatchItemVO failure(int index, String functionName, String error) {
+        return PluginBatchItemVO.builder()
+                .index(index)
+                .functionName(functionName)
+                .success(false)
+                .error(error)
+                .build();
+    }
+}
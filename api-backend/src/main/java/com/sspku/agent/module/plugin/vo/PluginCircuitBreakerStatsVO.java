@@ -0,0 +1,46 @@
+package com.sspku.agent.module.plugin.vo;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * 插件熔断器状态
+ */
+@Data
+@Builder
+public class PluginCircuitBreakerStatsVO {
+    /**
+     * plugin-{id} 为插件级熔断器，plugin-{id}:{function} 为函数级熔断器
+     */
+    private String name;
+    private Long pluginId;
+    /**
+     * 插件级熔断器为空
+     */
+    private String functionName;
+    /**
+     * CLOSED / OPEN / HALF_OPEN
+     */
+    private String state;
+    /**
+     * 滑动窗口内的调用数
+     */
+    private int calls;
+    /**
+     * 滑动窗口内的错误率（百分比）
+     */
+    private int failureRate;
+    /**
+     * 滑动窗口内的慢调用率（百分比）
+     */
+    private int slowCallRate;
+    private int consecutiveFailures;
+    /**
+     * 熔断期间被直接拒绝的调用次数
+     */
+    private long rejected;
+    /**
+     * 距离进入半开探测的剩余毫秒数
+     */
+    private long remainingOpenMs;
+}
@@ -0,0 +1,28 @@
+package com.sspku.agent.module.plugin.vo;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * 插件请求合并情况
+ */
+@Data
+@Builder
+public class PluginCoalescingStatsVO {
+    /**
+     * 当前进行中的上游请求数
+     */
+    private int inFlight;
+    /**
+     * 实际发往上游的可合并调用数
+     */
+    private long upstreamCalls;
+    /**
+     * 加入已有请求、未单独发往上游的调用数
+     */
+    private long deduplicated;
+    /**
+     * 合并比例（百分比）
+     */
+    private int dedupRate;
+}
@@ -0,0 +1,20 @@
+package com.sspku.agent.module.plugin.vo;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * 插件 HTTP 连接池使用情况
+ */
+@Data
+@Builder
+public class PluginHttpPoolStatsVO {
+    /**
+     * shared 为共享连接池，plugin-{id} 为插件独立连接池
+     */
+    private String name;
+    private int leased;
+    private int pending;
+    private int available;
+    private int max;
+}
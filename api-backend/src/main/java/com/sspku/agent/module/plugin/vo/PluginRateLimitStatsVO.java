@@ -0,0 +1,35 @@
+package com.sspku.agent.module.plugin.vo;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * 插件出站限流情况（排队耗时与上游耗时分开统计）
+ */
+@Data
+@Builder
+public class PluginRateLimitStatsVO {
+    private Long pluginId;
+    /**
+     * 每秒允许的调用数，0 表示不限速
+     */
+    private double rate;
+    private int burst;
+    private long acquired;
+    /**
+     * 需要排队等待令牌的调用数
+     */
+    private long throttled;
+    /**
+     * 排队等待的累计时长
+     */
+    private long totalWaitMs;
+    /**
+     * 等待超过上限被直接拒绝的调用数
+     */
+    private long rejected;
+    /**
+     * 因上游 Retry-After / X-RateLimit-* 暂停发送的剩余毫秒数
+     */
+    private long pausedRemainingMs;
+}
@@ -0,0 +1,25 @@
+package com.sspku.agent.module.plugin.vo;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * 插件结果缓存命中情况
+ */
+@Data
+@Builder
+public class PluginResultCacheStatsVO {
+    private int size;
+    private int capacity;
+    private long hits;
+    private long misses;
+    /**
+     * 命中率（百分比）
+     */
+    private int hitRate;
+    private long puts;
+    /**
+     * 上游声明不可缓存（no-store/no-cache 或 TTL 为 0）而未写入的次数
+     */
+    private long skipped;
+}
@@ -0,0 +1,32 @@
+package com.sspku.agent.module.plugin.vo;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * 插件调用重试与对冲情况（节点级）
+ */
+@Data
+@Builder
+public class PluginRetryStatsVO {
+    /**
+     * 参与重试预算统计的原始调用数
+     */
+    private long requests;
+    /**
+     * 已发出的重试与对冲请求数
+     */
+    private long retries;
+    /**
+     * 其中的对冲请求数
+     */
+    private long hedges;
+    /**
+     * 对冲请求先于首个请求返回的次数
+     */
+    private long hedgeWins;
+    /**
+     * 因预算耗尽被放弃的重试与对冲次数
+     */
+    private long budgetExhausted;
+}
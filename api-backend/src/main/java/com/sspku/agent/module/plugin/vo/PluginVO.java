@@ -1,5 +1,6 @@
 package com.sspku.agent.module.plugin.vo;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import java.time.LocalDateTime;
 
@@ -14,6 +15,12 @@ public class PluginVO {
     private String description;
     private String type;
     private String openapiSpec;
+    /**
+     * 编译后的函数目录，仅供服务端加载，不返回给前端
+     */
+    @JsonIgnore
+    private String functionCatalog;
+    private String specHash;
     private String config;
     private String status;
     private LocalDateTime createdAt;
@@ -0,0 +1,68 @@
+package com.sspku.agent.module.agent.bulkhead;
+
+import com.sspku.agent.module.agent.vo.ModelBulkheadStatsVO;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ModelBulkheadTest {
+
+    @Test
+    void rejectsImmediatelyWhenQueueIsFull() throws InterruptedException {
+        ModelBulkhead bulkhead = new ModelBulkhead("dashscope:qwen-max", 1, 0, 1000);
+
+        assertTrue(bulkhead.tryAcquire());
+        long start = System.currentTimeMillis();
+        assertFalse(bulkhead.tryAcquire());
+        // 无排队名额时不等待超时
+        assertTrue(System.currentTimeMillis() - start < 500);
+
+        ModelBulkheadStatsVO stats = bulkhead.stats();
+        assertEquals(1, stats.getInFlight());
+        assertEquals(1, stats.getRejected());
+    }
+
+    @Test
+    void waitsUpToTimeoutThenReleasesQueueSlot() throws InterruptedException {
+        ModelBulkhead bulkhead = new ModelBulkhead("dashscope:qwen-max", 1, 1, 50);
+
+        assertTrue(bulkhead.tryAcquire());
+        assertFalse(bulkhead.tryAcquire());
+        assertEquals(1, bulkhead.stats().getTimedOut());
+        assertEquals(0, bulkhead.stats().getWaiting());
+
+        bulkhead.release();
+        assertTrue(bulkhead.tryAcquire());
+        assertEquals(2, bulkhead.stats().getAccepted());
+    }
+
+    @Test
+    void backgroundCallersWaitForPermitWithoutUsingQueueSlots() throws Exception {
+        ModelBulkhead bulkhead = new ModelBulkhead("dashscope:qwen-max", 1, 0, 50);
+        assertTrue(bulkhead.tryAcquire());
+
+        CompletableFuture<Boolean> background = CompletableFuture.supplyAsync(() -> {
+            try {
+                return bulkhead.acquire(5000);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (bulkhead.stats().getBackgroundWaiting() == 0) {
+            Thread.sleep(5);
+        }
+        // 后台排队不占用交互请求的等待名额，交互请求仍按原规则快速失败
+        assertEquals(0, bulkhead.stats().getWaiting());
+        assertFalse(bulkhead.tryAcquire());
+
+        bulkhead.release();
+        assertTrue(background.get(5, TimeUnit.SECONDS));
+        assertEquals(1, bulkhead.stats().getInFlight());
+        assertEquals(0, bulkhead.stats().getBackgroundWaiting());
+    }
+}
@@ -0,0 +1,56 @@
+package com.sspku.agent.module.agent.callback;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sspku.agent.common.exception.BusinessException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.InetAddress;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RunCallbackNotifierTest {
+
+    private final RunCallbackNotifier notifier = new RunCallbackNotifier(null, new ObjectMapper());
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(notifier, "allowedHosts", "93.184.216.34, 127.0.0.1, .example.com");
+        ReflectionTestUtils.setField(notifier, "secret", "test-secret");
+        notifier.init();
+    }
+
+    @Test
+    void rejectsUrlsOutsideAllowlistOrPointingInternally() {
+        assertDoesNotThrow(() -> notifier.validate("https://93.184.216.34/hook"));
+        assertThrows(BusinessException.class, () -> notifier.validate("https://8.8.8.8/hook"));
+        assertThrows(BusinessException.class, () -> notifier.validate("ftp://93.184.216.34/hook"));
+        assertThrows(BusinessException.class, () -> notifier.validate("http://user@93.184.216.34/hook"));
+        // 在允许列表内也不能指向本机
+        assertThrows(BusinessException.class, () -> notifier.validate("http://127.0.0.1:8080/hook"));
+
+        ReflectionTestUtils.setField(notifier, "secret", "");
+        assertThrows(BusinessException.class, () -> notifier.validate("https://93.184.216.34/hook"));
+    }
+
+    @Test
+    void classifiesInternalAddresses() throws Exception {
+        for (String address : new String[]{"127.0.0.1", "10.1.2.3", "172.16.0.1", "192.168.1.1", "169.254.169.254",
+                "100.64.0.1", "0.0.0.0", "::1", "fd00::1", "fe80::1"}) {
+            assertTrue(RunCallbackNotifier.isInternal(InetAddress.getByName(address)), address);
+        }
+        assertFalse(RunCallbackNotifier.isInternal(InetAddress.getByName("93.184.216.34")));
+    }
+
+    @Test
+    void signsTimestampAndBody() {
+        // echo -n '1700000000.{"code":200}' | openssl dgst -sha256 -hmac test-secret
+        assertEquals("8958c5f23e1d774379ce91c036a364b320571c8c1e1891c251afce4c1eddb691",
+                notifier.sign("1700000000", "{\"code\":200}"));
+    }
+}
@@ -0,0 +1,55 @@
+package com.sspku.agent.module.agent.model;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConversationHistoryTest {
+
+    @Test
+    void evictByMessageCount() {
+        ConversationHistory history = new ConversationHistory(1L, 1L, 1L, null, 4, 10_000);
+
+        for (int i = 0; i < 3; i++) {
+            history.append("user", "question " + i, true);
+            history.append("assistant", "answer " + i, true);
+        }
+
+        // 只保留最近 4 条，最早一轮进入待摘要队列
+        ConversationContext context = history.snapshot();
+        assertEquals(4, context.getMessages().size());
+        assertInstanceOf(UserMessage.class, context.getMessages().get(0));
+        assertEquals("question 1", context.getMessages().get(0).getText());
+        assertInstanceOf(AssistantMessage.class, context.getMessages().get(3));
+        assertTrue(history.hasPending());
+        assertEquals("用户: question 0\n助手: answer 0\n", history.drainPending());
+        assertFalse(history.hasPending());
+    }
+
+    @Test
+    void evictByTokenBudget() {
+        ConversationHistory history = new ConversationHistory(1L, 1L, 1L, "摘要", 100, 30);
+
+        // 每条约 20 token，预算只够保留一条
+        history.append("user", "一二三四五六七八九十一二三四五六七八九十", false);
+        history.append("assistant", "甲乙丙丁戊己庚辛壬癸甲乙丙丁戊己庚辛壬癸", false);
+
+        ConversationContext context = history.snapshot();
+        assertEquals(1, context.getMessages().size());
+        assertEquals("摘要", context.getSummary());
+        // 未开启摘要时淘汰的消息直接丢弃
+        assertFalse(history.hasPending());
+    }
+
+    @Test
+    void keepLatestMessageEvenIfOverBudget() {
+        ConversationHistory history = new ConversationHistory(1L, 1L, 1L, null, 10, 5);
+
+        history.append("user", "这是一条远远超过预算的很长很长的消息", true);
+
+        assertEquals(1, history.snapshot().getMessages().size());
+        assertFalse(history.hasPending());
+    }
+}
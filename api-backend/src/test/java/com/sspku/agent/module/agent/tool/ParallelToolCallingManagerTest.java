@@ -0,0 +1,172 @@
+package com.sspku.agent.module.agent.tool;
+
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import org.springframework.ai.model.tool.ToolExecutionResult;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.execution.DefaultToolExecutionExceptionProcessor;
+import org.springframework.ai.tool.function.FunctionToolCallback;
+import org.springframework.ai.tool.resolution.StaticToolCallbackResolver;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelToolCallingManagerTest {
+
+    private ParallelToolCallingManager manager;
+
+    @BeforeEach
+    void setUp() {
+        manager = new ParallelToolCallingManager(new StaticToolCallbackResolver(List.of()),
+                DefaultToolExecutionExceptionProcessor.builder().build(),
+                new DefaultListableBeanFactory().getBeanProvider(ObservationRegistry.class));
+        ReflectionTestUtils.setField(manager, "parallelism", 4);
+        ReflectionTestUtils.setField(manager, "queueCapacity", 4);
+        ReflectionTestUtils.setField(manager, "turnTimeoutMs", 1000L);
+        manager.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.destroy();
+    }
+
+    @Test
+    void executesToolCallsInParallelAndKeepsRequestOrder() {
+        List<ToolCallback> callbacks = List.of(sleepingTool("slow", 300), sleepingTool("fast", 50),
+                sleepingTool("medium", 200));
+
+        long start = System.currentTimeMillis();
+        ToolExecutionResult result = manager.executeToolCalls(prompt(callbacks), toolCallResponse("slow", "fast", "medium"));
+        long elapsed = System.currentTimeMillis() - start;
+
+        // 串行需要 550ms，并行约等于最慢的 300ms
+        assertTrue(elapsed < 500, "elapsed=" + elapsed);
+        List<ToolResponseMessage.ToolResponse> responses = toolResponses(result);
+        assertEquals(List.of("slow", "fast", "medium"), responses.stream().map(ToolResponseMessage.ToolResponse::name).toList());
+        assertTrue(responses.get(0).responseData().contains("slow"));
+    }
+
+    @Test
+    void timedOutToolIsReportedWithoutFailingTheTurn() {
+        ReflectionTestUtils.setField(manager, "turnTimeoutMs", 500L);
+        List<ToolCallback> callbacks = List.of(sleepingTool("hang", 3000), sleepingTool("fast", 10));
+
+        ToolExecutionResult result = manager.executeToolCalls(prompt(callbacks), toolCallResponse("hang", "fast"));
+
+        List<ToolResponseMessage.ToolResponse> responses = toolResponses(result);
+        assertTrue(responses.get(0).responseData().contains("超时"));
+        assertTrue(responses.get(1).responseData().contains("fast"));
+    }
+
+    @Test
+    void asyncToolsAreAwaitedWithoutBlockingToolThreads() {
+        List<ToolCallback> callbacks = List.of(asyncTool("a", 300), asyncTool("b", 300), asyncTool("c", 300));
+
+        long start = System.currentTimeMillis();
+        ToolExecutionResult result = manager.executeToolCalls(prompt(callbacks), toolCallResponse("a", "b", "c"));
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertTrue(elapsed < 800, "elapsed=" + elapsed);
+        assertEquals(List.of("async-a", "async-b", "async-c"), toolResponses(result).stream()
+                .map(ToolResponseMessage.ToolResponse::responseData).toList());
+        assertEquals(0L, ((ThreadPoolExecutor) ReflectionTestUtils.getField(manager, "toolExecutor")).getTaskCount());
+    }
+
+    @Test
+    void singleToolCallIsBoundedByTurnDeadline() {
+        ReflectionTestUtils.setField(manager, "turnTimeoutMs", 300L);
+
+        long start = System.currentTimeMillis();
+        ToolExecutionResult result = manager.executeToolCalls(prompt(List.of(sleepingTool("hang", 3000))),
+                toolCallResponse("hang"));
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertTrue(elapsed < 1500, "elapsed=" + elapsed);
+        assertTrue(toolResponses(result).get(0).responseData().contains("超时"));
+    }
+
+    @Test
+    void singleAsyncToolUsesNonBlockingPath() {
+        ToolExecutionResult result = manager.executeToolCalls(prompt(List.of(asyncTool("a", 50))), toolCallResponse("a"));
+
+        assertEquals("async-a", toolResponses(result).get(0).responseData());
+        assertEquals(0L, ((ThreadPoolExecutor) ReflectionTestUtils.getField(manager, "toolExecutor")).getTaskCount());
+    }
+
+    private static ToolCallback asyncTool(String name, long delayMs) {
+        ToolCallback delegate = sleepingTool(name, 0);
+        return new AsyncToolCallback() {
+            @Override
+            public CompletableFuture<String> callAsync(String toolInput, ToolContext toolContext) {
+                return CompletableFuture.supplyAsync(() -> "async-" + name,
+                        CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS));
+            }
+
+            @Override
+            public ToolDefinition getToolDefinition() {
+                return delegate.getToolDefinition();
+            }
+
+            @Override
+            public String call(String toolInput) {
+                throw new AssertionError("同步路径不应被调用");
+            }
+        };
+    }
+
+    private static ToolCallback sleepingTool(String name, long sleepMs) {
+        Function<Map<String, Object>, String> function = args -> {
+            try {
+                Thread.sleep(sleepMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return name;
+        };
+        return FunctionToolCallback.builder(name, function)
+                .description(name)
+                .inputType(Map.class)
+                .build();
+    }
+
+    private static Prompt prompt(List<ToolCallback> callbacks) {
+        return new Prompt(List.of(new UserMessage("q")),
+                ToolCallingChatOptions.builder().toolCallbacks(callbacks).build());
+    }
+
+    private static ChatResponse toolCallResponse(String... names) {
+        List<AssistantMessage.ToolCall> toolCalls = Arrays.stream(names)
+                .map(name -> new AssistantMessage.ToolCall("id-" + name, "function", name, "{}"))
+                .toList();
+        AssistantMessage message = AssistantMessage.builder().content("").toolCalls(toolCalls).build();
+        return new ChatResponse(List.of(new Generation(message)));
+    }
+
+    private static List<ToolResponseMessage.ToolResponse> toolResponses(ToolExecutionResult result) {
+        List<Message> history = result.conversationHistory();
+        return ((ToolResponseMessage) history.get(history.size() - 1)).getResponses();
+    }
+}
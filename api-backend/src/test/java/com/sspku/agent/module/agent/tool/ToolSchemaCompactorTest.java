@@ -0,0 +1,88 @@
+package com.sspku.agent.module.agent.tool;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ToolSchemaCompactorTest {
+
+    private final ToolSchemaCompactor compactor = new ToolSchemaCompactor(new ObjectMapper());
+
+    @Test
+    void stripsNonEssentialKeywordsButKeepsParameterNames() {
+        Map<String, Object> title = new LinkedHashMap<>();
+        title.put("type", "string");
+        title.put("title", "Title");
+        title.put("example", "hello");
+        title.put("x-internal", true);
+        Map<String, Object> schema = new LinkedHashMap<>();
+        schema.put("type", "object");
+        schema.put("properties", Map.of("title", title));
+        schema.put("required", null);
+
+        Map<String, Object> stripped = compactor.strip(schema);
+
+        assertEquals("{\"type\":\"object\",\"properties\":{\"title\":{\"type\":\"string\"}}}",
+                compactor.serialize(stripped));
+        // 输入不被修改
+        assertEquals(4, title.size());
+
+        // 未超预算时原样返回
+        ToolSchemaCompactor.Tool tool = new ToolSchemaCompactor.Tool("getTitle", "读取标题", stripped,
+                compactor.serialize(stripped));
+        ToolSchemaCompactor.Result result = compactor.compact(List.of(tool), 10_000);
+        assertTrue(result.withinBudget());
+        assertTrue(result.steps().isEmpty());
+        assertFalse(result.tools().get(0).changed());
+    }
+
+    @Test
+    void compactsLargestToolsFirstUntilWithinBudget() {
+        String longDescription = "收件地址，包含省市区与街道门牌。用于计算运费与配送时效，请尽量填写完整，否则可能无法送达。";
+        Map<String, Object> address = Map.of("type", "object", "description", longDescription,
+                "properties", Map.of(
+                        "province", Map.of("type", "string", "description", "省份名称，例如：广东省。"),
+                        "city", Map.of("type", "string", "description", "城市名称，例如：深圳市。"),
+                        "street", Map.of("type", "string", "description", "街道与门牌号。")));
+        Map<String, Object> large = Map.of("type", "object", "properties",
+                Map.of("from", address, "to", address, "billing", address));
+        Map<String, Object> small = Map.of("type", "object", "properties",
+                Map.of("id", Map.of("type", "integer")));
+        List<ToolSchemaCompactor.Tool> tools = List.of(
+                new ToolSchemaCompactor.Tool("createShipment", "创建运单。根据收发地址计算运费并生成运单号。",
+                        large, compactor.serialize(large)),
+                new ToolSchemaCompactor.Tool("getShipment", "查询运单", small, compactor.serialize(small)));
+        ToolSchemaCompactor.Result original = compactor.compact(tools, 0);
+
+        int budget = original.tokens() / 2;
+        ToolSchemaCompactor.Result result = compactor.compact(tools, budget);
+
+        assertTrue(result.withinBudget());
+        assertTrue(result.tokens() <= budget);
+        assertEquals("DEDUPE", result.steps().get(0));
+        ToolSchemaCompactor.CompactedTool compacted = result.tools().get(0);
+        assertTrue(compacted.changed());
+        assertTrue(compacted.inputSchema().contains("\"$defs\""));
+        assertTrue(compacted.inputSchema().contains("{\"$ref\":\"#/$defs/S1\"}"));
+        // 较小的工具保持原样
+        assertFalse(result.tools().get(1).changed());
+        assertEquals(tools.get(1).inputSchema(), result.tools().get(1).inputSchema());
+    }
+
+    @Test
+    void shortensDescriptions() {
+        assertEquals("省份名称，例如：广东省。", ToolSchemaCompactor.firstSentence("省份名称，例如：广东省。必填"));
+        assertEquals("Returns the weather.", ToolSchemaCompactor.firstSentence("Returns the weather. Uses v2.1 API"));
+        assertEquals("一二三…", ToolSchemaCompactor.limit("一二三四五六", 4));
+        assertEquals("短", ToolSchemaCompactor.limit("短", 4));
+        assertNull(ToolSchemaCompactor.limit("移除", 0));
+    }
+}
@@ -0,0 +1,95 @@
+package com.sspku.agent.module.plugin.breaker;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.net.ConnectException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PluginCircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+
+    private PluginCircuitBreaker breaker() {
+        return breaker("plugin-1", null);
+    }
+
+    private PluginCircuitBreaker breaker(String name, String functionName) {
+        PluginCircuitBreakerConfig config = PluginCircuitBreakerConfig.builder()
+                .windowSeconds(10)
+                .minimumCalls(4)
+                .failureRateThreshold(50)
+                .slowCallThresholdMs(1000)
+                .slowCallRateThreshold(100)
+                .consecutiveFailures(100)
+                .openDurationMs(5000)
+                .maxOpenDurationMs(60000)
+                .halfOpenProbes(1)
+                .build();
+        return new PluginCircuitBreaker(name, 1L, functionName, config, now::get);
+    }
+
+    @Test
+    void opensOnFailureRateAndRecoversAfterSuccessfulProbe() {
+        PluginCircuitBreaker breaker = breaker();
+        for (int i = 0; i < 4; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onResult(i % 2 == 0, 10);
+        }
+        assertEquals(PluginCircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+        assertEquals(1, breaker.stats().getRejected());
+
+        // 打开时长结束后只放行一个探测调用
+        now.addAndGet(5000);
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+        breaker.onResult(false, 10);
+        assertEquals(PluginCircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0, breaker.stats().getCalls());
+    }
+
+    @Test
+    void failedProbeReopensWithLongerDuration() {
+        PluginCircuitBreaker breaker = breaker();
+        for (int i = 0; i < 4; i++) {
+            assertTrue(breaker.tryAcquire());
+            // 全部成功但过慢，按慢调用率熔断
+            breaker.onResult(false, 2000);
+        }
+        assertEquals(PluginCircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(5000, breaker.remainingOpenMs());
+
+        now.addAndGet(5000);
+        assertTrue(breaker.tryAcquire());
+        breaker.onResult(true, 10);
+        assertEquals(PluginCircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(10000, breaker.remainingOpenMs());
+    }
+
+    @Test
+    void functionErrorsDoNotOpenPluginBreaker() {
+        PluginCircuitBreaker pluginBreaker = breaker();
+        PluginCircuitBreaker functionBreaker = breaker("plugin-1:getOrder", "getOrder");
+        for (int i = 0; i < 4; i++) {
+            assertTrue(pluginBreaker.tryAcquire());
+            assertTrue(functionBreaker.tryAcquire());
+            new PluginCallPermit(pluginBreaker, functionBreaker)
+                    .onError(HttpServerErrorException.create(HttpStatus.INTERNAL_SERVER_ERROR, "error", null, null, null));
+        }
+        // 单个函数的 500 只摘除该函数
+        assertEquals(PluginCircuitBreaker.State.OPEN, functionBreaker.getState());
+        assertEquals(PluginCircuitBreaker.State.CLOSED, pluginBreaker.getState());
+
+        assertTrue(PluginCallPermit.isPluginFailure(new ResourceAccessException("I/O error", new ConnectException())));
+        assertTrue(PluginCallPermit.isPluginFailure(
+                HttpServerErrorException.create(HttpStatus.SERVICE_UNAVAILABLE, "unavailable", null, null, null)));
+        assertFalse(PluginCallPermit.isPluginFailure(new IllegalStateException("响应体过大")));
+    }
+}
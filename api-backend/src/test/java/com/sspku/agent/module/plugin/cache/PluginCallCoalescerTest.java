@@ -0,0 +1,57 @@
+package com.sspku.agent.module.plugin.cache;
+
+import com.sspku.agent.common.exception.BusinessException;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PluginCallCoalescerTest {
+
+    private final PluginCallCoalescer coalescer = new PluginCallCoalescer();
+
+    @Test
+    void concurrentIdenticalCallsShareOneUpstreamRequest() {
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+
+        CompletableFuture<String> first = coalescer.execute("k", () -> {
+            upstreamCalls.incrementAndGet();
+            return upstream;
+        });
+        CompletableFuture<String> second = coalescer.execute("k", () -> {
+            upstreamCalls.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+
+        // 跟随者取消自己的 future 不影响领头请求
+        second.cancel(true);
+        assertFalse(first.isDone());
+
+        upstream.complete("result");
+        assertEquals("result", first.join());
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(1, coalescer.stats().getDeduplicated());
+        assertEquals(0, coalescer.stats().getInFlight());
+    }
+
+    @Test
+    void errorIsSharedAndNextCallStartsFresh() {
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        CompletableFuture<String> first = coalescer.execute("k", () -> upstream);
+        CompletableFuture<String> second = coalescer.execute("k", () -> upstream);
+
+        upstream.completeExceptionally(new BusinessException("插件执行失败"));
+        assertInstanceOf(BusinessException.class, assertThrows(CompletionException.class, first::join).getCause());
+        assertInstanceOf(BusinessException.class, assertThrows(CompletionException.class, second::join).getCause());
+
+        assertEquals("ok", coalescer.execute("k", () -> CompletableFuture.completedFuture("ok")).join());
+        assertEquals(2, coalescer.stats().getUpstreamCalls());
+    }
+}
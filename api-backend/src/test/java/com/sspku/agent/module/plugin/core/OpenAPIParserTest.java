@@ -1,11 +1,14 @@
 package com.sspku.agent.module.plugin.core;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sspku.agent.common.exception.BusinessException;
 import com.sspku.agent.module.plugin.dto.FunctionDefinition;
 import com.sspku.agent.module.plugin.entity.Plugin;
 import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -127,6 +130,216 @@ class OpenAPIParserTest {
         assertFalse(updateUser.getParameters().getRequired().contains("email"));
         
         assertEquals("POST", updateUser.getMetadata().getMethod());
+
+        // 验证参数位置
+        assertEquals("query", getWeather.getMetadata().getParameterIn().get("city"));
+        assertEquals("path", updateUser.getMetadata().getParameterIn().get("id"));
+        assertEquals("body", updateUser.getMetadata().getParameterIn().get("name"));
     }
-}
 
+    @Test
+    void parseResolvesSharedRefsOnceAndCutsCycles() {
+        String jsonSpec = """
+            {
+              "openapi": "3.0.0",
+              "servers": [{"url": "https://api.example.com"}],
+              "paths": {
+                "/orders": {
+                  "post": {
+                    "operationId": "createOrder",
+                    "parameters": [{"$ref": "#/components/parameters/TraceId"}],
+                    "requestBody": {"$ref": "#/components/requestBodies/OrderBody"}
+                  }
+                },
+                "/users": {
+                  "post": {
+                    "operationId": "createUser",
+                    "requestBody": {
+                      "content": {
+                        "application/json": {
+                          "schema": {
+                            "type": "object",
+                            "properties": {
+                              "address": {"$ref": "#/components/schemas/Address"},
+                              "tree": {"$ref": "#/components/schemas/Node"}
+                            }
+                          }
+                        }
+                      }
+                    }
+                  }
+                }
+              },
+              "components": {
+                "parameters": {
+                  "TraceId": {"name": "traceId", "in": "header", "required": true, "schema": {"type": "string"}}
+                },
+                "requestBodies": {
+                  "OrderBody": {
+                    "content": {"application/json": {"schema": {"$ref": "#/components/schemas/Order"}}}
+                  }
+                },
+                "schemas": {
+                  "Order": {
+                    "type": "object",
+                    "properties": {
+                      "address": {"$ref": "#/components/schemas/Address"},
+                      "note": {"$ref": "#/components/schemas/Missing"}
+                    },
+                    "required": ["address"]
+                  },
+                  "Address": {"type": "object", "properties": {"city": {"type": "string"}}},
+                  "Node": {
+                    "type": "object",
+                    "properties": {"children": {"type": "array", "items": {"$ref": "#/components/schemas/Node"}}}
+                  }
+                }
+              }
+            }
+            """;
+
+        Plugin plugin = new Plugin();
+        plugin.setId(2L);
+        plugin.setName("Ref Plugin");
+        plugin.setOpenapiSpec(jsonSpec);
+
+        List<FunctionDefinition> functions = parser.parse(plugin);
+        FunctionDefinition createOrder = functions.stream()
+                .filter(f -> "createOrder".equals(f.getName())).findFirst().orElseThrow();
+        FunctionDefinition createUser = functions.stream()
+                .filter(f -> "createUser".equals(f.getName())).findFirst().orElseThrow();
+
+        // parameters 与 requestBody 自身的引用
+        assertEquals("header", createOrder.getMetadata().getParameterIn().get("traceId"));
+        assertTrue(createOrder.getParameters().getRequired().containsAll(List.of("traceId", "address")));
+        assertEquals("body", createOrder.getMetadata().getParameterIn().get("address"));
+
+        // 共享组件只解析一次，两个函数引用同一对象
+        Object orderAddress = createOrder.getParameters().getProperties().get("address");
+        Object userAddress = createUser.getParameters().getProperties().get("address");
+        assertSame(orderAddress, userAddress);
+        assertEquals(Map.of("city", Map.of("type", "string")), ((Map<?, ?>) orderAddress).get("properties"));
+
+        // 无法解析的引用与循环引用截断为普通 object
+        Map<?, ?> note = (Map<?, ?>) createOrder.getParameters().getProperties().get("note");
+        assertEquals("object", note.get("type"));
+        Map<?, ?> tree = (Map<?, ?>) createUser.getParameters().getProperties().get("tree");
+        Map<?, ?> children = (Map<?, ?>) ((Map<?, ?>) tree.get("properties")).get("children");
+        Map<?, ?> child = (Map<?, ?>) children.get("items");
+        assertEquals("循环引用: Node", child.get("description"));
+        assertFalse(child.containsKey("properties"));
+
+        // 函数目录中共享组件只保存一次，读取后重新链接为同一对象
+        String catalog = FunctionCatalog.write(functions);
+        assertEquals(catalog.indexOf("\"city\""), catalog.lastIndexOf("\"city\""));
+        List<FunctionDefinition> loaded = FunctionCatalog.read(catalog);
+        assertEquals(functions, loaded);
+        assertSame(loaded.get(0).getParameters().getProperties().get("address"),
+                loaded.get(1).getParameters().getProperties().get("address"));
+    }
+
+    @Test
+    void streamingParseMatchesTreeParse() {
+        // servers 与 components 位于 paths 之后，responses 等无关字段应被跳过
+        String jsonSpec = """
+            {
+              "openapi": "3.0.0",
+              "info": {"title": "Big API", "version": "1.0.0"},
+              "tags": [{"name": "orders"}],
+              "paths": {
+                "/orders/{id}": {
+                  "parameters": [{"name": "ignored", "in": "query", "schema": {"type": "string"}}],
+                  "get": {
+                    "operationId": "getOrder",
+                    "summary": "查询订单",
+                    "parameters": [
+                      {"name": "id", "in": "path", "required": true, "schema": {"type": "integer"}},
+                      {"$ref": "#/components/parameters/Lang"}
+                    ],
+                    "responses": {"200": {"content": {"application/json": {"schema": {"$ref": "#/components/schemas/Order"}}}}}
+                  },
+                  "put": {
+                    "operationId": "updateOrder",
+                    "requestBody": {"content": {"application/json": {"schema": {"$ref": "#/components/schemas/Order"}}}},
+                    "x-internal": {"owner": "team"}
+                  },
+                  "trace": {"operationId": "traceOrder"}
+                }
+              },
+              "components": {
+                "securitySchemes": {"bearer": {"type": "http", "scheme": "bearer"}},
+                "parameters": {"Lang": {"name": "lang", "in": "header", "schema": {"type": "string"}}},
+                "schemas": {
+                  "Order": {
+                    "type": "object",
+                    "properties": {"amount": {"type": "number"}, "items": {"type": "array", "items": {"$ref": "#/components/schemas/Order"}}},
+                    "required": ["amount"]
+                  }
+                }
+              },
+              "servers": [{"url": "https://api.example.com"}]
+            }
+            """;
+
+        Plugin plugin = new Plugin();
+        plugin.setId(3L);
+        plugin.setName("Big Plugin");
+        plugin.setOpenapiSpec(jsonSpec);
+
+        List<FunctionDefinition> tree = parser.parse(plugin);
+        OpenAPIParser streamingParser = new OpenAPIParser();
+        ReflectionTestUtils.setField(streamingParser, "streamingThresholdBytes", 1);
+        List<FunctionDefinition> streamed = streamingParser.parse(plugin);
+
+        assertEquals(2, streamed.size());
+        assertEquals(tree, streamed);
+        assertEquals("https://api.example.com", streamed.get(0).getMetadata().getBaseUrl());
+        assertEquals("header", streamed.get(0).getMetadata().getParameterIn().get("lang"));
+        assertEquals(List.of("amount"), streamed.get(1).getParameters().getRequired());
+    }
+
+    @Test
+    void compileRejectsInvalidSpecsAndRoundTripsThroughCatalog() {
+        Plugin plugin = new Plugin();
+        plugin.setId(4L);
+        plugin.setName("Catalog Plugin");
+
+        plugin.setOpenapiSpec("{\"openapi\": ");
+        assertThrows(BusinessException.class, () -> parser.compile(plugin));
+        plugin.setOpenapiSpec("{\"openapi\": \"3.0.0\", \"paths\": {}}");
+        assertThrows(BusinessException.class, () -> parser.compile(plugin));
+        plugin.setOpenapiSpec("""
+            {"paths": {
+              "/a": {"get": {"operationId": "dup"}},
+              "/b": {"get": {"operationId": "dup"}}
+            }}
+            """);
+        BusinessException duplicate = assertThrows(BusinessException.class, () -> parser.compile(plugin));
+        assertTrue(duplicate.getMessage().contains("dup"));
+
+        plugin.setOpenapiSpec("""
+            {"servers": [{"url": "https://api.example.com"}],
+             "paths": {"/weather": {"get": {"operationId": "getWeather", "parameters": [
+               {"name": "city", "in": "query", "required": true, "schema": {"type": "string"}}]}}}}
+            """);
+        List<FunctionDefinition> compiled = parser.compile(plugin);
+        String catalog = FunctionCatalog.write(compiled);
+        List<FunctionDefinition> loaded = FunctionCatalog.read(catalog);
+
+        assertEquals(compiled, loaded);
+        assertEquals("query", loaded.get(0).getMetadata().getParameterIn().get("city"));
+        assertNull(FunctionCatalog.read("{\"version\": 0, \"functions\": []}"));
+        String specHash = FunctionCatalog.hash(plugin.getOpenapiSpec());
+        assertEquals(64, specHash.length());
+        // 规范内容未变时沿用目录，规范被改动后目录失效
+        assertTrue(FunctionCatalog.isCurrent(catalog, specHash, plugin.getOpenapiSpec()));
+        assertFalse(FunctionCatalog.isCurrent(catalog, specHash,
+                plugin.getOpenapiSpec().replace("getWeather", "getForecast")));
+        // MySQL JSON 列读回的文本键顺序与空白不同，目录仍然有效
+        String storedSpec = "{\"paths\":{\"/weather\":{\"get\":{\"parameters\":[{\"in\":\"query\",\"name\":\"city\","
+                + "\"schema\":{\"type\":\"string\"},\"required\":true}],\"operationId\":\"getWeather\"}}},"
+                + "\"servers\":[{\"url\":\"https://api.example.com\"}]}";
+        assertTrue(FunctionCatalog.isCurrent(catalog, specHash, storedSpec));
+        assertFalse(FunctionCatalog.isCurrent(catalog, null, plugin.getOpenapiSpec()));
+    }
+}
@@ -1,7 +1,20 @@
 package com.sspku.agent.module.plugin.core;
 
+import com.sspku.agent.common.exception.BusinessException;
+import com.sspku.agent.module.plugin.breaker.PluginCircuitBreakerRegistry;
+import com.sspku.agent.module.plugin.breaker.PluginCircuitOpenException;
+import com.sspku.agent.module.plugin.cache.PluginCallCoalescer;
+import com.sspku.agent.module.plugin.cache.PluginResultCache;
 import com.sspku.agent.module.plugin.dto.FunctionDefinition;
+import com.sspku.agent.module.plugin.dto.PluginInvocationDTO;
+import com.sspku.agent.module.plugin.exception.PluginArgumentException;
+import com.sspku.agent.module.plugin.http.PluginHttpClientManager;
+import com.sspku.agent.module.plugin.ratelimit.PluginRateLimitedException;
+import com.sspku.agent.module.plugin.ratelimit.PluginRateLimiterRegistry;
+import com.sspku.agent.module.plugin.retry.PluginRetryRegistry;
 import com.sspku.agent.module.plugin.service.IPluginService;
+import com.sspku.agent.module.plugin.validation.PluginArgumentValidatorRegistry;
+import com.sspku.agent.module.plugin.vo.PluginBatchItemVO;
 import com.sspku.agent.module.plugin.vo.PluginVO;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -9,19 +22,35 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class PluginExecutorTest {
@@ -38,9 +67,69 @@ class PluginExecutorTest {
     @Mock
     private RestTemplate restTemplate;
 
+    @Mock
+    private PluginHttpClientManager pluginHttpClientManager;
+
+    private PluginRetryRegistry retryRegistry;
+
+    private PluginArgumentValidatorRegistry validatorRegistry;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        FunctionIndex functionIndex = new FunctionIndex(openAPIParser);
+        ReflectionTestUtils.setField(functionIndex, "cacheSize", 16);
+        functionIndex.init();
+        ReflectionTestUtils.setField(pluginExecutor, "functionIndex", functionIndex);
+        validatorRegistry = new PluginArgumentValidatorRegistry();
+        ReflectionTestUtils.setField(validatorRegistry, "enabled", true);
+        ReflectionTestUtils.setField(validatorRegistry, "coerce", true);
+        ReflectionTestUtils.setField(validatorRegistry, "functionIndex", functionIndex);
+        ReflectionTestUtils.setField(pluginExecutor, "pluginArgumentValidatorRegistry", validatorRegistry);
+        PluginCircuitBreakerRegistry breakerRegistry = new PluginCircuitBreakerRegistry();
+        ReflectionTestUtils.setField(breakerRegistry, "enabled", true);
+        ReflectionTestUtils.setField(breakerRegistry, "windowSeconds", 30);
+        ReflectionTestUtils.setField(breakerRegistry, "minimumCalls", 10);
+        ReflectionTestUtils.setField(breakerRegistry, "failureRateThreshold", 50);
+        ReflectionTestUtils.setField(breakerRegistry, "slowCallThresholdMs", 5000L);
+        ReflectionTestUtils.setField(breakerRegistry, "slowCallRateThreshold", 80);
+        ReflectionTestUtils.setField(breakerRegistry, "consecutiveFailures", 2);
+        ReflectionTestUtils.setField(breakerRegistry, "openDurationMs", 30000L);
+        ReflectionTestUtils.setField(breakerRegistry, "maxOpenDurationMs", 300000L);
+        ReflectionTestUtils.setField(breakerRegistry, "halfOpenProbes", 1);
+        breakerRegistry.init();
+        ReflectionTestUtils.setField(pluginExecutor, "pluginCircuitBreakerRegistry", breakerRegistry);
+        PluginResultCache resultCache = new PluginResultCache();
+        ReflectionTestUtils.setField(resultCache, "enabled", true);
+        ReflectionTestUtils.setField(resultCache, "size", 16);
+        ReflectionTestUtils.setField(resultCache, "defaultTtlSeconds", 60L);
+        ReflectionTestUtils.setField(resultCache, "maxTtlSeconds", 3600L);
+        resultCache.init();
+        ReflectionTestUtils.setField(pluginExecutor, "pluginResultCache", resultCache);
+        PluginCallCoalescer coalescer = new PluginCallCoalescer();
+        ReflectionTestUtils.setField(coalescer, "enabled", true);
+        ReflectionTestUtils.setField(pluginExecutor, "pluginCallCoalescer", coalescer);
+        PluginRateLimiterRegistry rateLimiterRegistry = new PluginRateLimiterRegistry();
+        ReflectionTestUtils.setField(rateLimiterRegistry, "enabled", true);
+        ReflectionTestUtils.setField(rateLimiterRegistry, "defaultBurst", 1);
+        ReflectionTestUtils.setField(rateLimiterRegistry, "defaultMaxWaitMs", 1000L);
+        ReflectionTestUtils.setField(rateLimiterRegistry, "maxPauseMs", 60000L);
+        ReflectionTestUtils.setField(pluginExecutor, "pluginRateLimiterRegistry", rateLimiterRegistry);
+        retryRegistry = new PluginRetryRegistry();
+        ReflectionTestUtils.setField(retryRegistry, "enabled", true);
+        ReflectionTestUtils.setField(retryRegistry, "defaultMaxAttempts", 2);
+        ReflectionTestUtils.setField(retryRegistry, "initialBackoffMs", 10);
+        ReflectionTestUtils.setField(retryRegistry, "maxBackoffMs", 50);
+        ReflectionTestUtils.setField(retryRegistry, "budgetPercent", 10);
+        ReflectionTestUtils.setField(retryRegistry, "budgetMinRetriesPerSecond", 5);
+        ReflectionTestUtils.setField(retryRegistry, "budgetWindowSeconds", 10);
+        ReflectionTestUtils.setField(retryRegistry, "hedgeMinDelayMs", 50L);
+        ReflectionTestUtils.setField(retryRegistry, "hedgeMinSamples", 20);
+        retryRegistry.init();
+        ReflectionTestUtils.setField(pluginExecutor, "pluginRetryRegistry", retryRegistry);
+        ReflectionTestUtils.setField(pluginExecutor, "batchMaxItems", 100);
+        ReflectionTestUtils.setField(pluginExecutor, "batchMaxParallelism", 8);
+        when(pluginHttpClientManager.getRestTemplate(any())).thenReturn(restTemplate);
     }
 
     @Test
@@ -70,11 +159,11 @@ class PluginExecutorTest {
         when(openAPIParser.parse(any())).thenReturn(List.of(function));
         
         String expectedResponse = "{\"temp\": 25}";
-        when(restTemplate.exchange(
+        when(restTemplate.execute(
                 ArgumentMatchers.anyString(),
                 eq(HttpMethod.GET),
-                any(HttpEntity.class),
-                eq(String.class)
+                any(),
+                any(ResponseExtractor.class)
         )).thenReturn(new ResponseEntity<>(expectedResponse, HttpStatus.OK));
 
         // 3. 执行
@@ -83,5 +172,399 @@ class PluginExecutorTest {
         // 4. 验证
         assertEquals(expectedResponse, result);
     }
-}
 
+    @Test
+    void executeParsesSpecOncePerVersion() {
+        Long pluginId = 2L;
+        PluginVO pluginVO = new PluginVO();
+        pluginVO.setId(pluginId);
+        pluginVO.setName("Test Plugin");
+        pluginVO.setStatus("enabled");
+        pluginVO.setUpdatedAt(LocalDateTime.of(2024, 1, 1, 0, 0));
+
+        FunctionDefinition function = new FunctionDefinition();
+        function.setName("getWeather");
+        FunctionDefinition.Metadata metadata = new FunctionDefinition.Metadata();
+        metadata.setBaseUrl("https://api.weather.com");
+        metadata.setPath("/current");
+        metadata.setMethod("GET");
+        function.setMetadata(metadata);
+
+        when(pluginService.getPluginById(pluginId)).thenReturn(pluginVO);
+        when(openAPIParser.parse(any())).thenReturn(List.of(function));
+        when(restTemplate.execute(
+                ArgumentMatchers.anyString(),
+                eq(HttpMethod.GET),
+                any(),
+                any(ResponseExtractor.class)
+        )).thenReturn(new ResponseEntity<>("{}", HttpStatus.OK));
+
+        pluginExecutor.execute(pluginId, "getWeather", new HashMap<>());
+        pluginExecutor.execute(pluginId, "getWeather", new HashMap<>());
+        verify(openAPIParser, times(1)).parse(any());
+
+        // 规范版本变化后重新解析
+        pluginVO.setUpdatedAt(LocalDateTime.of(2024, 1, 2, 0, 0));
+        pluginExecutor.execute(pluginId, "getWeather", new HashMap<>());
+        verify(openAPIParser, times(2)).parse(any());
+
+        // 保存时编译的函数目录直接加载，不再解析规范
+        pluginVO.setSpecHash(FunctionCatalog.hash("{\"openapi\": \"3.0.0\", \"paths\": {}}"));
+        // 读回的规范经数据库规范化（键重排、空白变化），哈希仍然一致
+        pluginVO.setOpenapiSpec("{\"paths\":{},\"openapi\":\"3.0.0\"}");
+        pluginVO.setFunctionCatalog(FunctionCatalog.write(List.of(function)));
+        pluginVO.setUpdatedAt(LocalDateTime.of(2024, 1, 3, 0, 0));
+        pluginExecutor.execute(pluginId, "getWeather", new HashMap<>());
+        verify(openAPIParser, times(2)).parse(any());
+
+        // 规范被绕过保存流程改动后哈希不一致，目录失效并回退为解析规范
+        pluginVO.setOpenapiSpec("{\"paths\": {\"/current\": {}}}");
+        pluginVO.setUpdatedAt(LocalDateTime.of(2024, 1, 4, 0, 0));
+        pluginExecutor.execute(pluginId, "getWeather", new HashMap<>());
+        verify(openAPIParser, times(3)).parse(any());
+    }
+
+    @Test
+    void openBreakerFailsFastWithoutCallingUpstream() {
+        Long pluginId = 3L;
+        PluginVO pluginVO = new PluginVO();
+        pluginVO.setId(pluginId);
+        pluginVO.setName("Test Plugin");
+        pluginVO.setStatus("enabled");
+
+        FunctionDefinition function = new FunctionDefinition();
+        function.setName("getWeather");
+        FunctionDefinition.Metadata metadata = new FunctionDefinition.Metadata();
+        metadata.setBaseUrl("https://api.weather.com");
+        metadata.setPath("/current");
+        metadata.setMethod("GET");
+        function.setMetadata(metadata);
+
+        when(pluginService.getPluginById(pluginId)).thenReturn(pluginVO);
+        when(openAPIParser.parse(any())).thenReturn(List.of(function));
+        when(restTemplate.execute(
+                ArgumentMatchers.anyString(),
+                eq(HttpMethod.GET),
+                any(),
+                any(ResponseExtractor.class)
+        )).thenThrow(new ResourceAccessException("Connection refused"));
+
+        // 幂等函数重试一次，两次上游失败后熔断
+        assertThrows(BusinessException.class, () -> pluginExecutor.execute(pluginId, "getWeather", new HashMap<>()));
+        assertThrows(BusinessException.class, () -> pluginExecutor.execute(pluginId, "getWeather", new HashMap<>()));
+
+        PluginCircuitOpenException e = assertThrows(PluginCircuitOpenException.class,
+                () -> pluginExecutor.execute(pluginId, "getWeather", new HashMap<>()));
+        assertTrue(e.getRetryAfterSeconds() > 0);
+        assertTrue(e.toToolResult().contains("TOOL_UNAVAILABLE"));
+        verify(restTemplate, times(2)).execute(ArgumentMatchers.anyString(), eq(HttpMethod.GET),
+                any(), any(ResponseExtractor.class));
+    }
+
+    @Test
+    void cachesIdempotentResultsUnlessUpstreamForbids() {
+        Long pluginId = 4L;
+        PluginVO pluginVO = new PluginVO();
+        pluginVO.setId(pluginId);
+        pluginVO.setName("Test Plugin");
+        pluginVO.setStatus("enabled");
+
+        FunctionDefinition function = new FunctionDefinition();
+        function.setName("getRate");
+        FunctionDefinition.Metadata metadata = new FunctionDefinition.Metadata();
+        metadata.setBaseUrl("https://api.rates.com");
+        metadata.setPath("/latest");
+        metadata.setMethod("GET");
+        function.setMetadata(metadata);
+
+        when(pluginService.getPluginById(pluginId)).thenReturn(pluginVO);
+        when(openAPIParser.parse(any())).thenReturn(List.of(function));
+        HttpHeaders cacheable = new HttpHeaders();
+        cacheable.setCacheControl("public, max-age=300");
+        when(restTemplate.execute(
+                ArgumentMatchers.contains("base=USD"),
+                eq(HttpMethod.GET),
+                any(),
+                any(ResponseExtractor.class)
+        )).thenReturn(new ResponseEntity<>("{\"rate\": 7.1}", cacheable, HttpStatus.OK));
+        HttpHeaders noStore = new HttpHeaders();
+        noStore.setCacheControl("no-store");
+        when(restTemplate.execute(
+                ArgumentMatchers.contains("base=EUR"),
+                eq(HttpMethod.GET),
+                any(),
+                any(ResponseExtractor.class)
+        )).thenReturn(new ResponseEntity<>("{\"rate\": 7.8}", noStore, HttpStatus.OK));
+
+        // 参数键顺序不同视为同一请求
+        Map<String, Object> first = new LinkedHashMap<>();
+        first.put("base", "USD");
+        first.put("target", "CNY");
+        Map<String, Object> second = new LinkedHashMap<>();
+        second.put("target", "CNY");
+        second.put("base", "USD");
+        assertEquals("{\"rate\": 7.1}", pluginExecutor.execute(pluginId, "getRate", first));
+        assertEquals("{\"rate\": 7.1}", pluginExecutor.execute(pluginId, "getRate", second));
+        verify(restTemplate, times(1)).execute(ArgumentMatchers.contains("base=USD"), eq(HttpMethod.GET),
+                any(), any(ResponseExtractor.class));
+
+        // 上游声明 no-store 时每次都回源
+        pluginExecutor.execute(pluginId, "getRate", Map.of("base", "EUR"));
+        pluginExecutor.execute(pluginId, "getRate", Map.of("base", "EUR"));
+        verify(restTemplate, times(2)).execute(ArgumentMatchers.contains("base=EUR"), eq(HttpMethod.GET),
+                any(), any(ResponseExtractor.class));
+    }
+
+    @Test
+    void coalescesIdempotentCallsWhenResultCacheIsDisabled() throws Exception {
+        ReflectionTestUtils.setField(pluginExecutor, "pluginResultCache", disabledResultCache());
+        Long pluginId = 12L;
+        PluginVO pluginVO = new PluginVO();
+        pluginVO.setId(pluginId);
+        pluginVO.setName("Test Plugin");
+        pluginVO.setStatus("enabled");
+
+        FunctionDefinition function = new FunctionDefinition();
+        function.setName("getRate");
+        FunctionDefinition.Metadata metadata = new FunctionDefinition.Metadata();
+        metadata.setBaseUrl("https://api.rates.com");
+        metadata.setPath("/latest");
+        metadata.setMethod("GET");
+        function.setMetadata(metadata);
+
+        when(pluginService.getPluginById(pluginId)).thenReturn(pluginVO);
+        when(openAPIParser.parse(any())).thenReturn(List.of(function));
+        CompletableFuture<ResponseEntity<String>> upstream = new CompletableFuture<>();
+        when(pluginHttpClientManager.exchangeAsync(any(), any(), any())).thenReturn(upstream);
+
+        CompletableFuture<String> first = pluginExecutor.executeAsync(pluginId, "getRate", Map.of("base", "USD"));
+        CompletableFuture<String> second = pluginExecutor.executeAsync(pluginId, "getRate", Map.of("base", "USD"));
+        upstream.complete(new ResponseEntity<>("{\"rate\": 7.1}", HttpStatus.OK));
+
+        assertEquals("{\"rate\": 7.1}", first.get(2, TimeUnit.SECONDS));
+        assertEquals("{\"rate\": 7.1}", second.get(2, TimeUnit.SECONDS));
+        verify(pluginHttpClientManager, times(1)).exchangeAsync(any(), any(), any());
+    }
+
+    @Test
+    void upstreamRetryAfterPausesOutboundCalls() {
+        Long pluginId = 5L;
+        PluginVO pluginVO = new PluginVO();
+        pluginVO.setId(pluginId);
+        pluginVO.setName("Test Plugin");
+        pluginVO.setStatus("enabled");
+
+        FunctionDefinition function = new FunctionDefinition();
+        function.setName("createOrder");
+        FunctionDefinition.Metadata metadata = new FunctionDefinition.Metadata();
+        metadata.setBaseUrl("https://api.shop.com");
+        metadata.setPath("/orders");
+        metadata.setMethod("POST");
+        function.setMetadata(metadata);
+
+        when(pluginService.getPluginById(pluginId)).thenReturn(pluginVO);
+        when(openAPIParser.parse(any())).thenReturn(List.of(function));
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "30");
+        when(restTemplate.execute(
+                ArgumentMatchers.anyString(),
+                eq(HttpMethod.POST),
+                any(),
+                any(ResponseExtractor.class)
+        )).thenThrow(HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests",
+                headers, null, null));
+
+        assertThrows(BusinessException.class, () -> pluginExecutor.execute(pluginId, "createOrder", new HashMap<>()));
+
+        // 上游要求 30 秒后重试，超过最长排队时间，本地直接拒绝而不再发往上游
+        PluginRateLimitedException e = assertThrows(PluginRateLimitedException.class,
+                () -> pluginExecutor.execute(pluginId, "createOrder", new HashMap<>()));
+        assertEquals(429, e.getCode());
+        assertTrue(e.getRetryAfterSeconds() >= 29);
+        verify(restTemplate, times(1)).execute(ArgumentMatchers.anyString(), eq(HttpMethod.POST),
+                any(), any(ResponseExtractor.class));
+    }
+
+    @Test
+    void retriesTransientFailuresOfIdempotentCallsOnly() {
+        Long pluginId = 6L;
+        PluginVO pluginVO = new PluginVO();
+        pluginVO.setId(pluginId);
+        pluginVO.setName("Test Plugin");
+        pluginVO.setStatus("enabled");
+
+        FunctionDefinition query = new FunctionDefinition();
+        query.setName("getStock");
+        FunctionDefinition.Metadata queryMetadata = new FunctionDefinition.Metadata();
+        queryMetadata.setBaseUrl("https://api.shop.com");
+        queryMetadata.setPath("/stock");
+        queryMetadata.setMethod("GET");
+        query.setMetadata(queryMetadata);
+        FunctionDefinition create = new FunctionDefinition();
+        create.setName("createOrder");
+        FunctionDefinition.Metadata createMetadata = new FunctionDefinition.Metadata();
+        createMetadata.setBaseUrl("https://api.shop.com");
+        createMetadata.setPath("/orders");
+        createMetadata.setMethod("POST");
+        create.setMetadata(createMetadata);
+
+        when(pluginService.getPluginById(pluginId)).thenReturn(pluginVO);
+        when(openAPIParser.parse(any())).thenReturn(List.of(query, create));
+        when(restTemplate.execute(
+                ArgumentMatchers.anyString(),
+                eq(HttpMethod.GET),
+                any(),
+                any(ResponseExtractor.class)
+        )).thenThrow(new ResourceAccessException("Read timed out"))
+                .thenReturn(new ResponseEntity<>("{\"stock\": 3}", HttpStatus.OK));
+        when(restTemplate.execute(
+                ArgumentMatchers.anyString(),
+                eq(HttpMethod.POST),
+                any(),
+                any(ResponseExtractor.class)
+        )).thenThrow(HttpServerErrorException.create(HttpStatus.BAD_GATEWAY, "Bad Gateway", new HttpHeaders(),
+                null, null));
+
+        assertEquals("{\"stock\": 3}", pluginExecutor.execute(pluginId, "getStock", new HashMap<>()));
+        verify(restTemplate, times(2)).execute(ArgumentMatchers.anyString(), eq(HttpMethod.GET),
+                any(), any(ResponseExtractor.class));
+
+        // 非幂等函数不重试，避免重复下单
+        assertThrows(BusinessException.class, () -> pluginExecutor.execute(pluginId, "createOrder", new HashMap<>()));
+        verify(restTemplate, times(1)).execute(ArgumentMatchers.anyString(), eq(HttpMethod.POST),
+                any(), any(ResponseExtractor.class));
+        assertEquals(1, retryRegistry.stats().getRetries());
+    }
+
+    @Test
+    void hedgedRequestTakesFirstResponseAndCancelsTheSlowOne() throws Exception {
+        Long pluginId = 7L;
+        PluginVO pluginVO = new PluginVO();
+        pluginVO.setId(pluginId);
+        pluginVO.setName("Test Plugin");
+        pluginVO.setStatus("enabled");
+        pluginVO.setConfig("{\"retry\": {\"hedge\": true, \"hedgeDelayMs\": 50}}");
+
+        FunctionDefinition function = new FunctionDefinition();
+        function.setName("search");
+        FunctionDefinition.Metadata metadata = new FunctionDefinition.Metadata();
+        metadata.setBaseUrl("https://api.search.com");
+        metadata.setPath("/search");
+        metadata.setMethod("GET");
+        function.setMetadata(metadata);
+
+        when(pluginService.getPluginById(pluginId)).thenReturn(pluginVO);
+        when(openAPIParser.parse(any())).thenReturn(List.of(function));
+        CompletableFuture<ResponseEntity<String>> slow = new CompletableFuture<>();
+        when(pluginHttpClientManager.exchangeAsync(any(), any(), any()))
+                .thenReturn(slow)
+                .thenReturn(CompletableFuture.completedFuture(new ResponseEntity<>("{\"hits\": 1}", HttpStatus.OK)));
+
+        String result = pluginExecutor.executeAsync(pluginId, "search", Map.of("q", "agent")).get(2, TimeUnit.SECONDS);
+
+        assertEquals("{\"hits\": 1}", result);
+        // 落败的首个请求被取消
+        assertTrue(slow.isCancelled());
+        assertEquals(1, retryRegistry.stats().getHedges());
+        assertEquals(1, retryRegistry.stats().getHedgeWins());
+    }
+
+    @Test
+    void executeBatchRespectsParallelismAndReportsErrorsPerItem() throws Exception {
+        Long pluginId = 8L;
+        PluginVO pluginVO = new PluginVO();
+        pluginVO.setId(pluginId);
+        pluginVO.setName("Test Plugin");
+        pluginVO.setStatus("enabled");
+
+        FunctionDefinition function = new FunctionDefinition();
+        function.setName("search");
+        FunctionDefinition.Metadata metadata = new FunctionDefinition.Metadata();
+        metadata.setBaseUrl("https://api.search.com");
+        metadata.setPath("/search");
+        metadata.setMethod("GET");
+        function.setMetadata(metadata);
+
+        when(pluginService.getPluginById(pluginId)).thenReturn(pluginVO);
+        when(openAPIParser.parse(any())).thenReturn(List.of(function));
+        CompletableFuture<ResponseEntity<String>> first = new CompletableFuture<>();
+        when(pluginHttpClientManager.exchangeAsync(any(), any(), any()))
+                .thenReturn(first)
+                .thenReturn(CompletableFuture.completedFuture(new ResponseEntity<>("{\"hits\": 2}", HttpStatus.OK)));
+
+        List<PluginInvocationDTO> invocations = List.of(
+                invocation("search", Map.of("q", "a")),
+                invocation("search", Map.of("q", "b")),
+                invocation("missing", Map.of()));
+        CompletableFuture<List<PluginBatchItemVO>> batch = pluginExecutor.executeBatch(pluginId, invocations, 1)
+                .collectSortedList(Comparator.comparingInt(PluginBatchItemVO::getIndex))
+                .toFuture();
+
+        // 并发上限为 1：首项返回前不发出第二项
+        verify(pluginHttpClientManager, times(1)).exchangeAsync(any(), any(), any());
+        first.complete(new ResponseEntity<>("{\"hits\": 1}", HttpStatus.OK));
+
+        List<PluginBatchItemVO> items = batch.get(2, TimeUnit.SECONDS);
+        assertEquals(3, items.size());
+        assertEquals("{\"hits\": 1}", items.get(0).getResult());
+        assertEquals("{\"hits\": 2}", items.get(1).getResult());
+        assertFalse(items.get(2).isSuccess());
+        assertEquals("未找到函数: missing", items.get(2).getError());
+        // 整批只查询一次插件
+        verify(pluginService, times(1)).getPluginById(pluginId);
+    }
+
+    private static PluginInvocationDTO invocation(String functionName, Map<String, Object> arguments) {
+        PluginInvocationDTO invocation = new PluginInvocationDTO();
+        invocation.setFunctionName(functionName);
+        invocation.setArguments(arguments);
+        return invocation;
+    }
+
+    @Test
+    void invalidArgumentsAreRejectedBeforeDispatch() {
+        Long pluginId = 9L;
+        PluginVO pluginVO = new PluginVO();
+        pluginVO.setId(pluginId);
+        pluginVO.setName("Test Plugin");
+        pluginVO.setStatus("enabled");
+
+        FunctionDefinition function = new FunctionDefinition();
+        function.setName("forecast");
+        FunctionDefinition.Parameters parameters = new FunctionDefinition.Parameters();
+        parameters.setProperties(Map.of(
+                "city", Map.of("type", "string"),
+                "days", Map.of("type", "integer", "minimum", 1, "maximum", 7)));
+        parameters.setRequired(List.of("city"));
+        function.setParameters(parameters);
+        FunctionDefinition.Metadata metadata = new FunctionDefinition.Metadata();
+        metadata.setBaseUrl("https://api.weather.com");
+        metadata.setPath("/forecast");
+        metadata.setMethod("GET");
+        function.setMetadata(metadata);
+
+        when(pluginService.getPluginById(pluginId)).thenReturn(pluginVO);
+        when(openAPIParser.parse(any())).thenReturn(List.of(function));
+        when(restTemplate.execute(ArgumentMatchers.contains("days=3"), eq(HttpMethod.GET), any(),
+                any(ResponseExtractor.class))).thenReturn(new ResponseEntity<>("{\"ok\": true}", HttpStatus.OK));
+
+        PluginArgumentException e = assertThrows(PluginArgumentException.class,
+                () -> pluginExecutor.execute(pluginId, "forecast", Map.of("days", 10)));
+        assertEquals(List.of("参数 days 应 <= 7，实际为 10", "参数 city 为必填参数，不能缺失或为 null"), e.getErrors());
+        verify(restTemplate, never()).execute(ArgumentMatchers.anyString(), any(HttpMethod.class), any(),
+                any(ResponseExtractor.class));
+
+        // 可无损转换的类型偏差修正后放行
+        assertEquals("{\"ok\": true}", pluginExecutor.execute(pluginId, "forecast", Map.of("city", "Beijing", "days", "3")));
+        assertEquals(1, validatorRegistry.stats().get(0).getRejected());
+        assertEquals(1, validatorRegistry.stats().get(0).getCoerced());
+    }
+
+    private static PluginResultCache disabledResultCache() {
+        PluginResultCache resultCache = new PluginResultCache();
+        ReflectionTestUtils.setField(resultCache, "enabled", false);
+        ReflectionTestUtils.setField(resultCache, "size", 16);
+        resultCache.init();
+        return resultCache;
+    }
+}
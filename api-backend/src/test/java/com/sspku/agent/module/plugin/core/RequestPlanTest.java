@@ -0,0 +1,87 @@
+package com.sspku.agent.module.plugin.core;
+
+import com.sspku.agent.module.plugin.dto.FunctionDefinition;
+import com.sspku.agent.module.plugin.http.PluginRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RequestPlanTest {
+
+    @Test
+    void routesParametersByDeclaredLocation() {
+        FunctionDefinition function = function("POST", "/orders/{orderId}/items", Map.of(
+                "orderId", "path", "dryRun", "query", "X-Trace-Id", "header", "sku", "body"));
+        RequestPlan plan = RequestPlan.compile(function, Map.of("apiKey", "secret", "X-Tenant", "t1",
+                "http", Map.of("totalTimeoutMs", 1000)));
+
+        Map<String, Object> args = new LinkedHashMap<>();
+        args.put("orderId", 42);
+        args.put("dryRun", true);
+        args.put("X-Trace-Id", "abc");
+        args.put("sku", "A-1");
+        args.put("note", "未声明的参数放入请求体");
+        PluginRequest request = plan.build(args);
+
+        assertEquals(HttpMethod.POST, request.method());
+        // POST 的查询参数不再被误放入请求体
+        assertEquals("https://api.shop.com/orders/42/items?dryRun=true", request.url());
+        HttpHeaders headers = request.entity().getHeaders();
+        assertEquals("Bearer secret", headers.getFirst(HttpHeaders.AUTHORIZATION));
+        assertEquals("t1", headers.getFirst("X-Tenant"));
+        assertEquals("abc", headers.getFirst("X-Trace-Id"));
+        assertNull(headers.getFirst("http"));
+        assertEquals(Map.of("sku", "A-1", "note", "未声明的参数放入请求体"), request.entity().getBody());
+
+        // 计划可复用，上一次调用的请求头参数不会残留
+        PluginRequest second = plan.build(Map.of("orderId", 7, "sku", "B-2"));
+        assertEquals("https://api.shop.com/orders/7/items", second.url());
+        assertNull(second.entity().getHeaders().getFirst("X-Trace-Id"));
+    }
+
+    @Test
+    void headerParametersCannotOverrideAuthOrStaticHeaders() {
+        FunctionDefinition function = function("POST", "/orders", Map.of(
+                "authorization", "header", "X-Tenant", "header", "Host", "header", "X-Trace-Id", "header"));
+        RequestPlan plan = RequestPlan.compile(function, Map.of("apiKey", "secret", "X-Tenant", "t1"));
+
+        PluginRequest request = plan.build(Map.of("authorization", "Bearer stolen", "X-Tenant", "t2",
+                "Host", "internal", "X-Trace-Id", "abc"));
+
+        HttpHeaders headers = request.entity().getHeaders();
+        assertEquals("Bearer secret", headers.getFirst(HttpHeaders.AUTHORIZATION));
+        assertEquals("t1", headers.getFirst("X-Tenant"));
+        assertNull(headers.getFirst(HttpHeaders.HOST));
+        assertEquals("abc", headers.getFirst("X-Trace-Id"));
+        // 被丢弃的参数也不会落入请求体
+        assertEquals(Map.of(), request.entity().getBody());
+    }
+
+    @Test
+    void undeclaredParametersFallBackToQueryForGet() {
+        RequestPlan plan = RequestPlan.compile(function("GET", "/users/{id}", null), Map.of());
+
+        PluginRequest request = plan.build(Map.of("id", 1, "fields", "name"));
+
+        assertEquals("https://api.shop.com/users/1?fields=name", request.url());
+        assertNull(request.entity().getBody());
+    }
+
+    private static FunctionDefinition function(String method, String path, Map<String, String> parameterIn) {
+        FunctionDefinition function = new FunctionDefinition();
+        function.setName("op");
+        FunctionDefinition.Metadata metadata = new FunctionDefinition.Metadata();
+        metadata.setBaseUrl("https://api.shop.com");
+        metadata.setPath(path);
+        metadata.setMethod(method);
+        metadata.setParameterIn(parameterIn);
+        function.setMetadata(metadata);
+        return function;
+    }
+}
@@ -0,0 +1,40 @@
+package com.sspku.agent.module.plugin.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedBodyReaderTest {
+
+    @Test
+    void decodesCharactersSplitAcrossChunksAndStopsAtByteCap() {
+        byte[] bytes = "天气晴朗".getBytes(StandardCharsets.UTF_8);
+        BoundedBodyReader reader = new BoundedBodyReader(StandardCharsets.UTF_8, new PluginResponseLimit(1024, 0));
+        // 逐字节写入，多字节字符跨块
+        for (byte b : bytes) {
+            assertFalse(reader.write(ByteBuffer.wrap(new byte[]{b})));
+        }
+        assertEquals("天气晴朗", reader.finish());
+
+        // 上限落在第三个字符中间：只保留完整字符，残留字节丢弃
+        BoundedBodyReader capped = new BoundedBodyReader(StandardCharsets.UTF_8, new PluginResponseLimit(7, 0));
+        assertTrue(capped.write(ByteBuffer.wrap(bytes)));
+        assertEquals(7, capped.getBytesRead());
+        assertEquals("天气\n...[响应已截断：超过 7 字节上限]", capped.finish());
+    }
+
+    @Test
+    void truncatesAtTokenBudget() {
+        BoundedBodyReader reader = new BoundedBodyReader(StandardCharsets.UTF_8, new PluginResponseLimit(0, 3));
+        assertFalse(reader.write(ByteBuffer.wrap("abcdefgh".getBytes(StandardCharsets.UTF_8))));
+        assertTrue(reader.write(ByteBuffer.wrap("中文ijkl".getBytes(StandardCharsets.UTF_8))));
+        assertTrue(reader.isTruncated());
+        // "abcdefgh" 约 2 token，再加 1 个汉字达到预算
+        assertEquals("abcdefgh中\n...[响应已截断：超过 3 token 上限]", reader.finish());
+    }
+}
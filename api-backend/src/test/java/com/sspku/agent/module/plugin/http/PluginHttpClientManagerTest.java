@@ -0,0 +1,237 @@
+package com.sspku.agent.module.plugin.http;
+
+import com.sspku.agent.module.plugin.event.PluginChangedEvent;
+import com.sspku.agent.module.plugin.vo.PluginVO;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PluginHttpClientManagerTest {
+
+    private final PluginHttpClientManager manager = new PluginHttpClientManager();
+
+    private HttpServer server;
+    private CountDownLatch aborted;
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ReflectionTestUtils.setField(manager, "maxTotal", 10);
+        ReflectionTestUtils.setField(manager, "maxPerRoute", 5);
+        ReflectionTestUtils.setField(manager, "connectTimeoutMs", 1000);
+        ReflectionTestUtils.setField(manager, "readTimeoutMs", 5000);
+        // 总超时远大于断言等待时间，确保连接是因超出上限被中断而非超时
+        ReflectionTestUtils.setField(manager, "totalTimeoutMs", 30000);
+        ReflectionTestUtils.setField(manager, "connectionRequestTimeoutMs", 1000);
+        ReflectionTestUtils.setField(manager, "keepAliveMs", 30000L);
+        ReflectionTestUtils.setField(manager, "gzip", true);
+        ReflectionTestUtils.setField(manager, "cacheSize", 16);
+        ReflectionTestUtils.setField(manager, "asyncThreads", 2);
+        ReflectionTestUtils.setField(manager, "maxResponseBytes", 1024 * 1024);
+        ReflectionTestUtils.setField(manager, "maxResponseTokens", 8000);
+        ReflectionTestUtils.setField(manager, "retireDelayMs", 60000L);
+        manager.init();
+
+        // 上游持续输出直到连接被客户端断开
+        aborted = new CountDownLatch(1);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/stream", exchange -> {
+            exchange.getResponseHeaders().set("Content-Type", "application/json;charset=UTF-8");
+            exchange.sendResponseHeaders(200, 0);
+            byte[] chunk = new byte[8192];
+            Arrays.fill(chunk, (byte) 'a');
+            try (OutputStream out = exchange.getResponseBody()) {
+                while (true) {
+                    out.write(chunk);
+                    out.flush();
+                }
+            } catch (IOException e) {
+                aborted.countDown();
+            }
+        });
+        server.createContext("/ok", exchange -> {
+            byte[] body = "ok".getBytes();
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/gzip", exchange -> {
+            String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            byte[] body = "{\"city\":\"深圳\"}".repeat(100).getBytes(StandardCharsets.UTF_8);
+            if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+                ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+                try (GZIPOutputStream gzipOut = new GZIPOutputStream(compressed)) {
+                    gzipOut.write(body);
+                }
+                body = compressed.toByteArray();
+                exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+                exchange.getResponseHeaders().set("X-Compressed", "true");
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json;charset=UTF-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/redirect", exchange -> {
+            exchange.getResponseHeaders().set("Location", "/ok");
+            exchange.sendResponseHeaders(302, -1);
+            exchange.close();
+        });
+        server.createContext("/not-modified", exchange -> {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+        });
+        server.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        manager.destroy();
+    }
+
+    @Test
+    void syncReadStopsAtFunctionCapAndAbortsConnection() throws InterruptedException {
+        PluginVO pluginVO = plugin("{\"response\": {\"maxBytes\": 65536, \"functions\": {\"dump\": {\"maxBytes\": 4096}}}}");
+        PluginResponseLimit limit = manager.responseLimit(pluginVO, "dump");
+        assertEquals(new PluginResponseLimit(4096, 8000), limit);
+        assertEquals(new PluginResponseLimit(65536, 8000), manager.responseLimit(pluginVO, "other"));
+
+        RestTemplate restTemplate = manager.getRestTemplate(pluginVO);
+        ResponseEntity<String> response = restTemplate.execute(baseUrl + "/stream", HttpMethod.GET,
+                restTemplate.httpEntityCallback(HttpEntity.EMPTY, String.class), new BoundedResponseExtractor(limit));
+
+        assertEquals("a".repeat(4096) + "\n...[响应已截断：超过 4096 字节上限]", response.getBody());
+        assertTrue(aborted.await(3, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void asyncReadStopsAtCapAndCancelsStream() throws Exception {
+        PluginVO pluginVO = plugin("{\"response\": {\"maxBytes\": 4096, \"maxTokens\": 100000}}");
+        PluginRequest request = new PluginRequest(baseUrl + "/stream", HttpMethod.GET, HttpEntity.EMPTY);
+
+        ResponseEntity<String> response = manager.exchangeAsync(pluginVO, request,
+                manager.responseLimit(pluginVO, "dump")).get(3, TimeUnit.SECONDS);
+
+        assertEquals("a".repeat(4096) + "\n...[响应已截断：超过 4096 字节上限]", response.getBody());
+        assertTrue(aborted.await(3, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void asyncRequestsDecompressGzipAndFollowRedirects() throws Exception {
+        PluginVO pluginVO = plugin(null);
+        PluginResponseLimit limit = manager.responseLimit(pluginVO, "get");
+
+        ResponseEntity<String> gzipped = manager.exchangeAsync(pluginVO,
+                new PluginRequest(baseUrl + "/gzip", HttpMethod.GET, HttpEntity.EMPTY), limit).get(3, TimeUnit.SECONDS);
+        assertEquals("{\"city\":\"深圳\"}".repeat(100), gzipped.getBody());
+        assertEquals("true", gzipped.getHeaders().getFirst("X-Compressed"));
+        assertNull(gzipped.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+
+        // 与同步调用一致：跟随重定向；未被跟随的 3xx 按错误处理，不作为结果返回
+        ResponseEntity<String> redirected = manager.exchangeAsync(pluginVO,
+                new PluginRequest(baseUrl + "/redirect", HttpMethod.GET, HttpEntity.EMPTY), limit).get(3, TimeUnit.SECONDS);
+        assertEquals("ok", redirected.getBody());
+        ExecutionException notModified = assertThrows(ExecutionException.class, () -> manager.exchangeAsync(pluginVO,
+                new PluginRequest(baseUrl + "/not-modified", HttpMethod.GET, HttpEntity.EMPTY), limit)
+                .get(3, TimeUnit.SECONDS));
+        assertInstanceOf(WebClientResponseException.class, notModified.getCause());
+
+        // 插件关闭 gzip 时不请求压缩
+        PluginVO plain = plugin("{\"http\": {\"gzip\": false}}");
+        plain.setId(2L);
+        ResponseEntity<String> uncompressed = manager.exchangeAsync(plain,
+                new PluginRequest(baseUrl + "/gzip", HttpMethod.GET, HttpEntity.EMPTY), limit).get(3, TimeUnit.SECONDS);
+        assertEquals(gzipped.getBody(), uncompressed.getBody());
+        assertNull(uncompressed.getHeaders().getFirst("X-Compressed"));
+    }
+
+    @Test
+    void asyncRequestsApplyPluginReadTimeout() {
+        PluginVO pluginVO = plugin("{\"http\": {\"readTimeoutMs\": 200}}");
+        ExecutionException error = assertThrows(ExecutionException.class, () -> manager.exchangeAsync(pluginVO,
+                new PluginRequest(baseUrl + "/slow", HttpMethod.GET, HttpEntity.EMPTY),
+                manager.responseLimit(pluginVO, "get")).get(1, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, error.getCause());
+    }
+
+    @Test
+    void replacedClientKeepsServingInFlightRequests() {
+        PluginVO pluginVO = plugin("{\"http\": {\"maxPerRoute\": 2}}");
+        pluginVO.setUpdatedAt(LocalDateTime.of(2024, 1, 1, 0, 0));
+        RestTemplate previous = manager.getRestTemplate(pluginVO);
+
+        // 配置变更与失效后，已取得旧客户端的请求仍可使用其独立连接池
+        pluginVO.setUpdatedAt(LocalDateTime.of(2024, 1, 2, 0, 0));
+        RestTemplate current = manager.getRestTemplate(pluginVO);
+        manager.onPluginChanged(new PluginChangedEvent(pluginVO.getId()));
+
+        assertNotSame(previous, current);
+        assertEquals("ok", previous.getForObject(baseUrl + "/ok", String.class));
+        assertEquals("ok", current.getForObject(baseUrl + "/ok", String.class));
+    }
+
+    @Test
+    void completedRequestsCancelTheirTotalTimeout() {
+        RestTemplate restTemplate = manager.getRestTemplate(plugin("{\"http\": {\"readTimeoutMs\": 3000}}"));
+        for (int i = 0; i < 3; i++) {
+            assertEquals("ok", restTemplate.getForObject(baseUrl + "/ok", String.class));
+        }
+
+        // 只剩周期性的空闲连接清理任务
+        ScheduledThreadPoolExecutor scheduler =
+                (ScheduledThreadPoolExecutor) ReflectionTestUtils.getField(manager, "scheduler");
+        assertEquals(1, scheduler.getQueue().size());
+    }
+
+    private static PluginVO plugin(String config) {
+        PluginVO pluginVO = new PluginVO();
+        pluginVO.setId(1L);
+        pluginVO.setName("Stream Plugin");
+        pluginVO.setConfig(config);
+        return pluginVO;
+    }
+}
@@ -0,0 +1,45 @@
+package com.sspku.agent.module.plugin.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PluginRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(1000));
+
+    @Test
+    void allowsBurstThenSpacesCallsAndRejectsBeyondMaxWait() {
+        // 每秒 2 次、突发 2 次、最多排队 600ms
+        PluginRateLimiter limiter = new PluginRateLimiter(1L, 2, 2, 600, now::get);
+
+        assertEquals(0, limiter.reserve());
+        assertEquals(0, limiter.reserve());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), limiter.reserve());
+        // 第四次需要等待 1000ms，超过排队上限
+        assertTrue(limiter.reserve() < 0);
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertEquals(0, limiter.reserve());
+        assertEquals(1, limiter.stats().getThrottled());
+        assertEquals(500, limiter.stats().getTotalWaitMs());
+        assertEquals(1, limiter.stats().getRejected());
+    }
+
+    @Test
+    void pauseDelaysCallsEvenWithoutConfiguredRate() {
+        PluginRateLimiter limiter = new PluginRateLimiter(1L, 0, 1, 1000, now::get);
+        assertEquals(0, limiter.reserve());
+
+        limiter.pause(TimeUnit.MILLISECONDS.toNanos(800));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(800), limiter.reserve());
+        assertEquals(800, limiter.stats().getPausedRemainingMs());
+
+        limiter.pause(TimeUnit.SECONDS.toNanos(5));
+        assertTrue(limiter.reserve() < 0);
+    }
+}
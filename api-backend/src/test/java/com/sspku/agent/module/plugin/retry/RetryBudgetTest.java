@@ -0,0 +1,47 @@
+package com.sspku.agent.module.plugin.retry;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetryBudgetTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+
+    @Test
+    void retriesAreCappedByTrafficShareAndRecoverAfterWindow() {
+        // 10% 预算、无保底、10 秒窗口
+        RetryBudget budget = new RetryBudget(10, 0, 10, now::get);
+        for (int i = 0; i < 30; i++) {
+            budget.onRequest();
+        }
+        assertTrue(budget.tryAcquire());
+        assertTrue(budget.tryAcquire());
+        assertTrue(budget.tryAcquire());
+        // 上游整体故障时重试不超过流量的 10%
+        assertFalse(budget.tryAcquire());
+        assertEquals(1, budget.stats().getBudgetExhausted());
+
+        // 窗口滑过后旧的重试不再占用预算
+        now.addAndGet(11_000L);
+        for (int i = 0; i < 10; i++) {
+            budget.onRequest();
+        }
+        assertTrue(budget.tryAcquire());
+        assertFalse(budget.tryAcquire());
+        assertEquals(4, budget.stats().getRetries());
+    }
+
+    @Test
+    void minimumRetriesAllowedAtLowTraffic() {
+        RetryBudget budget = new RetryBudget(10, 1, 2, now::get);
+        budget.onRequest();
+        assertTrue(budget.tryAcquire());
+        assertTrue(budget.tryAcquire());
+        assertFalse(budget.tryAcquire());
+    }
+}
@@ -0,0 +1,90 @@
+package com.sspku.agent.module.plugin.validation;
+
+import com.sspku.agent.module.plugin.dto.FunctionDefinition;
+import com.sspku.agent.module.plugin.exception.PluginArgumentException;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArgumentValidatorTest {
+
+    private final ArgumentValidator validator = ArgumentValidator.compile(function());
+
+    @Test
+    void coercesLosslessTypeMismatches() {
+        Map<String, Object> arguments = new LinkedHashMap<>();
+        arguments.put("query", 42);
+        arguments.put("limit", "5");
+        arguments.put("exact", "TRUE");
+        arguments.put("unit", "Celsius");
+        arguments.put("tags", "news");
+        arguments.put("filter", Map.of("minScore", "0.5"));
+        arguments.put("cursor", null);
+
+        ArgumentValidator.ValidatedArguments result = validator.validate(arguments, true);
+
+        assertTrue(result.coerced());
+        assertEquals("42", result.arguments().get("query"));
+        assertEquals(5L, result.arguments().get("limit"));
+        assertEquals(Boolean.TRUE, result.arguments().get("exact"));
+        assertEquals("celsius", result.arguments().get("unit"));
+        assertEquals(List.of("news"), result.arguments().get("tags"));
+        assertEquals(Map.of("minScore", 0.5), result.arguments().get("filter"));
+        // 可选参数传 null 视为未传
+        assertFalse(result.arguments().containsKey("cursor"));
+        // 不修改入参
+        assertEquals("5", arguments.get("limit"));
+    }
+
+    @Test
+    void reportsEveryViolationWithItsPath() {
+        Map<String, Object> arguments = new LinkedHashMap<>();
+        arguments.put("query", "");
+        arguments.put("limit", 2.5);
+        arguments.put("unit", "kelvin");
+        arguments.put("tags", List.of("a", 1, List.of()));
+        arguments.put("filter", Map.of("minScore", 2));
+
+        PluginArgumentException e = assertThrows(PluginArgumentException.class,
+                () -> validator.validate(arguments, true));
+
+        assertEquals(List.of(
+                "参数 query 长度应 >= 1，实际为 0",
+                "参数 limit 应为 integer 类型，实际为 2.5",
+                "参数 unit 应为 [celsius, fahrenheit] 之一，实际为 \"kelvin\"",
+                "参数 tags 元素个数应 <= 2，实际为 3",
+                "参数 tags[2] 应为 string 类型，实际为 array",
+                "参数 filter.minScore 应 < 1，实际为 2"), e.getErrors());
+        assertTrue(e.toToolResult().contains("TOOL_INVALID_ARGUMENTS"));
+
+        // 关闭类型修正时类型偏差同样视为错误
+        assertThrows(PluginArgumentException.class, () -> validator.validate(Map.of("query", 42), false));
+    }
+
+    private static FunctionDefinition function() {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("query", Map.of("type", "string", "minLength", 1));
+        properties.put("limit", Map.of("type", "integer", "minimum", 1));
+        properties.put("exact", Map.of("type", "boolean"));
+        properties.put("unit", Map.of("type", "string", "enum", List.of("celsius", "fahrenheit")));
+        properties.put("tags", Map.of("type", "array", "maxItems", 2, "items", Map.of("type", "string")));
+        properties.put("filter", Map.of("type", "object",
+                "properties", Map.of("minScore", Map.of("type", "number", "exclusiveMaximum", 1))));
+        properties.put("cursor", Map.of("type", "string"));
+
+        FunctionDefinition.Parameters parameters = new FunctionDefinition.Parameters();
+        parameters.setProperties(properties);
+        parameters.setRequired(List.of("query"));
+        FunctionDefinition function = new FunctionDefinition();
+        function.setName("search");
+        function.setParameters(parameters);
+        return function;
+    }
+}
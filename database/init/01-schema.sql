@@ -141,6 +141,8 @@ CREATE TABLE IF NOT EXISTS `plugin` (
     `description` VARCHAR(500) COMMENT '插件描述',
     `type` VARCHAR(20) DEFAULT 'custom' COMMENT '插件类型: builtin(内置)/custom(自定义)',
     `openapi_spec` JSON COMMENT 'OpenAPI 3.0规范内容（完整的API定义）',
+    `function_catalog` LONGTEXT COMMENT '由 openapi_spec 编译的函数目录（保存时生成，运行时直接加载）',
+    `spec_hash` CHAR(64) COMMENT 'openapi_spec 规范化（键排序、去空白）后的 SHA-256',
     `config` JSON COMMENT '插件配置信息（API密钥、服务器地址等）',
     `status` VARCHAR(20) DEFAULT 'disabled' COMMENT '插件状态: enabled(启用)/disabled(禁用)',
     `created_at` DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
@@ -202,6 +204,36 @@ CREATE TABLE IF NOT EXISTS `user_plugin_rel` (
   CONSTRAINT `fk_user_plugin_plugin` FOREIGN KEY (`plugin_id`) REFERENCES `plugin` (`id`) ON DELETE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='用户-插件关联表';
 
+-- ============================================
+-- 9. 对话会话表 (agent_session)
+-- 多轮对话会话，summary 保存被移出上下文窗口的早期对话摘要
+-- ============================================
+CREATE TABLE IF NOT EXISTS `agent_session` (
+  `id` BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT '主键ID',
+  `agent_id` BIGINT NOT NULL COMMENT '智能体ID',
+  `user_id` BIGINT NULL COMMENT '用户ID',
+  `title` VARCHAR(200) NULL COMMENT '会话标题',
+  `summary` TEXT NULL COMMENT '滚动摘要',
+  `status` TINYINT(1) NOT NULL DEFAULT 1 COMMENT '状态 0-已结束 1-进行中',
+  `created_at` DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  `updated_at` DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  KEY `idx_agent_user` (`agent_id`, `user_id`),
+  CONSTRAINT `fk_session_agent` FOREIGN KEY (`agent_id`) REFERENCES `agent` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='对话会话表';
+
+-- ============================================
+-- 10. 会话消息表 (agent_session_message)
+-- ============================================
+CREATE TABLE IF NOT EXISTS `agent_session_message` (
+  `id` BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT '主键ID',
+  `session_id` BIGINT NOT NULL COMMENT '会话ID',
+  `role` VARCHAR(20) NOT NULL COMMENT '角色: user/assistant',
+  `content` MEDIUMTEXT NOT NULL COMMENT '消息内容',
+  `created_at` DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  KEY `idx_session` (`session_id`, `id`),
+  CONSTRAINT `fk_message_session` FOREIGN KEY (`session_id`) REFERENCES `agent_session` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='会话消息表';
+
 -- ============================================
 -- 显示创建的表
 -- ============================================
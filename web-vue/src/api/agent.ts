@@ -6,6 +6,7 @@ export interface ModelConfig {
   temperature?: number
   maxTokens?: number
   topP?: number
+  toolTokenBudget?: number
 }
 
 export interface AgentCreateRequest {